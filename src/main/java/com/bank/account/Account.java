@@ -1,8 +1,8 @@
 package com.bank.account;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.bank.observer.AccountObserver;
 
@@ -53,8 +53,10 @@ public abstract class Account implements Depositable {
     
     /** Lista de observadores que serão notificados sobre mudanças na conta.
      *  Implementa o padrão Observer - permite que outras classes sejam notificadas
-     *  quando eventos ocorrem na conta (ex: depósito, saque) */
-    private List<AccountObserver> observers = new ArrayList<>();
+     *  quando eventos ocorrem na conta (ex: depósito, saque).
+     *  CopyOnWriteArrayList permite registrar observadores (ex: GUI) em outra thread
+     *  enquanto notificações estão em andamento. */
+    private List<AccountObserver> observers = new CopyOnWriteArrayList<>();
 
     /**
      * Construtor para criar uma nova conta.
@@ -77,7 +79,21 @@ public abstract class Account implements Depositable {
         this.customerName = customerName;
         // Define o saldo inicial da conta
         this.balance = initialBalance;
-        // A lista de observadores já foi inicializada como ArrayList vazio no campo
+        // A lista de observadores já foi inicializada como lista vazia no campo
+    }
+
+    /**
+     * Construtor para recriar uma conta com um número já existente (ex: ao reproduzir o
+     * journal de transações em uma réplica).
+     *
+     * @param accountNumber O número da conta.
+     * @param customerName O nome do titular da conta.
+     * @param initialBalance O saldo inicial da conta.
+     */
+    protected Account(String accountNumber, String customerName, double initialBalance) {
+        this.accountNumber = accountNumber;
+        this.customerName = customerName;
+        this.balance = initialBalance;
     }
 
     /**
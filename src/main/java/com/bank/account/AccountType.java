@@ -9,5 +9,14 @@ public enum AccountType {
     /** Representa uma conta corrente. */
     CHECKING,
     /** Representa uma conta poupança. */
-    SAVINGS
+    SAVINGS;
+
+    /**
+     * Identifica o tipo de uma conta já criada.
+     * @param account A conta.
+     * @return SAVINGS para contas poupança; CHECKING para as demais.
+     */
+    public static AccountType of(Account account) {
+        return account instanceof SavingsAccount ? SAVINGS : CHECKING;
+    }
 }
@@ -50,6 +50,19 @@ public class CheckingAccount extends Account implements Withdrawable {
         this.overdraftLimit = overdraftLimit;
     }
 
+    /**
+     * Construtor para recriar uma conta corrente com um número já existente.
+     *
+     * @param accountNumber O número da conta.
+     * @param customerName O nome do titular da conta.
+     * @param initialBalance O saldo inicial da conta.
+     * @param overdraftLimit O limite do cheque especial.
+     */
+    public CheckingAccount(String accountNumber, String customerName, double initialBalance, double overdraftLimit) {
+        super(accountNumber, customerName, initialBalance);
+        this.overdraftLimit = overdraftLimit;
+    }
+
     /**
      * Realiza um saque da conta corrente. Permite saques que excedam o saldo atual
      * até o limite do cheque especial.
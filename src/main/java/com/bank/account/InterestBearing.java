@@ -10,4 +10,11 @@ public interface InterestBearing {
      * Calcula e aplica os juros à conta.
      */
     void calculateInterest();
+
+    /**
+     * Calcula os juros que calculateInterest() aplicaria sobre o saldo atual, sem alterar a
+     * conta (ex: para o modo event-sourced, que registra os juros como um evento antes de aplicá-los).
+     * @return O valor dos juros.
+     */
+    double previewInterest();
 }
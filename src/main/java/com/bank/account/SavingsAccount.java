@@ -67,6 +67,20 @@ public class SavingsAccount extends Account implements Withdrawable, InterestBea
         this.interestStrategy = new SimpleInterestStrategy();
     }
 
+    /**
+     * Construtor para recriar uma conta poupança com um número já existente.
+     *
+     * @param accountNumber O número da conta.
+     * @param customerName O nome do titular da conta.
+     * @param initialBalance O saldo inicial da conta.
+     * @param interestRate A taxa de juros anual.
+     */
+    public SavingsAccount(String accountNumber, String customerName, double initialBalance, double interestRate) {
+        super(accountNumber, customerName, initialBalance);
+        this.interestRate = interestRate;
+        this.interestStrategy = new SimpleInterestStrategy();
+    }
+
     /**
      * Define a estratégia de cálculo de juros para esta conta.
      * <p><b>LÓGICA:</b> Permite trocar a estratégia de cálculo de juros em tempo de execução.
@@ -159,6 +173,15 @@ public class SavingsAccount extends Account implements Withdrawable, InterestBea
         System.out.println("Interest of " + interest + " added to account " + accountNumber + ". New balance: " + balance);
     }
 
+    /**
+     * Calcula os juros sobre o saldo atual com a estratégia configurada, sem aplicá-los.
+     * @return O valor dos juros.
+     */
+    @Override
+    public double previewInterest() {
+        return interestStrategy.calculateInterest(this.balance, this.interestRate);
+    }
+
     /**
      * Retorna o tipo da conta.
      * @return Uma string "Savings Account".
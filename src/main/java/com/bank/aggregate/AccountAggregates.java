@@ -0,0 +1,70 @@
+package com.bank.aggregate;
+
+import com.bank.account.Account;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resultado de uma agregação sobre todas as contas: totais do livro de contas e o tempo gasto
+ * para calculá-los. Objeto imutável, criado por compute().
+ */
+public final class AccountAggregates {
+    private final long accountCount;
+    private final double totalDeposits;
+    private final double totalOverdraftUsed;
+    private final double savingsBalance;
+    private final Map<String, Long> countByAccountType;
+    private final long elapsedNanos;
+
+    private AccountAggregates(long accountCount, double totalDeposits, double totalOverdraftUsed, double savingsBalance,
+                      Map<String, Long> countByAccountType, long elapsedNanos) {
+        this.accountCount = accountCount;
+        this.totalDeposits = totalDeposits;
+        this.totalOverdraftUsed = totalOverdraftUsed;
+        this.savingsBalance = savingsBalance;
+        this.countByAccountType = Collections.unmodifiableMap(countByAccountType);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Calcula os totais com uma redução fork/join ({@code AggregationTask}) no pool informado.
+     * @param accounts O Spliterator das contas (ex: o do snapshot do registro).
+     * @param pool O pool que executa as tarefas (ex: ForkJoinPool.commonPool()).
+     * @return Os totais e o tempo gasto.
+     */
+    public static AccountAggregates compute(Spliterator<Account> accounts, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        AggregationTask.Accumulator total = pool.invoke(new AggregationTask(accounts));
+        return new AccountAggregates(total.count, total.deposits, total.overdraftUsed, total.savings,
+                total.byType, System.nanoTime() - start);
+    }
+
+    public long getAccountCount() { return accountCount; }
+    /** @return A soma dos saldos positivos (o total depositado no banco). */
+    public double getTotalDeposits() { return totalDeposits; }
+    /** @return A soma dos saldos negativos, como valor positivo (cheque especial em uso). */
+    public double getTotalOverdraftUsed() { return totalOverdraftUsed; }
+    /** @return A soma dos saldos das contas poupança. */
+    public double getSavingsBalance() { return savingsBalance; }
+    /** @return Quantidade de contas por getAccountType() (ex: "Checking Account"). */
+    public Map<String, Long> getCountByAccountType() { return countByAccountType; }
+    /** @return O tempo da agregação, em nanossegundos. */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Saldo líquido do livro de contas.
+     * @return Depósitos menos o cheque especial em uso.
+     */
+    public double getNetBalance() {
+        return totalDeposits - totalOverdraftUsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AccountAggregates{accounts=%d, deposits=%.2f, overdraftUsed=%.2f, savings=%.2f, byType=%s, elapsed=%.3f ms}",
+                accountCount, totalDeposits, totalOverdraftUsed, savingsBalance, countByAccountType, elapsedNanos / 1e6);
+    }
+}
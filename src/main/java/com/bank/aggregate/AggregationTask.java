@@ -0,0 +1,89 @@
+package com.bank.aggregate;
+
+import com.bank.account.Account;
+import com.bank.account.SavingsAccount;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calcula os totais do livro de contas ({@code AccountAggregates}) com uma redução fork/join
+ * sobre o Spliterator das contas.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Divisão:</b> Enquanto a parte tiver mais contas que o limite, a tarefa a divide
+ *         (trySplit()), agenda uma metade (fork()) e continua com a outra.</li>
+ *     <li><b>Acumulação:</b> Cada tarefa folha soma as suas contas em um acumulador próprio, sem
+ *         nenhum estado compartilhado entre as threads do pool.</li>
+ *     <li><b>Junção:</b> Os acumuladores das metades são somados ao fim (join()), até restar o
+ *         resultado da tarefa raiz.</li>
+ *     <li><b>Saldos:</b> Cada saldo é lido com a conta travada, como nas operações da Facade, o
+ *         que garante o valor mais recente de cada conta. Os totais não são uma foto atômica do
+ *         banco inteiro: operações concorrentes podem estar em andamento durante a agregação.</li>
+ * </ol>
+ */
+final class AggregationTask extends RecursiveTask<AggregationTask.Accumulator> {
+    private static final long serialVersionUID = 1L;
+    /** Contas por tarefa folha */
+    static final int LEAF_SIZE = 4096;
+
+    /**
+     * Totais parciais de uma parte das contas.
+     */
+    static final class Accumulator {
+        long count;
+        double deposits;
+        double overdraftUsed;
+        double savings;
+        final Map<String, Long> byType = new HashMap<>();
+
+        void add(Account account) {
+            double balance;
+            synchronized (account) {
+                balance = account.getBalance();
+            }
+            count++;
+            if (balance >= 0) {
+                deposits += balance;
+            } else {
+                overdraftUsed -= balance;
+            }
+            if (account instanceof SavingsAccount) {
+                savings += balance;
+            }
+            byType.merge(account.getAccountType(), 1L, Long::sum);
+        }
+
+        Accumulator merge(Accumulator other) {
+            count += other.count;
+            deposits += other.deposits;
+            overdraftUsed += other.overdraftUsed;
+            savings += other.savings;
+            other.byType.forEach((type, n) -> byType.merge(type, n, Long::sum));
+            return this;
+        }
+    }
+
+    private final transient Spliterator<Account> accounts;
+
+    AggregationTask(Spliterator<Account> accounts) {
+        this.accounts = accounts;
+    }
+
+    @Override
+    protected Accumulator compute() {
+        Spliterator<Account> prefix;
+        if (accounts.estimateSize() > LEAF_SIZE && (prefix = accounts.trySplit()) != null) {
+            AggregationTask forked = new AggregationTask(prefix);
+            forked.fork();
+            Accumulator own = new AggregationTask(accounts).compute();
+            return own.merge(forked.join());
+        }
+        Accumulator accumulator = new Accumulator();
+        accounts.forEachRemaining(accumulator::add);
+        return accumulator;
+    }
+}
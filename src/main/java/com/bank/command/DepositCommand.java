@@ -1,8 +1,12 @@
 package com.bank.command;
 
 import com.bank.account.Account;
+import com.bank.event.AccountEvent;
 import com.bank.logger.TransactionLogger;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Classe {@code DepositCommand} implementa a interface {@code Command} para encapsular
  * a operação de depósito em uma conta bancária.
@@ -32,7 +36,7 @@ import com.bank.logger.TransactionLogger;
  *         desfeitos, registrados, ou executados de forma assíncrona sem modificar o código cliente.</li>
  * </ol>
  */
-public class DepositCommand implements Command {
+public class DepositCommand implements EventSourcedCommand {
     /** Conta bancária onde o depósito será realizado */
     private Account account;
     
@@ -87,4 +91,16 @@ public class DepositCommand implements Command {
         // O log inclui: número da conta, valor depositado e novo saldo após o depósito
         logger.log("Deposit: Account " + account.getAccountNumber() + ", Amount: " + amount + ", New Balance: " + account.getBalance());
     }
+
+    /**
+     * Decide o evento do depósito no modo event-sourced, sem alterar a conta.
+     * @return Um evento DEPOSITED, ou nenhum se o valor não for positivo.
+     */
+    @Override
+    public List<AccountEvent> decide() {
+        if (!(amount > 0)) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(AccountEvent.deposited(account.getAccountNumber(), amount));
+    }
 }
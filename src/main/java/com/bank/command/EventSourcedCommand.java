@@ -0,0 +1,29 @@
+package com.bank.command;
+
+import com.bank.event.AccountEvent;
+
+import java.util.List;
+
+/**
+ * Comando que também pode ser executado no modo event-sourced: em vez de alterar as contas,
+ * decide quais eventos de domínio ({@code AccountEvent}) a operação produz.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Decisão:</b> decide() valida a operação contra o estado atual das contas (ex: saldo
+ *         suficiente) e retorna os eventos, sem alterar nada. Uma operação recusada não produz
+ *         eventos.</li>
+ *     <li><b>Aplicação:</b> Quem executa o comando (a {@code BankingFacade}) grava os eventos no
+ *         journal e só então os aplica às contas ({@code EventStore}); o saldo passa a ser uma
+ *         consequência do journal, e não o contrário.</li>
+ *     <li><b>Concorrência:</b> Como em execute(), quem chama decide() deve travar as contas
+ *         afetadas até que os eventos sejam aplicados.</li>
+ * </ol>
+ */
+public interface EventSourcedCommand extends Command {
+    /**
+     * Decide os eventos produzidos pela operação, sem executá-la.
+     * @return Os eventos, na ordem em que devem ser aplicados; vazio se a operação é recusada.
+     */
+    List<AccountEvent> decide();
+}
@@ -0,0 +1,116 @@
+package com.bank.command;
+
+import com.bank.account.Account;
+import com.bank.account.Withdrawable;
+import com.bank.event.AccountEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe {@code TransferCommand} implementa a interface {@code Command} para encapsular
+ * uma transferência entre duas contas.
+ *
+ * <p>É um comando composto (macro comando): a transferência é executada como um
+ * {@code WithdrawCommand} na conta de origem seguido de um {@code DepositCommand} na conta de
+ * destino, de modo que cada parte é registrada no {@code TransactionLogger} e notifica os
+ * observadores exatamente como um saque e um depósito avulsos.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Verificação:</b> Antes de sacar, verifica se a origem tem saldo suficiente
+ *         (considerando o limite de cheque especial de contas correntes). Se não tiver, nenhum
+ *         comando é executado e nada é registrado.</li>
+ *     <li><b>Execução:</b> Executa o saque; o depósito só é executado se o saldo da origem de fato
+ *         mudou.</li>
+ *     <li><b>Resultado:</b> isCompleted() informa se a transferência foi concluída.</li>
+ *     <li><b>Concorrência:</b> O comando não faz sincronização própria; quem o executa deve
+ *         travar as duas contas (ver {@code BankingFacade}).</li>
+ * </ol>
+ */
+public class TransferCommand implements EventSourcedCommand {
+    /** Conta de origem (como Withdrawable e como Account) */
+    private final Withdrawable source;
+    private final Account sourceAccount;
+
+    /** Conta de destino */
+    private final Account destinationAccount;
+
+    /** Valor a ser transferido */
+    private final double amount;
+
+    /** Indica se a última execução concluiu a transferência */
+    private boolean completed;
+
+    /**
+     * Construtor para criar um comando de transferência.
+     * @param source A conta de origem, que deve suportar saques.
+     * @param sourceAccount A mesma conta de origem, como Account (número e saldo).
+     * @param destinationAccount A conta de destino.
+     * @param amount O valor a ser transferido (deve ser positivo).
+     */
+    public TransferCommand(Withdrawable source, Account sourceAccount, Account destinationAccount, double amount) {
+        this.source = source;
+        this.sourceAccount = sourceAccount;
+        this.destinationAccount = destinationAccount;
+        this.amount = amount;
+    }
+
+    /**
+     * Executa a transferência: saque na origem e, se bem-sucedido, depósito no destino.
+     */
+    @Override
+    public void execute() {
+        completed = false;
+        if (!(amount > 0)) {
+            System.out.println("Transfer amount must be positive");
+            return;
+        }
+        if (!hasFunds()) {
+            System.out.println("Insufficient funds for transfer from account: " + sourceAccount.getAccountNumber());
+            return;
+        }
+
+        double previousBalance = sourceAccount.getBalance();
+        new WithdrawCommand(source, sourceAccount, amount).execute();
+        if (Double.compare(previousBalance, sourceAccount.getBalance()) == 0) {
+            return;
+        }
+        new DepositCommand(destinationAccount, amount).execute();
+        completed = true;
+    }
+
+    /**
+     * Verifica se a conta de origem pode cobrir o valor (ver WithdrawCommand.hasFunds()).
+     */
+    private boolean hasFunds() {
+        return WithdrawCommand.hasFunds(sourceAccount, amount);
+    }
+
+    /**
+     * Decide os eventos da transferência no modo event-sourced, sem alterar as contas.
+     * <p><b>LÓGICA:</b> O débito na origem e o crédito no destino são retornados juntos e,
+     * portanto, gravados juntos no journal; isCompleted() passa a indicar se a transferência
+     * foi aceita.
+     *
+     * @return WITHDRAWN na origem e DEPOSITED no destino, ou nenhum evento se recusada.
+     */
+    @Override
+    public List<AccountEvent> decide() {
+        completed = amount > 0 && hasFunds();
+        if (!completed) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(AccountEvent.withdrawn(sourceAccount.getAccountNumber(), amount),
+                AccountEvent.deposited(destinationAccount.getAccountNumber(), amount));
+    }
+
+    /**
+     * Indica se a última execução concluiu a transferência.
+     * @return true se o saque e o depósito foram realizados.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+}
@@ -1,9 +1,14 @@
 package com.bank.command;
 
+import com.bank.account.CheckingAccount;
 import com.bank.account.Withdrawable;
 import com.bank.account.Account;
+import com.bank.event.AccountEvent;
 import com.bank.logger.TransactionLogger;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Classe {@code WithdrawCommand} implementa a interface {@code Command} para encapsular
  * a operação de saque de uma conta bancária.
@@ -34,7 +39,7 @@ import com.bank.logger.TransactionLogger;
  *         Account (para obter número da conta e saldo para o log).</li>
  * </ol>
  */
-public class WithdrawCommand implements Command {
+public class WithdrawCommand implements EventSourcedCommand {
     /** Conta bancária (como Withdrawable) de onde o saque será realizado.
      *  Usada para chamar o método withdraw(). */
     private Withdrawable account;
@@ -107,4 +112,29 @@ public class WithdrawCommand implements Command {
         // Usa baseAccount para obter número da conta e saldo atual
         logger.log("Withdrawal: Account " + baseAccount.getAccountNumber() + ", Amount: " + amount + ", New Balance: " + baseAccount.getBalance());
     }
+
+    /**
+     * Decide o evento do saque no modo event-sourced, sem alterar a conta.
+     * @return Um evento WITHDRAWN, ou nenhum se o valor não for positivo ou faltar saldo.
+     */
+    @Override
+    public List<AccountEvent> decide() {
+        if (!(amount > 0) || !hasFunds(baseAccount, amount)) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(AccountEvent.withdrawn(baseAccount.getAccountNumber(), amount));
+    }
+
+    /**
+     * Verifica se uma conta pode cobrir um saque, com as mesmas regras das contas.
+     * <p><b>LÓGICA:</b> Contas correntes podem ficar negativas até o limite de cheque especial
+     * (ex: saldo 100 e limite 500 permitem sacar até 600); as demais exigem saldo suficiente.
+     */
+    static boolean hasFunds(Account account, double amount) {
+        double currentBalance = account.getBalance();
+        if (account instanceof CheckingAccount) {
+            return currentBalance - amount >= -((CheckingAccount) account).getOverdraftLimit();
+        }
+        return currentBalance >= amount;
+    }
 }
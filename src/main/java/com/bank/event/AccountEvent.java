@@ -0,0 +1,190 @@
+package com.bank.event;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.account.CheckingAccount;
+import com.bank.account.SavingsAccount;
+
+/**
+ * Evento de domínio de uma conta no modo event-sourced: um fato imutável que já aconteceu
+ * (ex: "100.0 depositados na conta X"). O estado de cada conta é o resultado de aplicar, em
+ * ordem, todos os seus eventos ({@code EventStore}).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Criação:</b> Os comandos ({@code EventSourcedCommand}) decidem quais eventos uma
+ *         operação produz usando os métodos de fábrica (deposited(), withdrawn(), ...). Nesse
+ *         momento o evento ainda não tem número de sequência.</li>
+ *     <li><b>Sequência:</b> O {@code EventJournal} atribui a sequência e o instante ao gravar o
+ *         evento, criando uma nova instância; a sequência é crescente e sem lacunas no journal.</li>
+ *     <li><b>Valores:</b> Os valores são sempre positivos; o tipo diz se o saldo aumenta ou
+ *         diminui. ACCOUNT_OPENED leva também o tipo da conta, o parâmetro (limite de cheque
+ *         especial ou taxa de juros), o titular e o saldo inicial.</li>
+ *     <li><b>Formato:</b> Uma linha com os campos separados por tabulação (toLine() / parse()).</li>
+ * </ol>
+ */
+public final class AccountEvent {
+
+    /**
+     * Tipos de evento de uma conta.
+     */
+    public enum Type {
+        /** Conta aberta; amount é o saldo inicial */
+        ACCOUNT_OPENED,
+        /** Depósito (ou crédito de uma transferência) */
+        DEPOSITED,
+        /** Saque (ou débito de uma transferência) */
+        WITHDRAWN,
+        /** Juros creditados */
+        INTEREST_CREDITED,
+        /** Conta encerrada (ex: movida para outro nó) */
+        ACCOUNT_CLOSED
+    }
+
+    private final long sequence;
+    private final long timestamp;
+    private final Type type;
+    private final String accountNumber;
+    private final double amount;
+    /** Somente em ACCOUNT_OPENED */
+    private final AccountType accountType;
+    private final double parameter;
+    private final String customerName;
+
+    private AccountEvent(long sequence, long timestamp, Type type, String accountNumber, double amount,
+                         AccountType accountType, double parameter, String customerName) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.accountType = accountType;
+        this.parameter = parameter;
+        this.customerName = customerName;
+    }
+
+    /**
+     * Cria o evento de abertura de uma conta.
+     * @param accountNumber O número da conta.
+     * @param accountType O tipo da conta.
+     * @param customerName O nome do titular.
+     * @param initialBalance O saldo inicial.
+     * @param parameter O limite de cheque especial (CHECKING) ou a taxa de juros (SAVINGS).
+     * @return O evento, ainda sem sequência.
+     */
+    public static AccountEvent opened(String accountNumber, AccountType accountType, String customerName,
+                                      double initialBalance, double parameter) {
+        return new AccountEvent(0, 0, Type.ACCOUNT_OPENED, accountNumber, initialBalance, accountType, parameter,
+                customerName.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+    }
+
+    /**
+     * Descreve o estado atual de uma conta como um evento de abertura com o saldo atual (ex: as
+     * linhas de um snapshot, ou o estado inicial de um modelo de leitura).
+     * @param account A conta; quem chama deve tê-la travado para ler um saldo consistente.
+     * @return O evento, sem sequência.
+     */
+    public static AccountEvent snapshotOf(Account account) {
+        if (account instanceof SavingsAccount) {
+            return opened(account.getAccountNumber(), AccountType.SAVINGS, account.getCustomerName(),
+                    account.getBalance(), ((SavingsAccount) account).getInterestRate());
+        }
+        return opened(account.getAccountNumber(), AccountType.CHECKING, account.getCustomerName(),
+                account.getBalance(), account instanceof CheckingAccount ? ((CheckingAccount) account).getOverdraftLimit() : 0.0);
+    }
+
+    public static AccountEvent deposited(String accountNumber, double amount) {
+        return new AccountEvent(0, 0, Type.DEPOSITED, accountNumber, amount, null, 0, null);
+    }
+
+    public static AccountEvent withdrawn(String accountNumber, double amount) {
+        return new AccountEvent(0, 0, Type.WITHDRAWN, accountNumber, amount, null, 0, null);
+    }
+
+    public static AccountEvent interestCredited(String accountNumber, double amount) {
+        return new AccountEvent(0, 0, Type.INTEREST_CREDITED, accountNumber, amount, null, 0, null);
+    }
+
+    public static AccountEvent closed(String accountNumber) {
+        return new AccountEvent(0, 0, Type.ACCOUNT_CLOSED, accountNumber, 0, null, 0, null);
+    }
+
+    /**
+     * Retorna uma cópia do evento com a sequência e o instante atribuídos pelo journal.
+     */
+    AccountEvent stamped(long sequence, long timestamp) {
+        return new AccountEvent(sequence, timestamp, type, accountNumber, amount, accountType, parameter, customerName);
+    }
+
+    public long getSequence() { return sequence; }
+    /** @return O instante da gravação, em milissegundos desde a época. */
+    public long getTimestamp() { return timestamp; }
+    public Type getType() { return type; }
+    public String getAccountNumber() { return accountNumber; }
+    public double getAmount() { return amount; }
+    public AccountType getAccountType() { return accountType; }
+    public double getParameter() { return parameter; }
+    public String getCustomerName() { return customerName; }
+
+    /**
+     * Efeito do evento sobre o saldo da conta.
+     * @return O valor com sinal (negativo para saques; zero para abertura e encerramento).
+     */
+    public double getBalanceDelta() {
+        switch (type) {
+            case DEPOSITED:
+            case INTEREST_CREDITED:
+                return amount;
+            case WITHDRAWN:
+                return -amount;
+            default:
+                return 0.0;
+        }
+    }
+
+    /**
+     * Codifica o evento como uma linha do journal (sem a quebra de linha).
+     * @return sequência, instante, tipo, conta e valor separados por tabulação; ACCOUNT_OPENED
+     *         acrescenta o tipo da conta, o parâmetro e o titular.
+     */
+    public String toLine() {
+        StringBuilder line = new StringBuilder(64)
+                .append(sequence).append('\t').append(timestamp).append('\t').append(type.name())
+                .append('\t').append(accountNumber).append('\t').append(amount);
+        if (type == Type.ACCOUNT_OPENED) {
+            line.append('\t').append(accountType.name()).append('\t').append(parameter).append('\t').append(customerName);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Decodifica uma linha gerada por toLine().
+     * @param line A linha, sem a quebra de linha.
+     * @return O evento.
+     * @throws IllegalArgumentException Se a linha estiver incompleta ou inválida.
+     */
+    public static AccountEvent parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < 5) {
+            throw new IllegalArgumentException("Malformed event: " + line);
+        }
+        Type type = Type.valueOf(fields[2]);
+        if (type == Type.ACCOUNT_OPENED) {
+            if (fields.length != 8) {
+                throw new IllegalArgumentException("Malformed event: " + line);
+            }
+            return new AccountEvent(Long.parseLong(fields[0]), Long.parseLong(fields[1]), type, fields[3],
+                    Double.parseDouble(fields[4]), AccountType.valueOf(fields[5]), Double.parseDouble(fields[6]), fields[7]);
+        }
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed event: " + line);
+        }
+        return new AccountEvent(Long.parseLong(fields[0]), Long.parseLong(fields[1]), type, fields[3],
+                Double.parseDouble(fields[4]), null, 0, null);
+    }
+
+    @Override
+    public String toString() {
+        return "AccountEvent{" + toLine().replace('\t', ' ') + "}";
+    }
+}
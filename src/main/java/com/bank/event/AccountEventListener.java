@@ -0,0 +1,14 @@
+package com.bank.event;
+
+/**
+ * Recebe os eventos de conta à medida que são produzidos (ex: para manter modelos de leitura).
+ * <p>É chamado na thread que executa a operação, com a conta travada; por isso deve apenas
+ * registrar o evento (ex: enfileirá-lo) e retornar rapidamente.
+ */
+@FunctionalInterface
+public interface AccountEventListener {
+    /**
+     * @param event O evento. Os eventos de uma mesma conta chegam na ordem em que aconteceram.
+     */
+    void onEvent(AccountEvent event);
+}
@@ -0,0 +1,451 @@
+package com.bank.event;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal de eventos do modo event-sourced: um arquivo somente de acréscimo de registros
+ * {@code AccountEvent}, que é a fonte da verdade do estado das contas.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Formato:</b> Um cabeçalho fixo ({@code EVJRNL1\n}) seguido dos registros, cada um
+ *         com o tamanho (int), o CRC32C do conteúdo (int) e o conteúdo (a linha de toLine() em
+ *         UTF-8). Um registro cortado ou alterado é detectado pelo tamanho ou pelo checksum.</li>
+ *     <li><b>Acréscimo:</b> append() numera os eventos de um comando com sequências
+ *         consecutivas e os grava numa única escrita, de modo que os eventos de uma operação
+ *         (ex: débito e crédito de uma transferência) entram juntos no journal. É a única escrita
+ *         sequencial do caminho de escrita.</li>
+ *     <li><b>Recuperação:</b> Ao abrir, os registros são verificados a partir do último ponto de
+ *         controle (o snapshot do {@code EventStore} informa a sequência e a posição no journal
+ *         que ele cobre; sem ele, desde o início). O arquivo é mapeado em memória e o CRC32C é
+ *         calculado direto no mapeamento, sem decodificar os eventos. No primeiro registro
+ *         incompleto ou corrompido (o processo caiu durante a escrita), o journal é truncado e o
+ *         que foi descartado fica em getRecovery(). Um journal antigo, de uma linha por evento,
+ *         é convertido para o formato com checksum na abertura.</li>
+ *     <li><b>Reprodução:</b> replay() lê o arquivo mapeado em memória e entrega, em ordem, os
+ *         eventos após uma sequência; os registros anteriores são pulados sem decodificação, e a
+ *         leitura começa no ponto de controle quando possível. Só são entregues registros já
+ *         gravados por completo quando a leitura começou, então a reprodução pode correr ao lado
+ *         de novos acréscimos.</li>
+ *     <li><b>Durabilidade:</b> Os registros são escritos direto no arquivo (sem buffer na JVM), o
+ *         que sobrevive à queda do processo; a queda da máquina pode perder os últimos.</li>
+ * </ol>
+ */
+public class EventJournal implements Closeable {
+    /** Cabeçalho do arquivo no formato com checksum */
+    private static final byte[] MAGIC = "EVJRNL1\n".getBytes(StandardCharsets.US_ASCII);
+    /** Tamanho e CRC32C antes do conteúdo de cada registro */
+    private static final int FRAME_HEADER = 8;
+    /** Tamanho máximo do conteúdo de um registro; acima disso, o tamanho lido é lixo */
+    private static final int MAX_RECORD = 1024 * 1024;
+    /** Tamanho máximo de cada janela mapeada */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Recovery recovery;
+    /** Ponto de controle usado na abertura: sequência e posição do registro seguinte */
+    private final long checkpointSequence;
+    private final long checkpointOffset;
+    private volatile long lastSequence;
+    /** Fim do último registro gravado por completo */
+    private volatile long endOffset;
+
+    /**
+     * Resultado da verificação feita na abertura.
+     */
+    public static final class Recovery {
+        private final long scannedFrom;
+        private final long scannedBytes;
+        private final long records;
+        private final long discardedBytes;
+        private final String problem;
+        private final long elapsedNanos;
+        private final boolean migrated;
+
+        Recovery(long scannedFrom, long scannedBytes, long records, long discardedBytes, String problem,
+                 long elapsedNanos, boolean migrated) {
+            this.scannedFrom = scannedFrom;
+            this.scannedBytes = scannedBytes;
+            this.records = records;
+            this.discardedBytes = discardedBytes;
+            this.problem = problem;
+            this.elapsedNanos = elapsedNanos;
+            this.migrated = migrated;
+        }
+
+        /** Posição onde a verificação começou (o ponto de controle, ou o início) */
+        public long getScannedFrom() { return scannedFrom; }
+        /** Bytes de registros válidos verificados */
+        public long getScannedBytes() { return scannedBytes; }
+        /** Registros válidos verificados */
+        public long getRecords() { return records; }
+        /** Bytes descartados a partir do primeiro registro inválido */
+        public long getDiscardedBytes() { return discardedBytes; }
+        /** O motivo do descarte, ou null se nada foi descartado */
+        public String getProblem() { return problem; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        /** Se o journal estava no formato antigo (uma linha por evento) e foi convertido */
+        public boolean isMigrated() { return migrated; }
+
+        @Override
+        public String toString() {
+            String result = String.format("verified %d records (%d bytes) from offset %d in %.1f ms",
+                    records, scannedBytes, scannedFrom, elapsedNanos / 1e6);
+            if (migrated) {
+                result += "; converted from the line format";
+            }
+            if (discardedBytes > 0) {
+                result += "; discarded " + discardedBytes + " bytes at offset " + (scannedFrom + scannedBytes)
+                        + ": " + problem;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Visitante dos registros lidos. Retorna false para interromper a leitura.
+     */
+    private interface FrameVisitor {
+        /**
+         * @param window A janela mapeada com o registro.
+         * @param payload A posição do conteúdo na janela.
+         * @param length O tamanho do conteúdo.
+         * @param offset A posição do registro no arquivo.
+         */
+        boolean visit(MappedByteBuffer window, int payload, int length, long offset);
+    }
+
+    /**
+     * Abre (ou cria) o journal, verificando todos os registros.
+     * @param file O arquivo do journal.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public EventJournal(Path file) throws IOException {
+        this(file, 0, 0);
+    }
+
+    /**
+     * Abre (ou cria) o journal, verificando os registros a partir de um ponto de controle.
+     * @param file O arquivo do journal.
+     * @param checkpointSequence A sequência do último evento coberto pelo ponto de controle (0 se não há).
+     * @param checkpointOffset A posição no journal logo após esse evento (0 se não há).
+     * @throws IOException Se o arquivo não puder ser aberto ou convertido.
+     */
+    public EventJournal(Path file, long checkpointSequence, long checkpointOffset) throws IOException {
+        this.file = file;
+        long started = System.nanoTime();
+        boolean migrated = migrateLineFormat(file);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+        }
+        long size = channel.size();
+        if (size < MAGIC.length || !hasMagic(channel)) {
+            throw new IOException("Not an event journal: " + file);
+        }
+
+        // O ponto de controle só é usado se o registro seguinte tem a sequência esperada
+        long from = MAGIC.length;
+        long after = 0;
+        if (checkpointOffset > MAGIC.length && checkpointOffset <= size
+                && (checkpointOffset == size || sequenceAt(checkpointOffset, size) == checkpointSequence + 1)) {
+            from = checkpointOffset;
+            after = checkpointSequence;
+        }
+        // Posição do último registro válido e quantidade de registros verificados
+        long[] last = {-1, 0};
+        String[] problem = new String[1];
+        long end = scanFrames(channel, from, size, (window, payload, length, offset) -> {
+            last[0] = offset;
+            last[1]++;
+            return true;
+        }, problem);
+        if (end < size) {
+            channel.truncate(end);
+            channel.force(false);
+        }
+        channel.position(end);
+        this.endOffset = end;
+        this.checkpointSequence = after;
+        this.checkpointOffset = from;
+        long found = last[0] < 0 ? after : sequenceAt(last[0], end);
+        // Um journal mais curto que o snapshot não pode reaproveitar sequências já usadas
+        this.lastSequence = Math.max(found, checkpointSequence);
+        this.recovery = new Recovery(from, end - from, last[1], size - end, problem[0], System.nanoTime() - started, migrated);
+    }
+
+    /**
+     * Retorna o resultado da verificação feita na abertura.
+     * @return O que foi verificado e o que foi descartado.
+     */
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    /**
+     * Grava os eventos de uma operação.
+     * @param events Os eventos, na ordem em que devem ser aplicados.
+     * @return Os eventos com a sequência e o instante atribuídos.
+     * @throws IOException Se a escrita falhar.
+     */
+    public synchronized List<AccountEvent> append(List<AccountEvent> events) throws IOException {
+        long timestamp = System.currentTimeMillis();
+        long sequence = lastSequence;
+        List<AccountEvent> stamped = new ArrayList<>(events.size());
+        List<byte[]> payloads = new ArrayList<>(events.size());
+        int total = 0;
+        for (AccountEvent event : events) {
+            AccountEvent numbered = event.stamped(++sequence, timestamp);
+            stamped.add(numbered);
+            byte[] payload = numbered.toLine().getBytes(StandardCharsets.UTF_8);
+            if (payload.length > MAX_RECORD) {
+                throw new IOException("Event record too large: " + payload.length + " bytes");
+            }
+            payloads.add(payload);
+            total += FRAME_HEADER + payload.length;
+        }
+        ByteBuffer frames = ByteBuffer.allocate(total);
+        CRC32C crc = new CRC32C();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            frames.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        frames.flip();
+        while (frames.hasRemaining()) {
+            channel.write(frames);
+        }
+        lastSequence = sequence;
+        endOffset += total;
+        return stamped;
+    }
+
+    /**
+     * Retorna a sequência do último evento gravado.
+     * @return A sequência, ou 0 se o journal está vazio.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Retorna a posição logo após o último evento gravado, usada como ponto de controle pelo
+     * snapshot: com getLastSequence(), lida sem acréscimos em andamento.
+     * @return A posição no arquivo.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Entrega, em ordem, os eventos com sequência maior que afterSequence.
+     * @param afterSequence A última sequência já conhecida pelo chamador (0 para todos).
+     * @param consumer Quem recebe os eventos.
+     * @return A quantidade de eventos entregues.
+     * @throws IOException Se o arquivo não puder ser lido ou um registro estiver corrompido.
+     */
+    public long replay(long afterSequence, Consumer<AccountEvent> consumer) throws IOException {
+        long last = lastSequence;
+        long end = endOffset;
+        long[] delivered = new long[1];
+        if (afterSequence >= last) {
+            return 0;
+        }
+        // Os eventos até o ponto de controle estão antes da posição dele
+        long from = afterSequence >= checkpointSequence ? checkpointOffset : MAGIC.length;
+        String[] problem = new String[1];
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            scanFrames(reader, from, end, (window, payload, length, offset) -> {
+                // A sequência é lida dos bytes: os eventos já conhecidos não são decodificados
+                long sequence = leadingNumber(window, payload, length);
+                if (sequence < 0 || sequence > afterSequence) {
+                    byte[] bytes = new byte[length];
+                    window.position(payload);
+                    window.get(bytes);
+                    AccountEvent event = AccountEvent.parse(new String(bytes, StandardCharsets.UTF_8));
+                    sequence = event.getSequence();
+                    consumer.accept(event);
+                    delivered[0]++;
+                }
+                return sequence < last;
+            }, problem);
+        }
+        if (problem[0] != null) {
+            throw new IOException("Corrupted event journal " + file + ": " + problem[0]);
+        }
+        return delivered[0];
+    }
+
+    /**
+     * Percorre os registros de um trecho do arquivo, verificando o tamanho e o CRC32C de cada um.
+     *
+     * <p><b>LÓGICA:</b> O trecho é mapeado em janelas de até 64 MB; um registro que não cabe no
+     * resto da janela faz a próxima janela começar nele. O checksum é calculado sobre o próprio
+     * mapeamento (o CRC32C do JDK usa as instruções do processador), sem cópia nem objeto por
+     * registro.
+     *
+     * @param problem Recebe o motivo da parada antes do fim, se um registro for inválido.
+     * @return A posição logo após o último registro válido entregue.
+     */
+    private static long scanFrames(FileChannel channel, long from, long end, FrameVisitor visitor,
+                                   String[] problem) throws IOException {
+        CRC32C crc = new CRC32C();
+        MappedByteBuffer window = null;
+        long windowStart = 0;
+        long windowEnd = 0;
+        long position = from;
+        while (position < end) {
+            if (end - position < FRAME_HEADER) {
+                problem[0] = "incomplete record header";
+                break;
+            }
+            if (window == null || position + FRAME_HEADER > windowEnd) {
+                windowStart = position;
+                windowEnd = Math.min(end, position + WINDOW_SIZE);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            }
+            int at = (int) (position - windowStart);
+            int length = window.getInt(at);
+            int checksum = window.getInt(at + 4);
+            if (length <= 0 || length > MAX_RECORD) {
+                problem[0] = "invalid record length " + length;
+                break;
+            }
+            long next = position + FRAME_HEADER + length;
+            if (next > end) {
+                problem[0] = "incomplete record (" + (end - position - FRAME_HEADER) + " of " + length + " bytes)";
+                break;
+            }
+            if (next > windowEnd) {
+                windowStart = position;
+                windowEnd = Math.min(end, position + WINDOW_SIZE);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                at = 0;
+            }
+            int payload = at + FRAME_HEADER;
+            crc.reset();
+            window.limit(payload + length).position(payload);
+            crc.update(window);
+            window.limit(window.capacity());
+            if ((int) crc.getValue() != checksum) {
+                problem[0] = "checksum mismatch";
+                break;
+            }
+            if (!visitor.visit(window, payload, length, position)) {
+                return next;
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * A sequência do registro que começa em offset, ou -1 se ele não é um registro válido.
+     */
+    private long sequenceAt(long offset, long end) throws IOException {
+        long[] sequence = {-1};
+        scanFrames(channel, offset, end, (window, payload, length, position) -> {
+            sequence[0] = leadingNumber(window, payload, length);
+            return false;
+        }, new String[1]);
+        return sequence[0];
+    }
+
+    /**
+     * O número no início do conteúdo (a sequência), ou -1 se ele não começa com um número.
+     */
+    private static long leadingNumber(MappedByteBuffer window, int payload, int length) {
+        long value = 0;
+        int i = 0;
+        for (; i < length; i++) {
+            byte digit = window.get(payload + i);
+            if (digit < '0' || digit > '9') {
+                break;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return i > 0 && i < length && window.get(payload + i) == '\t' ? value : -1;
+    }
+
+    private static boolean hasMagic(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // lê o cabeçalho inteiro
+        }
+        return Arrays.equals(header.array(), MAGIC);
+    }
+
+    /**
+     * Converte um journal no formato antigo (um evento por linha) para o formato com checksum.
+     * <p><b>LÓGICA:</b> As linhas completas e válidas são regravadas num arquivo temporário, que
+     * substitui o original com uma renomeação atômica; uma última linha incompleta é descartada,
+     * como a abertura antiga fazia.
+     * @return Se o arquivo foi convertido.
+     */
+    private static boolean migrateLineFormat(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return false;
+        }
+        byte[] start = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read = in.readNBytes(start, 0, start.length);
+            if (read == MAGIC.length && Arrays.equals(start, MAGIC)) {
+                return false;
+            }
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            out.write(ByteBuffer.wrap(MAGIC));
+            CRC32C crc = new CRC32C();
+            long complete = Files.size(file);
+            long consumed = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                byte[] payload = line.getBytes(StandardCharsets.UTF_8);
+                consumed += payload.length + 1;
+                if (consumed > complete) {
+                    break; // última linha sem quebra de linha: incompleta
+                }
+                try {
+                    AccountEvent.parse(line);
+                } catch (RuntimeException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.length);
+                frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+                while (frame.hasRemaining()) {
+                    out.write(frame);
+                }
+            }
+            out.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,339 @@
+package com.bank.event;
+
+import com.bank.account.Account;
+import com.bank.factory.AccountFactory;
+import com.bank.registry.AccountRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Armazenamento do modo event-sourced: o {@code EventJournal} é a fonte da verdade e as
+ * contas em memória são um cache do resultado de aplicar (fold) os eventos em ordem.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Gravação:</b> commit() grava os eventos de uma operação no journal e só então os
+ *         aplica às contas em memória (apply()). Quem chama deve ter travado as contas afetadas
+ *         (ver {@code BankingFacade}), de modo que os eventos de uma conta são gravados e
+ *         aplicados na mesma ordem.</li>
+ *     <li><b>Fold:</b> ACCOUNT_OPENED cria a conta com o {@code AccountFactory}; depósitos,
+ *         saques e juros ajustam o saldo com adjustBalanceAndNotify(), notificando os
+ *         observadores como as operações comuns; ACCOUNT_CLOSED retira a conta.</li>
+ *     <li><b>Snapshots:</b> A cada "snapshotInterval" eventos, uma thread de fundo copia o
+ *         estado de todas as contas junto com a sequência do último evento aplicado e grava o
+ *         arquivo de snapshot (arquivo temporário forçado ao disco + renomeação atômica). A
+ *         cópia é feita com o lock de escrita, que exclui os commits em andamento (eles usam o
+ *         lock de leitura entre gravar e aplicar); assim o snapshot corresponde exatamente a um
+ *         prefixo do journal. O journal não é truncado: o histórico completo continua
+ *         disponível para auditoria e para reconstruir modelos de leitura.</li>
+ *     <li><b>Recuperação:</b> Ao abrir, carrega o último snapshot, que guarda também a posição
+ *         no journal do evento seguinte; o journal verifica os checksums só a partir dali,
+ *         trunca um registro incompleto ou corrompido e reproduz os eventos posteriores ao
+ *         snapshot. Um snapshot ilegível não impede a abertura: é ignorado e o journal inteiro
+ *         é verificado e reproduzido desde o início.</li>
+ * </ol>
+ */
+public class EventStore implements Closeable {
+    /** Intervalo padrão entre snapshots, em eventos */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    static final String JOURNAL_FILE = "events.journal";
+    static final String SNAPSHOT_FILE = "accounts.snapshot";
+    private static final String SNAPSHOT_HEADER = "SNAPSHOT";
+
+    private final EventJournal journal;
+    private final Path snapshotFile;
+    private final int snapshotInterval;
+    /** Estado atual (cache): número da conta para a conta */
+    private final AccountRegistry accounts = new AccountRegistry();
+    private final List<AccountEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final AtomicLong eventsSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+    private final ExecutorService snapshotWriter;
+    private final long snapshotSequence;
+    private final long replayedEvents;
+
+    /**
+     * Abre (ou cria) o armazenamento em um diretório e recupera o estado das contas.
+     * @param directory O diretório do journal e do snapshot.
+     * @param snapshotInterval Eventos entre snapshots (0 desativa os snapshots periódicos).
+     * @throws IOException Se os arquivos não puderem ser abertos ou lidos.
+     */
+    public EventStore(Path directory, int snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.snapshotInterval = snapshotInterval;
+        // O snapshot é o ponto de controle: o journal só verifica os registros posteriores a ele
+        long[] checkpoint = loadSnapshot();
+        this.snapshotSequence = checkpoint[0];
+        this.journal = new EventJournal(directory.resolve(JOURNAL_FILE), checkpoint[0], checkpoint[1]);
+        EventJournal.Recovery recovery = journal.getRecovery();
+        if (recovery.getDiscardedBytes() > 0 || recovery.isMigrated()) {
+            System.out.println("Event journal recovery: " + recovery);
+        }
+        this.replayedEvents = journal.replay(snapshotSequence, this::apply);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retorna o mapa das contas em memória, mantido por este armazenamento.
+     * <p><b>LÓGICA:</b> O mapa deve ser alterado somente por commit(); quem o recebe (a Facade)
+     * apenas consulta as contas.
+     *
+     * @return O mapa das contas.
+     */
+    public AccountRegistry getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Grava os eventos de uma operação no journal e os aplica às contas em memória.
+     * @param events Os eventos decididos pelo comando (pode ser vazio).
+     * @return Os eventos gravados, com sequência.
+     * @throws UncheckedIOException Se a gravação falhar; nesse caso nada é aplicado.
+     */
+    public List<AccountEvent> commit(List<AccountEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        List<AccountEvent> recorded;
+        snapshotLock.readLock().lock();
+        try {
+            recorded = journal.append(events);
+            // Os ouvintes recebem o evento antes da aplicação: uma conta aberta só fica visível
+            // (e só pode receber operações) depois que o seu evento de abertura foi entregue
+            for (AccountEventListener listener : listeners) {
+                for (AccountEvent event : recorded) {
+                    listener.onEvent(event);
+                }
+            }
+            for (AccountEvent event : recorded) {
+                apply(event);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the event journal", e);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (snapshotInterval > 0 && eventsSinceSnapshot.addAndGet(recorded.size()) >= snapshotInterval
+                && snapshotPending.compareAndSet(false, true)) {
+            snapshotWriter.execute(this::writeSnapshotQuietly);
+        }
+        return recorded;
+    }
+
+    /**
+     * Registra um ouvinte dos eventos gravados a partir de agora.
+     * @param listener O ouvinte.
+     */
+    public void addListener(AccountEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Aplica um evento ao estado em memória (a função de fold).
+     */
+    private void apply(AccountEvent event) {
+        if (event.getType() == AccountEvent.Type.ACCOUNT_OPENED) {
+            accounts.putIfAbsent(event.getAccountNumber(), AccountFactory.createAccount(event.getAccountNumber(),
+                    event.getAccountType(), event.getCustomerName(), event.getAmount(), event.getParameter()));
+            return;
+        }
+        if (event.getType() == AccountEvent.Type.ACCOUNT_CLOSED) {
+            accounts.remove(event.getAccountNumber());
+            return;
+        }
+        Account account = accounts.get(event.getAccountNumber());
+        if (account != null) {
+            account.adjustBalanceAndNotify(event.getBalanceDelta(), observerEventType(event.getType()));
+        }
+    }
+
+    private static String observerEventType(AccountEvent.Type type) {
+        switch (type) {
+            case DEPOSITED:
+                return "deposit";
+            case WITHDRAWN:
+                return "withdraw";
+            default:
+                return "interest_calculation";
+        }
+    }
+
+    /**
+     * Entrega os eventos do journal com sequência maior que afterSequence (ex: para reconstruir
+     * um modelo de leitura ou auditar o histórico de uma conta).
+     * @param afterSequence A última sequência já conhecida (0 para todos).
+     * @param consumer Quem recebe os eventos.
+     * @return A quantidade de eventos entregues.
+     * @throws IOException Se o journal não puder ser lido.
+     */
+    public long replay(long afterSequence, Consumer<AccountEvent> consumer) throws IOException {
+        return journal.replay(afterSequence, consumer);
+    }
+
+    /**
+     * Retorna a sequência do último evento gravado.
+     * @return A sequência, ou 0 se nenhum evento foi gravado.
+     */
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    /**
+     * Retorna a sequência do snapshot usado na abertura.
+     * @return A sequência, ou 0 se não havia snapshot.
+     */
+    public long getRecoveredSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    /**
+     * Retorna o resultado da verificação do journal na abertura (o que foi descartado).
+     * @return A verificação do journal.
+     */
+    public EventJournal.Recovery getJournalRecovery() {
+        return journal.getRecovery();
+    }
+
+    /**
+     * Retorna quantos eventos do journal foram reproduzidos na abertura, após o snapshot.
+     * @return A quantidade de eventos.
+     */
+    public long getReplayedEventCount() {
+        return replayedEvents;
+    }
+
+    /**
+     * Grava um snapshot do estado atual.
+     * <p><b>LÓGICA:</b> Sincronizado para que um snapshot mais antigo (ex: o periódico, em
+     * andamento) nunca substitua um mais novo.
+     *
+     * @return A sequência do último evento incluído no snapshot.
+     * @throws IOException Se o arquivo não puder ser gravado.
+     */
+    public synchronized long snapshot() throws IOException {
+        List<AccountEvent> rows = new ArrayList<>();
+        long sequence;
+        long offset;
+        snapshotLock.writeLock().lock();
+        try {
+            sequence = journal.getLastSequence();
+            offset = journal.getEndOffset();
+            eventsSinceSnapshot.set(0);
+            for (Account account : accounts.values()) {
+                rows.add(AccountEvent.snapshotOf(account));
+            }
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(SNAPSHOT_HEADER + "\t" + sequence + "\t" + rows.size() + "\t" + offset + "\n");
+            for (AccountEvent row : rows) {
+                writer.write(row.toLine());
+                writer.write('\n');
+            }
+        }
+        // O conteúdo precisa estar no disco antes da renomeação, ou uma queda deixaria um snapshot vazio
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return sequence;
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            System.out.println("Could not write account snapshot: " + e.getMessage());
+        } finally {
+            snapshotPending.set(false);
+        }
+    }
+
+    /**
+     * Carrega o snapshot, se existir e estiver completo.
+     * <p><b>LÓGICA:</b> Se o snapshot estiver corrompido ou truncado, as contas já carregadas
+     * dele são descartadas e o ponto de controle volta a zero: o journal é então verificado e
+     * reproduzido por inteiro, como se nunca tivesse havido snapshot.
+     *
+     * @return A sequência do snapshot e a posição do evento seguinte no journal (0 se o snapshot
+     *         é anterior ao journal com checksum), ou zeros se não há um snapshot válido.
+     */
+    private long[] loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return new long[2];
+        }
+        try {
+            return readSnapshot();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable account snapshot " + snapshotFile + " (" + e.getMessage()
+                    + "); replaying the whole event journal");
+            accounts.clear();
+            return new long[2];
+        }
+    }
+
+    private long[] readSnapshot() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String[] header = String.valueOf(reader.readLine()).split("\t");
+            if ((header.length != 3 && header.length != 4) || !SNAPSHOT_HEADER.equals(header[0])) {
+                throw new IOException("Invalid snapshot header in " + snapshotFile);
+            }
+            long sequence = Long.parseLong(header[1]);
+            long offset = header.length == 4 ? Long.parseLong(header[3]) : 0;
+            int count = Integer.parseInt(header[2]);
+            for (int i = 0; i < count; i++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Truncated snapshot " + snapshotFile);
+                }
+                apply(AccountEvent.parse(line));
+            }
+            return new long[] {sequence, offset};
+        }
+    }
+
+    /**
+     * Aguarda um snapshot em andamento e fecha o journal.
+     */
+    @Override
+    public void close() throws IOException {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+}
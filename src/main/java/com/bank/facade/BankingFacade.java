@@ -2,14 +2,47 @@ package com.bank.facade;
 
 import com.bank.account.Account;
 import com.bank.account.AccountType;
+import com.bank.account.InterestBearing;
 import com.bank.command.Command;
 import com.bank.command.DepositCommand;
+import com.bank.command.EventSourcedCommand;
+import com.bank.command.TransferCommand;
 import com.bank.command.WithdrawCommand;
+import com.bank.event.AccountEvent;
+import com.bank.event.AccountEventListener;
+import com.bank.event.EventStore;
 import com.bank.factory.AccountFactory;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionFilter;
+import com.bank.logger.TransactionLogger;
+import com.bank.logger.TransactionRecord;
 import com.bank.account.Withdrawable;
+import com.bank.aggregate.AccountAggregates;
+import com.bank.observer.AccountObserver;
+import com.bank.reconciliation.BalanceReconciler;
+import com.bank.reconciliation.ReconciliationReport;
+import com.bank.registry.AccountRegistry;
+import com.bank.registry.BalanceEntry;
+import com.bank.registry.CustomerMatch;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Classe {@code BankingFacade} implementa o padrão de projeto **Facade**.
@@ -26,7 +59,7 @@ import java.util.Map;
  * 
  * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
  * <ol>
- *     <li><b>Armazenamento:</b> Mantém um mapa (HashMap) de todas as contas do sistema,
+ *     <li><b>Armazenamento:</b> Mantém um mapa (ConcurrentHashMap) de todas as contas do sistema,
  *         usando o número da conta como chave e o objeto Account como valor.</li>
  *     <li><b>Criação de Contas:</b> Usa AccountFactory (Factory Method) para criar contas
  *         sem expor a lógica de instanciação ao cliente. Registra a conta criada no mapa.</li>
@@ -38,23 +71,121 @@ import java.util.Map;
  *         antes de executar.</li>
  *     <li><b>Histórico:</b> Obtém o histórico de transações do TransactionLogger (Singleton),
  *         que registra todas as operações realizadas no sistema.</li>
+ *     <li><b>Observadores Globais:</b> Observadores registrados na Facade (ex: a GUI) são anexados
+ *         a todas as contas existentes e futuras, recebendo também o evento "account_created"
+ *         quando uma nova conta é registrada.</li>
+ *     <li><b>Concorrência:</b> A Facade pode ser usada por várias threads (ex: servidor HTTP).
+ *         Cada operação sincroniza na conta afetada; transferências travam as duas contas
+ *         sempre na mesma ordem (pelo número da conta), evitando deadlocks.</li>
+ *     <li><b>Modo event-sourced:</b> Criada com um {@code EventStore}, a Facade não altera as
+ *         contas diretamente: cada comando decide seus eventos ({@code EventSourcedCommand}),
+ *         que são gravados no journal de eventos e só então aplicados às contas em memória. O
+ *         journal de eventos substitui o log do TransactionLogger, que não é escrito nesse modo.</li>
+ *     <li><b>Eventos para leitura:</b> Ouvintes registrados com addEventListener() (ex: modelos
+ *         de leitura) recebem os eventos de conta nos dois modos: no modo event-sourced, os
+ *         eventos gravados; no modo comum, eventos equivalentes às notificações das contas.</li>
  * </ol>
  */
 public class BankingFacade {
+    /** Tipo da entrada do journal que registra a criação de uma conta */
+    public static final String ACCOUNT_CREATED_RECORD = "Account Created";
+    /** Tipo da entrada do journal que registra a remoção de uma conta (ex: movida para outro nó) */
+    public static final String ACCOUNT_REMOVED_RECORD = "Account Removed";
+
     /** Mapa que armazena todas as contas do sistema.
      *  Chave: número da conta (String)
      *  Valor: objeto Account correspondente
-     *  Permite acesso rápido a qualquer conta pelo seu número. */
-    private Map<String, Account> accounts;
+     *  Permite acesso rápido a qualquer conta pelo seu número e snapshots em O(1). */
+    private final AccountRegistry accounts;
+
+    /** Armazenamento de eventos do modo event-sourced; null no modo comum */
+    private final EventStore eventStore;
+
+    /** Serializa as criações de conta do modo event-sourced (verificação do número + commit) */
+    private final Object accountCreationLock = new Object();
+
+    /** Observadores registrados na Facade que devem acompanhar todas as contas.
+     *  Usa CopyOnWriteArrayList porque registros são raros e notificações são frequentes. */
+    private final List<AccountObserver> accountObservers = new CopyOnWriteArrayList<>();
+
+    /** Ouvintes dos eventos de conta (ex: modelos de leitura) */
+    private final List<AccountEventListener> eventListeners = new CopyOnWriteArrayList<>();
+
+    /** No modo comum, converte as notificações das contas em eventos para os ouvintes */
+    private final AccountObserver eventPublisher = this::publishObserved;
+
+    /** Transferências entre nós preparadas (fase 1 do two-phase commit) e já decididas.
+     *  Chave: identificador da transferência. Depois da decisão, a entrada vira uma marca
+     *  (confirmada ou abortada) por DECIDED_TRANSFER_TTL_NANOS, para que COMMIT/ABORT repetidos
+     *  sejam reconhecidos e uma preparação atrasada seja recusada. */
+    private final Map<String, PreparedTransfer> preparedTransfers = new ConcurrentHashMap<>();
+
+    /** Marcas de transferências decididas, na ordem em que expiram */
+    private final Queue<Map.Entry<String, PreparedTransfer>> decidedTransfers = new ConcurrentLinkedQueue<>();
+
+    /** Por quanto tempo uma transferência decidida continua conhecida por este nó */
+    private static final long DECIDED_TRANSFER_TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /**
+     * Parte local de uma transferência entre nós: um débito já reservado ou um crédito pendente,
+     * ou a marca de uma transferência decidida.
+     */
+    private static final class PreparedTransfer {
+        final Account account;
+        /** Valor com sinal: negativo para o débito reservado na origem, positivo para o crédito no destino */
+        final double amount;
+        /** Na marca, TRUE (confirmada) ou FALSE (abortada); null enquanto a transferência está preparada */
+        final Boolean decision;
+        /** Validade da marca, em System.nanoTime() */
+        final long expiresAt;
+        /** Se o débito foi sacado (ou o crédito verificado) e ainda não foi decidido; usado com o monitor desta parte */
+        boolean reserved;
+
+        PreparedTransfer(Account account, double amount) {
+            this.account = account;
+            this.amount = amount;
+            this.decision = null;
+            this.expiresAt = 0;
+        }
+
+        PreparedTransfer(boolean commit) {
+            this.account = null;
+            this.amount = 0;
+            this.decision = commit;
+            this.expiresAt = System.nanoTime() + DECIDED_TRANSFER_TTL_NANOS;
+        }
+    }
 
     /**
      * Construtor para {@code BankingFacade}. Inicializa o mapa de contas.
-     * <p><b>LÓGICA:</b> Cria um HashMap vazio que será usado para armazenar todas as contas
-     * criadas no sistema. O mapa permite acesso rápido a qualquer conta pelo seu número.
+     * <p><b>LÓGICA:</b> Cria um {@code AccountRegistry} vazio que será usado para armazenar todas as contas
+     * criadas no sistema. O registro permite acesso rápido e seguro entre threads a qualquer conta pelo seu
+     * número, e snapshots do conjunto de contas sem cópia.
      */
     public BankingFacade() {
         // Inicializa o mapa vazio - será populado conforme contas são criadas
-        this.accounts = new HashMap<>();
+        this.accounts = new AccountRegistry();
+        this.eventStore = null;
+    }
+
+    /**
+     * Construtor para {@code BankingFacade} no modo event-sourced.
+     * <p><b>LÓGICA:</b> As contas são as do {@code EventStore}, já recuperadas do snapshot e do
+     * journal de eventos. Toda alteração passa a ser gravada como evento antes de ser aplicada.
+     *
+     * @param eventStore O armazenamento de eventos, já aberto.
+     */
+    public BankingFacade(EventStore eventStore) {
+        this.accounts = eventStore.getAccounts();
+        this.eventStore = eventStore;
+    }
+
+    /**
+     * Retorna o armazenamento de eventos (ex: para reproduzir o histórico).
+     * @return O {@code EventStore}, ou null se a Facade não está no modo event-sourced.
+     */
+    public EventStore getEventStore() {
+        return eventStore;
     }
 
     /**
@@ -80,16 +211,306 @@ public class BankingFacade {
         // A factory decide qual classe concreta instanciar (CheckingAccount ou SavingsAccount)
         // sem expor essa lógica ao cliente
         Account account = AccountFactory.createAccount(type, customerName, initialBalance, params);
-        
-        // Registra a conta no mapa interno usando o número da conta como chave
-        // Isso permite acesso rápido à conta pelo seu número
-        accounts.put(account.getAccountNumber(), account);
+        register(account, type, customerName, initialBalance, params);
+
+        // Retorna o número da conta para que o cliente possa referenciá-la
+        return account.getAccountNumber();
+    }
+
+    /**
+     * Cria uma conta com um número escolhido pelo chamador (ex: o roteador de shards, que
+     * precisa conhecer o número para decidir qual nó guarda a conta) e a registra na Facade.
+     * <p><b>LÓGICA:</b> Igual a createAccount(), inclusive o registro no journal, mas recusa
+     * números já existentes. O número é reservado no mapa de forma atômica (putIfAbsent) antes
+     * da gravação no journal: entre duas criações concorrentes com o mesmo número, só uma grava
+     * e publica a conta.
+     *
+     * @param accountNumber O número da nova conta.
+     * @param type O tipo de conta a ser criada (CHECKING ou SAVINGS).
+     * @param customerName O nome do titular da conta.
+     * @param initialBalance O saldo inicial da conta.
+     * @param params Parâmetros específicos do tipo de conta (ver createAccount()).
+     * @return true se a conta foi criada, false se o número já estava em uso.
+     */
+    public boolean createAccount(String accountNumber, AccountType type, String customerName, double initialBalance, double... params) {
+        if (!register(AccountFactory.createAccount(accountNumber, type, customerName, initialBalance, params),
+                type, customerName, initialBalance, params)) {
+            System.out.println("Account already exists: " + accountNumber);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Registra uma conta recém-criada no journal, no mapa interno e nos observadores globais.
+     * @return true se a conta foi registrada, false se o número já estava em uso.
+     */
+    private boolean register(Account account, AccountType type, String customerName, double initialBalance, double... params) {
+        if (eventStore != null) {
+            // No modo event-sourced a conta publicada é a criada pelo fold do evento de abertura;
+            // a trava impede dois eventos de abertura para o mesmo número
+            synchronized (accountCreationLock) {
+                if (accounts.containsKey(account.getAccountNumber())) {
+                    return false;
+                }
+                eventStore.commit(Collections.singletonList(AccountEvent.opened(account.getAccountNumber(), type,
+                        customerName, initialBalance, params.length > 0 ? params[0] : 0.0)));
+            }
+            account = accounts.get(account.getAccountNumber());
+            for (AccountObserver observer : accountObservers) {
+                account.addObserver(observer);
+                observer.update(account, "account_created", initialBalance);
+            }
+            System.out.println("Account created: " + account.getAccountType() + " for " + customerName + " with account number " + account.getAccountNumber());
+            return true;
+        }
+
+        // Anexa os observadores globais antes de publicar a conta, para que nenhuma operação
+        // sobre ela escape das notificações
+        for (AccountObserver observer : accountObservers) {
+            account.addObserver(observer);
+        }
+
+        // Reserva o número no mapa interno (putIfAbsent): só quem o reservou grava a criação.
+        // Com a conta travada, nenhuma operação sobre ela chega ao journal antes da entrada de
+        // criação, e o evento de abertura chega aos ouvintes antes de qualquer operação
+        synchronized (account) {
+            if (accounts.putIfAbsent(account.getAccountNumber(), account) != null) {
+                return false;
+            }
+            try {
+                // Registra a criação no journal com tudo o que é necessário para recriá-la (ex: em uma réplica)
+                TransactionLogger.getInstance().log(ACCOUNT_CREATED_RECORD + ": Account " + account.getAccountNumber()
+                        + ", Type: " + type + ", Parameter: " + (params.length > 0 ? params[0] : 0.0)
+                        + ", Amount: " + initialBalance + ", New Balance: " + initialBalance
+                        + ", Customer: " + customerName.replace('\n', ' ').replace('\r', ' '));
+            } catch (RuntimeException e) {
+                // Sem a entrada no journal a conta não pode existir
+                accounts.remove(account.getAccountNumber(), account);
+                throw e;
+            }
+            accounts.getRecentTransactions().recordCreation(account, ACCOUNT_CREATED_RECORD, initialBalance);
+            publish(AccountEvent.opened(account.getAccountNumber(), type, customerName, initialBalance,
+                    params.length > 0 ? params[0] : 0.0));
+        }
+
+        // Avisa sobre a criação, permitindo que interessados (ex: GUI) incluam a conta sem
+        // reler todo o mapa
+        for (AccountObserver observer : accountObservers) {
+            observer.update(account, "account_created", initialBalance);
+        }
         
         // Imprime mensagem de confirmação no console
         System.out.println("Account created: " + account.getAccountType() + " for " + customerName + " with account number " + account.getAccountNumber());
-        
-        // Retorna o número da conta para que o cliente possa referenciá-la
-        return account.getAccountNumber();
+        return true;
+    }
+
+    /**
+     * Recria uma conta a partir do journal de transações (ex: em uma réplica), sem registrar
+     * uma nova entrada no log.
+     * <p><b>LÓGICA:</b> Usa o mesmo número de conta da origem, de modo que as operações seguintes
+     * do journal possam ser aplicadas a ela. Se a conta já existir, nada é alterado.
+     *
+     * @param accountNumber O número da conta.
+     * @param type O tipo de conta.
+     * @param customerName O nome do titular.
+     * @param initialBalance O saldo inicial.
+     * @param params Parâmetros específicos do tipo de conta (ver createAccount()).
+     * @return true se a conta foi criada, false se já existia.
+     */
+    public boolean restoreAccount(String accountNumber, AccountType type, String customerName, double initialBalance, double... params) {
+        if (eventStore != null) {
+            // No modo event-sourced a conta também precisa existir no journal de eventos
+            return register(AccountFactory.createAccount(accountNumber, type, customerName, initialBalance, params),
+                    type, customerName, initialBalance, params);
+        }
+        Account account = AccountFactory.createAccount(accountNumber, type, customerName, initialBalance, params);
+        for (AccountObserver observer : accountObservers) {
+            account.addObserver(observer);
+        }
+        synchronized (account) {
+            if (accounts.putIfAbsent(accountNumber, account) != null) {
+                return false;
+            }
+            publish(AccountEvent.opened(accountNumber, type, customerName, initialBalance, params.length > 0 ? params[0] : 0.0));
+        }
+        for (AccountObserver observer : accountObservers) {
+            observer.update(account, "account_created", initialBalance);
+        }
+        return true;
+    }
+
+    /**
+     * Remove uma conta da Facade, registrando a remoção no journal (ex: a conta foi movida para
+     * outro nó do banco distribuído).
+     * <p><b>LÓGICA:</b> A entrada do journal é gravada com a conta travada, com o saldo no
+     * momento da remoção, antes de retirá-la do mapa; assim a reprodução do journal (ex: em uma
+     * réplica) também remove a conta.
+     *
+     * @param accountNumber O número da conta.
+     * @return true se a conta existia e foi removida.
+     */
+    public boolean removeAccount(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            return false;
+        }
+        synchronized (account) {
+            if (accounts.get(accountNumber) != account) {
+                return false;
+            }
+            if (eventStore != null) {
+                eventStore.commit(Collections.singletonList(AccountEvent.closed(accountNumber)));
+                System.out.println("Account removed: " + accountNumber);
+                return true;
+            }
+            accounts.remove(accountNumber, account);
+            publish(AccountEvent.closed(accountNumber));
+            TransactionLogger.getInstance().log(ACCOUNT_REMOVED_RECORD + ": Account " + accountNumber
+                    + ", Amount: 0.0, New Balance: " + account.getBalance());
+        }
+        System.out.println("Account removed: " + accountNumber);
+        return true;
+    }
+
+    /**
+     * Remove uma conta a partir do journal de transações (ex: em uma réplica), sem registrar
+     * uma nova entrada no log.
+     * @param accountNumber O número da conta.
+     * @return true se a conta existia.
+     */
+    public boolean applyReplicatedRemoval(String accountNumber) {
+        if (eventStore != null) {
+            return removeAccount(accountNumber);
+        }
+        return accounts.remove(accountNumber) != null;
+    }
+
+    /**
+     * Leva o saldo de uma conta ao valor registrado no journal, sem registrar uma nova entrada
+     * no log.
+     * <p><b>LÓGICA:</b> Aplica a diferença entre o saldo registrado e o atual através de
+     * adjustBalanceAndNotify(), para que os observadores recebam o evento. Como o valor é
+     * absoluto, aplicar a mesma entrada duas vezes não altera o resultado.
+     *
+     * @param accountNumber O número da conta.
+     * @param newBalance O saldo registrado no journal.
+     * @param eventType O evento a notificar (ex: "deposit", "withdraw", "interest_calculation").
+     * @return true se a conta existe.
+     */
+    public boolean applyReplicatedBalance(String accountNumber, double newBalance, String eventType) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            return false;
+        }
+        synchronized (account) {
+            double difference = newBalance - account.getBalance();
+            if (difference != 0 && eventStore != null) {
+                eventStore.commit(Collections.singletonList(difference > 0
+                        ? ("interest_calculation".equals(eventType) ? AccountEvent.interestCredited(accountNumber, difference)
+                                : AccountEvent.deposited(accountNumber, difference))
+                        : AccountEvent.withdrawn(accountNumber, -difference)));
+            } else if (difference != 0) {
+                account.adjustBalanceAndNotify(difference, eventType);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra um observador que acompanha todas as contas do sistema.
+     * <p><b>LÓGICA:</b> O observador é anexado a todas as contas já existentes e a cada conta
+     * criada posteriormente. Na criação de uma conta, recebe o evento "account_created" com o
+     * saldo inicial como valor. Assim, clientes como a GUI atualizam apenas a conta afetada
+     * em vez de reconstruir a lista inteira a cada operação.
+     *
+     * @param observer O observador a ser registrado.
+     */
+    public void addAccountObserver(AccountObserver observer) {
+        accountObservers.add(observer);
+        for (Account account : accounts.values()) {
+            account.addObserver(observer);
+        }
+    }
+
+    /**
+     * Remove um observador registrado com {@link #addAccountObserver(AccountObserver)}
+     * de todas as contas do sistema.
+     *
+     * @param observer O observador a ser removido.
+     */
+    public void removeAccountObserver(AccountObserver observer) {
+        accountObservers.remove(observer);
+        for (Account account : accounts.values()) {
+            account.removeObserver(observer);
+        }
+    }
+
+    /**
+     * Registra um ouvinte dos eventos de conta (ex: um modelo de leitura).
+     * <p><b>LÓGICA:</b>
+     * <ol>
+     *     <li>No primeiro registro, passa a produzir os eventos: no modo event-sourced, os
+     *         eventos gravados no {@code EventStore}; no modo comum, um observador anexado a todas
+     *         as contas converte as notificações de depósito, saque e juros em eventos, e a
+     *         abertura e a remoção de contas são publicadas pela própria Facade.</li>
+     *     <li>Em seguida, entrega ao novo ouvinte o estado atual de cada conta como um evento de
+     *         abertura com o saldo atual, lido com a conta travada. Eventos da conta entregues
+     *         antes disso ficam superados por ele; os posteriores se somam a ele.</li>
+     * </ol>
+     * Os eventos são entregues na thread da operação, com a conta travada.
+     *
+     * @param listener O ouvinte.
+     */
+    public synchronized void addEventListener(AccountEventListener listener) {
+        boolean first = eventListeners.isEmpty();
+        eventListeners.add(listener);
+        if (first && eventStore != null) {
+            eventStore.addListener(this::publish);
+        } else if (first) {
+            addAccountObserver(eventPublisher);
+        }
+        for (Account account : accounts.values()) {
+            synchronized (account) {
+                if (accounts.get(account.getAccountNumber()) == account) {
+                    listener.onEvent(AccountEvent.snapshotOf(account));
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove um ouvinte registrado com {@link #addEventListener(AccountEventListener)}.
+     * @param listener O ouvinte.
+     */
+    public void removeEventListener(AccountEventListener listener) {
+        eventListeners.remove(listener);
+    }
+
+    /**
+     * Entrega um evento a todos os ouvintes.
+     */
+    private void publish(AccountEvent event) {
+        for (AccountEventListener listener : eventListeners) {
+            listener.onEvent(event);
+        }
+    }
+
+    /**
+     * Converte uma notificação de conta (modo comum) em evento; a criação é publicada à parte.
+     */
+    private void publishObserved(Account account, String eventType, double amount) {
+        if ("account_created".equals(eventType)) {
+            return;
+        }
+        String accountNumber = account.getAccountNumber();
+        if ("interest_calculation".equals(eventType)) {
+            publish(AccountEvent.interestCredited(accountNumber, amount));
+        } else if (amount >= 0) {
+            publish(AccountEvent.deposited(accountNumber, amount));
+        } else {
+            publish(AccountEvent.withdrawn(accountNumber, -amount));
+        }
     }
 
     /**
@@ -120,8 +541,9 @@ public class BankingFacade {
      * 
      * @param accountNumber O número da conta de destino.
      * @param amount O valor a ser depositado.
+     * @return true se o saldo foi alterado, false se a conta não existe ou o valor é inválido.
      */
-    public void deposit(String accountNumber, double amount) {
+    public boolean deposit(String accountNumber, double amount) {
         // Busca a conta no mapa usando o número da conta
         Account account = accounts.get(accountNumber);
         
@@ -133,10 +555,11 @@ public class BankingFacade {
             // Executa o comando, que:
             // 1. Chama account.deposit(amount) - adiciona valor ao saldo e notifica observadores
             // 2. Registra a transação no TransactionLogger
-            deposit.execute();
+            return execute(deposit, account);
         } else {
             // Se a conta não for encontrada, exibe mensagem de erro
             System.out.println("Account not found: " + accountNumber);
+            return false;
         }
     }
 
@@ -160,8 +583,10 @@ public class BankingFacade {
      * 
      * @param accountNumber O número da conta de origem.
      * @param amount O valor a ser sacado.
+     * @return true se o saldo foi alterado, false se a conta não existe, não suporta saques
+     *         ou não possui fundos suficientes.
      */
-    public void withdraw(String accountNumber, double amount) {
+    public boolean withdraw(String accountNumber, double amount) {
         // Busca a conta no mapa usando o número da conta
         Account account = accounts.get(accountNumber);
         
@@ -175,7 +600,7 @@ public class BankingFacade {
             // 1. Chama account.withdraw(amount) - subtrai valor do saldo (respeitando limites)
             // 2. Registra a transação no TransactionLogger
             // 3. Notifica observadores sobre o saque
-            withdraw.execute();
+            return execute(withdraw, account);
         } else if (account != null) {
             // Se a conta existe mas não suporta saques, exibe mensagem de erro
             System.out.println("Withdrawal not supported for this account type: " + account.getAccountType());
@@ -183,6 +608,95 @@ public class BankingFacade {
             // Se a conta não for encontrada, exibe mensagem de erro
             System.out.println("Account not found: " + accountNumber);
         }
+        return false;
+    }
+
+    /**
+     * Executa um comando já construído com exclusão mútua sobre as contas que ele afeta.
+     * <p><b>LÓGICA:</b> Trava as contas sempre na mesma ordem (pelo número da conta), de modo
+     * que operações concorrentes sobre a mesma conta são serializadas, enquanto contas
+     * diferentes seguem em paralelo, sem risco de deadlock entre comandos que envolvem mais de
+     * uma conta. O sucesso é determinado comparando o saldo da primeira conta antes e depois
+     * da execução, já que os comandos não retornam resultado.
+     * <p>É o ponto de entrada para clientes que constroem os comandos diretamente (ex: o
+     * protocolo binário do servidor). No modo event-sourced, comandos {@code EventSourcedCommand}
+     * não são executados: seus eventos são decididos, gravados e aplicados com as contas travadas.
+     *
+     * @param command O comando a ser executado.
+     * @param accounts As contas afetadas pelo comando; a primeira é usada para o resultado.
+     * @return true se o saldo da primeira conta foi alterado.
+     */
+    public boolean execute(Command command, Account... accounts) {
+        Account[] lockOrder = accounts.clone();
+        Arrays.sort(lockOrder, Comparator.comparing(Account::getAccountNumber));
+        return executeLocked(command, lockOrder, 0, accounts[0]);
+    }
+
+    /**
+     * Trava recursivamente as contas em lockOrder e executa o comando com todas travadas.
+     * Com as contas travadas, confere que cada uma ainda está registrada: uma conta removida
+     * (removeAccount(), DROP do servidor) depois que o chamador a obteve não é alterada.
+     */
+    private boolean executeLocked(Command command, Account[] lockOrder, int index, Account observed) {
+        if (index == lockOrder.length) {
+            for (Account account : lockOrder) {
+                if (accounts.get(account.getAccountNumber()) != account) {
+                    System.out.println("Account not found: " + account.getAccountNumber());
+                    return false;
+                }
+            }
+            double previousBalance = observed.getBalance();
+            if (eventStore != null && command instanceof EventSourcedCommand) {
+                eventStore.commit(((EventSourcedCommand) command).decide());
+            } else {
+                command.execute();
+            }
+            return Double.compare(previousBalance, observed.getBalance()) != 0;
+        }
+        synchronized (lockOrder[index]) {
+            return executeLocked(command, lockOrder, index + 1, observed);
+        }
+    }
+
+    /**
+     * Calcula e aplica os juros de uma conta que rende juros (implementa {@code InterestBearing}).
+     * <p><b>LÓGICA DE FUNCIONAMENTO:</b>
+     * <ol>
+     *     <li>Busca a conta no mapa e verifica se ela implementa InterestBearing</li>
+     *     <li>Chama calculateInterest(), que aplica a estratégia de juros e notifica os observadores</li>
+     *     <li>Registra a operação no TransactionLogger com o valor dos juros e o novo saldo</li>
+     * </ol>
+     *
+     * @param accountNumber O número da conta.
+     * @return true se os juros foram aplicados, false se a conta não existe ou não rende juros.
+     */
+    public boolean calculateInterest(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+
+        if (account instanceof InterestBearing) {
+            synchronized (account) {
+                if (accounts.get(accountNumber) != account) {
+                    System.out.println("Account not found: " + accountNumber);
+                    return false;
+                }
+                if (eventStore != null) {
+                    double interest = ((InterestBearing) account).previewInterest();
+                    if (interest != 0) {
+                        eventStore.commit(Collections.singletonList(AccountEvent.interestCredited(accountNumber, interest)));
+                    }
+                    return true;
+                }
+                double previousBalance = account.getBalance();
+                ((InterestBearing) account).calculateInterest();
+                TransactionLogger.getInstance().log("Interest: Account " + accountNumber + ", Amount: " + (account.getBalance() - previousBalance) + ", New Balance: " + account.getBalance());
+            }
+            return true;
+        } else if (account != null) {
+            System.out.println("Interest not supported for this account type: " + account.getAccountType());
+        } else {
+            System.out.println("Account not found: " + accountNumber);
+        }
+        return false;
     }
 
     /**
@@ -210,13 +724,185 @@ public class BankingFacade {
     }
 
     /**
-     * Retorna uma cópia do mapa de contas para operações de leitura.
-     * Este método foi adicionado para facilitar a integração com a GUI,
-     * mantendo o encapsulamento ao retornar uma cópia.
-     * @return Uma cópia do mapa de contas.
+     * Retorna um snapshot do mapa de contas para operações de leitura.
+     * Este método foi adicionado para facilitar a integração com a GUI.
+     * <p><b>LÓGICA:</b> O snapshot é a versão atual do {@code AccountRegistry}: obtido em O(1),
+     * sem copiar o mapa, e imutável, de modo que pode ser percorrido enquanto contas são criadas
+     * ou removidas. As contas são as mesmas da Facade (os saldos lidos são os atuais).
+     * @return Um mapa imutável com as contas deste instante.
      */
     public Map<String, Account> getAllAccounts() {
-        return new HashMap<>(accounts);
+        return accounts.snapshot();
+    }
+
+    /**
+     * Executa uma ação para cada conta, sem copiar o registro.
+     * <p><b>LÓGICA:</b> Percorre o snapshot atual do registro: as contas criadas ou removidas
+     * durante o percurso não afetam o conjunto visitado.
+     * @param action A ação a ser executada para cada conta.
+     */
+    public void forEachAccount(Consumer<? super Account> action) {
+        accounts.snapshot().values().forEach(action);
+    }
+
+    /**
+     * Executa uma ação para cada conta de um tipo.
+     * @param type O tipo das contas a visitar.
+     * @param action A ação a ser executada para cada conta.
+     */
+    public void forEachAccount(AccountType type, Consumer<? super Account> action) {
+        forEachAccount(account -> {
+            if (AccountType.of(account) == type) {
+                action.accept(account);
+            }
+        });
+    }
+
+    /**
+     * Retorna um Stream sequencial das contas.
+     * <p><b>LÓGICA:</b> O Stream é criado sobre o Spliterator do snapshot atual do registro
+     * ({@code PersistentHashMap}), sem copiar as contas. Para ler saldos consistentes com outras
+     * operações em andamento, trave a conta (synchronized) como a Facade faz.
+     * @return As contas deste instante.
+     */
+    public Stream<Account> stream() {
+        return StreamSupport.stream(accounts.snapshot().valueSpliterator(), false);
+    }
+
+    /**
+     * Retorna um Stream sequencial das contas de um tipo.
+     * @param type O tipo das contas.
+     * @return As contas deste instante com o tipo informado.
+     */
+    public Stream<Account> stream(AccountType type) {
+        return stream().filter(account -> AccountType.of(account) == type);
+    }
+
+    /**
+     * Retorna um Stream paralelo das contas, para tarefas em lote (ex: juros, extratos).
+     * <p><b>LÓGICA:</b> O Spliterator divide a trie do registro pelos seus nós, em partes de
+     * tamanhos parecidos, que o ForkJoinPool comum processa em paralelo.
+     * @return As contas deste instante.
+     */
+    public Stream<Account> parallelStream() {
+        return StreamSupport.stream(accounts.snapshot().valueSpliterator(), true);
+    }
+
+    /**
+     * Retorna um Stream paralelo das contas de um tipo.
+     * @param type O tipo das contas.
+     * @return As contas deste instante com o tipo informado.
+     */
+    public Stream<Account> parallelStream(AccountType type) {
+        return parallelStream().filter(account -> AccountType.of(account) == type);
+    }
+
+    /**
+     * Calcula os totais do livro de contas: depósitos, cheque especial em uso, saldo das
+     * poupanças e a quantidade de contas por tipo.
+     * <p><b>LÓGICA:</b> Uma redução fork/join no ForkJoinPool comum divide o snapshot do registro
+     * pelo seu Spliterator; cada tarefa soma a sua parte em um acumulador próprio e os
+     * acumuladores são combinados no fim, sem copiar as contas.
+     * @return Os totais e o tempo gasto para calculá-los.
+     */
+    public AccountAggregates aggregateAccounts() {
+        return AccountAggregates.compute(accounts.snapshot().valueSpliterator(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reconcilia os saldos em memória com o log de transações, com uma partição por processador.
+     * @return O relatório com as divergências e a vazão em contas por segundo.
+     * @throws IOException Se houver erro na leitura do log.
+     * @throws InterruptedException Se a espera pelas partições for interrompida.
+     * @see #reconcileBalances(int)
+     */
+    public ReconciliationReport reconcileBalances() throws IOException, InterruptedException {
+        return reconcileBalances(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reconcilia os saldos em memória com o log de transações (ex: um job noturno que confere
+     * se nenhuma alteração de saldo escapou do log).
+     * <p><b>LÓGICA:</b> O {@code BalanceReconciler} reproduz o log conta a conta em paralelo,
+     * dividindo as contas pelo hash do número, e compara o resultado com o saldo de cada conta
+     * lido com apenas ela travada, entre duas leituras do fim do log; as operações continuam
+     * durante a reconciliação.
+     * <p>No modo event-sourced os saldos são o fold do journal de eventos e as operações não
+     * são gravadas no log de transações, então a reconciliação não está disponível.
+     *
+     * @param partitions Em quantas partes (e threads) as contas são divididas.
+     * @return O relatório com as divergências e a vazão em contas por segundo.
+     * @throws IOException Se houver erro na leitura do log.
+     * @throws InterruptedException Se a espera pelas partições for interrompida.
+     */
+    public ReconciliationReport reconcileBalances(int partitions) throws IOException, InterruptedException {
+        if (eventStore != null) {
+            throw new IllegalStateException("Balance reconciliation is not available in event-sourced mode");
+        }
+        return new BalanceReconciler(accounts, TransactionLogger.getInstance().getLogFile(), partitions).reconcile();
+    }
+
+    /**
+     * Retorna as contas com saldo abaixo de um limite (ex: "contas abaixo de -1000").
+     * <p><b>LÓGICA:</b> Lê o {@code BalanceIndex} do registro, uma skip list ordenada pelo saldo
+     * e atualizada a cada alteração de saldo: custa O(log n + k), sem percorrer nem ordenar as
+     * contas.
+     * @param threshold O limite (exclusivo).
+     * @param limit A quantidade máxima de contas.
+     * @return As contas, do menor saldo para o maior.
+     */
+    public List<BalanceEntry> getAccountsBelow(double threshold, int limit) {
+        return accounts.getBalanceIndex().below(threshold, limit);
+    }
+
+    /**
+     * Retorna as contas com saldo dentro de uma faixa, pelo índice de saldos.
+     * @param min O menor saldo (inclusivo).
+     * @param max O maior saldo (inclusivo).
+     * @param limit A quantidade máxima de contas.
+     * @return As contas, do menor saldo para o maior.
+     */
+    public List<BalanceEntry> getAccountsInBalanceRange(double min, double max, int limit) {
+        return accounts.getBalanceIndex().between(min, max, limit);
+    }
+
+    /**
+     * Retorna as contas com os maiores saldos, pelo índice de saldos.
+     * @param limit A quantidade de contas (ex: 100).
+     * @return As contas, do maior saldo para o menor.
+     */
+    public List<BalanceEntry> getTopBalances(int limit) {
+        return accounts.getBalanceIndex().top(limit);
+    }
+
+    /**
+     * Busca as contas de um titular pelo nome completo, no índice de titulares do registro.
+     * @param customerName O nome (acentos, maiúsculas e espaços extras são ignorados).
+     * @return Os números das contas do titular, ou uma lista vazia.
+     */
+    public List<String> findAccountsByCustomer(String customerName) {
+        return accounts.getCustomerIndex().findExact(customerName);
+    }
+
+    /**
+     * Busca titulares pelo início do nome (ex: enquanto o usuário digita).
+     * @param prefix O início do nome.
+     * @param limit A quantidade máxima de titulares.
+     * @return Os titulares e as suas contas, em ordem alfabética.
+     */
+    public List<CustomerMatch> searchCustomers(String prefix, int limit) {
+        return accounts.getCustomerIndex().findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Busca titulares por um nome possivelmente digitado com erros.
+     * @param customerName O nome buscado.
+     * @param maxDistance A quantidade máxima de caracteres incluídos, removidos ou trocados.
+     * @param limit A quantidade máxima de titulares.
+     * @return Os titulares mais próximos primeiro.
+     */
+    public List<CustomerMatch> searchCustomersFuzzy(String customerName, int maxDistance, int limit) {
+        return accounts.getCustomerIndex().findFuzzy(customerName, maxDistance, limit);
     }
 
     /**
@@ -245,6 +931,84 @@ public class BankingFacade {
         return com.bank.logger.TransactionLogger.getInstance().getLogs();
     }
 
+    /**
+     * Abre uma visão paginada do histórico de transações, filtrada por conta, tipo e datas.
+     * <p><b>LÓGICA:</b> Diferente de getTransactionHistory(), nenhuma linha é carregada aqui:
+     * o chamador invoca refresh() no resultado (de preferência fora da thread da interface)
+     * para indexar o log, e as páginas são lidas sob demanda. Filtros por data usam o índice
+     * por data do log ({@code TransactionTimeIndex}) e leem só o trecho do intervalo.
+     *
+     * @param filter O filtro a ser aplicado (use {@code TransactionFilter.all()} para todos os registros).
+     * @return Uma fonte paginada sobre o log de transações, ainda não indexada.
+     */
+    public PagedTransactionLog openTransactionHistory(TransactionFilter filter) {
+        TransactionLogger logger = TransactionLogger.getInstance();
+        return new PagedTransactionLog(logger.getLogFile(), filter, logger.getTimeIndex());
+    }
+
+    /**
+     * Retorna as transações de um intervalo de tempo (ex: "entre 10:00 e 10:05").
+     * <p><b>LÓGICA:</b> O índice por data localiza com busca binária o bloco do log em que o
+     * intervalo começa; a leitura parte dali e termina no bloco que já passou do fim do
+     * intervalo, sem percorrer o restante do arquivo.
+     *
+     * @param from Início do intervalo (inclusivo), ou null.
+     * @param to Fim do intervalo (exclusivo), ou null.
+     * @return Os registros do intervalo, na ordem do log.
+     * @throws IOException Se houver erro na leitura do log.
+     */
+    public List<TransactionRecord> getTransactionsBetween(LocalDateTime from, LocalDateTime to) throws IOException {
+        List<TransactionRecord> records = new ArrayList<>();
+        TransactionLogger.getInstance().getTimeIndex().forEachBetween(from, to, records::add);
+        return records;
+    }
+
+    /**
+     * Retorna o saldo que uma conta tinha em um instante passado (ex: no fechamento do dia 3).
+     * <p><b>LÓGICA:</b> O índice de saldos guarda, a cada tantos registros de cada conta, um
+     * ponto de controle com o saldo; a consulta localiza com busca binária o último ponto até o
+     * instante e relê apenas os registros seguintes da conta até ele.
+     * <p>O histórico vem do log de transações. No modo event-sourced os depósitos e saques são
+     * gravados apenas no journal de eventos, então a consulta não está disponível.
+     *
+     * @param accountNumber O número da conta.
+     * @param instant O instante da consulta.
+     * @return O saldo no instante, ou {@code Double.NaN} se a conta não existia nesse instante.
+     * @throws IOException Se houver erro na leitura do log.
+     */
+    public double getBalanceAt(String accountNumber, LocalDateTime instant) throws IOException {
+        if (eventStore != null) {
+            throw new IllegalStateException("Point-in-time balances are not available in event-sourced mode");
+        }
+        return TransactionLogger.getInstance().getBalanceHistory().getBalanceAt(accountNumber, instant);
+    }
+
+    /**
+     * Retorna as últimas transações de uma conta (ex: "as últimas 20").
+     * <p><b>LÓGICA:</b> Cada conta guarda em memória, em um buffer circular, as transações mais
+     * recentes, gravadas pelo caminho dos observadores; quando o buffer tem a quantidade pedida,
+     * ou todo o histórico de uma conta aberta neste processo (o buffer ainda não deu a volta),
+     * a consulta não lê o log. Caso contrário (pedido maior que o buffer, ou transações de antes
+     * de a conta ser carregada), os registros vêm do log, lidos a partir dos pontos de controle
+     * da conta. No modo event-sourced o log não tem os depósitos e saques, então a resposta vem
+     * apenas da memória.
+     *
+     * @param accountNumber O número da conta.
+     * @param limit A quantidade máxima de transações.
+     * @return As transações, da mais nova para a mais antiga.
+     * @throws IOException Se houver erro na leitura do log.
+     */
+    public List<TransactionRecord> getRecentTransactions(String accountNumber, int limit) throws IOException {
+        if (eventStore != null) {
+            return accounts.getRecentTransactions().latest(accountNumber, limit);
+        }
+        List<TransactionRecord> recent = accounts.getRecentTransactions().covering(accountNumber, limit);
+        if (recent != null) {
+            return recent;
+        }
+        return TransactionLogger.getInstance().getBalanceHistory().latest(accountNumber, limit);
+    }
+
     /**
      * Realiza uma transferência entre duas contas.
      * Esta operação combina um saque da conta de origem e um depósito na conta de destino.
@@ -258,13 +1022,10 @@ public class BankingFacade {
      *             <li>Se for conta poupança: verifica apenas o saldo (não permite negativo)</li>
      *         </ul>
      *     </li>
-     *     <li><b>Execução:</b> Se todas as validações passarem:
-     *         <ul>
-     *             <li>Cria e executa um WithdrawCommand na conta de origem (usa Command Pattern)</li>
-     *             <li>Cria e executa um DepositCommand na conta de destino (usa Command Pattern)</li>
-     *             <li>Cada comando registra a transação no TransactionLogger e notifica observadores</li>
-     *         </ul>
-     *     </li>
+     *     <li><b>Execução:</b> Se todas as validações passarem, cria um TransferCommand
+     *         (Command Pattern), que executa um WithdrawCommand na conta de origem e um
+     *         DepositCommand na conta de destino. Cada comando registra a transação no
+     *         TransactionLogger e notifica observadores</li>
      * </ol>
      * 
      * @param fromAccountNumber Número da conta de origem.
@@ -301,45 +1062,153 @@ public class BankingFacade {
             return false;
         }
 
-        // Verifica se há saldo suficiente na conta de origem (considerando possível cheque especial)
-        double currentBalance = fromAccount.getBalance();
-        
-        // Se for conta corrente, considera o limite de cheque especial
-        if (fromAccount instanceof com.bank.account.CheckingAccount) {
-            com.bank.account.CheckingAccount checkingAccount = (com.bank.account.CheckingAccount) fromAccount;
-            // Verifica se o saldo após a transferência não excederia o limite negativo permitido
-            // Exemplo: se balance = 100, overdraftLimit = 500, pode transferir até 600
-            if (currentBalance - amount < -checkingAccount.getOverdraftLimit()) {
-                System.out.println("Insufficient funds for transfer from account: " + fromAccountNumber);
-                return false;
-            }
-        } 
-        // Se for conta poupança, verifica apenas o saldo (não permite saldo negativo)
-        else if (currentBalance < amount) {
-            System.out.println("Insufficient funds for transfer from account: " + fromAccountNumber);
+        // Cria um comando composto (saque na origem + depósito no destino), que verifica o saldo
+        // considerando o cheque especial, e o executa com as duas contas travadas
+        TransferCommand transfer = new TransferCommand((Withdrawable) fromAccount, fromAccount, toAccount, amount);
+        execute(transfer, fromAccount, toAccount);
+        if (transfer.isCompleted()) {
+            System.out.println("Transfer completed: " + amount + " from " + fromAccountNumber + " to " + toAccountNumber);
+        }
+        return transfer.isCompleted();
+    }
+
+    /**
+     * Prepara a parte local de uma transferência entre nós (fase 1 do two-phase commit).
+     * <p><b>LÓGICA:</b> Um débito (valor negativo) é reservado sacando o valor da conta de
+     * origem imediatamente, com as mesmas regras de um saque; assim o valor não pode ser gasto
+     * por outra operação até a decisão. Um crédito (valor positivo) apenas verifica que a conta
+     * de destino existe e fica pendente. A preparação é idempotente: o identificador é ocupado
+     * com putIfAbsent() antes do saque, e um RESERVE repetido (ou um ABORT) que chegue durante o
+     * saque espera por ele no monitor da parte preparada, sem reservar o valor de novo.
+     *
+     * @param transferId O identificador da transferência, gerado pelo coordenador.
+     * @param accountNumber A conta local envolvida.
+     * @param amount O valor com sinal: negativo para debitar, positivo para creditar.
+     * @return true se a parte local foi preparada (voto "sim"), false caso contrário.
+     */
+    public boolean prepareTransfer(String transferId, String accountNumber, double amount) {
+        Account account = accounts.get(accountNumber);
+        if (account == null || amount == 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
             return false;
         }
+        expireDecidedTransfers();
+        PreparedTransfer prepared = new PreparedTransfer(account, amount);
+        PreparedTransfer existing;
+        synchronized (prepared) {
+            existing = preparedTransfers.putIfAbsent(transferId, prepared);
+            if (existing == null) {
+                if (amount < 0 && (!(account instanceof Withdrawable)
+                        || !execute(new WithdrawCommand((Withdrawable) account, account, -amount), account))) {
+                    preparedTransfers.remove(transferId, prepared);
+                    return false;
+                }
+                prepared.reserved = true;
+                return true;
+            }
+        }
+        if (existing.decision != null) {
+            // Já decidida: um RESERVE atrasado só vota "sim" se a transferência foi confirmada
+            return existing.decision;
+        }
+        synchronized (existing) {
+            return existing.reserved;
+        }
+    }
 
-        try {
-            // Realiza o saque da conta de origem usando o padrão Command
-            // O WithdrawCommand encapsula a operação e registra no TransactionLogger
-            Command withdraw = new WithdrawCommand((Withdrawable) fromAccount, fromAccount, amount);
-            withdraw.execute();
+    /**
+     * Confirma a parte local de uma transferência preparada (fase 2 do two-phase commit).
+     * <p><b>LÓGICA:</b> O débito já saiu da conta na preparação, então só o crédito é aplicado,
+     * como um depósito. A entrada vira uma marca de transferência confirmada, então uma
+     * confirmação repetida (ex: reenviada pela recuperação do coordenador) não credita de novo.
+     *
+     * @param transferId O identificador da transferência.
+     * @return true se a transferência está confirmada neste nó; false se ela é desconhecida
+     *         (nunca preparada aqui, ou a marca já expirou) ou foi abortada.
+     */
+    public boolean commitTransfer(String transferId) {
+        expireDecidedTransfers();
+        PreparedTransfer marker = new PreparedTransfer(true);
+        while (true) {
+            PreparedTransfer prepared = preparedTransfers.get(transferId);
+            if (prepared == null) {
+                return false;
+            }
+            if (prepared.decision != null) {
+                return prepared.decision;
+            }
+            if (preparedTransfers.replace(transferId, prepared, marker)) {
+                decidedTransfers.add(new AbstractMap.SimpleImmutableEntry<>(transferId, marker));
+                synchronized (prepared) {
+                    if (prepared.reserved && prepared.amount > 0) {
+                        execute(new DepositCommand(prepared.account, prepared.amount), prepared.account);
+                    }
+                    prepared.reserved = false;
+                }
+                return true;
+            }
+        }
+    }
 
-            // Realiza o depósito na conta de destino usando o padrão Command
-            // O DepositCommand encapsula a operação e registra no TransactionLogger
-            Command deposit = new DepositCommand(toAccount, amount);
-            deposit.execute();
+    /**
+     * Desfaz a parte local de uma transferência (fase 2 do two-phase commit, decisão de abortar).
+     * <p><b>LÓGICA:</b> Um débito reservado é devolvido à conta como um depósito; um crédito
+     * pendente é descartado. A troca pela marca de transferência abortada é atômica; se uma
+     * preparação ainda está sacando o valor, a devolução espera por ela no monitor da parte
+     * preparada. Se a transferência ainda não foi preparada aqui, a marca faz uma preparação que
+     * chegue depois ser recusada. As marcas expiram depois de DECIDED_TRANSFER_TTL_NANOS.
+     *
+     * @param transferId O identificador da transferência.
+     * @return true (o cancelamento nunca é recusado).
+     */
+    public boolean abortTransfer(String transferId) {
+        expireDecidedTransfers();
+        PreparedTransfer marker = new PreparedTransfer(false);
+        while (true) {
+            PreparedTransfer prepared = preparedTransfers.get(transferId);
+            if (prepared == null) {
+                if (preparedTransfers.putIfAbsent(transferId, marker) == null) {
+                    decidedTransfers.add(new AbstractMap.SimpleImmutableEntry<>(transferId, marker));
+                    return true;
+                }
+            } else if (prepared.decision != null) {
+                return true;
+            } else if (preparedTransfers.replace(transferId, prepared, marker)) {
+                decidedTransfers.add(new AbstractMap.SimpleImmutableEntry<>(transferId, marker));
+                synchronized (prepared) {
+                    if (prepared.reserved && prepared.amount < 0) {
+                        execute(new DepositCommand(prepared.account, -prepared.amount), prepared.account);
+                    }
+                    prepared.reserved = false;
+                }
+                return true;
+            }
+        }
+    }
 
-            // Imprime mensagem de confirmação
-            System.out.println("Transfer completed: " + amount + " from " + fromAccountNumber + " to " + toAccountNumber);
-            return true;
+    /**
+     * Retira do mapa as marcas de transferências decididas que já expiraram.
+     */
+    private void expireDecidedTransfers() {
+        long now = System.nanoTime();
+        Map.Entry<String, PreparedTransfer> oldest;
+        while ((oldest = decidedTransfers.peek()) != null && now - oldest.getValue().expiresAt >= 0) {
+            if (decidedTransfers.remove(oldest)) {
+                preparedTransfers.remove(oldest.getKey(), oldest.getValue());
+            }
+        }
+    }
 
-        } catch (Exception e) {
-            // Em caso de erro durante a transferência, exibe mensagem e retorna false
-            System.out.println("Error during transfer: " + e.getMessage());
-            return false;
+    /**
+     * Retorna quantas transferências entre nós estão preparadas e aguardando decisão.
+     * @return O número de transferências em dúvida neste nó.
+     */
+    public int getPreparedTransferCount() {
+        int count = 0;
+        for (PreparedTransfer prepared : preparedTransfers.values()) {
+            if (prepared.decision == null) {
+                count++;
+            }
         }
+        return count;
     }
 }
-
@@ -79,4 +79,32 @@ public class AccountFactory {
                 throw new IllegalArgumentException("Unknown account type: " + type);
         }
     }
+
+    /**
+     * Recria uma conta com um número já existente, por exemplo ao reproduzir o journal de
+     * transações em uma réplica. Os parâmetros seguem as mesmas regras de
+     * {@link #createAccount(AccountType, String, double, double...)}.
+     *
+     * @param accountNumber O número da conta.
+     * @param type O tipo de conta (CHECKING ou SAVINGS).
+     * @param customerName O nome do titular da conta.
+     * @param initialBalance O saldo inicial da conta.
+     * @param params Parâmetros adicionais específicos do tipo de conta.
+     * @return Uma nova instância de {@code Account} com o número informado.
+     * @throws IllegalArgumentException Se o tipo de conta for desconhecido ou nulo.
+     */
+    public static Account createAccount(String accountNumber, AccountType type, String customerName, double initialBalance, double... params) {
+        if (type == null) {
+            throw new IllegalArgumentException("Account type cannot be null.");
+        }
+        double param = params.length > 0 ? params[0] : 0.0;
+        switch (type) {
+            case CHECKING:
+                return new CheckingAccount(accountNumber, customerName, initialBalance, param);
+            case SAVINGS:
+                return new SavingsAccount(accountNumber, customerName, initialBalance, param);
+            default:
+                throw new IllegalArgumentException("Unknown account type: " + type);
+        }
+    }
 }
@@ -6,11 +6,23 @@ import com.bank.account.CheckingAccount;
 import com.bank.account.SavingsAccount;
 import com.bank.facade.BankingFacade;
 import com.bank.gui.model.AuthenticationService;
+import com.bank.gui.model.PagedTransactionList;
 import com.bank.gui.model.User;
+import com.bank.gui.util.RefreshCoalescer;
 import com.bank.gui.util.UIUtils;
 import com.bank.gui.util.ValidationUtils;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionFilter;
+import com.bank.logger.TransactionRecord;
+import com.bank.observer.AccountObserver;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -21,11 +33,16 @@ import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Controlador para a janela principal da aplicação bancária.
@@ -39,6 +56,23 @@ import java.util.stream.Collectors;
  * <p>Demonstra o **Princípio da Responsabilidade Única (SRP)** ao focar na lógica
  * de apresentação e interação da janela principal, delegando as operações de negócio
  * para a {@code BankingFacade}.
+ *
+ * <p>A tabela de contas é mantida de forma incremental através do padrão **Observer**:
+ * o controlador se registra na Facade e, a cada evento, atualiza apenas a linha da conta
+ * afetada. Uma única lista de apoio, indexada pelo número da conta, alimenta a tabela e
+ * os ComboBoxes, de modo que cada operação custa O(1) em vez de O(contas). Os eventos passam
+ * por um {@code RefreshCoalescer}, que aplica as contas alteradas e os novos registros de
+ * histórico uma vez por pulso de animação, mesmo sob milhares de eventos por segundo.
+ *
+ * <p>Operações que acessam a Facade ou o arquivo de log (depósito, saque, juros, transferência
+ * e leitura do histórico) são executadas como {@code Task} em uma thread de trabalho, nunca na
+ * FX Application Thread. Enquanto houver tarefas em andamento, os botões de ação ficam
+ * desabilitados e uma barra de progresso é exibida; os resultados são aplicados de volta
+ * na interface pela FX Application Thread.
+ *
+ * <p>O histórico de transações é exibido através de uma lista virtual paginada
+ * ({@code PagedTransactionList}): apenas as páginas visíveis são lidas do log, e os filtros
+ * por conta, tipo e datas são aplicados na leitura do log, não na tabela.
  */
 public class MainController {
 
@@ -99,6 +133,34 @@ public class MainController {
     private TableColumn<TransactionDisplay, String> colAmount;
     @FXML
     private TableColumn<TransactionDisplay, String> colNewBalance;
+    @FXML
+    private ComboBox<String> historyAccountFilterCombo;
+    @FXML
+    private ComboBox<String> historyTypeFilterCombo;
+    @FXML
+    private DatePicker historyFromDatePicker;
+    @FXML
+    private DatePicker historyToDatePicker;
+    @FXML
+    private Button applyHistoryFilterButton;
+
+    // --- Botões de ação, desabilitados enquanto há tarefas em andamento ---
+    @FXML
+    private Button createAccountButton;
+    @FXML
+    private Button depositButton;
+    @FXML
+    private Button withdrawButton;
+    @FXML
+    private Button calculateInterestButton;
+    @FXML
+    private Button transferButton;
+
+    // --- Indicadores de tarefas em segundo plano ---
+    @FXML
+    private ProgressBar taskProgressBar;
+    @FXML
+    private Label taskStatusLabel;
 
     // --- Outros componentes FXML ---
     @FXML
@@ -110,6 +172,50 @@ public class MainController {
     private BankingFacade bankingFacade = new BankingFacade();
     private AuthenticationService authenticationService;
 
+    // --- Modelo incremental da lista de contas ---
+    /** Linhas da tabela de contas, na ordem de criação. */
+    private final ObservableList<AccountDisplay> accountDisplays = FXCollections.observableArrayList();
+    /** Números de conta compartilhados pelos ComboBoxes de operação e transferência. */
+    private final ObservableList<String> accountNumbers = FXCollections.observableArrayList();
+    /** Índice das linhas pelo número da conta, permitindo localizar a linha afetada em O(1). */
+    private final Map<String, AccountDisplay> accountDisplayIndex = new HashMap<>();
+    /** Observador registrado na Facade para receber os eventos de todas as contas. */
+    private final AccountObserver accountTableObserver = this::onAccountEvent;
+    /** Agrupa os eventos de conta e de histórico em uma atualização por pulso de animação.
+     *  A taxa máxima pode ser limitada pela propriedade de sistema "bank.gui.maxRefreshRate"
+     *  (atualizações por segundo; 0 = a cada pulso). */
+    private final RefreshCoalescer refreshCoalescer = new RefreshCoalescer(
+            Integer.getInteger("bank.gui.maxRefreshRate", 0),
+            this::applyAccountUpdates,
+            this::refreshTransactionHistory);
+
+    // --- Execução em segundo plano ---
+    /** Thread única de trabalho: serializa as chamadas à Facade e as leituras do log,
+     *  mantendo a FX Application Thread livre de I/O. */
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "banking-gui-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Número de tarefas submetidas e ainda não concluídas. */
+    private final IntegerProperty runningTasks = new SimpleIntegerProperty(0);
+    /** Verdadeiro enquanto houver alguma tarefa em andamento. */
+    private final BooleanBinding busy = runningTasks.greaterThan(0);
+
+    // --- Histórico paginado ---
+    /** Formato de data/hora exibido na tabela de histórico. */
+    private static final DateTimeFormatter HISTORY_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** Tipos de registro oferecidos no filtro do histórico. */
+    private static final String[] HISTORY_TYPES = {"Deposit", "Withdrawal", "Interest", "Account Created", "Account Removed", "AUDIT"};
+    /** Itens atuais da tabela de histórico (null até a primeira indexação). */
+    private PagedTransactionList<TransactionDisplay> transactionHistoryItems;
+    /** Filtro aplicado ao histórico exibido. */
+    private TransactionFilter historyFilter = TransactionFilter.all();
+    /** Indica se há uma indexação incremental do histórico em andamento. */
+    private boolean historyRefreshInFlight;
+    /** Indica se novos registros chegaram durante uma indexação em andamento. */
+    private boolean historyRefreshPending;
+
     /**
      * Classe interna para exibir contas na TableView.
      * Utiliza o padrão **Adapter** implicitamente, adaptando o objeto {@code Account}
@@ -119,20 +225,35 @@ public class MainController {
         private String accountNumber;
         private String customerName;
         private String accountType;
-        private String balance;
+        private final ReadOnlyStringWrapper balance = new ReadOnlyStringWrapper();
+        private double rawBalance;
 
         public AccountDisplay(String accountNumber, String customerName, String accountType, double balance) {
             this.accountNumber = accountNumber;
             this.customerName = customerName;
             this.accountType = accountType;
-            this.balance = UIUtils.formatCurrency(balance);
+            setBalance(balance);
+        }
+
+        /**
+         * Atualiza o saldo exibido. Como o saldo é uma propriedade observável, a célula
+         * da tabela é redesenhada sem substituir a lista de itens. A formatação só é
+         * refeita quando o valor realmente muda.
+         * @param newBalance O novo saldo da conta.
+         */
+        public void setBalance(double newBalance) {
+            if (balance.get() == null || Double.compare(rawBalance, newBalance) != 0) {
+                rawBalance = newBalance;
+                balance.set(UIUtils.formatCurrency(newBalance));
+            }
         }
 
         // Getters para PropertyValueFactory
         public String getAccountNumber() { return accountNumber; }
         public String getCustomerName() { return customerName; }
         public String getAccountType() { return accountType; }
-        public String getBalance() { return balance; }
+        public String getBalance() { return balance.get(); }
+        public ReadOnlyStringProperty balanceProperty() { return balance.getReadOnlyProperty(); }
     }
 
     /**
@@ -198,6 +319,12 @@ public class MainController {
         colAccountType.setCellValueFactory(new PropertyValueFactory<>("accountType"));
         colBalance.setCellValueFactory(new PropertyValueFactory<>("balance"));
 
+        // A tabela e os ComboBoxes compartilham listas únicas, atualizadas incrementalmente
+        accountsTable.setItems(accountDisplays);
+        operationAccountCombo.setItems(accountNumbers);
+        fromAccountCombo.setItems(accountNumbers);
+        toAccountCombo.setItems(accountNumbers);
+
         // Configura as colunas da tabela de histórico de transações
         colTimestamp.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         colAccount.setCellValueFactory(new PropertyValueFactory<>("accountNumber"));
@@ -205,6 +332,10 @@ public class MainController {
         colAmount.setCellValueFactory(new PropertyValueFactory<>("amount"));
         colNewBalance.setCellValueFactory(new PropertyValueFactory<>("newBalance"));
 
+        // Configura os filtros do histórico
+        historyAccountFilterCombo.setItems(accountNumbers);
+        historyTypeFilterCombo.setItems(FXCollections.observableArrayList(HISTORY_TYPES));
+
         // Adiciona listeners para limpar mensagens de status ao digitar
         customerNameField.textProperty().addListener((obs, oldVal, newVal) -> createAccountStatusLabel.setText(""));
         initialBalanceField.textProperty().addListener((obs, oldVal, newVal) -> createAccountStatusLabel.setText(""));
@@ -213,6 +344,67 @@ public class MainController {
 
         amountField.textProperty().addListener((obs, oldVal, newVal) -> operationStatusLabel.setText(""));
         transferAmountField.textProperty().addListener((obs, oldVal, newVal) -> transferStatusLabel.setText(""));
+
+        // Desabilita as ações enquanto houver tarefas em segundo plano
+        createAccountButton.disableProperty().bind(busy);
+        depositButton.disableProperty().bind(busy);
+        withdrawButton.disableProperty().bind(busy);
+        calculateInterestButton.disableProperty().bind(busy);
+        transferButton.disableProperty().bind(busy);
+        applyHistoryFilterButton.disableProperty().bind(busy);
+        taskProgressBar.visibleProperty().bind(busy);
+    }
+
+    /**
+     * Cria uma {@code Task} simples a partir de um trabalho sem progresso mensurável.
+     * A barra de progresso fica em modo indeterminado enquanto a tarefa executa.
+     */
+    private static <T> Task<T> backgroundTask(Callable<T> work) {
+        return new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+    }
+
+    /**
+     * Submete uma tarefa para a thread de trabalho.
+     * <p><b>LÓGICA:</b> Incrementa o contador de tarefas (desabilitando as ações), liga a barra
+     * de progresso e o texto de status à tarefa e, ao final, executa {@code onSuccess} na
+     * FX Application Thread. Em caso de falha, exibe um alerta de erro.
+     *
+     * @param description Texto exibido enquanto a tarefa executa.
+     * @param task A tarefa a ser executada fora da FX Application Thread.
+     * @param onSuccess Ação aplicada na interface com o resultado da tarefa.
+     */
+    private <T> void submitTask(String description, Task<T> task, Consumer<T> onSuccess) {
+        runningTasks.set(runningTasks.get() + 1);
+        taskProgressBar.progressProperty().bind(task.progressProperty());
+        taskStatusLabel.setText(description);
+
+        task.setOnSucceeded(e -> {
+            finishTask();
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            finishTask();
+            Throwable error = task.getException();
+            UIUtils.showErrorAlert("Erro", "Ocorreu um erro inesperado: " + error.getMessage());
+            error.printStackTrace();
+        });
+        backgroundExecutor.submit(task);
+    }
+
+    /**
+     * Decrementa o contador de tarefas e limpa os indicadores quando não restam tarefas.
+     */
+    private void finishTask() {
+        runningTasks.set(runningTasks.get() - 1);
+        if (runningTasks.get() == 0) {
+            taskProgressBar.progressProperty().unbind();
+            taskStatusLabel.setText("");
+        }
     }
 
     /**
@@ -224,66 +416,176 @@ public class MainController {
             User currentUser = authenticationService.getCurrentUser();
             welcomeLabel.setText("Bem-vindo(a), " + currentUser.getFullName() + "!");
         }
-        refreshAccountsList();
-        refreshTransactionHistory();
+        loadAccountsList();
+        openTransactionHistory(historyFilter);
     }
 
     /**
-     * Atualiza a lista de contas exibida na tabela e nos ComboBoxes.
+     * Carrega a lista de contas uma única vez e registra o controlador como observador
+     * da Facade. A partir daí, a tabela é mantida apenas pelos eventos das contas.
      */
-    private void refreshAccountsList() {
-        ObservableList<AccountDisplay> accountDisplays = FXCollections.observableArrayList();
-        ObservableList<String> accountNumbers = FXCollections.observableArrayList();
-
-        for (Map.Entry<String, Account> entry : bankingFacade.getAllAccounts().entrySet()) {
-            Account acc = entry.getValue();
-            accountDisplays.add(new AccountDisplay(
-                    acc.getAccountNumber(),
-                    acc.getCustomerName(),
-                    acc.getAccountType(),
-                    acc.getBalance()
-            ));
-            accountNumbers.add(acc.getAccountNumber());
+    private void loadAccountsList() {
+        bankingFacade.removeAccountObserver(accountTableObserver);
+        accountDisplays.clear();
+        accountNumbers.clear();
+        accountDisplayIndex.clear();
+
+        for (Account acc : bankingFacade.getAllAccounts().values()) {
+            upsertAccountRow(acc);
         }
-        accountsTable.setItems(accountDisplays);
-        operationAccountCombo.setItems(accountNumbers);
-        fromAccountCombo.setItems(accountNumbers);
-        toAccountCombo.setItems(accountNumbers);
+        bankingFacade.addAccountObserver(accountTableObserver);
     }
 
     /**
-     * Atualiza o histórico de transações exibido na tabela.
+     * Recebe os eventos de conta da Facade, possivelmente fora da thread do JavaFX.
+     * Apenas marca a conta e o histórico como alterados; a aplicação na interface é feita
+     * pelo {@code RefreshCoalescer} no próximo pulso de animação.
+     */
+    private void onAccountEvent(Account account, String eventType, double amount) {
+        refreshCoalescer.markAccountDirty(account);
+        refreshCoalescer.markHistoryDirty();
+    }
+
+    /**
+     * Aplica, na FX Application Thread, as contas alteradas desde o último pulso.
+     * @param accounts As contas alteradas, sem repetições.
+     */
+    private void applyAccountUpdates(List<Account> accounts) {
+        for (Account account : accounts) {
+            upsertAccountRow(account);
+        }
+    }
+
+    /**
+     * Insere a linha da conta, caso ainda não exista, ou atualiza apenas o seu saldo.
+     * @param account A conta que sofreu alteração.
+     */
+    private void upsertAccountRow(Account account) {
+        AccountDisplay display = accountDisplayIndex.get(account.getAccountNumber());
+        if (display == null) {
+            display = new AccountDisplay(
+                    account.getAccountNumber(),
+                    account.getCustomerName(),
+                    account.getAccountType(),
+                    account.getBalance()
+            );
+            accountDisplayIndex.put(account.getAccountNumber(), display);
+            accountDisplays.add(display);
+            accountNumbers.add(account.getAccountNumber());
+        } else {
+            display.setBalance(account.getBalance());
+        }
+    }
+
+    /**
+     * Atualiza o histórico de transações exibido na tabela. Chamado pelo {@code RefreshCoalescer}.
+     * <p><b>LÓGICA:</b> Indexa em segundo plano apenas as linhas anexadas ao log desde a última
+     * atualização e publica as novas linhas no final da tabela. Por ser uma atualização de
+     * fundo, não desabilita as ações. Se já houver uma indexação em andamento (ou o histórico
+     * ainda estiver sendo aberto), apenas registra que outra será necessária ao final.
      */
     private void refreshTransactionHistory() {
-        ObservableList<TransactionDisplay> transactionDisplays = FXCollections.observableArrayList();
-        List<String> logs = bankingFacade.getTransactionHistory();
-
-        // Formato esperado: [TIMESTAMP] [ACCOUNT_NUMBER] [TYPE] [AMOUNT] [NEW_BALANCE]
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        for (String log : logs) {
-            try {
-                String[] parts = log.split(" ", 5); // Divide em 5 partes: [TIMESTAMP] [ACCOUNT_NUMBER] [TYPE] [AMOUNT] [NEW_BALANCE]
-                if (parts.length >= 5) {
-                    String timestampStr = parts[0].substring(1, parts[0].length() - 1); // Remove colchetes
-                    String accountNumber = parts[1];
-                    String type = parts[2];
-                    double amount = Double.parseDouble(parts[3]);
-                    double newBalance = Double.parseDouble(parts[4]);
-
-                    transactionDisplays.add(new TransactionDisplay(
-                            timestampStr,
-                            accountNumber,
-                            type,
-                            amount,
-                            newBalance
-                    ));
-                }
-            } catch (Exception e) {
-                System.err.println("Erro ao parsear log: " + log + " - " + e.getMessage());
+        if (transactionHistoryItems == null || historyRefreshInFlight) {
+            historyRefreshPending = true;
+            return;
+        }
+        historyRefreshInFlight = true;
+        PagedTransactionList<TransactionDisplay> items = transactionHistoryItems;
+        Task<Integer> task = backgroundTask(() -> items.getSource().refresh());
+        task.setOnSucceeded(e -> {
+            items.sync();
+            finishHistoryRefresh();
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Erro ao atualizar o histórico: " + task.getException().getMessage());
+            finishHistoryRefresh();
+        });
+        backgroundExecutor.submit(task);
+    }
+
+    /**
+     * Conclui uma indexação incremental e inicia outra se novos registros chegaram nesse meio tempo.
+     */
+    private void finishHistoryRefresh() {
+        historyRefreshInFlight = false;
+        if (historyRefreshPending) {
+            historyRefreshPending = false;
+            refreshTransactionHistory();
+        }
+    }
+
+    /**
+     * Abre o histórico com um novo filtro, indexando o log em segundo plano.
+     * @param filter O filtro a ser aplicado.
+     */
+    private void openTransactionHistory(TransactionFilter filter) {
+        Task<PagedTransactionLog> task = new Task<PagedTransactionLog>() {
+            @Override
+            protected PagedTransactionLog call() throws IOException {
+                PagedTransactionLog history = bankingFacade.openTransactionHistory(filter);
+                history.refresh(this::updateProgress);
+                return history;
+            }
+        };
+        submitTask("Carregando histórico...", task, history -> {
+            historyFilter = filter;
+            transactionHistoryItems = new PagedTransactionList<>(history, MainController::toTransactionDisplay);
+            transactionHistoryTable.setItems(transactionHistoryItems);
+            if (historyRefreshPending && !historyRefreshInFlight) {
+                historyRefreshPending = false;
+                refreshTransactionHistory();
             }
+        });
+    }
+
+    /**
+     * Converte um registro do log em uma linha da tabela de histórico.
+     * Chamado apenas para as linhas visíveis da tabela.
+     * @param record O registro do log.
+     * @return A linha da tabela.
+     */
+    private static TransactionDisplay toTransactionDisplay(TransactionRecord record) {
+        String type = record.getEvent() != null ? record.getType() + " (" + record.getEvent() + ")" : record.getType();
+        return new TransactionDisplay(
+                record.getTimestamp().format(HISTORY_TIMESTAMP_FORMAT),
+                record.getAccountNumber(),
+                type,
+                record.getAmount(),
+                record.getNewBalance()
+        );
+    }
+
+    /**
+     * Aplica os filtros de conta, tipo e datas selecionados no histórico.
+     */
+    @FXML
+    private void handleApplyHistoryFilter(ActionEvent event) {
+        LocalDate fromDate = historyFromDatePicker.getValue();
+        LocalDate toDate = historyToDatePicker.getValue();
+        if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+            UIUtils.showErrorAlert("Erro", "A data final deve ser igual ou posterior à data inicial.");
+            return;
         }
-        transactionHistoryTable.setItems(transactionDisplays);
+        LocalDateTime from = fromDate != null ? fromDate.atStartOfDay() : null;
+        // A data final é inclusiva: o filtro usa o início do dia seguinte como limite exclusivo
+        LocalDateTime to = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+        openTransactionHistory(new TransactionFilter(
+                historyAccountFilterCombo.getValue(),
+                historyTypeFilterCombo.getValue(),
+                from,
+                to));
+    }
+
+    /**
+     * Remove os filtros do histórico e volta a exibir todos os registros.
+     */
+    @FXML
+    private void handleClearHistoryFilter(ActionEvent event) {
+        historyAccountFilterCombo.setValue(null);
+        historyTypeFilterCombo.setValue(null);
+        historyFromDatePicker.setValue(null);
+        historyToDatePicker.setValue(null);
+        openTransactionHistory(TransactionFilter.all());
     }
 
     /**
@@ -342,24 +644,22 @@ public class MainController {
 
         try {
             double initialBalance = Double.parseDouble(initialBalanceText);
-            String newAccountNumber;
-
-            if (accountType == AccountType.CHECKING) {
-                double overdraftLimit = Double.parseDouble(overdraftLimitText);
-                newAccountNumber = bankingFacade.createAccount(accountType, customerName, initialBalance, overdraftLimit);
-            } else {
-                double interestRate = Double.parseDouble(interestRateText);
-                newAccountNumber = bankingFacade.createAccount(accountType, customerName, initialBalance, interestRate);
-            }
-
-            if (newAccountNumber != null) {
-                UIUtils.showSuccessAlert("Sucesso", "Conta " + UIUtils.formatAccountNumber(newAccountNumber) + " criada com sucesso!");
-                clearCreateAccountFields();
-                refreshAccountsList();
-                refreshTransactionHistory();
-            } else {
-                UIUtils.showErrorAlert("Erro", "Falha ao criar conta.");
-            }
+            double parameter = accountType == AccountType.CHECKING
+                    ? Double.parseDouble(overdraftLimitText)
+                    : Double.parseDouble(interestRateText);
+
+            // A criação acessa o mapa da Facade, por isso roda na mesma thread de trabalho
+            // que as demais operações
+            submitTask("Criando conta...",
+                    backgroundTask(() -> bankingFacade.createAccount(accountType, customerName, initialBalance, parameter)),
+                    newAccountNumber -> {
+                        if (newAccountNumber != null) {
+                            UIUtils.showSuccessAlert("Sucesso", "Conta " + UIUtils.formatAccountNumber(newAccountNumber) + " criada com sucesso!");
+                            clearCreateAccountFields();
+                        } else {
+                            UIUtils.showErrorAlert("Erro", "Falha ao criar conta.");
+                        }
+                    });
 
         } catch (NumberFormatException e) {
             UIUtils.showErrorAlert("Erro", "Valores numéricos inválidos. Verifique o saldo, limite ou taxa.");
@@ -438,19 +738,22 @@ public class MainController {
                 
                 UIUtils.applySuccessStyle(amountField);
                 
-                if ("deposit".equals(operation)) {
-                    bankingFacade.deposit(accountNumber, amount);
-                } else if ("withdraw".equals(operation)) {
-                    bankingFacade.withdraw(accountNumber, amount);
-                }
-                
-                UIUtils.showSuccessAlert("Sucesso", 
-                    UIUtils.capitalizeWords(operationName) + " de " + UIUtils.formatCurrency(amount) + " realizado com sucesso!");
-                
-                amountField.clear();
-                UIUtils.clearValidationStyles(amountField);
-                refreshAccountsList();
-                refreshTransactionHistory();
+                // A operação (e a escrita no log) roda na thread de trabalho
+                Task<Boolean> task = backgroundTask(() -> "deposit".equals(operation)
+                        ? bankingFacade.deposit(accountNumber, amount)
+                        : bankingFacade.withdraw(accountNumber, amount));
+                submitTask("Processando " + operationName + "...", task, success -> {
+                    if (success) {
+                        UIUtils.showSuccessAlert("Sucesso", 
+                            UIUtils.capitalizeWords(operationName) + " de " + UIUtils.formatCurrency(amount) + " realizado com sucesso!");
+                        
+                        amountField.clear();
+                        UIUtils.clearValidationStyles(amountField);
+                    } else {
+                        UIUtils.applyErrorStyle(amountField);
+                        UIUtils.showErrorAlert("Erro", "Falha no " + operationName + ". Verifique o saldo e tente novamente.");
+                    }
+                });
             }
 
         } catch (NumberFormatException e) {
@@ -496,10 +799,9 @@ public class MainController {
             if (UIUtils.showConfirmationAlert("Confirmar Cálculo de Juros", 
                 "Confirma o cálculo de juros para a conta " + UIUtils.formatAccountNumber(accountNumber) + "?")) {
                 
-                ((SavingsAccount) account).calculateInterest();
-                UIUtils.showSuccessAlert("Sucesso", "Juros calculados para a conta " + UIUtils.formatAccountNumber(accountNumber) + ".");
-                refreshAccountsList();
-                refreshTransactionHistory();
+                submitTask("Calculando juros...",
+                        backgroundTask(() -> bankingFacade.calculateInterest(accountNumber)),
+                        applied -> UIUtils.showSuccessAlert("Sucesso", "Juros calculados para a conta " + UIUtils.formatAccountNumber(accountNumber) + "."));
             }
         } else {
             UIUtils.showErrorAlert("Erro", "Esta conta não suporta cálculo de juros.");
@@ -569,19 +871,20 @@ public class MainController {
                 
                 UIUtils.applySuccessStyle(transferAmountField);
                 
-                boolean success = bankingFacade.transfer(fromAccount, toAccount, amount);
-                if (success) {
-                    UIUtils.showSuccessAlert("Sucesso", 
-                        "Transferência de " + UIUtils.formatCurrency(amount) + " realizada com sucesso!");
-                    
-                    transferAmountField.clear();
-                    UIUtils.clearValidationStyles(transferAmountField);
-                    refreshAccountsList();
-                    refreshTransactionHistory();
-                } else {
-                    UIUtils.applyErrorStyle(transferAmountField);
-                    UIUtils.showErrorAlert("Erro", "Falha na transferência. Verifique o saldo e tente novamente.");
-                }
+                submitTask("Processando transferência...",
+                        backgroundTask(() -> bankingFacade.transfer(fromAccount, toAccount, amount)),
+                        success -> {
+                            if (success) {
+                                UIUtils.showSuccessAlert("Sucesso", 
+                                    "Transferência de " + UIUtils.formatCurrency(amount) + " realizada com sucesso!");
+                                
+                                transferAmountField.clear();
+                                UIUtils.clearValidationStyles(transferAmountField);
+                            } else {
+                                UIUtils.applyErrorStyle(transferAmountField);
+                                UIUtils.showErrorAlert("Erro", "Falha na transferência. Verifique o saldo e tente novamente.");
+                            }
+                        });
             }
 
         } catch (NumberFormatException e) {
@@ -602,6 +905,10 @@ public class MainController {
     private void handleLogout(ActionEvent event) throws IOException {
         if (UIUtils.showConfirmationAlert("Confirmar Logout", "Tem certeza que deseja sair?")) {
             authenticationService.logout();
+            bankingFacade.removeAccountObserver(accountTableObserver);
+            refreshCoalescer.stop();
+            // Encerra a thread de trabalho após as tarefas já submetidas (o próximo login cria outro controlador)
+            backgroundExecutor.shutdown();
             Stage stage = (Stage) rootPane.getScene().getWindow();
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
             Scene scene = new Scene(fxmlLoader.load(), 800, 600);
@@ -0,0 +1,96 @@
+package com.bank.gui.model;
+
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionRecord;
+import javafx.collections.ObservableListBase;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Lista observável virtual sobre um {@code PagedTransactionLog}, usada como itens da
+ * tabela de histórico.
+ *
+ * <p>A {@code TableView} só solicita as linhas visíveis; cada {@code get(index)} é resolvido
+ * pela página correspondente no cache LRU da fonte, e o objeto de exibição é criado apenas
+ * para essa linha. Assim, a memória da tabela não cresce com o tamanho do log.
+ *
+ * <p>O tamanho exposto só muda em {@link #sync()}, que deve ser chamado na FX Application
+ * Thread após a fonte ser reindexada em segundo plano.
+ *
+ * @param <T> O tipo de objeto exibido em cada linha da tabela.
+ */
+public class PagedTransactionList<T> extends ObservableListBase<T> {
+    private final PagedTransactionLog source;
+    private final Function<TransactionRecord, T> mapper;
+    private int size;
+    /** Geração da fonte quando o tamanho foi publicado */
+    private int generation;
+
+    /**
+     * Construtor para {@code PagedTransactionList}.
+     * @param source A fonte paginada, já indexada.
+     * @param mapper Conversão de um registro do log para o objeto exibido na tabela.
+     */
+    public PagedTransactionList(PagedTransactionLog source, Function<TransactionRecord, T> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+        this.size = source.size();
+        this.generation = source.getGeneration();
+    }
+
+    /**
+     * Retorna a fonte paginada desta lista.
+     * @return A fonte paginada.
+     */
+    public PagedTransactionLog getSource() {
+        return source;
+    }
+
+    /**
+     * Publica para a tabela os registros indexados desde a última sincronização.
+     * Enquanto o log só cresce, a mudança é uma inserção no final da lista. Se a retenção
+     * apagou o início do log, a fonte refez o índice (mudou de geração) e a lista inteira é
+     * substituída.
+     */
+    public void sync() {
+        int newSize = source.size();
+        int newGeneration = source.getGeneration();
+        if (newGeneration != generation) {
+            // Os registros removidos não podem mais ser lidos: a mudança os informa como nulos
+            int oldSize = size;
+            beginChange();
+            nextRemove(0, Collections.<T>nCopies(oldSize, null));
+            size = newSize;
+            generation = newGeneration;
+            nextAdd(0, newSize);
+            endChange();
+        } else if (newSize > size) {
+            int oldSize = size;
+            beginChange();
+            size = newSize;
+            nextAdd(oldSize, newSize);
+            endChange();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        try {
+            TransactionRecord record = source.get(index);
+            return record != null ? mapper.apply(record) : null;
+        } catch (IOException e) {
+            System.err.println("Erro ao ler página do histórico: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,156 @@
+package com.bank.gui.util;
+
+import com.bank.account.Account;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Classe {@code RefreshCoalescer} agrupa atualizações da interface geradas em alta frequência.
+ *
+ * <p>Quando a GUI observa um motor bancário ocupado (ex: um job em lote), cada evento de conta
+ * geraria um {@code Platform.runLater} e um redesenho. Este coalescedor apenas marca as contas
+ * alteradas e a existência de novos registros de histórico; as alterações são aplicadas de uma
+ * só vez no próximo pulso de animação do JavaFX, ou no máximo {@code maxRefreshesPerSecond}
+ * vezes por segundo.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Marcação:</b> markAccountDirty() e markHistoryDirty() podem ser chamados de qualquer
+ *         thread. Marcar a mesma conta várias vezes entre dois pulsos resulta em uma única
+ *         atualização.</li>
+ *     <li><b>Agendamento:</b> Apenas a primeira marcação após um período ocioso agenda, com um
+ *         único {@code Platform.runLater}, o início do {@code AnimationTimer}. Assim, a fila de
+ *         eventos do JavaFX recebe no máximo uma tarefa por rajada de eventos.</li>
+ *     <li><b>Aplicação:</b> A cada pulso (respeitando a taxa máxima), as contas marcadas são
+ *         drenadas e entregues ao tratador de contas; se houver histórico novo, o tratador de
+ *         histórico é chamado. Quando não resta nada pendente, o timer é parado.</li>
+ * </ol>
+ */
+public class RefreshCoalescer {
+    /** Contas alteradas desde o último pulso, indexadas pelo número da conta */
+    private final Map<String, Account> dirtyAccounts = new ConcurrentHashMap<>();
+    /** Indica se há novos registros de histórico desde o último pulso */
+    private final AtomicBoolean historyDirty = new AtomicBoolean(false);
+    /** Indica se o timer já está agendado ou em execução */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Consumer<List<Account>> accountsHandler;
+    private final Runnable historyHandler;
+    private final long minIntervalNanos;
+    private final AnimationTimer timer;
+
+    private long lastAppliedNanos;
+    private volatile boolean stopped;
+
+    /**
+     * Construtor para {@code RefreshCoalescer}.
+     * @param maxRefreshesPerSecond Taxa máxima de aplicação; 0 aplica a cada pulso de animação.
+     * @param accountsHandler Recebe, na FX Application Thread, as contas alteradas desde o último pulso.
+     * @param historyHandler Chamado, na FX Application Thread, quando há novos registros de histórico.
+     */
+    public RefreshCoalescer(int maxRefreshesPerSecond, Consumer<List<Account>> accountsHandler, Runnable historyHandler) {
+        if (maxRefreshesPerSecond < 0) {
+            throw new IllegalArgumentException("Max refresh rate must not be negative");
+        }
+        this.accountsHandler = accountsHandler;
+        this.historyHandler = historyHandler;
+        this.minIntervalNanos = maxRefreshesPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxRefreshesPerSecond;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+    }
+
+    /**
+     * Marca uma conta como alterada. Pode ser chamado de qualquer thread.
+     * @param account A conta alterada.
+     */
+    public void markAccountDirty(Account account) {
+        dirtyAccounts.put(account.getAccountNumber(), account);
+        schedule();
+    }
+
+    /**
+     * Indica que há novos registros de histórico. Pode ser chamado de qualquer thread.
+     */
+    public void markHistoryDirty() {
+        historyDirty.set(true);
+        schedule();
+    }
+
+    /**
+     * Para o coalescedor e descarta as alterações pendentes (ex: no logout).
+     */
+    public void stop() {
+        stopped = true;
+        dirtyAccounts.clear();
+        historyDirty.set(false);
+        if (Platform.isFxApplicationThread()) {
+            timer.stop();
+        } else {
+            Platform.runLater(timer::stop);
+        }
+    }
+
+    /**
+     * Agenda o início do timer, caso ainda não esteja agendado.
+     */
+    private void schedule() {
+        if (!stopped && scheduled.compareAndSet(false, true)) {
+            if (Platform.isFxApplicationThread()) {
+                timer.start();
+            } else {
+                Platform.runLater(timer::start);
+            }
+        }
+    }
+
+    /**
+     * Executado a cada pulso de animação enquanto o timer estiver ativo.
+     */
+    private void onPulse(long now) {
+        if (stopped) {
+            timer.stop();
+            return;
+        }
+        if (now - lastAppliedNanos < minIntervalNanos) {
+            return;
+        }
+        lastAppliedNanos = now;
+
+        if (!dirtyAccounts.isEmpty()) {
+            // Remove cada entrada ao drená-la: marcações feitas durante a iteração
+            // permanecem no mapa e são aplicadas no próximo pulso
+            List<Account> drained = new ArrayList<>(dirtyAccounts.size());
+            Iterator<Account> it = dirtyAccounts.values().iterator();
+            while (it.hasNext()) {
+                drained.add(it.next());
+                it.remove();
+            }
+            accountsHandler.accept(drained);
+        }
+        if (historyDirty.getAndSet(false)) {
+            historyHandler.run();
+        }
+
+        if (dirtyAccounts.isEmpty() && !historyDirty.get()) {
+            timer.stop();
+            scheduled.set(false);
+            // Uma marcação pode ter chegado entre a verificação e a liberação do agendamento
+            if ((!dirtyAccounts.isEmpty() || historyDirty.get()) && scheduled.compareAndSet(false, true)) {
+                timer.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Log de auditoria à prova de adulteração: cada registro carrega o hash do anterior (uma cadeia
+ * de hashes) e, a cada "checkpointInterval" registros, um ponto de controle grava a raiz de
+ * Merkle dos registros desde o ponto anterior.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Registro:</b> Uma linha {@code R\t<seq>\t<instante>\t<mensagem>\t<anterior>\t<hash>},
+ *         em que hash = SHA-256(anterior || "seq\tinstante\tmensagem") em hexadecimal (o
+ *         primeiro registro encadeia a 32 bytes zero). Alterar, remover ou inserir um registro
+ *         quebra a cadeia a partir dele.</li>
+ *     <li><b>Ponto de controle:</b> Uma linha {@code C\t<seq>\t<registros>\t<cadeia>\t<raiz>}
+ *         com a sequência e o hash do último registro e a raiz de Merkle do trecho. Cada trecho
+ *         entre dois pontos de controle pode ser verificado sozinho, a partir do hash do ponto
+ *         anterior ({@code AuditLogVerifier} verifica os trechos em paralelo).</li>
+ *     <li><b>Escrita:</b> append() calcula um SHA-256 e acrescenta a folha à raiz incremental
+ *         ({@code MerkleAccumulator}, O(log n) por registro): a cadeia nunca é relida.</li>
+ *     <li><b>Abertura:</b> Lê o arquivo de trás para a frente até o último ponto de controle e
+ *         refaz o estado (sequência, hash e raiz pendente) só com os registros seguintes; uma
+ *         última linha incompleta é descartada.</li>
+ * </ol>
+ *
+ * <p>A cadeia prova que o arquivo não foi alterado depois de um hash conhecido: publique
+ * getHead() (ou o último ponto de controle) fora da máquina para que nem quem reescreva o
+ * arquivo inteiro passe despercebido.
+ */
+public class AuditLog implements AutoCloseable {
+    /** Intervalo padrão entre pontos de controle, em registros */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1024;
+
+    static final byte RECORD = 'R';
+    static final byte CHECKPOINT = 'C';
+    static final int HASH_BYTES = 32;
+    /** "\t" + hash anterior + "\t" + hash, no fim de cada registro */
+    static final int RECORD_SUFFIX = 2 + 4 * HASH_BYTES;
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int checkpointInterval;
+    private final SegmentedLogWriter writer;
+    private final MessageDigest digest = sha256();
+    private final MerkleAccumulator segment = new MerkleAccumulator();
+    private long sequence;
+    private byte[] head = new byte[HASH_BYTES];
+
+    /**
+     * Abre (ou cria) o log de auditoria com o intervalo padrão e auto-flush.
+     * @param file O arquivo do log.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public AuditLog(Path file) throws IOException {
+        this(file, DEFAULT_CHECKPOINT_INTERVAL, LogDurability.flush());
+    }
+
+    /**
+     * Abre (ou cria) o log de auditoria.
+     * @param file O arquivo do log.
+     * @param checkpointInterval Registros entre pontos de controle.
+     * @param durability Até onde cada registro precisa chegar antes de append() retornar.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public AuditLog(Path file, int checkpointInterval, LogDurability durability) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.checkpointInterval = checkpointInterval;
+        if (Files.exists(file)) {
+            recover(file);
+        }
+        this.writer = new SegmentedLogWriter(file, LogRotationPolicy.disabled(), durability);
+    }
+
+    /**
+     * Acrescenta um registro à cadeia (e um ponto de controle, se o trecho completou o intervalo).
+     * <p><b>LÓGICA:</b> O hash e a anexação das linhas acontecem com o monitor do log, que fixa a
+     * ordem da cadeia; a espera pelo disco (modo GROUP_COMMIT) acontece fora dele, para que os
+     * registros de várias threads entrem no mesmo force em vez de esperar um de cada vez.
+     *
+     * @param message A mensagem; tabulações e quebras de linha viram espaços.
+     * @return A sequência do registro.
+     */
+    public long append(String message) {
+        long next;
+        long ticket;
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            next = sequence + 1;
+            String payload = next + "\t" + FORMAT.format(now) + "\t" + message.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+            byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            digest.update(head);
+            digest.update(bytes);
+            byte[] hash = digest.digest();
+            ticket = writer.append(now, "R\t" + payload + "\t" + hex(head) + "\t" + hex(hash));
+            sequence = next;
+            head = hash;
+            segment.add(hash);
+            if (segment.size() == checkpointInterval) {
+                ticket = writer.append(now, checkpointLine(sequence, segment.size(), head, segment.root()));
+                segment.clear();
+            }
+        }
+        writer.awaitDurable(ticket);
+        return next;
+    }
+
+    /**
+     * Retorna a sequência do último registro.
+     * @return A sequência, ou 0 se o log está vazio.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retorna o hash do último registro (a ponta da cadeia), em hexadecimal.
+     * @return O hash; 64 zeros se o log está vazio.
+     */
+    public synchronized String getHead() {
+        return hex(head);
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    /**
+     * Refaz o estado a partir do último ponto de controle.
+     */
+    private void recover(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long from = lastCheckpoint(channel, size);
+            byte[] hash = new byte[HASH_BYTES];
+            long end = MappedLineReader.scan(channel, Math.max(from, 0), size, 0, null, (line, length, offset) -> {
+                if (length > 0 && line[0] == CHECKPOINT && offset == from) {
+                    sequence = leadingNumber(line, 2, length);
+                    unhex(line, length - 2 * (2 * HASH_BYTES) - 1, head);
+                } else if (length > RECORD_SUFFIX && line[0] == RECORD) {
+                    sequence = leadingNumber(line, 2, length);
+                    unhex(line, length - 2 * HASH_BYTES, hash);
+                    head = hash.clone();
+                    segment.add(head);
+                }
+                return true;
+            }, null);
+            if (end < size) {
+                // Última linha incompleta: o processo caiu no meio da escrita
+                channel.truncate(end);
+            }
+        }
+    }
+
+    /**
+     * Posição do último ponto de controle, procurado de trás para a frente em blocos cada vez
+     * maiores, ou -1 se não houver nenhum.
+     */
+    private static long lastCheckpoint(FileChannel channel, long size) throws IOException {
+        long window = 64 * 1024;
+        while (true) {
+            long start = Math.max(0, size - window);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (size - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // lê o bloco inteiro
+            }
+            byte[] bytes = buffer.array();
+            for (int i = bytes.length - 2; i >= 0; i--) {
+                if (bytes[i] == CHECKPOINT && bytes[i + 1] == '\t'
+                        && (i > 0 ? bytes[i - 1] == '\n' : start == 0)) {
+                    return start + i;
+                }
+            }
+            if (start == 0) {
+                return -1;
+            }
+            window *= 2;
+        }
+    }
+
+    static String checkpointLine(long sequence, long records, byte[] chain, byte[] root) {
+        return "C\t" + sequence + "\t" + records + "\t" + hex(chain) + "\t" + hex(root);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        char[] text = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            text[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            text[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(text);
+    }
+
+    /**
+     * Decodifica 32 bytes em hexadecimal a partir de line[from].
+     * @return false se algum caractere não é hexadecimal.
+     */
+    static boolean unhex(byte[] line, int from, byte[] target) {
+        if (from < 0) {
+            return false;
+        }
+        for (int i = 0; i < target.length; i++) {
+            int high = Character.digit(line[from + 2 * i], 16);
+            int low = Character.digit(line[from + 2 * i + 1], 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            target[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    /**
+     * O número que começa em line[from] e termina na próxima tabulação, ou -1.
+     */
+    static long leadingNumber(byte[] line, int from, int length) {
+        long value = 0;
+        int i = from;
+        for (; i < length && line[i] >= '0' && line[i] <= '9'; i++) {
+            value = value * 10 + (line[i] - '0');
+        }
+        return i > from && i < length && line[i] == '\t' ? value : -1;
+    }
+}
@@ -0,0 +1,303 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verificador do {@code AuditLog}: confere a cadeia de hashes e as raízes de Merkle de um log
+ * inteiro, com os trechos entre pontos de controle verificados em paralelo.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Divisão:</b> O arquivo é dividido em faixas de bytes (algumas por thread). Cada
+ *         faixa é responsável pelos trechos que começam nela: a partir do primeiro ponto de
+ *         controle da faixa (ou do início do arquivo, na primeira), ela verifica trecho após
+ *         trecho até chegar a um ponto de controle que já está na faixa seguinte. Assim cada
+ *         trecho é verificado uma única vez e sem leitura sequencial prévia do arquivo.</li>
+ *     <li><b>Trecho:</b> Partindo da sequência e do hash do ponto de controle inicial, confere
+ *         para cada registro a sequência, o hash anterior e o próprio hash (recalculado direto
+ *         dos bytes mapeados em memória), acumulando a raiz de Merkle; no ponto de controle
+ *         seguinte, confere a sequência, a quantidade de registros, o hash da cadeia e a raiz.
+ *         Depois do último ponto de controle, os registros são conferidos sem raiz.</li>
+ *     <li><b>Resultado:</b> Registros e pontos de controle conferidos e o primeiro problema
+ *         encontrado (pela posição no arquivo), se houver.</li>
+ * </ol>
+ *
+ * <p>Uso: {@code java com.bank.logger.AuditLogVerifier [arquivo]} (padrão: "audit.log" ou a
+ * propriedade "bank.audit.file"); threads pela propriedade "bank.audit.verify.threads"
+ * (padrão: os processadores disponíveis). Sai com código 1 se o log foi adulterado.
+ */
+public class AuditLogVerifier {
+    /** Faixas por thread, para equilibrar trechos de tamanhos diferentes */
+    private static final int RANGES_PER_THREAD = 4;
+    /** Tamanho mínimo de uma faixa */
+    private static final long MIN_RANGE = 1024 * 1024;
+
+    /**
+     * Resultado de uma verificação.
+     */
+    public static final class Result {
+        private final long records;
+        private final long checkpoints;
+        private final long errorOffset;
+        private final String error;
+        private final long elapsedNanos;
+
+        Result(long records, long checkpoints, long errorOffset, String error, long elapsedNanos) {
+            this.records = records;
+            this.checkpoints = checkpoints;
+            this.errorOffset = errorOffset;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Se a cadeia e todos os pontos de controle conferem */
+        public boolean isValid() { return error == null; }
+        public long getRecords() { return records; }
+        public long getCheckpoints() { return checkpoints; }
+        /** Posição no arquivo da linha do primeiro problema, ou -1 */
+        public long getErrorOffset() { return errorOffset; }
+        /** O primeiro problema encontrado, ou null */
+        public String getError() { return error; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            String counts = records + " records, " + checkpoints + " checkpoints";
+            return isValid() ? "Audit log OK: " + counts
+                    : "Audit log TAMPERED at offset " + errorOffset + ": " + error + " (" + counts + " verified before stopping)";
+        }
+    }
+
+    /**
+     * Verifica o log de auditoria.
+     * @param args Opcional: o arquivo do log.
+     * @throws Exception Se o arquivo não puder ser lido.
+     */
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args.length > 0 ? args[0] : System.getProperty("bank.audit.file", "audit.log"));
+        int threads = Integer.getInteger("bank.audit.verify.threads", Runtime.getRuntime().availableProcessors());
+        Result result = verify(file, threads);
+        System.out.println(result);
+        System.out.printf("Verified %s with %d threads in %.1f ms%n", file, threads, result.getElapsedNanos() / 1e6);
+        if (!result.isValid()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Verifica um log de auditoria.
+     * @param file O arquivo do log.
+     * @param threads Quantas threads verificam trechos ao mesmo tempo.
+     * @return O resultado.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws InterruptedException Se a espera pelas threads for interrompida.
+     */
+    public static Result verify(Path file, int threads) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int rangeCount = (int) Math.max(1, Math.min((long) threads * RANGES_PER_THREAD, size / MIN_RANGE));
+            long rangeSize = (size + rangeCount - 1) / Math.max(1, rangeCount);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+                Thread thread = new Thread(task, "audit-log-verifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<RangeVerifier>> futures = new ArrayList<>();
+                for (int i = 0; i < rangeCount; i++) {
+                    long start = i * rangeSize;
+                    long end = Math.min(size, start + rangeSize);
+                    futures.add(pool.submit(() -> new RangeVerifier(channel, start, end, size).run()));
+                }
+                long records = 0;
+                long checkpoints = 0;
+                long errorOffset = -1;
+                String error = null;
+                for (Future<RangeVerifier> future : futures) {
+                    RangeVerifier range = future.get();
+                    records += range.records;
+                    checkpoints += range.checkpoints;
+                    if (range.error != null && error == null) {
+                        // As faixas estão em ordem: a primeira com problema tem o primeiro problema
+                        error = range.error;
+                        errorOffset = range.errorOffset;
+                    }
+                }
+                return new Result(records, checkpoints, errorOffset, error, System.nanoTime() - started);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Verificação dos trechos que começam numa faixa [start, end) do arquivo.
+     */
+    private static final class RangeVerifier {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long size;
+        private final MessageDigest digest = AuditLog.sha256();
+        private final MerkleAccumulator merkle = new MerkleAccumulator();
+        private final byte[] stated = new byte[AuditLog.HASH_BYTES];
+        private final byte[] previous = new byte[AuditLog.HASH_BYTES];
+
+        /** Se já achou o início do seu primeiro trecho */
+        private boolean started;
+        private long sequence;
+        private byte[] head = new byte[AuditLog.HASH_BYTES];
+        private long records;
+        private long checkpoints;
+        private long errorOffset = -1;
+        private String error;
+
+        RangeVerifier(FileChannel channel, long start, long end, long size) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.size = size;
+        }
+
+        RangeVerifier run() throws IOException {
+            // A primeira faixa começa na origem da cadeia; as outras, na primeira linha completa
+            long from = start;
+            if (start == 0) {
+                started = true;
+            } else {
+                from = start - 1;
+            }
+            boolean[] skipFirst = {start > 0};
+            MappedLineReader.scan(channel, from, size, 0, null, (line, length, offset) -> {
+                if (skipFirst[0]) {
+                    // Resto da linha que começou na faixa anterior
+                    skipFirst[0] = false;
+                    return true;
+                }
+                return visit(line, length, offset);
+            }, null);
+            return this;
+        }
+
+        private boolean visit(byte[] line, int length, long offset) {
+            if (!started) {
+                if (offset >= end) {
+                    return false; // nenhum trecho começa nesta faixa
+                }
+                if (length > 0 && line[0] == AuditLog.CHECKPOINT) {
+                    started = parseCheckpoint(line, length, offset, head);
+                    return started;
+                }
+                return true;
+            }
+            if (length > AuditLog.RECORD_SUFFIX && line[0] == AuditLog.RECORD) {
+                return verifyRecord(line, length, offset);
+            }
+            if (length > 0 && line[0] == AuditLog.CHECKPOINT) {
+                if (!verifyCheckpoint(line, length, offset)) {
+                    return false;
+                }
+                // O trecho seguinte começa aqui; se isto já é a faixa seguinte, ela o verifica
+                return offset < end;
+            }
+            return fail(offset, "unrecognized line");
+        }
+
+        private boolean verifyRecord(byte[] line, int length, long offset) {
+            long recordSequence = AuditLog.leadingNumber(line, 2, length);
+            if (recordSequence != sequence + 1) {
+                return fail(offset, "expected record " + (sequence + 1) + " but found " + recordSequence);
+            }
+            int previousAt = length - AuditLog.RECORD_SUFFIX + 1;
+            if (!AuditLog.unhex(line, previousAt, previous) || !AuditLog.unhex(line, length - 2 * AuditLog.HASH_BYTES, stated)) {
+                return fail(offset, "record " + recordSequence + " has malformed hashes");
+            }
+            if (!Arrays.equals(previous, head)) {
+                return fail(offset, "record " + recordSequence + " does not chain to the previous record");
+            }
+            digest.update(head);
+            digest.update(line, 2, length - AuditLog.RECORD_SUFFIX - 2);
+            byte[] hash = digest.digest();
+            if (!Arrays.equals(hash, stated)) {
+                return fail(offset, "record " + recordSequence + " content does not match its hash");
+            }
+            head = hash;
+            sequence = recordSequence;
+            merkle.add(hash);
+            records++;
+            return true;
+        }
+
+        private boolean verifyCheckpoint(byte[] line, int length, long offset) {
+            byte[] chain = new byte[AuditLog.HASH_BYTES];
+            if (!parseCheckpoint(line, length, offset, chain)) {
+                return false;
+            }
+            byte[] root = new byte[AuditLog.HASH_BYTES];
+            AuditLog.unhex(line, length - 2 * AuditLog.HASH_BYTES, root);
+            long count = AuditLog.leadingNumber(line, indexAfterTab(line, 2, length), length);
+            if (count != merkle.size()) {
+                return fail(offset, "checkpoint at record " + sequence + " covers " + count + " records but " + merkle.size() + " precede it");
+            }
+            if (!Arrays.equals(chain, head)) {
+                return fail(offset, "checkpoint at record " + sequence + " does not match the chain");
+            }
+            if (!Arrays.equals(root, merkle.root())) {
+                return fail(offset, "checkpoint at record " + sequence + " has a wrong Merkle root");
+            }
+            merkle.clear();
+            checkpoints++;
+            return true;
+        }
+
+        /**
+         * Lê a sequência e o hash da cadeia de um ponto de controle; ao iniciar um trecho, eles
+         * viram o estado inicial.
+         */
+        private boolean parseCheckpoint(byte[] line, int length, long offset, byte[] chain) {
+            long checkpointSequence = AuditLog.leadingNumber(line, 2, length);
+            if (checkpointSequence < 0 || length < 4 * AuditLog.HASH_BYTES + 6
+                    || !AuditLog.unhex(line, length - 4 * AuditLog.HASH_BYTES - 1, chain)) {
+                return fail(offset, "malformed checkpoint");
+            }
+            if (started && checkpointSequence != sequence) {
+                return fail(offset, "checkpoint for record " + checkpointSequence + " after record " + sequence);
+            }
+            sequence = checkpointSequence;
+            return true;
+        }
+
+        private static int indexAfterTab(byte[] line, int from, int length) {
+            for (int i = from; i < length; i++) {
+                if (line[i] == '\t') {
+                    return i + 1;
+                }
+            }
+            return length;
+        }
+
+        private boolean fail(long offset, String message) {
+            errorOffset = offset;
+            error = message;
+            return false;
+        }
+    }
+}
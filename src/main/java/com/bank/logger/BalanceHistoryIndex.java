@@ -0,0 +1,388 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de pontos de controle de saldo por conta sobre o arquivo de log de transações:
+ * responde "qual era o saldo desta conta em tal instante?" (ex: no fechamento do dia 3) com uma
+ * busca binária até o ponto de controle mais próximo e a releitura de poucos registros.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Indexação:</b> refresh() lê apenas o trecho anexado desde a chamada anterior. Cada
+ *         registro com conta e "New Balance" (depósitos, saques, juros, abertura e remoção) conta
+ *         para a sua conta; as linhas AUDIT são ignoradas, pois repetem as mesmas alterações.</li>
+ *     <li><b>Pontos de controle:</b> O primeiro registro de cada conta e, depois, um a cada
+ *         "interval" registros dela geram um ponto de controle: o instante do registro, a sua
+ *         posição no arquivo e o saldo depois dele. As alterações de uma conta são registradas
+ *         com a conta travada, então os instantes de uma mesma conta estão em ordem no log.</li>
+ *     <li><b>Consulta:</b> getBalanceAt() localiza com busca binária o último ponto de controle
+ *         da conta até o instante pedido e relê o log a partir dele, aplicando os registros da
+ *         conta até o instante. A leitura termina no próximo ponto de controle (que já passou do
+ *         instante) ou no último registro da conta. Ela percorre todos os bytes do log entre os
+ *         dois pontos, inclusive as linhas das outras contas (para uma conta pouco movimentada em
+ *         um log movimentado, pode ser boa parte do arquivo), mas compara apenas os bytes de cada
+ *         linha com "Account " e o número da conta: só as linhas da conta, no máximo "interval",
+ *         são decodificadas.</li>
+ *     <li><b>Últimos registros:</b> latest() usa os mesmos pontos para começar a leitura perto do
+ *         fim da conta, sem ler o log desde o início.</li>
+ * </ol>
+ *
+ * <p>A memória usada é de dois {@code long} e um {@code double} por ponto de controle (com o
+ * intervalo padrão de 64 registros, menos de meio byte por registro do log).
+ */
+public class BalanceHistoryIndex {
+    /** Número padrão de registros de uma conta entre dois pontos de controle */
+    public static final int DEFAULT_INTERVAL = 64;
+
+    /** Tipo do registro gravado pela Facade na remoção (BankingFacade.ACCOUNT_REMOVED_RECORD) */
+    private static final String REMOVED_TYPE = "Account Removed";
+    private static final String AUDIT_TYPE = "AUDIT";
+
+    private final Path logFile;
+    private final int interval;
+
+    /** Garante que apenas uma indexação incremental execute por vez */
+    private final Object refreshLock = new Object();
+
+    /** Histórico de cada conta; os pontos de controle são publicados com o monitor do índice */
+    private final Map<String, AccountHistory> histories = new HashMap<>();
+    private long indexedBytes;
+
+    /**
+     * Construtor com o intervalo padrão.
+     * @param logFile O arquivo de log.
+     */
+    public BalanceHistoryIndex(Path logFile) {
+        this(logFile, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Construtor para {@code BalanceHistoryIndex}.
+     * @param logFile O arquivo de log.
+     * @param interval Número de registros de uma conta entre dois pontos de controle.
+     */
+    public BalanceHistoryIndex(Path logFile, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.logFile = logFile;
+        this.interval = interval;
+    }
+
+    /**
+     * Indexa os registros anexados ao log desde a última chamada.
+     * @return O número de novos registros de conta indexados.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public int refresh() throws IOException {
+        synchronized (refreshLock) {
+            if (!Files.exists(logFile)) {
+                return 0;
+            }
+            long start;
+            synchronized (this) {
+                start = indexedBytes;
+            }
+            // A leitura acontece fora do monitor; os pontos novos são publicados ao final
+            CheckpointBuilder builder = new CheckpointBuilder();
+            long end = PagedTransactionLog.scanLines(logFile, start, null, builder);
+            synchronized (this) {
+                builder.publish();
+                indexedBytes = end;
+            }
+            return builder.records;
+        }
+    }
+
+    /**
+     * Retorna o saldo de uma conta em um instante, conforme o log.
+     * @param accountNumber O número da conta.
+     * @param instant O instante (inclusivo: conta o registro feito exatamente nele).
+     * @return O saldo depois do último registro da conta até o instante, ou {@code Double.NaN}
+     *         se a conta ainda não existia ou já tinha sido removida nesse instante.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public double getBalanceAt(String accountNumber, LocalDateTime instant) throws IOException {
+        refresh();
+        long instantKey = TransactionTimeIndex.key(instant, false);
+        long start;
+        long end;
+        double balance;
+        synchronized (this) {
+            AccountHistory history = histories.get(accountNumber);
+            if (history == null) {
+                return Double.NaN;
+            }
+            int checkpoint = history.lastCheckpointAtOrBefore(instantKey);
+            if (checkpoint < 0) {
+                return Double.NaN;
+            }
+            balance = history.balances[checkpoint];
+            // O registro do ponto de controle já está aplicado; a releitura começa depois dele
+            start = history.offsets[checkpoint];
+            end = checkpoint + 1 < history.size ? history.offsets[checkpoint + 1] : history.lastOffset + 1;
+        }
+        if (end - start <= 1) {
+            return balance;
+        }
+        double[] result = {balance};
+        byte[] field = accountField(accountNumber);
+        PagedTransactionLog.scanLines(logFile, start, null, (line, length, offset) -> {
+            if (offset >= end) {
+                return false;
+            }
+            if (offset == start || !PagedTransactionLog.looksLikeRecord(line, length) || !mentions(line, length, field)) {
+                return true;
+            }
+            TransactionRecord record = parse(line, length);
+            if (!counts(record) || !accountNumber.equals(record.getAccountNumber())) {
+                return true;
+            }
+            if (TransactionTimeIndex.key(line, length) > instantKey) {
+                // Os registros desta conta vêm em ordem: o primeiro depois do instante encerra a releitura
+                return false;
+            }
+            result[0] = balanceAfter(record);
+            return true;
+        });
+        return result[0];
+    }
+
+    /**
+     * Retorna os registros mais recentes de uma conta no log.
+     * <p>O ponto de controle de posição j é o registro j * interval da conta, então a leitura
+     * começa no último ponto que ainda deixa "limit" registros até o fim da conta e decodifica no
+     * máximo limit + interval registros dela; as linhas das outras contas no trecho são apenas
+     * comparadas byte a byte, como em getBalanceAt().
+     *
+     * @param accountNumber O número da conta.
+     * @param limit A quantidade máxima de registros.
+     * @return Os registros (sem as linhas AUDIT), do mais novo para o mais antigo.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public List<TransactionRecord> latest(String accountNumber, int limit) throws IOException {
+        refresh();
+        long start;
+        long end;
+        synchronized (this) {
+            AccountHistory history = histories.get(accountNumber);
+            if (history == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+            int checkpoint = Math.max(0, (history.recordCount - limit) / interval);
+            start = history.offsets[Math.min(checkpoint, history.size - 1)];
+            end = history.lastOffset + 1;
+        }
+        ArrayDeque<TransactionRecord> newest = new ArrayDeque<>(limit);
+        byte[] field = accountField(accountNumber);
+        PagedTransactionLog.scanLines(logFile, start, null, (line, length, offset) -> {
+            if (offset >= end) {
+                return false;
+            }
+            if (PagedTransactionLog.looksLikeRecord(line, length) && mentions(line, length, field)) {
+                TransactionRecord record = parse(line, length);
+                if (counts(record) && accountNumber.equals(record.getAccountNumber())) {
+                    if (newest.size() == limit) {
+                        newest.removeLast();
+                    }
+                    newest.addFirst(record);
+                }
+            }
+            return true;
+        });
+        return new ArrayList<>(newest);
+    }
+
+    /**
+     * Retorna até onde o arquivo já foi indexado.
+     * @return A posição logo após a última linha indexada.
+     */
+    public synchronized long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * Retorna o número de pontos de controle de uma conta.
+     * @param accountNumber O número da conta.
+     * @return O número de pontos de controle (0 se a conta não aparece no log).
+     */
+    public synchronized int getCheckpointCount(String accountNumber) {
+        AccountHistory history = histories.get(accountNumber);
+        return history == null ? 0 : history.size;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /** Os bytes do campo "Account número" das linhas de uma conta */
+    private static byte[] accountField(String accountNumber) {
+        return ("Account " + accountNumber).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verifica, sem decodificar a linha, se ela tem o campo da conta seguido de ',' ou do fim da
+     * linha. É condição necessária para o parse devolver essa conta; as linhas que passam ainda
+     * são decodificadas e conferidas.
+     */
+    private static boolean mentions(byte[] line, int length, byte[] field) {
+        byte first = field[0];
+        for (int i = 20, last = length - field.length; i <= last; i++) {
+            if (line[i] != first) {
+                continue;
+            }
+            int end = i + field.length;
+            if (end < length && line[end] != ',') {
+                continue;
+            }
+            int j = 1;
+            while (j < field.length && line[i + j] == field[j]) {
+                j++;
+            }
+            if (j == field.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TransactionRecord parse(byte[] line, int length) {
+        return TransactionRecord.parse(new String(line, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Indica se o registro altera (ou fixa) o saldo de uma conta.
+     */
+    private static boolean counts(TransactionRecord record) {
+        return record != null && record.getAccountNumber() != null && !AUDIT_TYPE.equals(record.getType())
+                && (REMOVED_TYPE.equals(record.getType()) || !Double.isNaN(record.getNewBalance()));
+    }
+
+    private static double balanceAfter(TransactionRecord record) {
+        return REMOVED_TYPE.equals(record.getType()) ? Double.NaN : record.getNewBalance();
+    }
+
+    /**
+     * Pontos de controle de uma conta, em ordem de instante.
+     */
+    private static final class AccountHistory {
+        private long[] keys = new long[4];
+        private long[] offsets = new long[4];
+        private double[] balances = new double[4];
+        private int size;
+        /** Posição do último registro da conta (limite da releitura) */
+        private long lastOffset;
+        /** Registros da conta já indexados */
+        private int recordCount;
+        /** Registros desde o último ponto de controle; usado apenas pela indexação */
+        private int sinceCheckpoint;
+
+        void add(long key, long offset, double balance) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                balances = Arrays.copyOf(balances, size * 2);
+            }
+            keys[size] = key;
+            offsets[size] = offset;
+            balances[size] = balance;
+            size++;
+        }
+
+        /**
+         * Busca binária do último ponto de controle com instante até "key", ou -1.
+         */
+        int lastCheckpointAtOrBefore(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    /**
+     * Visitante que decide os pontos de controle durante a leitura; os resultados são copiados
+     * para o índice em publish(), com o monitor do índice.
+     */
+    private final class CheckpointBuilder implements PagedTransactionLog.LineVisitor {
+        private final List<String> checkpointAccounts = new ArrayList<>();
+        private final List<long[]> checkpointPositions = new ArrayList<>();
+        private final List<Double> checkpointBalances = new ArrayList<>();
+        /** Para cada conta lida: {posição do último registro, registros novos} */
+        private final Map<String, long[]> lastRecords = new HashMap<>();
+        /** Contas que apareceram pela primeira vez nesta leitura */
+        private final Map<String, AccountHistory> created = new HashMap<>();
+        private int records;
+
+        @Override
+        public boolean visit(byte[] line, int length, long offset) {
+            if (!PagedTransactionLog.looksLikeRecord(line, length)) {
+                return true;
+            }
+            TransactionRecord record = parse(line, length);
+            if (!counts(record)) {
+                return true;
+            }
+            String accountNumber = record.getAccountNumber();
+            AccountHistory history = history(accountNumber);
+            // sinceCheckpoint só é usado sob o refreshLock, por isso dispensa o monitor
+            if (history.sinceCheckpoint % interval == 0) {
+                checkpointAccounts.add(accountNumber);
+                checkpointPositions.add(new long[] {TransactionTimeIndex.key(line, length), offset});
+                checkpointBalances.add(balanceAfter(record));
+                history.sinceCheckpoint = 0;
+            }
+            history.sinceCheckpoint++;
+            long[] last = lastRecords.computeIfAbsent(accountNumber, number -> new long[2]);
+            last[0] = offset;
+            last[1]++;
+            records++;
+            return true;
+        }
+
+        private AccountHistory history(String accountNumber) {
+            AccountHistory history = created.get(accountNumber);
+            if (history == null) {
+                synchronized (BalanceHistoryIndex.this) {
+                    history = histories.get(accountNumber);
+                }
+                if (history == null) {
+                    history = new AccountHistory();
+                    created.put(accountNumber, history);
+                }
+            }
+            return history;
+        }
+
+        void publish() {
+            histories.putAll(created);
+            for (int i = 0; i < checkpointAccounts.size(); i++) {
+                long[] position = checkpointPositions.get(i);
+                histories.get(checkpointAccounts.get(i)).add(position[0], position[1], checkpointBalances.get(i));
+            }
+            for (Map.Entry<String, long[]> entry : lastRecords.entrySet()) {
+                AccountHistory history = histories.get(entry.getKey());
+                history.lastOffset = entry.getValue()[0];
+                history.recordCount += (int) entry.getValue()[1];
+            }
+        }
+    }
+}
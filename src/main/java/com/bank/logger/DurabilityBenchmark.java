@@ -0,0 +1,210 @@
+package com.bank.logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark e simulação de queda dos níveis de durabilidade do log de transações
+ * ({@code LogDurability}): quanto custa cada registro e o que cada modo pode perder.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Latência:</b> Para cada modo, com 1 e com várias threads registrando ao mesmo
+ *         tempo, mede a latência de cada write() (mediana, p99, máximo) e a vazão.</li>
+ *     <li><b>Queda do processo:</b> Um processo filho registra as transações em um modo, avisa
+ *         quantas foram confirmadas (write() retornou) e é morto à força (SIGKILL, sem shutdown
+ *         hooks). As linhas que faltam no arquivo são as confirmações perdidas.</li>
+ *     <li><b>Queda da máquina:</b> Não dá para derrubar o sistema operacional daqui, então ela é
+ *         simulada no pior caso: tudo o que não passou por um force some junto com o cache do
+ *         sistema operacional. O arquivo é cortado no tamanho que o writer sabe estar em disco
+ *         e as linhas que faltam são as confirmações perdidas.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.durability.commits" (registros por medição, padrão
+ * 2000), "bank.durability.threads" (padrão 8) e "bank.log.group.window" (janela do group
+ * commit em ms, padrão 2). Os números de force dependem do disco: rode no disco de produção.
+ */
+public class DurabilityBenchmark {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /**
+     * Executa o benchmark; com "child &lt;modo&gt; &lt;arquivo&gt; &lt;registros&gt;", é o
+     * processo filho da simulação de queda.
+     * @param args Vazio, ou os argumentos do processo filho.
+     * @throws Exception Se o log temporário não puder ser gravado ou o processo filho falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && "child".equals(args[0])) {
+            runChild(LogDurability.Mode.valueOf(args[1]), Path.of(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int commits = Integer.getInteger("bank.durability.commits", 2000);
+        int threads = Integer.getInteger("bank.durability.threads", 8);
+        Duration window = Duration.ofMillis(Long.getLong("bank.log.group.window", 2L));
+        Path directory = Files.createTempDirectory("durability-bench");
+        try {
+            System.out.println("Commit latency (" + commits + " commits per run)");
+            System.out.printf("%-22s %7s %10s %10s %10s %12s%n", "Mode", "Threads", "p50 us", "p99 us", "max us", "commits/s");
+            for (LogDurability.Mode mode : LogDurability.Mode.values()) {
+                for (int threadCount : new int[] {1, threads}) {
+                    measureLatency(directory, new LogDurability(mode, window), threadCount, commits);
+                }
+            }
+
+            System.out.println();
+            System.out.println("Acknowledged commits lost (" + commits + " acknowledged)");
+            System.out.printf("%-22s %15s %22s%n", "Mode", "Process crash", "Power loss (modeled)");
+            for (LogDurability.Mode mode : LogDurability.Mode.values()) {
+                LogDurability durability = new LogDurability(mode, window);
+                System.out.printf("%-22s %15d %22d%n", durability, processCrashLoss(directory, mode, commits),
+                        powerLossLoss(directory, durability, commits));
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void measureLatency(Path directory, LogDurability durability, int threadCount, int commits)
+            throws Exception {
+        Path log = Files.createTempFile(directory, "latency", ".log");
+        long[] latencies = new long[commits];
+        int perThread = commits / threadCount;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threadCount];
+        long elapsed;
+        try (SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled(), durability)) {
+            for (int t = 0; t < threadCount; t++) {
+                int first = t * perThread;
+                workers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = first; i < first + perThread; i++) {
+                        long begin = System.nanoTime();
+                        writeCommit(writer, i);
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                });
+                workers[t].start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        long[] measured = Arrays.copyOf(latencies, perThread * threadCount);
+        Arrays.sort(measured);
+        System.out.printf("%-22s %7d %10.1f %10.1f %10.1f %12.0f%n", durability, threadCount,
+                measured[measured.length / 2] / 1e3, measured[(int) (measured.length * 0.99)] / 1e3,
+                measured[measured.length - 1] / 1e3, measured.length / (elapsed / 1e9));
+        Files.deleteIfExists(log);
+    }
+
+    /**
+     * Mata um processo filho depois que ele confirma os registros e conta as confirmações que
+     * não chegaram ao arquivo.
+     */
+    private static long processCrashLoss(Path directory, LogDurability.Mode mode, int commits) throws Exception {
+        Path log = Files.createTempFile(directory, "crash-" + mode, ".log");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                DurabilityBenchmark.class.getName(), "child", mode.name(), log.toString(), String.valueOf(commits))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        long acknowledged = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith("acknowledged ")) {
+                acknowledged = Long.parseLong(line.substring("acknowledged ".length()));
+            }
+            child.destroyForcibly();
+            child.waitFor(30, TimeUnit.SECONDS);
+        }
+        if (acknowledged < 0) {
+            throw new IllegalStateException("Crash child did not report its acknowledged commits");
+        }
+        long lost = acknowledged - completeLines(log, Files.size(log));
+        Files.deleteIfExists(log);
+        return lost;
+    }
+
+    private static void runChild(LogDurability.Mode mode, Path log, int commits) throws Exception {
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled(),
+                new LogDurability(mode, Duration.ofMillis(Long.getLong("bank.log.group.window", 2L))));
+        for (int i = 0; i < commits; i++) {
+            writeCommit(writer, i);
+        }
+        System.out.println("acknowledged " + commits);
+        System.out.flush();
+        // Sem close(): o processo espera ser morto com o que estiver no buffer
+        Thread.sleep(Long.MAX_VALUE);
+    }
+
+    /**
+     * Registra as transações e corta o arquivo no que o writer sabe estar em disco, como se a
+     * máquina caísse logo depois da última confirmação.
+     */
+    private static long powerLossLoss(Path directory, LogDurability durability, int commits) throws IOException {
+        Path log = Files.createTempFile(directory, "power-" + durability.getMode(), ".log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled(), durability);
+        for (int i = 0; i < commits; i++) {
+            writeCommit(writer, i);
+        }
+        long lost = commits - completeLines(log, writer.getDurableLength());
+        writer.close();
+        Files.deleteIfExists(log);
+        return lost;
+    }
+
+    private static void writeCommit(SegmentedLogWriter writer, int i) {
+        LocalDateTime now = LocalDateTime.now();
+        writer.write(now, FORMAT.format(now) + " - Deposit: Account ACC" + (i % 100) + ", Amount: 10.0, New Balance: " + i + "0.0");
+    }
+
+    /**
+     * Quantidade de linhas completas nos primeiros {@code length} bytes do arquivo.
+     */
+    static long completeLines(Path file, long length) throws IOException {
+        long lines = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < length) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        lines++;
+                    }
+                }
+                position += read;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bank.logger;
+
+import java.time.Duration;
+
+/**
+ * Nível de durabilidade do log de transações: até onde uma linha precisa ter chegado quando
+ * o registro da transação retorna. Objeto imutável.
+ *
+ * <p>Modos, do mais rápido ao mais seguro:
+ * <ul>
+ *     <li>{@link Mode#NONE}: a linha fica num buffer da JVM, gravado no arquivo quando enche, na
+ *         rotação e no fechamento. A queda do processo perde o que está no buffer, e os
+ *         leitores do histórico só veem as linhas já gravadas.</li>
+ *     <li>{@link Mode#FLUSH}: a linha é entregue ao sistema operacional a cada registro (o
+ *         auto-flush que o log sempre usou; é o padrão). Sobrevive à queda do processo; a queda
+ *         da máquina perde o que o sistema operacional ainda não gravou em disco.</li>
+ *     <li>{@link Mode#FSYNC}: cada registro só retorna depois de {@code force} no arquivo.
+ *         Nada confirmado se perde, ao custo de uma gravação em disco por registro.</li>
+ *     <li>{@link Mode#GROUP_COMMIT}: cada registro espera o próximo {@code force}, feito por uma
+ *         thread no máximo uma vez por janela ({@code groupWindow}) para todos os registros que
+ *         chegaram nela. Nada confirmado se perde; a latência sobe até uma janela, mas um
+ *         {@code force} atende muitos registros concorrentes.</li>
+ * </ul>
+ *
+ * <p>Propriedades lidas por fromSystemProperties(): {@code bank.log.durability} ("none",
+ * "flush", "fsync" ou "group", padrão "flush") e {@code bank.log.group.window} (janela do
+ * group commit em milissegundos, padrão 2).
+ */
+public final class LogDurability {
+    /**
+     * Os modos de durabilidade.
+     */
+    public enum Mode { NONE, FLUSH, FSYNC, GROUP_COMMIT }
+
+    private final Mode mode;
+    private final Duration groupWindow;
+
+    /**
+     * Construtor para {@code LogDurability}.
+     * @param mode O modo.
+     * @param groupWindow A janela do group commit (usada só em {@link Mode#GROUP_COMMIT}).
+     */
+    public LogDurability(Mode mode, Duration groupWindow) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Durability mode must not be null");
+        }
+        if (mode == Mode.GROUP_COMMIT && (groupWindow == null || groupWindow.isNegative())) {
+            throw new IllegalArgumentException("Group commit window must not be negative");
+        }
+        this.mode = mode;
+        this.groupWindow = groupWindow;
+    }
+
+    /**
+     * O comportamento padrão: entrega ao sistema operacional a cada registro, sem force.
+     * @return A durabilidade padrão.
+     */
+    public static LogDurability flush() {
+        return new LogDurability(Mode.FLUSH, null);
+    }
+
+    /**
+     * Lê a durabilidade das propriedades do sistema.
+     * @return A durabilidade configurada.
+     */
+    public static LogDurability fromSystemProperties() {
+        String value = System.getProperty("bank.log.durability", "flush").trim().toLowerCase();
+        Duration window = Duration.ofMillis(Long.getLong("bank.log.group.window", 2L));
+        switch (value) {
+            case "none":
+                return new LogDurability(Mode.NONE, null);
+            case "flush":
+                return flush();
+            case "fsync":
+                return new LogDurability(Mode.FSYNC, null);
+            case "group":
+                return new LogDurability(Mode.GROUP_COMMIT, window);
+            default:
+                throw new IllegalArgumentException("Unknown durability mode: " + value);
+        }
+    }
+
+    public Mode getMode() { return mode; }
+    public Duration getGroupWindow() { return groupWindow; }
+
+    @Override
+    public String toString() {
+        return mode == Mode.GROUP_COMMIT ? mode + " (" + groupWindow.toMillis() + " ms)" : mode.toString();
+    }
+}
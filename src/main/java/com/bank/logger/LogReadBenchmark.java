@@ -0,0 +1,144 @@
+package com.bank.logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark da leitura do log de transações: compara a leitura com
+ * {@code BufferedReader(FileReader)}, que era como getLogs() lia o arquivo, com a leitura
+ * mapeada em memória ({@code MappedLineReader}) usada pelo histórico e pelos índices.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Preparação:</b> Gera um log temporário com o formato do {@code TransactionLogger}.</li>
+ *     <li><b>Medições:</b> Para cada forma de leitura, a melhor de algumas rodadas (com o arquivo
+ *         já no cache do sistema operacional): o getLogs() anterior (linhas em uma lista), o
+ *         BufferedReader apenas contando registros, a leitura com buffer no heap
+ *         ({@code scanChannel}, usada nos segmentos comprimidos), a leitura mapeada contando
+ *         registros e extraindo o instante dos bytes, e a construção completa do
+ *         {@code TransactionTimeIndex} e do {@code BalanceHistoryIndex}.</li>
+ *     <li><b>Resultado:</b> Tempo e vazão (MB/s) de cada uma.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.logbench.lines" (padrão 2000000) e
+ * "bank.logbench.accounts" (padrão 10000).
+ */
+public class LogReadBenchmark {
+    private static final int ROUNDS = 5;
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     * @throws IOException Se o log temporário não puder ser gravado ou lido.
+     */
+    public static void main(String[] args) throws IOException {
+        int lines = Integer.getInteger("bank.logbench.lines", 2_000_000);
+        int accounts = Integer.getInteger("bank.logbench.accounts", 10_000);
+        Path log = Files.createTempFile("transactions-bench", ".log");
+        try {
+            write(log, lines, accounts);
+            long bytes = Files.size(log);
+            System.out.printf("Log: %d lines, %.1f MB%n", lines, bytes / 1e6);
+
+            long sink = 0;
+            long legacy = Long.MAX_VALUE;
+            long readerCount = Long.MAX_VALUE;
+            long heapBuffer = Long.MAX_VALUE;
+            long mapped = Long.MAX_VALUE;
+            long timeIndex = Long.MAX_VALUE;
+            long balanceIndex = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                List<String> all = new ArrayList<>();
+                try (BufferedReader reader = new BufferedReader(new FileReader(log.toFile()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        all.add(line);
+                    }
+                }
+                legacy = Math.min(legacy, System.nanoTime() - start);
+                sink += all.size();
+                all = null;
+
+                start = System.nanoTime();
+                try (BufferedReader reader = new BufferedReader(new FileReader(log.toFile()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.length() > 19 && line.charAt(10) == 'T') {
+                            sink++;
+                        }
+                    }
+                }
+                readerCount = Math.min(readerCount, System.nanoTime() - start);
+
+                long[] keys = new long[1];
+                PagedTransactionLog.LineVisitor visitor = (line, length, offset) -> {
+                    if (PagedTransactionLog.looksLikeRecord(line, length)) {
+                        keys[0] += TransactionTimeIndex.key(line, length);
+                    }
+                    return true;
+                };
+                start = System.nanoTime();
+                try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+                    PagedTransactionLog.scanChannel(channel, 0, 0, channel.size(), null, visitor, null);
+                }
+                heapBuffer = Math.min(heapBuffer, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                PagedTransactionLog.scanPlainFile(log, 0, null, visitor);
+                mapped = Math.min(mapped, System.nanoTime() - start);
+                sink += keys[0];
+
+                start = System.nanoTime();
+                TransactionTimeIndex index = new TransactionTimeIndex(log);
+                sink += index.refresh();
+                timeIndex = Math.min(timeIndex, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                BalanceHistoryIndex history = new BalanceHistoryIndex(log);
+                sink += history.refresh();
+                balanceIndex = Math.min(balanceIndex, System.nanoTime() - start);
+            }
+            report("getLogs() (BufferedReader into a list)", legacy, bytes);
+            report("BufferedReader, counting records", readerCount, bytes);
+            report("Heap buffer scan with timestamp keys", heapBuffer, bytes);
+            report("Mapped scan with timestamp keys", mapped, bytes);
+            report("TransactionTimeIndex build (mapped)", timeIndex, bytes);
+            report("BalanceHistoryIndex build (mapped)", balanceIndex, bytes);
+            System.out.println("(checksum " + sink + ")");
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    private static void write(Path log, int lines, int accounts) throws IOException {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 8, 0);
+        double balance = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                time = time.plusNanos(7_000_000);
+                balance += i % 3 == 0 ? -20.0 : 35.0;
+                out.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+                out.write(i % 3 == 0 ? " - Withdrawal: Account " : " - Deposit: Account ");
+                out.write(String.format("ACC%08d", i % accounts));
+                out.write(", Amount: " + (i % 3 == 0 ? 20.0 : 35.0) + ", New Balance: " + balance);
+                out.newLine();
+            }
+        }
+    }
+
+    private static void report(String label, long nanos, long bytes) {
+        System.out.printf("%-42s %8.1f ms %8.0f MB/s%n", label, nanos / 1e6, bytes / 1e6 / (nanos / 1e9));
+    }
+}
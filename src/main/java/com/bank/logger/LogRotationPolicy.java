@@ -0,0 +1,89 @@
+package com.bank.logger;
+
+import java.time.Duration;
+
+/**
+ * Política de rotação, compressão e retenção dos segmentos do log de transações. Objeto
+ * imutável.
+ *
+ * <p>Propriedades lidas por fromSystemProperties():
+ * <ul>
+ *     <li>{@code bank.log.segment.bytes}: tamanho a partir do qual o arquivo vivo é selado
+ *         (0, o padrão, desativa a rotação por tamanho).</li>
+ *     <li>{@code bank.log.segment.age}: idade máxima do primeiro registro do arquivo vivo,
+ *         como duração ISO (ex: "PT24H"); vazia desativa a rotação por tempo.</li>
+ *     <li>{@code bank.log.compress}: comprime os segmentos selados com GZIP (padrão true).</li>
+ *     <li>{@code bank.log.retention.segments}: quantidade de segmentos selados mantidos
+ *         (0, o padrão, mantém todos).</li>
+ *     <li>{@code bank.log.retention.age}: apaga os segmentos cujo último registro é mais antigo
+ *         que a duração ISO informada; vazia mantém todos.</li>
+ * </ul>
+ *
+ * <p>Sem rotação o log continua sendo um único arquivo, como antes. A replicação e o
+ * sharding acompanham o arquivo vivo pela posição e dependem disso: o {@code JournalShipper}
+ * (e com ele {@code ReplicationNode} e {@code ShardNode}) se recusa a iniciar com a rotação ativa.
+ */
+public final class LogRotationPolicy {
+    private final long maxSegmentBytes;
+    private final Duration maxSegmentAge;
+    private final boolean compress;
+    private final int retainedSegments;
+    private final Duration retentionAge;
+
+    /**
+     * Construtor para {@code LogRotationPolicy}.
+     * @param maxSegmentBytes Tamanho máximo do arquivo vivo, ou 0 para não rotacionar por tamanho.
+     * @param maxSegmentAge Idade máxima do arquivo vivo, ou null para não rotacionar por tempo.
+     * @param compress Se os segmentos selados são comprimidos.
+     * @param retainedSegments Quantidade de segmentos selados mantidos, ou 0 para todos.
+     * @param retentionAge Idade a partir da qual os segmentos são apagados, ou null.
+     */
+    public LogRotationPolicy(long maxSegmentBytes, Duration maxSegmentAge, boolean compress,
+                             int retainedSegments, Duration retentionAge) {
+        if (maxSegmentBytes < 0 || retainedSegments < 0) {
+            throw new IllegalArgumentException("Segment size and retained segments must not be negative");
+        }
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAge = maxSegmentAge;
+        this.compress = compress;
+        this.retainedSegments = retainedSegments;
+        this.retentionAge = retentionAge;
+    }
+
+    /**
+     * Política sem rotação: um único arquivo que só cresce.
+     * @return A política.
+     */
+    public static LogRotationPolicy disabled() {
+        return new LogRotationPolicy(0, null, false, 0, null);
+    }
+
+    /**
+     * Lê a política das propriedades do sistema.
+     * @return A política configurada.
+     */
+    public static LogRotationPolicy fromSystemProperties() {
+        return new LogRotationPolicy(Long.getLong("bank.log.segment.bytes", 0L),
+                duration(System.getProperty("bank.log.segment.age")),
+                Boolean.parseBoolean(System.getProperty("bank.log.compress", "true")),
+                Integer.getInteger("bank.log.retention.segments", 0),
+                duration(System.getProperty("bank.log.retention.age")));
+    }
+
+    private static Duration duration(String value) {
+        return value == null || value.isEmpty() ? null : Duration.parse(value);
+    }
+
+    /**
+     * Indica se o arquivo vivo é rotacionado (por tamanho ou por tempo).
+     */
+    public boolean isEnabled() {
+        return maxSegmentBytes > 0 || maxSegmentAge != null;
+    }
+
+    public long getMaxSegmentBytes() { return maxSegmentBytes; }
+    public Duration getMaxSegmentAge() { return maxSegmentAge; }
+    public boolean isCompress() { return compress; }
+    public int getRetainedSegments() { return retainedSegments; }
+    public Duration getRetentionAge() { return retentionAge; }
+}
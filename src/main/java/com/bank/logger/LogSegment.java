@@ -0,0 +1,94 @@
+package com.bank.logger;
+
+import java.time.LocalDateTime;
+
+/**
+ * Segmento selado do log de transações, como registrado no manifesto de segmentos. Objeto
+ * imutável.
+ *
+ * <p>As posições são lógicas: o log é tratado como a concatenação de todos os segmentos, na
+ * ordem, seguida do arquivo vivo. Assim as posições guardadas pelos índices (ex: o
+ * {@code TransactionTimeIndex}) continuam válidas depois que o arquivo é rotacionado ou
+ * comprimido.
+ */
+public final class LogSegment {
+    /** Sufixo dos segmentos comprimidos com GZIP */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    private final long id;
+    private final String fileName;
+    private final long offset;
+    private final long length;
+    private final long firstSequence;
+    private final long lastSequence;
+    private final LocalDateTime firstTime;
+    private final LocalDateTime lastTime;
+
+    LogSegment(long id, String fileName, long offset, long length, long firstSequence, long lastSequence,
+               LocalDateTime firstTime, LocalDateTime lastTime) {
+        this.id = id;
+        this.fileName = fileName;
+        this.offset = offset;
+        this.length = length;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.firstTime = firstTime;
+        this.lastTime = lastTime;
+    }
+
+    public long getId() { return id; }
+    /** @return O nome do arquivo, no mesmo diretório do log. */
+    public String getFileName() { return fileName; }
+    /** @return A posição lógica do primeiro byte do segmento. */
+    public long getOffset() { return offset; }
+    /** @return O tamanho do segmento sem compressão. */
+    public long getLength() { return length; }
+    /** @return A posição lógica logo após o segmento. */
+    public long getEndOffset() { return offset + length; }
+    /** @return O número de sequência do primeiro registro (o primeiro registro do log é 1). */
+    public long getFirstSequence() { return firstSequence; }
+    public long getLastSequence() { return lastSequence; }
+    /** @return O instante do primeiro registro, ou null se o segmento não tem registros. */
+    public LocalDateTime getFirstTime() { return firstTime; }
+    public LocalDateTime getLastTime() { return lastTime; }
+
+    public boolean isCompressed() {
+        return fileName.endsWith(COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Cópia apontando para o arquivo comprimido do mesmo segmento.
+     */
+    LogSegment compressed() {
+        return isCompressed() ? this : new LogSegment(id, fileName + COMPRESSED_SUFFIX, offset, length,
+                firstSequence, lastSequence, firstTime, lastTime);
+    }
+
+    /**
+     * Linha do manifesto: campos separados por tabulação.
+     */
+    String toManifestLine() {
+        return "segment\t" + id + "\t" + fileName + "\t" + offset + "\t" + length + "\t" + firstSequence
+                + "\t" + lastSequence + "\t" + (firstTime == null ? "-" : firstTime.toString())
+                + "\t" + (lastTime == null ? "-" : lastTime.toString());
+    }
+
+    /**
+     * Interpreta uma linha gravada por toManifestLine().
+     */
+    static LogSegment parse(String[] fields) {
+        if (fields.length != 9) {
+            throw new IllegalArgumentException("Invalid segment entry: " + String.join("\t", fields));
+        }
+        return new LogSegment(Long.parseLong(fields[1]), fields[2], Long.parseLong(fields[3]),
+                Long.parseLong(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6]),
+                "-".equals(fields[7]) ? null : LocalDateTime.parse(fields[7]),
+                "-".equals(fields[8]) ? null : LocalDateTime.parse(fields[8]));
+    }
+
+    @Override
+    public String toString() {
+        return "LogSegment{" + fileName + ", offset=" + offset + ", length=" + length
+                + ", sequences=" + firstSequence + ".." + lastSequence + "}";
+    }
+}
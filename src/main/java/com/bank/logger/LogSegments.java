@@ -0,0 +1,453 @@
+package com.bank.logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Manifesto dos segmentos selados do log de transações e leitura transparente do log
+ * segmentado: os segmentos, na ordem, seguidos do arquivo vivo.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Manifesto:</b> O arquivo "&lt;log&gt;.manifest" lista cada segmento com a posição
+ *         lógica, o tamanho sem compressão, a faixa de números de sequência e a faixa de
+ *         instantes dos registros, além da posição lógica e da sequência inicial do arquivo
+ *         vivo. É regravado por inteiro, em um arquivo temporário movido atomicamente.</li>
+ *     <li><b>Selagem:</b> seal() renomeia o arquivo vivo para "&lt;log&gt;.000001" (o número do
+ *         segmento) e o inclui no manifesto; a compressão troca depois o arquivo por
+ *         "&lt;log&gt;.000001.gz". Se o processo parar entre a renomeação e o manifesto, o
+ *         segmento renomeado é reconhecido na abertura seguinte.</li>
+ *     <li><b>Leitura:</b> scan() percorre os segmentos a partir da posição lógica pedida e
+ *         continua no arquivo vivo. O arquivo vivo e os segmentos sem compressão são mapeados
+ *         em memória ({@code MappedLineReader}); os comprimidos são lidos com GZIP desde o início
+ *         (a parte anterior à posição é descartada). A lista de segmentos e o arquivo vivo são
+ *         obtidos juntos, com a trava de leitura, para que uma rotação concorrente não desloque
+ *         as posições; um segmento comprimido durante a leitura é lido do arquivo .gz, e um
+ *         apagado pela retenção é pulado.</li>
+ * </ol>
+ *
+ * <p>Há uma instância por arquivo de log no processo; {@code PagedTransactionLog} a consulta
+ * em toda leitura, de modo que os índices e as visões paginadas leem através dos segmentos sem
+ * mudanças.
+ */
+public class LogSegments {
+    /** Sufixo do arquivo de manifesto */
+    public static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final Map<Path, LogSegments> OPEN = new ConcurrentHashMap<>();
+
+    private final Path liveFile;
+    private final Path manifestFile;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Segmentos mantidos, em ordem; a lista é substituída (nunca alterada) a cada mudança */
+    private volatile List<LogSegment> segments = Collections.emptyList();
+    private long nextId = 1;
+    private long liveOffset;
+    private long liveFirstSequence = 1;
+
+    private LogSegments(Path liveFile) {
+        this.liveFile = liveFile;
+        this.manifestFile = liveFile.resolveSibling(liveFile.getFileName() + MANIFEST_SUFFIX);
+    }
+
+    /**
+     * Retorna os segmentos de um log, criando o manifesto na primeira selagem.
+     * @param logFile O arquivo vivo do log.
+     * @return A instância do log no processo.
+     * @throws IOException Se o manifesto existir e não puder ser lido.
+     */
+    public static LogSegments open(Path logFile) throws IOException {
+        try {
+            return OPEN.computeIfAbsent(key(logFile), path -> {
+                try {
+                    return load(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Retorna os segmentos de um log, ou null se ele nunca foi rotacionado (um único arquivo).
+     */
+    static LogSegments find(Path logFile) throws IOException {
+        Path path = key(logFile);
+        LogSegments segments = OPEN.get(path);
+        if (segments != null || !Files.exists(path.resolveSibling(path.getFileName() + MANIFEST_SUFFIX))) {
+            return segments;
+        }
+        return open(path);
+    }
+
+    private static Path key(Path logFile) {
+        return logFile.toAbsolutePath().normalize();
+    }
+
+    private static LogSegments load(Path liveFile) throws IOException {
+        LogSegments log = new LogSegments(liveFile);
+        if (Files.exists(log.manifestFile)) {
+            List<LogSegment> loaded = new ArrayList<>();
+            for (String line : Files.readAllLines(log.manifestFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if ("live".equals(fields[0]) && fields.length == 4) {
+                    log.nextId = Long.parseLong(fields[1]);
+                    log.liveOffset = Long.parseLong(fields[2]);
+                    log.liveFirstSequence = Long.parseLong(fields[3]);
+                } else if ("segment".equals(fields[0])) {
+                    loaded.add(LogSegment.parse(fields));
+                }
+            }
+            log.segments = Collections.unmodifiableList(loaded);
+        }
+        // Segmento renomeado por uma selagem interrompida antes de gravar o manifesto
+        Path pending = liveFile.resolveSibling(log.segmentName(log.nextId));
+        if (Files.exists(pending)) {
+            SegmentStats stats = SegmentStats.of(pending);
+            log.append(new LogSegment(log.nextId, pending.getFileName().toString(), log.liveOffset, stats.bytes,
+                    log.liveFirstSequence, log.liveFirstSequence + stats.records - 1, stats.firstTime, stats.lastTime));
+            log.writeManifest();
+        }
+        return log;
+    }
+
+    /**
+     * Retorna os segmentos mantidos, do mais antigo para o mais novo.
+     * @return Uma lista imutável.
+     */
+    public List<LogSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Retorna a posição lógica do início do arquivo vivo.
+     * @return A soma dos tamanhos de todos os segmentos já selados.
+     */
+    public long getLiveOffset() {
+        lock.readLock().lock();
+        try {
+            return liveOffset;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna a posição lógica do início do log: o começo do segmento mais antigo mantido, ou o
+     * do arquivo vivo se nenhum foi mantido. Cresce quando a retenção apaga segmentos.
+     * @return A primeira posição lógica que ainda pode ser lida.
+     */
+    public long getLogicalStart() {
+        lock.readLock().lock();
+        try {
+            return segments.isEmpty() ? liveOffset : segments.get(0).getOffset();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna a posição lógica do fim do log, com o lock de leitura: uma selagem concorrente
+     * não pode mover o início do arquivo vivo entre as duas leituras.
+     * @return A posição do início do arquivo vivo mais o seu tamanho atual.
+     * @throws IOException Se houver erro ao ler o tamanho do arquivo vivo.
+     */
+    public long getLogicalEnd() throws IOException {
+        lock.readLock().lock();
+        try {
+            return liveOffset + (Files.exists(liveFile) ? Files.size(liveFile) : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de sequência do primeiro registro do arquivo vivo.
+     */
+    public long getLiveFirstSequence() {
+        lock.readLock().lock();
+        try {
+            return liveFirstSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Path getLiveFile() {
+        return liveFile;
+    }
+
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    /**
+     * Sela o arquivo vivo: renomeia o arquivo e o inclui no manifesto. Quem grava o log deve
+     * ter fechado o arquivo e só reabri-lo depois.
+     *
+     * @param stats Os registros do arquivo vivo.
+     * @return O novo segmento.
+     * @throws IOException Se houver erro ao renomear o arquivo ou gravar o manifesto.
+     */
+    LogSegment seal(SegmentStats stats) throws IOException {
+        lock.writeLock().lock();
+        try {
+            String name = segmentName(nextId);
+            Files.move(liveFile, liveFile.resolveSibling(name), StandardCopyOption.ATOMIC_MOVE);
+            LogSegment segment = new LogSegment(nextId, name, liveOffset, stats.bytes, liveFirstSequence,
+                    liveFirstSequence + stats.records - 1, stats.firstTime, stats.lastTime);
+            append(segment);
+            writeManifest();
+            return segment;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(LogSegment segment) {
+        List<LogSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        segments = Collections.unmodifiableList(updated);
+        nextId = segment.getId() + 1;
+        liveOffset = segment.getEndOffset();
+        liveFirstSequence = segment.getLastSequence() + 1;
+    }
+
+    /**
+     * Troca um segmento pela sua versão comprimida, já gravada em disco.
+     * @return false se o segmento já saiu do manifesto (retenção).
+     */
+    boolean markCompressed(LogSegment segment) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<LogSegment> updated = new ArrayList<>(segments);
+            int index = updated.indexOf(segment);
+            if (index < 0) {
+                return false;
+            }
+            updated.set(index, segment.compressed());
+            segments = Collections.unmodifiableList(updated);
+            writeManifest();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira do manifesto os segmentos fora da política de retenção.
+     * @param policy A política.
+     * @param now O instante de referência para a idade dos segmentos.
+     * @return Os segmentos retirados, cujos arquivos podem ser apagados.
+     */
+    List<LogSegment> removeExpired(LogRotationPolicy policy, LocalDateTime now) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<LogSegment> kept = new ArrayList<>(segments);
+            List<LogSegment> removed = new ArrayList<>();
+            int excess = policy.getRetainedSegments() > 0 ? kept.size() - policy.getRetainedSegments() : 0;
+            LocalDateTime oldest = policy.getRetentionAge() != null ? now.minus(policy.getRetentionAge()) : null;
+            while (!kept.isEmpty()) {
+                LogSegment first = kept.get(0);
+                boolean expired = oldest != null && first.getLastTime() != null && first.getLastTime().isBefore(oldest);
+                if (removed.size() >= excess && !expired) {
+                    break;
+                }
+                removed.add(kept.remove(0));
+            }
+            if (!removed.isEmpty()) {
+                segments = Collections.unmodifiableList(kept);
+                writeManifest();
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String segmentName(long id) {
+        return liveFile.getFileName() + "." + String.format("%06d", id);
+    }
+
+    private void writeManifest() throws IOException {
+        Path temporary = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            out.write("# Segments of " + liveFile.getFileName()
+                    + ": id, file, offset, bytes, firstSequence, lastSequence, firstTime, lastTime");
+            out.newLine();
+            out.write("live\t" + nextId + "\t" + liveOffset + "\t" + liveFirstSequence);
+            out.newLine();
+            for (LogSegment segment : segments) {
+                out.write(segment.toManifestLine());
+                out.newLine();
+            }
+        }
+        Files.move(temporary, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lê o log a partir de uma posição lógica, através dos segmentos e do arquivo vivo.
+     * @return A posição lógica logo após a última linha entregue.
+     */
+    long scan(long from, PagedTransactionLog.ProgressListener listener, PagedTransactionLog.LineVisitor visitor)
+            throws IOException {
+        List<LogSegment> sealed;
+        long liveStart;
+        FileChannel live = null;
+        lock.readLock().lock();
+        try {
+            sealed = segments;
+            liveStart = liveOffset;
+            if (Files.exists(liveFile)) {
+                live = FileChannel.open(liveFile, StandardOpenOption.READ);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            long total = liveStart + (live == null ? 0 : live.size());
+            boolean[] stopped = new boolean[1];
+            // Posições anteriores ao primeiro segmento mantido foram apagadas pela retenção
+            long position = Math.max(from, sealed.isEmpty() ? liveStart : sealed.get(0).getOffset());
+            for (LogSegment segment : sealed) {
+                if (segment.getEndOffset() <= position) {
+                    continue;
+                }
+                try (ReadableByteChannel channel = openSegment(segment, position - segment.getOffset())) {
+                    long end;
+                    if (channel instanceof FileChannel) {
+                        FileChannel file = (FileChannel) channel;
+                        end = MappedLineReader.scan(file, position - segment.getOffset(), file.size(),
+                                segment.getOffset(), listener, visitor, stopped);
+                    } else if (channel != null) {
+                        end = PagedTransactionLog.scanChannel(channel, position, from, total, listener, visitor, stopped);
+                    } else {
+                        end = position;
+                    }
+                    if (stopped[0]) {
+                        return end;
+                    }
+                }
+                position = segment.getEndOffset();
+            }
+            if (live == null) {
+                return position;
+            }
+            return MappedLineReader.scan(live, Math.max(0, position - liveStart), live.size(), liveStart,
+                    listener, visitor, stopped);
+        } finally {
+            if (live != null) {
+                live.close();
+            }
+        }
+    }
+
+    /**
+     * Abre um segmento posicionado em "skip" bytes do início (sem compressão), ou retorna null
+     * se o segmento já foi apagado.
+     */
+    private ReadableByteChannel openSegment(LogSegment segment, long skip) throws IOException {
+        Path file = liveFile.resolveSibling(segment.getFileName());
+        if (!segment.isCompressed()) {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channel.position(skip);
+                return channel;
+            } catch (NoSuchFileException e) {
+                // Comprimido depois que a lista foi obtida
+                file = liveFile.resolveSibling(segment.compressed().getFileName());
+            }
+        }
+        InputStream in;
+        try {
+            in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            while (skip > 0) {
+                long skipped = in.skip(skip);
+                if (skipped <= 0) {
+                    break;
+                }
+                skip -= skipped;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return Channels.newChannel(in);
+    }
+
+    /**
+     * Tamanho, quantidade de registros e faixa de instantes de um arquivo de log.
+     */
+    static final class SegmentStats {
+        long bytes;
+        long records;
+        LocalDateTime firstTime;
+        LocalDateTime lastTime;
+
+        /**
+         * Lê o arquivo inteiro (usado apenas na abertura, para o arquivo vivo existente).
+         */
+        static SegmentStats of(Path file) throws IOException {
+            SegmentStats stats = new SegmentStats();
+            if (!Files.exists(file)) {
+                return stats;
+            }
+            // Guarda apenas o início da última linha (o buffer de linha é reaproveitado)
+            byte[] last = new byte[64];
+            int[] lastLength = new int[1];
+            PagedTransactionLog.scanPlainFile(file, 0, null, (line, length, offset) -> {
+                if (PagedTransactionLog.looksLikeRecord(line, length)) {
+                    if (stats.records == 0) {
+                        stats.firstTime = timestamp(line, length);
+                    }
+                    stats.records++;
+                    lastLength[0] = Math.min(length, last.length);
+                    System.arraycopy(line, 0, last, 0, lastLength[0]);
+                }
+                return true;
+            });
+            if (stats.records > 0) {
+                stats.lastTime = timestamp(last, lastLength[0]);
+            }
+            stats.bytes = Files.size(file);
+            return stats;
+        }
+
+        private static LocalDateTime timestamp(byte[] line, int length) {
+            String text = new String(line, 0, length, StandardCharsets.UTF_8);
+            int separator = text.indexOf(' ');
+            try {
+                return LocalDateTime.parse(separator < 0 ? text : text.substring(0, separator));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
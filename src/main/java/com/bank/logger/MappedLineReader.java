@@ -0,0 +1,145 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Leitura de arquivos de linhas (log de transações, journal de eventos) mapeados em memória
+ * com {@code FileChannel.map}: as linhas são localizadas diretamente no
+ * {@code MappedByteBuffer}, sem passar por um buffer de leitura nem decodificar caracteres.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Janelas:</b> O trecho pedido é mapeado em janelas de até 64 MB (um mapeamento é
+ *         limitado a 2 GB e o espaço de endereços é liberado só quando a janela é coletada).</li>
+ *     <li><b>Linhas:</b> Cada quebra de linha é procurada no próprio mapeamento; os bytes da
+ *         linha são copiados em bloco para um único array reaproveitado, entregue ao visitante
+ *         com o tamanho e a posição. Nenhum objeto é criado por linha: o visitante decide se
+ *         precisa decodificá-la (ex: o índice por data lê o instante direto dos bytes).</li>
+ *     <li><b>Fim:</b> Lê até a posição final informada (em geral o tamanho do arquivo no início
+ *         da leitura); uma última linha sem quebra de linha não é entregue.</li>
+ * </ol>
+ */
+public final class MappedLineReader {
+    /** Tamanho máximo de cada janela mapeada */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    /** '\n' repetido nos 8 bytes de uma palavra */
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    /**
+     * Visitante das linhas lidas. Retorna false para interromper a leitura.
+     */
+    public interface LineVisitor {
+        /**
+         * @param line Os bytes da linha, sem a quebra de linha (o array é reaproveitado).
+         * @param length O tamanho da linha.
+         * @param offset A posição (lógica) do início da linha.
+         */
+        boolean visit(byte[] line, int length, long offset);
+    }
+
+    private MappedLineReader() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Entrega as linhas completas de um trecho do arquivo.
+     *
+     * @param channel O arquivo, aberto para leitura.
+     * @param from A posição no arquivo onde a leitura começa (início de uma linha).
+     * @param end A posição no arquivo onde a leitura termina.
+     * @param base Valor somado às posições do arquivo nas posições entregues (a posição lógica
+     *             do início do arquivo; 0 para um arquivo único).
+     * @param listener Receptor do andamento, ou null.
+     * @param visitor Quem recebe as linhas.
+     * @param stopped Recebe true se o visitante interrompeu a leitura; pode ser null.
+     * @return A posição (lógica) logo após a última linha entregue.
+     * @throws IOException Se o arquivo não puder ser mapeado.
+     */
+    public static long scan(FileChannel channel, long from, long end, long base,
+                            PagedTransactionLog.ProgressListener listener, LineVisitor visitor,
+                            boolean[] stopped) throws IOException {
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long lineStart = from;
+        long position = from;
+
+        while (position < end) {
+            int size = (int) Math.min(WINDOW_SIZE, end - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            int chunkStart = 0;
+            int i = 0;
+            while (true) {
+                i = nextNewline(window, i, size);
+                if (i < 0) {
+                    break;
+                }
+                int chunk = i - chunkStart;
+                if (lineLength + chunk > line.length) {
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + chunk));
+                }
+                // Leitura relativa em bloco: a busca usa get(i) absoluto, que não move a posição
+                window.position(chunkStart);
+                window.get(line, lineLength, chunk);
+                lineLength += chunk;
+                int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                long next = position + i + 1;
+                if (!visitor.visit(line, length, base + lineStart)) {
+                    if (stopped != null) {
+                        stopped[0] = true;
+                    }
+                    return base + next;
+                }
+                lineStart = next;
+                lineLength = 0;
+                chunkStart = i + 1;
+                i++;
+            }
+            // O restante da janela é o começo de uma linha que continua na próxima
+            int rest = size - chunkStart;
+            if (rest > 0) {
+                if (lineLength + rest > line.length) {
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + rest));
+                }
+                window.position(chunkStart);
+                window.get(line, lineLength, rest);
+                lineLength += rest;
+            }
+            position += size;
+            if (listener != null) {
+                listener.onProgress(position - from, end - from);
+            }
+        }
+        return base + lineStart;
+    }
+
+    /**
+     * Procura a próxima quebra de linha a partir de {@code from}.
+     *
+     * <p><b>LÓGICA:</b> Lê 8 bytes por vez e testa se algum deles é '\n' com aritmética de
+     * palavra (o XOR zera o byte igual a '\n'; o teste clássico de "byte zero" o detecta), o que
+     * evita uma leitura verificada por byte. O final da janela é percorrido byte a byte.
+     *
+     * @return A posição da quebra de linha na janela, ou -1 se não houver.
+     */
+    private static int nextNewline(MappedByteBuffer window, int from, int size) {
+        int i = from;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            long word = window.getLong(i) ^ NEWLINES;
+            long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < size; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
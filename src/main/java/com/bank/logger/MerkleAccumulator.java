@@ -0,0 +1,82 @@
+package com.bank.logger;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Raiz de Merkle calculada de forma incremental sobre uma sequência de hashes (as folhas), usada
+ * nos pontos de controle do {@code AuditLog}.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Acréscimo:</b> Como um contador binário, guarda no máximo uma subárvore completa
+ *         por altura; add() junta a nova folha com as subárvores de mesma altura, então cada
+ *         folha custa O(log n) hashes e nenhuma folha antiga é guardada.</li>
+ *     <li><b>Raiz:</b> root() junta as subárvores pendentes da menor para a maior altura. Um nó
+ *         interno é SHA-256(0x01 || esquerda || direita); o prefixo separa os nós das folhas.</li>
+ * </ol>
+ */
+final class MerkleAccumulator {
+    private final MessageDigest digest;
+    /** Subárvore completa pendente de cada altura (2^i folhas), ou null */
+    private byte[][] levels = new byte[8][];
+    private long size;
+
+    MerkleAccumulator() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Acrescenta uma folha.
+     * @param leaf O hash da folha (não é alterado nem guardado).
+     */
+    void add(byte[] leaf) {
+        byte[] carry = leaf;
+        int height = 0;
+        while (height < levels.length && levels[height] != null) {
+            carry = node(levels[height], carry);
+            levels[height] = null;
+            height++;
+        }
+        if (height == levels.length) {
+            levels = Arrays.copyOf(levels, levels.length * 2);
+        }
+        levels[height] = carry == leaf ? leaf.clone() : carry;
+        size++;
+    }
+
+    /**
+     * Retorna a raiz das folhas acrescentadas até agora.
+     * @return A raiz, ou null se não há folhas.
+     */
+    byte[] root() {
+        byte[] root = null;
+        for (byte[] subtree : levels) {
+            if (subtree != null) {
+                root = root == null ? subtree : node(subtree, root);
+            }
+        }
+        return root == null ? null : root.clone();
+    }
+
+    long size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(levels, null);
+        size = 0;
+    }
+
+    private byte[] node(byte[] left, byte[] right) {
+        digest.update((byte) 0x01);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+}
@@ -0,0 +1,529 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe {@code PagedTransactionLog} é uma fonte de dados paginada sobre o arquivo de log de
+ * transações. Em vez de materializar todas as linhas do log em memória, mantém apenas um
+ * índice esparso (a posição no arquivo do primeiro registro de cada página) e um pequeno
+ * cache LRU de páginas já interpretadas.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Indexação:</b> O método refresh() lê o arquivo a partir do ponto onde parou na
+ *         última chamada, conta os registros aceitos pelo filtro e guarda a posição do
+ *         primeiro registro de cada página. Sem filtro, as linhas são apenas contadas, sem
+ *         decodificação: looksLikeRecord() valida o timestamp byte a byte com as mesmas regras
+ *         do parse, e readPage() aceita as linhas pelo mesmo critério, de modo que as posições
+ *         do índice e o conteúdo das páginas nunca divergem. Como o log só cresce por anexação,
+ *         chamadas seguintes leem apenas o trecho novo. A exceção é a retenção da rotação
+ *         ({@code LogSegments}): se o início do log avançou, o índice é refeito do zero e a
+ *         geração (getGeneration()) muda, para que as listas sobre ele recomecem também.</li>
+ *     <li><b>Paginação:</b> getPage() posiciona a leitura no início da página e interpreta
+ *         apenas os registros daquela página, guardando o resultado no cache LRU.</li>
+ *     <li><b>Filtro:</b> O {@code TransactionFilter} é aplicado durante a indexação, de modo que
+ *         as páginas contêm somente registros selecionados.</li>
+ *     <li><b>Leitura:</b> Os arquivos são lidos mapeados em memória ({@code MappedLineReader}),
+ *         sem cópia para um buffer nem criação de objetos por linha; só os registros que
+ *         passam pela verificação do timestamp são decodificados, e a indexação sem filtro
+ *         não decodifica nenhum.</li>
+ *     <li><b>Intervalo de datas:</b> Com um {@code TransactionTimeIndex}, um filtro por data lê
+ *         apenas o trecho do arquivo que pode conter o intervalo: começa no primeiro bloco do
+ *         índice que alcança a data inicial e para no bloco que já passou da data final, em vez
+ *         de decodificar o log inteiro.</li>
+ * </ol>
+ *
+ * <p>A memória utilizada é proporcional ao número de páginas (um {@code long} por página)
+ * mais o cache, e não ao tamanho total do log.
+ */
+public class PagedTransactionLog {
+    /** Número padrão de registros por página */
+    public static final int DEFAULT_PAGE_SIZE = 256;
+
+    /** Número padrão de páginas mantidas no cache LRU */
+    public static final int DEFAULT_CACHED_PAGES = 32;
+
+    /** Tamanho do buffer usado na leitura sequencial do arquivo */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Recebe o andamento da indexação, em bytes lidos e bytes a ler.
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Visitante de linhas usado na leitura do arquivo.
+     * Retorna false para interromper a leitura.
+     */
+    public interface LineVisitor extends MappedLineReader.LineVisitor {
+    }
+
+    private final Path logFile;
+    private final TransactionFilter filter;
+    private final int pageSize;
+    private final Map<Integer, List<TransactionRecord>> pageCache;
+    /** Índice por data usado nos filtros com intervalo de datas, ou null */
+    private final TransactionTimeIndex timeIndex;
+
+    /** Garante que apenas uma indexação incremental execute por vez */
+    private final Object refreshLock = new Object();
+
+    /** Posição no arquivo do primeiro registro de cada página */
+    private long[] pageOffsets = new long[64];
+    /** Número de registros indexados */
+    private int recordCount;
+    /** Posição no arquivo até onde o índice já foi construído (sempre o fim de uma linha completa) */
+    private long indexedBytes;
+    /** Início lógico do log quando o índice foi construído (ver logicalStart()) */
+    private long indexedStart;
+    /** Quantas vezes o índice foi refeito porque a retenção apagou o início do log */
+    private int generation;
+
+    /**
+     * Construtor com tamanho de página e cache padrão.
+     * @param logFile O arquivo de log.
+     * @param filter O filtro aplicado aos registros.
+     */
+    public PagedTransactionLog(Path logFile, TransactionFilter filter) {
+        this(logFile, filter, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Construtor para {@code PagedTransactionLog}.
+     * @param logFile O arquivo de log.
+     * @param filter O filtro aplicado aos registros.
+     * @param pageSize Número de registros por página.
+     * @param cachedPages Número máximo de páginas interpretadas mantidas em memória.
+     */
+    public PagedTransactionLog(Path logFile, TransactionFilter filter, int pageSize, int cachedPages) {
+        this(logFile, filter, pageSize, cachedPages, null);
+    }
+
+    /**
+     * Construtor com tamanho de página e cache padrão e um índice por data.
+     * @param logFile O arquivo de log.
+     * @param filter O filtro aplicado aos registros.
+     * @param timeIndex O índice por data do mesmo arquivo, usado quando o filtro tem um intervalo
+     *                  de datas; ou null.
+     */
+    public PagedTransactionLog(Path logFile, TransactionFilter filter, TransactionTimeIndex timeIndex) {
+        this(logFile, filter, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES, timeIndex);
+    }
+
+    /**
+     * Construtor para {@code PagedTransactionLog} com um índice por data.
+     * @param logFile O arquivo de log.
+     * @param filter O filtro aplicado aos registros.
+     * @param pageSize Número de registros por página.
+     * @param cachedPages Número máximo de páginas interpretadas mantidas em memória.
+     * @param timeIndex O índice por data do mesmo arquivo, ou null.
+     */
+    public PagedTransactionLog(Path logFile, TransactionFilter filter, int pageSize, int cachedPages,
+                               TransactionTimeIndex timeIndex) {
+        if (pageSize <= 0 || cachedPages <= 0) {
+            throw new IllegalArgumentException("Page size and cache capacity must be positive");
+        }
+        this.logFile = logFile;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.timeIndex = filter.getFrom() != null || filter.getTo() != null ? timeIndex : null;
+        // LinkedHashMap em ordem de acesso: a entrada mais antiga é a menos usada recentemente
+        this.pageCache = new LinkedHashMap<Integer, List<TransactionRecord>>(cachedPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<TransactionRecord>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Indexa os registros anexados ao log desde a última chamada.
+     * @return O número de novos registros indexados.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public int refresh() throws IOException {
+        return refresh(null);
+    }
+
+    /**
+     * Indexa os registros anexados ao log desde a última chamada, informando o andamento.
+     * <p><b>LÓGICA:</b> A leitura acontece fora do monitor do objeto, para que leituras de
+     * páginas (ex: pela GUI) não fiquem bloqueadas durante uma indexação longa. Ao final,
+     * as novas posições são publicadas de uma só vez e a última página, se estava incompleta,
+     * é removida do cache. Se a retenção apagou segmentos desde a última chamada, as posições
+     * antigas não valem mais: o índice é refeito desde o novo início e a geração avança.
+     *
+     * @param listener Receptor do andamento, ou null.
+     * @return O número de novos registros indexados (depois de refazer o índice, todos).
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public int refresh(ProgressListener listener) throws IOException {
+        synchronized (refreshLock) {
+            long start;
+            int previousCount;
+            long logicalStart = logicalStart(logFile);
+            boolean rebuild;
+            boolean discarded;
+            synchronized (this) {
+                rebuild = logicalStart > indexedStart;
+                // Na primeira indexação não há posições antigas a descartar
+                discarded = rebuild && indexedBytes > 0;
+                start = rebuild ? 0 : indexedBytes;
+                previousCount = rebuild ? 0 : recordCount;
+            }
+            if (!Files.exists(logFile)) {
+                return 0;
+            }
+
+            IndexBuilder builder = new IndexBuilder(previousCount);
+            long end;
+            if (timeIndex != null) {
+                // Lê apenas o trecho que o índice por data aponta para o intervalo do filtro
+                timeIndex.refresh();
+                long[] range = timeIndex.locate(filter.getFrom(), filter.getTo());
+                builder.limit = range[1];
+                long from = Math.max(start, range[0]);
+                end = from < range[1] ? scanLines(logFile, from, listener, builder) : from;
+                if (builder.limitReached || from >= range[1]) {
+                    // Os registros seguintes já passaram da data final do filtro
+                    end = Math.max(end, timeIndex.getIndexedBytes());
+                }
+            } else {
+                end = scanLines(logFile, start, listener, builder);
+            }
+
+            synchronized (this) {
+                if (rebuild) {
+                    pageOffsets = new long[64];
+                    pageCache.clear();
+                    indexedStart = logicalStart;
+                    if (discarded) {
+                        generation++;
+                    }
+                }
+                int pages = builder.offsetCount;
+                int firstNewPage = (previousCount + pageSize - 1) / pageSize;
+                if (firstNewPage + pages > pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, Math.max(pageOffsets.length * 2, firstNewPage + pages));
+                }
+                System.arraycopy(builder.offsets, 0, pageOffsets, firstNewPage, pages);
+                if (previousCount % pageSize != 0) {
+                    // A última página estava incompleta e pode ter recebido novos registros
+                    pageCache.remove(previousCount / pageSize);
+                }
+                recordCount = builder.count;
+                indexedBytes = end;
+            }
+            return builder.count - previousCount;
+        }
+    }
+
+    /**
+     * Retorna o número de registros indexados.
+     * @return O número de registros.
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Retorna quantas vezes o índice foi refeito porque a retenção apagou o início do log; a
+     * cada mudança, os registros de uma mesma posição podem ser outros.
+     * @return A geração do índice (0 enquanto nenhum segmento indexado foi apagado).
+     */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retorna o número de páginas indexadas.
+     * @return O número de páginas.
+     */
+    public synchronized int getPageCount() {
+        return (recordCount + pageSize - 1) / pageSize;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public TransactionFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Retorna o registro na posição informada, carregando sua página se necessário.
+     * @param index A posição do registro (0 é o registro mais antigo).
+     * @return O registro.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public TransactionRecord get(int index) throws IOException {
+        List<TransactionRecord> page = getPage(index / pageSize);
+        int offsetInPage = index % pageSize;
+        return offsetInPage < page.size() ? page.get(offsetInPage) : null;
+    }
+
+    /**
+     * Retorna os registros de uma página.
+     * <p><b>LÓGICA:</b> Consulta o cache LRU; se a página não estiver em memória, posiciona a
+     * leitura na posição indexada da página e interpreta apenas os registros dela.
+     *
+     * @param page O número da página (começando em 0).
+     * @return Uma lista imutável com os registros da página.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public synchronized List<TransactionRecord> getPage(int page) throws IOException {
+        if (page < 0 || page >= getPageCount()) {
+            throw new IndexOutOfBoundsException("Page " + page + " out of range");
+        }
+        List<TransactionRecord> records = pageCache.get(page);
+        if (records == null) {
+            records = readPage(page);
+            pageCache.put(page, records);
+        }
+        return records;
+    }
+
+    /**
+     * Lê e interpreta os registros de uma página a partir do arquivo.
+     */
+    private List<TransactionRecord> readPage(int page) throws IOException {
+        int expected = Math.min(pageSize, recordCount - page * pageSize);
+        List<TransactionRecord> records = new ArrayList<>(expected);
+        scanLines(logFile, pageOffsets[page], null, (line, length, offset) -> {
+            TransactionRecord record = decode(line, length);
+            if (record != null) {
+                records.add(record);
+            }
+            return records.size() < expected;
+        });
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Interpreta uma linha e aplica o filtro.
+     * @return O registro aceito, ou null se a linha não for um registro aceito pelo filtro.
+     */
+    private TransactionRecord decode(byte[] line, int length) {
+        if (!looksLikeRecord(line, length)) {
+            return null;
+        }
+        // looksLikeRecord() garante que o parse não devolve null
+        TransactionRecord record = TransactionRecord.parse(new String(line, 0, length, StandardCharsets.UTF_8));
+        return filter.matches(record) ? record : null;
+    }
+
+    /**
+     * Verifica, sem decodificar a linha, que ela começa com um timestamp ISO
+     * "YYYY-MM-DDTHH:mm:ss[.fração]" seguido do separador " - ".
+     * <p><b>LÓGICA:</b> Confere cada byte e os limites de cada campo (mês, dia do mês com anos
+     * bissextos, hora, minuto, segundo e até 9 dígitos de fração), com as mesmas regras estritas
+     * de {@code LocalDateTime.parse}. Toda linha aceita aqui é interpretada por
+     * {@code TransactionRecord.parse}, por isso contar com este método e ler com o parse dá o
+     * mesmo número de registros.
+     */
+    public static boolean looksLikeRecord(byte[] line, int length) {
+        if (length < 22 || line[4] != '-' || line[7] != '-' || line[10] != 'T' || line[13] != ':' || line[16] != ':') {
+            return false;
+        }
+        int year = number(line, 0, 4);
+        int month = number(line, 5, 2);
+        int day = number(line, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || !inRange(number(line, 11, 2), 23) || !inRange(number(line, 14, 2), 59)
+                || !inRange(number(line, 17, 2), 59)) {
+            return false;
+        }
+        int end = 19;
+        if (line[end] == '.') {
+            int digits = 0;
+            while (end + 1 < length && digits < 9 && line[end + 1] >= '0' && line[end + 1] <= '9') {
+                end++;
+                digits++;
+            }
+            if (digits == 0) {
+                return false;
+            }
+            end++;
+        }
+        return end + 3 <= length && line[end] == ' ' && line[end + 1] == '-' && line[end + 2] == ' ';
+    }
+
+    /** O valor de {@code count} dígitos decimais a partir de {@code start}, ou -1 se algum não for dígito */
+    private static int number(byte[] line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean inRange(int value, int max) {
+        return value >= 0 && value <= max;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Lê o log a partir de uma posição, entregando cada linha completa ao visitante.
+     * Uma linha final sem quebra de linha (ainda sendo escrita) não é entregue. Se o log foi
+     * rotacionado, a posição é lógica e a leitura passa pelos segmentos ({@code LogSegments}).
+     *
+     * @return A posição logo após a última linha entregue.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public static long scanLines(Path file, long from, ProgressListener listener, LineVisitor visitor) throws IOException {
+        LogSegments segments = LogSegments.find(file);
+        if (segments != null) {
+            return segments.scan(from, listener, visitor);
+        }
+        return scanPlainFile(file, from, listener, visitor);
+    }
+
+    /**
+     * Retorna a posição lógica do fim do log: o tamanho de todos os segmentos selados mais o do
+     * arquivo vivo, lidos juntos (uma rotação concorrente não é contada duas vezes).
+     * @param file O arquivo vivo do log.
+     * @return A posição logo após o último byte gravado (0 se o log não existe).
+     * @throws IOException Se houver erro ao ler o manifesto ou o tamanho do arquivo.
+     */
+    public static long logicalEnd(Path file) throws IOException {
+        LogSegments segments = LogSegments.find(file);
+        if (segments != null) {
+            return segments.getLogicalEnd();
+        }
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    /**
+     * Retorna a posição lógica do início do log: a primeira que ainda pode ser lida depois que a
+     * retenção apagou segmentos.
+     * @param file O arquivo vivo do log.
+     * @return O início do segmento mais antigo mantido (0 se o log não é rotacionado).
+     * @throws IOException Se houver erro ao ler o manifesto.
+     */
+    public static long logicalStart(Path file) throws IOException {
+        LogSegments segments = LogSegments.find(file);
+        return segments != null ? segments.getLogicalStart() : 0;
+    }
+
+    /**
+     * Lê um único arquivo a partir de uma posição, como scanLines(), mapeado em memória.
+     */
+    static long scanPlainFile(Path file, long from, ProgressListener listener, LineVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return MappedLineReader.scan(channel, from, channel.size(), 0, listener, visitor, null);
+        }
+    }
+
+    /**
+     * Lê um canal sequencialmente, entregando cada linha completa ao visitante (usado nos
+     * segmentos comprimidos, que não podem ser mapeados).
+     * @param start A posição (lógica) do próximo byte do canal.
+     * @param from A posição em que a leitura começou, base do andamento informado.
+     * @param total O tamanho total a ler, para o andamento.
+     * @param stopped Recebe true se o visitante interrompeu a leitura; pode ser null.
+     * @return A posição logo após a última linha entregue.
+     */
+    static long scanChannel(ReadableByteChannel channel, long start, long from, long total, ProgressListener listener,
+                            LineVisitor visitor, boolean[] stopped) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] data = buffer.array();
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long lineStart = start;
+        long position = start;
+
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = data[i];
+                if (b == '\n') {
+                    int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                    long next = position + i + 1;
+                    if (!visitor.visit(line, length, lineStart)) {
+                        if (stopped != null) {
+                            stopped[0] = true;
+                        }
+                        return next;
+                    }
+                    lineStart = next;
+                    lineLength = 0;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, lineLength * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            position += read;
+            if (listener != null) {
+                listener.onProgress(position - from, Math.max(total, position) - from);
+            }
+        }
+        return lineStart;
+    }
+
+    /**
+     * Visitante que conta os registros aceitos e guarda a posição do primeiro registro
+     * de cada nova página.
+     */
+    private final class IndexBuilder implements LineVisitor {
+        private int count;
+        private long[] offsets = new long[16];
+        private int offsetCount;
+        /** Posição a partir da qual a leitura para (índice por data) */
+        private long limit = Long.MAX_VALUE;
+        private boolean limitReached;
+
+        IndexBuilder(int initialCount) {
+            this.count = initialCount;
+        }
+
+        @Override
+        public boolean visit(byte[] line, int length, long offset) {
+            if (offset >= limit) {
+                limitReached = true;
+                return false;
+            }
+            boolean accepted = filter.isEmpty() ? looksLikeRecord(line, length) : decode(line, length) != null;
+            if (accepted) {
+                if (count % pageSize == 0) {
+                    if (offsetCount == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsetCount * 2);
+                    }
+                    offsets[offsetCount++] = offset;
+                }
+                count++;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package com.bank.logger;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escrita do log de transações em segmentos: anexa as linhas ao arquivo vivo e, conforme a
+ * {@code LogRotationPolicy}, sela o arquivo quando ele atinge o tamanho ou a idade máxima,
+ * comprime os segmentos selados e apaga os que saem da retenção.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Abertura:</b> Uma última linha sem quebra de linha no arquivo vivo é o resto de uma
+ *         escrita interrompida por uma queda; ela é descartada (o arquivo é truncado após a
+ *         última quebra de linha) e o descarte é informado, para que a próxima linha não seja
+ *         colada a ela.</li>
+ *     <li><b>Escrita:</b> write() anexa a linha e acompanha em memória o tamanho, a quantidade
+ *         de registros e os instantes do arquivo vivo (recuperados do arquivo na abertura).</li>
+ *     <li><b>Durabilidade:</b> Conforme a {@code LogDurability}, write() retorna com a linha no
+ *         buffer da JVM, entregue ao sistema operacional (auto-flush, o padrão), gravada em
+ *         disco por um {@code force} próprio, ou gravada pelo próximo {@code force} da thread de
+ *         group commit, que atende de uma vez todos os registros que chegaram na janela.</li>
+ *     <li><b>Rotação:</b> Antes de uma escrita, se o arquivo vivo passou do tamanho máximo ou o
+ *         seu primeiro registro passou da idade máxima, o arquivo é fechado, selado pelo
+ *         {@code LogSegments} (renomeado e incluído no manifesto) e reaberto vazio. As linhas
+ *         nunca são divididas entre segmentos. Nos modos com {@code force}, o arquivo é gravado
+ *         em disco antes de ser selado.</li>
+ *     <li><b>Manutenção:</b> Uma thread em segundo plano comprime cada segmento selado com GZIP
+ *         (grava o .gz, atualiza o manifesto e só então apaga o original) e aplica a retenção,
+ *         sem atrasar quem registra transações.</li>
+ * </ol>
+ *
+ * <p>Com a rotação desativada, é apenas um arquivo em modo de anexação.
+ */
+public class SegmentedLogWriter implements AutoCloseable {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Path liveFile;
+    private final LogRotationPolicy policy;
+    private final LogDurability durability;
+    /** Manifesto dos segmentos, ou null sem rotação */
+    private final LogSegments segments;
+    /** Thread de compressão e retenção, ou null sem rotação */
+    private final ExecutorService maintenance;
+
+    private FileOutputStream output;
+    private PrintWriter writer;
+    private final LogSegments.SegmentStats live;
+
+    /** Registros anexados desde a abertura (protegido pelo lock do writer) */
+    private long appended;
+    /** Trava dos campos de group commit abaixo; nunca é mantida ao pedir o lock do writer */
+    private final Object syncLock = new Object();
+    /** Maior registro que algum write() espera ver em disco */
+    private long requested;
+    /** Registros já gravados em disco por um force */
+    private long synced;
+    /** Falha do último force do group commit, entregue a quem espera */
+    private IOException syncFailure;
+    private boolean closed;
+    /** Bytes do arquivo vivo garantidamente em disco (o que sobrevive à queda da máquina) */
+    private volatile long durableLength;
+    /** Bytes de uma última linha cortada descartados na abertura */
+    private final long discardedTailBytes;
+
+    /**
+     * Construtor para {@code SegmentedLogWriter}.
+     * @param liveFile O arquivo vivo do log.
+     * @param policy A política de rotação.
+     * @throws IOException Se o arquivo ou o manifesto não puderem ser abertos.
+     */
+    public SegmentedLogWriter(Path liveFile, LogRotationPolicy policy) throws IOException {
+        this(liveFile, policy, LogDurability.flush());
+    }
+
+    /**
+     * Construtor para {@code SegmentedLogWriter} com o nível de durabilidade.
+     * @param liveFile O arquivo vivo do log.
+     * @param policy A política de rotação.
+     * @param durability Até onde cada linha precisa chegar antes de write() retornar.
+     * @throws IOException Se o arquivo ou o manifesto não puderem ser abertos.
+     */
+    public SegmentedLogWriter(Path liveFile, LogRotationPolicy policy, LogDurability durability) throws IOException {
+        this.liveFile = liveFile;
+        this.policy = policy;
+        this.durability = durability;
+        this.discardedTailBytes = truncateTornLine(liveFile);
+        if (discardedTailBytes > 0) {
+            System.out.println("Transaction log recovery: discarded a torn final line of " + discardedTailBytes
+                    + " bytes in " + liveFile);
+        }
+        if (policy.isEnabled()) {
+            this.segments = LogSegments.open(liveFile);
+            this.live = LogSegments.SegmentStats.of(liveFile);
+            this.maintenance = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "transaction-log-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Segmentos selados antes de uma parada, ainda sem compressão
+            for (LogSegment segment : segments.getSegments()) {
+                scheduleMaintenance(segment);
+            }
+            scheduleMaintenance(null);
+        } else {
+            this.segments = null;
+            this.live = new LogSegments.SegmentStats();
+            this.maintenance = null;
+        }
+        openWriter();
+        if (durability.getMode() == LogDurability.Mode.GROUP_COMMIT) {
+            Thread committer = new Thread(this::runGroupCommit, "transaction-log-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    /**
+     * Trunca o arquivo logo após a sua última quebra de linha.
+     * <p><b>LÓGICA:</b> Toda linha gravada termina com quebra de linha; os bytes depois da
+     * última (ou o arquivo inteiro, se não houver nenhuma) são o começo de um registro que nunca
+     * foi concluído. A busca é feita de trás para a frente, em blocos.
+     *
+     * @return Os bytes descartados (0 se o arquivo não existe ou termina com quebra de linha).
+     */
+    static long truncateTornLine(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer block = ByteBuffer.allocate(8 * 1024);
+            long end = size;
+            search:
+            while (end > 0) {
+                long start = Math.max(0, end - block.capacity());
+                block.clear().limit((int) (end - start));
+                while (block.hasRemaining() && channel.read(block, start + block.position()) > 0) {
+                    // lê o bloco inteiro
+                }
+                for (int i = block.position() - 1; i >= 0; i--) {
+                    if (block.get(i) == '\n') {
+                        end = start + i + 1;
+                        break search;
+                    }
+                }
+                end = start;
+            }
+            if (end < size) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+            return size - end;
+        }
+    }
+
+    private void openWriter() throws IOException {
+        output = new FileOutputStream(liveFile.toFile(), true);
+        // Sem auto-flush no modo NONE: as linhas esperam no buffer da JVM
+        // UTF-8 explícito: o tamanho do arquivo vivo é contado em UTF-8 e os leitores decodificam assim
+        writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)),
+                durability.getMode() != LogDurability.Mode.NONE);
+    }
+
+    /**
+     * Anexa uma linha ao log, rotacionando antes o arquivo vivo se a política pedir, e retorna
+     * quando a linha atinge o nível de durabilidade configurado.
+     * @param time O instante do registro (o mesmo do timestamp da linha).
+     * @param line A linha, sem a quebra de linha.
+     * @throws UncheckedIOException Se o force exigido pelo modo FSYNC ou GROUP_COMMIT falhar.
+     */
+    public void write(LocalDateTime time, String line) {
+        awaitDurable(append(time, line));
+    }
+
+    /**
+     * Anexa uma linha ao log sem esperar o group commit: é a primeira metade de write(), para
+     * quem precisa anexar sob o próprio lock e esperar o disco fora dele (ex: {@code AuditLog}).
+     * @return O ticket da linha, a ser passado a awaitDurable().
+     * @throws UncheckedIOException Se o force exigido pelo modo FSYNC falhar.
+     */
+    synchronized long append(LocalDateTime time, String line) {
+        if (segments != null) {
+            if (shouldRotate(time)) {
+                try {
+                    rotate();
+                } catch (IOException e) {
+                    // Sem rotação, a linha continua indo para o arquivo vivo
+                    System.out.println("Could not rotate transaction log " + liveFile + ": " + e.getMessage());
+                }
+            }
+            live.bytes += utf8Length(line) + LINE_SEPARATOR.length();
+            if (live.records++ == 0) {
+                live.firstTime = time;
+            }
+            live.lastTime = time;
+        }
+        writer.println(line);
+        appended++;
+        if (durability.getMode() == LogDurability.Mode.FSYNC) {
+            try {
+                syncLive();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync transaction log", e);
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Segunda metade de write(): no modo GROUP_COMMIT, espera o force que cobre o ticket; nos
+     * outros modos append() já deixou a linha no nível configurado.
+     * @param ticket O ticket devolvido por append(); os anteriores ficam cobertos também.
+     * @throws UncheckedIOException Se o force do group commit falhar.
+     */
+    void awaitDurable(long ticket) {
+        if (durability.getMode() == LogDurability.Mode.GROUP_COMMIT) {
+            awaitSynced(ticket);
+        }
+    }
+
+    /**
+     * Grava em disco o arquivo vivo até o último registro anexado. Chamado com o lock do writer.
+     */
+    private void syncLive() throws IOException {
+        writer.flush();
+        FileChannel channel = output.getChannel();
+        long length = channel.size();
+        channel.force(false);
+        durableLength = length;
+        markSynced(appended);
+    }
+
+    private void markSynced(long ticket) {
+        synchronized (syncLock) {
+            if (ticket > synced) {
+                synced = ticket;
+                syncFailure = null;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Espera o group commit gravar em disco o registro {@code ticket}.
+     */
+    private void awaitSynced(long ticket) {
+        synchronized (syncLock) {
+            if (ticket > requested) {
+                requested = ticket;
+                syncLock.notifyAll();
+            }
+            boolean interrupted = false;
+            while (synced < ticket && syncFailure == null && !closed) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (synced < ticket) {
+                throw new UncheckedIOException("Failed to sync transaction log",
+                        syncFailure != null ? syncFailure : new ClosedChannelException());
+            }
+        }
+    }
+
+    /**
+     * Laço da thread de group commit.
+     * <p><b>LÓGICA:</b> Dorme até algum write() esperar; então aguarda a janela, para que os
+     * registros que chegam nela entrem no mesmo force, e grava em disco tudo o que foi anexado
+     * até ali. Se a rotação fechou o arquivo no meio, ela mesma já fez o force.
+     */
+    private void runGroupCommit() {
+        long window = durability.getGroupWindow().toNanos();
+        while (true) {
+            synchronized (syncLock) {
+                while (!closed && requested <= synced) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            if (window > 0) {
+                LockSupport.parkNanos(window);
+            }
+            long target;
+            long length;
+            FileChannel channel;
+            synchronized (this) {
+                target = appended;
+                channel = output.getChannel();
+                try {
+                    length = channel.size();
+                } catch (IOException e) {
+                    length = durableLength;
+                }
+            }
+            try {
+                channel.force(false);
+                synchronized (this) {
+                    if (output.getChannel() == channel) {
+                        durableLength = Math.max(durableLength, length);
+                    }
+                }
+                markSynced(target);
+            } catch (ClosedChannelException e) {
+                // A rotação ou o fechamento gravaram o arquivo antes de fechá-lo
+            } catch (IOException e) {
+                synchronized (syncLock) {
+                    syncFailure = e;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private boolean shouldRotate(LocalDateTime time) {
+        if (live.records == 0) {
+            return false;
+        }
+        return (policy.getMaxSegmentBytes() > 0 && live.bytes >= policy.getMaxSegmentBytes())
+                || (policy.getMaxSegmentAge() != null && live.firstTime != null
+                        && !time.isBefore(live.firstTime.plus(policy.getMaxSegmentAge())));
+    }
+
+    /**
+     * Entrega ao sistema operacional as linhas que ainda estão no buffer da JVM (só há linhas
+     * pendentes no modo NONE), para que leitores do arquivo as vejam.
+     */
+    public synchronized void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Sela o arquivo vivo agora, se ele tiver registros.
+     * @return O segmento selado, ou null se o arquivo vivo estava vazio ou não há rotação.
+     * @throws IOException Se houver erro ao selar o arquivo.
+     */
+    public synchronized LogSegment rotate() throws IOException {
+        if (segments == null || live.records == 0) {
+            return null;
+        }
+        if (durability.getMode() == LogDurability.Mode.FSYNC || durability.getMode() == LogDurability.Mode.GROUP_COMMIT) {
+            syncLive();
+        }
+        writer.close();
+        LogSegment segment;
+        try {
+            live.bytes = Files.size(liveFile);
+            segment = segments.seal(live);
+            live.bytes = 0;
+            live.records = 0;
+            live.firstTime = null;
+            live.lastTime = null;
+        } finally {
+            openWriter();
+            durableLength = 0;
+        }
+        scheduleMaintenance(segment);
+        scheduleMaintenance(null);
+        return segment;
+    }
+
+    /**
+     * Agenda a compressão de um segmento (se ainda não comprimido) ou, com null, a retenção.
+     */
+    private void scheduleMaintenance(LogSegment segment) {
+        maintenance.execute(() -> {
+            try {
+                if (segment == null) {
+                    applyRetention();
+                } else if (policy.isCompress() && !segment.isCompressed()) {
+                    compress(segment);
+                }
+            } catch (IOException e) {
+                System.err.println("Transaction log maintenance failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void compress(LogSegment segment) throws IOException {
+        Path source = liveFile.resolveSibling(segment.getFileName());
+        if (!Files.exists(source)) {
+            return;
+        }
+        Path target = liveFile.resolveSibling(segment.compressed().getFileName());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+            in.transferTo(out);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // O manifesto passa a apontar para o .gz antes de o original ser apagado
+        if (!segments.markCompressed(segment)) {
+            Files.deleteIfExists(target);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    private void applyRetention() throws IOException {
+        List<LogSegment> removed = segments.removeExpired(policy, LocalDateTime.now());
+        for (LogSegment segment : removed) {
+            Files.deleteIfExists(liveFile.resolveSibling(segment.getFileName()));
+            Files.deleteIfExists(liveFile.resolveSibling(segment.compressed().getFileName()));
+        }
+    }
+
+    /**
+     * Aguarda a compressão e a retenção agendadas até agora.
+     * @throws InterruptedException Se a espera for interrompida.
+     */
+    public void awaitMaintenance() throws InterruptedException {
+        if (maintenance == null) {
+            return;
+        }
+        try {
+            maintenance.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Retorna os segmentos selados do log.
+     * @return Os segmentos mantidos, do mais antigo para o mais novo (vazio sem rotação).
+     */
+    public List<LogSegment> getSegments() {
+        return segments == null ? Collections.emptyList() : segments.getSegments();
+    }
+
+    public LogRotationPolicy getPolicy() {
+        return policy;
+    }
+
+    public LogDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Retorna quantos bytes de uma última linha cortada foram descartados na abertura.
+     * @return Os bytes descartados, ou 0 se o arquivo estava íntegro.
+     */
+    public long getDiscardedTailBytes() {
+        return discardedTailBytes;
+    }
+
+    /**
+     * Bytes do arquivo vivo que um force já garantiu em disco: o que sobra dele se a máquina
+     * cair agora, no pior caso. Usado pela simulação de queda ({@code DurabilityBenchmark}).
+     */
+    long getDurableLength() {
+        return durableLength;
+    }
+
+    /**
+     * Fecha o arquivo vivo (gravando-o em disco nos modos com force) e termina a manutenção
+     * pendente.
+     */
+    @Override
+    public synchronized void close() {
+        if (durability.getMode() == LogDurability.Mode.FSYNC || durability.getMode() == LogDurability.Mode.GROUP_COMMIT) {
+            try {
+                syncLive();
+            } catch (IOException e) {
+                System.out.println("Could not sync transaction log " + liveFile + " on close: " + e.getMessage());
+            }
+        }
+        writer.close();
+        synchronized (syncLock) {
+            closed = true;
+            syncLock.notifyAll();
+        }
+        if (maintenance != null) {
+            maintenance.shutdown();
+            try {
+                maintenance.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tamanho em UTF-8 de uma linha, sem codificá-la.
+     */
+    private static int utf8Length(String line) {
+        int length = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.logger;
+
+import java.time.LocalDateTime;
+
+/**
+ * Classe {@code TransactionFilter} descreve um filtro sobre o histórico de transações:
+ * conta, tipo e intervalo de datas. Critérios nulos são ignorados.
+ *
+ * <p>O filtro é aplicado no próprio leitor do log ({@code PagedTransactionLog}), de modo que
+ * apenas os registros selecionados são indexados e carregados pela GUI.
+ */
+public final class TransactionFilter {
+    /** Filtro que aceita todos os registros */
+    private static final TransactionFilter ALL = new TransactionFilter(null, null, null, null);
+
+    private final String accountNumber;
+    private final String type;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    /**
+     * Construtor para {@code TransactionFilter}.
+     * @param accountNumber Número da conta, ou null para todas as contas.
+     * @param type Tipo do registro (ex: "Deposit"), ou null para todos os tipos.
+     * @param from Início do intervalo (inclusivo), ou null para sem limite inferior.
+     * @param to Fim do intervalo (exclusivo), ou null para sem limite superior.
+     */
+    public TransactionFilter(String accountNumber, String type, LocalDateTime from, LocalDateTime to) {
+        this.accountNumber = accountNumber;
+        this.type = type;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Retorna o filtro que aceita todos os registros.
+     * @return O filtro vazio.
+     */
+    public static TransactionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Indica se o filtro não possui nenhum critério, permitindo que o leitor do log
+     * conte as linhas sem interpretá-las.
+     * @return true se todos os critérios forem nulos.
+     */
+    public boolean isEmpty() {
+        return accountNumber == null && type == null && from == null && to == null;
+    }
+
+    /**
+     * Verifica se um registro atende a todos os critérios do filtro.
+     * @param record O registro a ser verificado.
+     * @return true se o registro for aceito pelo filtro.
+     */
+    public boolean matches(TransactionRecord record) {
+        if (accountNumber != null && !accountNumber.equals(record.getAccountNumber())) {
+            return false;
+        }
+        if (type != null && !type.equals(record.getType())) {
+            return false;
+        }
+        if (from != null && record.getTimestamp().isBefore(from)) {
+            return false;
+        }
+        return to == null || record.getTimestamp().isBefore(to);
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public String getType() { return type; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+}
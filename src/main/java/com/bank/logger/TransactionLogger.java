@@ -1,10 +1,9 @@
 package com.bank.logger;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -26,38 +25,53 @@ import java.util.List;
  *         a aplicação. Obtida através de getInstance(), que cria a instância na primeira
  *         chamada e retorna a mesma instância em chamadas subsequentes.</li>
  *     <li><b>Arquivo de Log:</b> Todas as transações são registradas no arquivo "transactions.log"
- *         em modo de anexação (append), preservando logs anteriores.</li>
+ *         (ou no indicado pela propriedade "bank.log.file") em modo de anexação (append),
+ *         preservando logs anteriores. Na abertura, uma última linha cortada por uma queda no
+ *         meio da escrita é descartada e informada.</li>
  *     <li><b>Registro:</b> O método log() registra mensagens com timestamp no formato ISO
  *         (YYYY-MM-DDTHH:mm:ss). Cada linha do log contém timestamp e mensagem.</li>
- *     <li><b>Leitura:</b> O método getLogs() lê todas as linhas do arquivo de log e retorna
- *         como lista de strings, permitindo exibir o histórico na GUI.</li>
+ *     <li><b>Segmentos:</b> Conforme a {@code LogRotationPolicy} (propriedades "bank.log.*"),
+ *         o {@code SegmentedLogWriter} sela o arquivo por tamanho ou por tempo, comprime os
+ *         segmentos selados e aplica a retenção. Sem configuração, o log é um único arquivo.</li>
+ *     <li><b>Durabilidade:</b> A {@code LogDurability} (propriedade "bank.log.durability") define
+ *         se log() retorna com a linha no buffer da JVM, entregue ao sistema operacional (o
+ *         padrão), gravada em disco a cada registro ou gravada por group commit.</li>
+ *     <li><b>Leitura:</b> O método getLogs() lê todas as linhas do log (segmentos e arquivo vivo)
+ *         e retorna como lista de strings, permitindo exibir o histórico na GUI.</li>
  * </ol>
  */
 public class TransactionLogger {
     /** Instância única do TransactionLogger (Singleton) */
     private static TransactionLogger instance;
     
-    /** PrintWriter usado para escrever no arquivo de log */
-    private PrintWriter writer;
+    /** Escreve no arquivo de log, rotacionando-o conforme a política configurada */
+    private SegmentedLogWriter writer;
     
-    /** Nome do arquivo de log onde todas as transações são registradas */
-    private static final String LOG_FILE = "transactions.log";
+    /** Nome do arquivo de log onde todas as transações são registradas.
+     *  Pode ser alterado pela propriedade "bank.log.file" (ex: para dois processos no mesmo diretório). */
+    private static final String LOG_FILE = System.getProperty("bank.log.file", "transactions.log");
+
+    /** Índice por data do arquivo de log, criado no primeiro uso */
+    private TransactionTimeIndex timeIndex;
+
+    /** Pontos de controle de saldo por conta, criados no primeiro uso */
+    private BalanceHistoryIndex balanceHistory;
+
+    /** Log de auditoria encadeado por hashes, aberto no primeiro uso */
+    private AuditLog auditLog;
 
     /**
      * Construtor privado para evitar a instanciação direta da classe.
-     * Inicializa o {@code PrintWriter} para escrever no arquivo de log em modo de anexação.
+     * Inicializa o {@code SegmentedLogWriter} para escrever no arquivo de log em modo de anexação.
      * <p><b>LÓGICA:</b> O construtor é privado para implementar o padrão Singleton.
-     * Inicializa o PrintWriter em modo de anexação (append) para preservar logs anteriores,
-     * e com auto-flush para garantir que os logs sejam escritos imediatamente.
+     * O arquivo é aberto em modo de anexação (append) para preservar logs anteriores,
+     * e, por padrão, com auto-flush para que cada linha chegue ao sistema operacional imediatamente
+     * (a {@code LogDurability} configurada pode pedir mais ou menos que isso).
      */
     private TransactionLogger() {
         try {
-            // FileWriter com 'true' para modo de anexação (append)
-            // Isso garante que logs anteriores não sejam sobrescritos
-            FileWriter fw = new FileWriter(LOG_FILE, true);
-            // PrintWriter com 'true' para auto-flush
-            // Isso garante que os logs sejam escritos imediatamente no arquivo
-            writer = new PrintWriter(fw, true);
+            writer = new SegmentedLogWriter(getLogFile(), LogRotationPolicy.fromSystemProperties(),
+                    LogDurability.fromSystemProperties());
         } catch (IOException e) {
             // Em caso de erro na criação do arquivo de log, imprime o stack trace
             // Em um sistema de produção, isso seria tratado de forma mais robusta
@@ -103,11 +117,12 @@ public class TransactionLogger {
      * @param message A mensagem a ser registrada (ex: "Deposit: Account XXX, Amount: 100.0").
      */
     public void log(String message) {
-        // Verifica se o PrintWriter foi inicializado corretamente
+        // Verifica se o arquivo de log foi aberto corretamente
         if (writer != null) {
             // Obtém a data e hora atual e formata no formato ISO (YYYY-MM-DDTHH:mm:ss)
             // Exemplo: "2024-01-15T14:30:45 - Deposit: Account XXX, Amount: 100.0"
-            writer.println(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " - " + message);
+            LocalDateTime now = LocalDateTime.now();
+            writer.write(now, now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " - " + message);
         }
     }
 
@@ -115,8 +130,7 @@ public class TransactionLogger {
      * Retorna todas as entradas de log do arquivo de transações.
      * <p><b>LÓGICA DE FUNCIONAMENTO:</b>
      * <ol>
-     *     <li>Abre o arquivo de log para leitura usando BufferedReader</li>
-     *     <li>Lê todas as linhas do arquivo uma por uma</li>
+     *     <li>Lê as linhas dos segmentos selados (inclusive os comprimidos) e do arquivo vivo</li>
      *     <li>Adiciona cada linha à lista de logs</li>
      *     <li>Retorna a lista completa de logs</li>
      * </ol>
@@ -128,13 +142,12 @@ public class TransactionLogger {
         // Cria uma lista vazia para armazenar os logs
         List<String> logs = new ArrayList<>();
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(LOG_FILE))) {
-            // Lê o arquivo linha por linha
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Adiciona cada linha à lista de logs
-                logs.add(line);
-            }
+        try {
+            // Lê o log linha por linha, adicionando cada linha à lista de logs
+            PagedTransactionLog.scanLines(getLogFile(), 0, null, (line, length, offset) -> {
+                logs.add(new String(line, 0, length, StandardCharsets.UTF_8));
+                return true;
+            });
         } catch (IOException e) {
             // Em caso de erro ao ler o arquivo de log, exibe mensagem de erro
             System.err.println("Erro ao ler o arquivo de log: " + e.getMessage());
@@ -145,18 +158,105 @@ public class TransactionLogger {
     }
 
     /**
-     * Fecha o {@code PrintWriter}, liberando os recursos do arquivo.
+     * Retorna o caminho do arquivo de log, usado por leitores paginados do histórico
+     * (ex: {@code PagedTransactionLog}) que não precisam carregar o arquivo inteiro.
+     * @return O caminho do arquivo de log.
+     */
+    public Path getLogFile() {
+        return Paths.get(LOG_FILE);
+    }
+
+    /**
+     * Retorna o índice esparso por data do arquivo de log, compartilhado pelas consultas de
+     * histórico por intervalo de datas.
+     * <p><b>LÓGICA:</b> Criado no primeiro uso; cada consulta apenas indexa de forma incremental
+     * as linhas anexadas desde a anterior.
+     * @return O índice por data.
+     */
+    public synchronized TransactionTimeIndex getTimeIndex() {
+        if (timeIndex == null) {
+            timeIndex = new TransactionTimeIndex(getLogFile());
+        }
+        return timeIndex;
+    }
+
+    /**
+     * Retorna o índice de pontos de controle de saldo por conta, usado nas consultas de saldo
+     * em um instante passado.
+     * <p><b>LÓGICA:</b> Criado no primeiro uso, como o índice por data.
+     * @return O índice de saldos por conta.
+     */
+    public synchronized BalanceHistoryIndex getBalanceHistory() {
+        if (balanceHistory == null) {
+            balanceHistory = new BalanceHistoryIndex(getLogFile());
+        }
+        return balanceHistory;
+    }
+
+    /**
+     * Retorna o log de auditoria à prova de adulteração, usado pelo {@code AuditService}.
+     * <p><b>LÓGICA:</b> Aberto no primeiro uso, no arquivo "audit.log" (ou no indicado pela
+     * propriedade "bank.audit.file"), com um ponto de controle a cada "bank.audit.checkpoint"
+     * registros e a mesma durabilidade do log de transações.
+     * @return O log de auditoria.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public synchronized AuditLog getAuditLog() throws IOException {
+        if (auditLog == null) {
+            auditLog = new AuditLog(Paths.get(System.getProperty("bank.audit.file", "audit.log")),
+                    Integer.getInteger("bank.audit.checkpoint", AuditLog.DEFAULT_CHECKPOINT_INTERVAL),
+                    LogDurability.fromSystemProperties());
+        }
+        return auditLog;
+    }
+
+    /**
+     * Garante que as linhas já registradas estejam no arquivo (ex: antes de uma leitura que
+     * precisa de todo o log até agora, como a reconciliação de saldos).
+     * <p><b>LÓGICA:</b> Só faz diferença com a durabilidade NONE, em que as linhas esperam no
+     * buffer da JVM; nos outros modos cada linha já chegou ao sistema operacional.
+     */
+    public void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Sela o arquivo vivo do log agora, se a rotação estiver configurada (ex: no fechamento do dia).
+     * @return O segmento selado, ou null se não há rotação ou o arquivo vivo está vazio.
+     * @throws IOException Se houver erro ao selar o arquivo.
+     */
+    public LogSegment rotate() throws IOException {
+        return writer != null ? writer.rotate() : null;
+    }
+
+    /**
+     * Retorna os segmentos selados do log.
+     * @return Os segmentos mantidos, do mais antigo para o mais novo (vazio sem rotação).
+     */
+    public List<LogSegment> getSegments() {
+        return writer != null ? writer.getSegments() : new ArrayList<>();
+    }
+
+    /**
+     * Fecha o {@code SegmentedLogWriter}, liberando os recursos do arquivo.
      * Deve ser chamado ao final da aplicação para garantir que todos os logs sejam gravados.
-     * <p><b>LÓGICA:</b> Fecha o PrintWriter, garantindo que todos os dados em buffer sejam
+     * <p><b>LÓGICA:</b> Fecha o arquivo, garantindo que todos os dados em buffer sejam
      * escritos no arquivo antes de fechar. Isso é importante para garantir que nenhum log
      * seja perdido quando a aplicação terminar.
      */
     public void close() {
-        // Verifica se o PrintWriter foi inicializado
+        // Verifica se o arquivo de log foi aberto
         if (writer != null) {
-            // Fecha o PrintWriter, garantindo que todos os dados em buffer sejam escritos
+            // Fecha o arquivo, garantindo que todos os dados em buffer sejam escritos
             writer.close();
         }
+        synchronized (this) {
+            if (auditLog != null) {
+                auditLog.close();
+            }
+        }
     }
 }
 
@@ -0,0 +1,134 @@
+package com.bank.logger;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Classe {@code TransactionRecord} representa uma linha do log de transações já interpretada.
+ * É imutável e serve como modelo de leitura para o histórico paginado e para a GUI.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Formato:</b> Cada linha do log tem o formato "TIMESTAMP - Tipo: Chave: valor, Chave: valor",
+ *         por exemplo "2024-01-15T14:30:45 - Deposit: Account XXX, Amount: 100.0, New Balance: 1100.0".</li>
+ *     <li><b>Parse:</b> O método parse() separa o timestamp, o tipo (texto antes do primeiro ':')
+ *         e os campos conhecidos (Account, Amount, New Balance/Current Balance, Event).
+ *         Campos ausentes ficam nulos (texto) ou NaN (valores).</li>
+ * </ol>
+ */
+public final class TransactionRecord {
+    /** Separador entre o timestamp e a mensagem, escrito pelo TransactionLogger */
+    static final String TIMESTAMP_SEPARATOR = " - ";
+
+    private final LocalDateTime timestamp;
+    private final String type;
+    private final String accountNumber;
+    private final String event;
+    private final double amount;
+    private final double newBalance;
+
+    /**
+     * Construtor para {@code TransactionRecord}.
+     * @param timestamp Data e hora da transação.
+     * @param type O tipo registrado no log (ex: "Deposit", "Withdrawal", "Interest", "AUDIT").
+     * @param accountNumber O número da conta, ou null se ausente.
+     * @param event O evento de auditoria (apenas para linhas "AUDIT"), ou null.
+     * @param amount O valor da transação, ou NaN se ausente.
+     * @param newBalance O saldo após a transação, ou NaN se ausente.
+     */
+    public TransactionRecord(LocalDateTime timestamp, String type, String accountNumber, String event,
+                             double amount, double newBalance) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.accountNumber = accountNumber;
+        this.event = event;
+        this.amount = amount;
+        this.newBalance = newBalance;
+    }
+
+    /**
+     * Interpreta uma linha do log de transações.
+     * <p><b>LÓGICA:</b> Localiza o separador " - ", converte o prefixo em {@code LocalDateTime}
+     * e percorre os campos "Chave: valor" separados por ", " sem usar expressões regulares.
+     *
+     * @param line A linha do log.
+     * @return O registro correspondente, ou null se a linha não começar com um timestamp válido.
+     */
+    public static TransactionRecord parse(String line) {
+        int separator = line.indexOf(TIMESTAMP_SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+
+        LocalDateTime timestamp;
+        try {
+            timestamp = LocalDateTime.parse(line.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        int messageStart = separator + TIMESTAMP_SEPARATOR.length();
+        int typeEnd = line.indexOf(": ", messageStart);
+        if (typeEnd < 0) {
+            // Mensagem livre, sem campos: o texto inteiro é tratado como tipo
+            return new TransactionRecord(timestamp, line.substring(messageStart), null, null, Double.NaN, Double.NaN);
+        }
+
+        String type = line.substring(messageStart, typeEnd);
+        String accountNumber = null;
+        String event = null;
+        double amount = Double.NaN;
+        double newBalance = Double.NaN;
+
+        int fieldStart = typeEnd + 2;
+        while (fieldStart < line.length()) {
+            int fieldEnd = line.indexOf(", ", fieldStart);
+            if (fieldEnd < 0) {
+                fieldEnd = line.length();
+            }
+            // O valor é a última palavra do campo; a chave é o restante, com ':' quando houver
+            // (ex: "Account XXX", "Amount: 100.0", "New Balance: 1100.0")
+            int valueStart = line.lastIndexOf(' ', fieldEnd - 1) + 1;
+            if (valueStart > fieldStart) {
+                String key = line.substring(fieldStart, valueStart - 1);
+                String value = line.substring(valueStart, fieldEnd);
+                try {
+                    switch (key) {
+                        case "Account":
+                            accountNumber = value;
+                            break;
+                        case "Event:":
+                            event = value;
+                            break;
+                        case "Amount:":
+                            amount = Double.parseDouble(value);
+                            break;
+                        case "New Balance:":
+                        case "Current Balance:":
+                            newBalance = Double.parseDouble(value);
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (NumberFormatException e) {
+                    // Valor numérico inválido: o campo permanece como NaN
+                }
+            }
+            fieldStart = fieldEnd + 2;
+        }
+
+        return new TransactionRecord(timestamp, type, accountNumber, event, amount, newBalance);
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getType() { return type; }
+    public String getAccountNumber() { return accountNumber; }
+    public String getEvent() { return event; }
+    public double getAmount() { return amount; }
+    public double getNewBalance() { return newBalance; }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + type + " " + accountNumber + " " + amount + " " + newBalance;
+    }
+}
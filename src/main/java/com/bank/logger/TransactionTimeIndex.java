@@ -0,0 +1,296 @@
+package com.bank.logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Índice esparso por data e hora sobre o arquivo de log de transações: a cada bloco de
+ * registros, guarda a posição do primeiro registro no arquivo e os instantes do bloco. Uma
+ * consulta por intervalo de tempo localiza o primeiro bloco com busca binária e lê o arquivo
+ * apenas a partir dali.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Indexação:</b> refresh() lê apenas o trecho anexado desde a chamada anterior. O
+ *         instante de cada linha é extraído diretamente dos bytes do timestamp ISO, sem criar
+ *         objetos, como um número ordenável (AAAAMMDDhhmmssSSS).</li>
+ *     <li><b>Blocos:</b> Para cada bloco de "blockSize" registros guarda a posição do primeiro
+ *         registro, o menor instante do bloco e o maior instante até o fim do bloco (acumulado
+ *         desde o início do log). Threads que registram ao mesmo tempo podem gravar linhas
+ *         levemente fora de ordem; o máximo acumulado mantém a busca correta mesmo assim.</li>
+ *     <li><b>Consulta:</b> locate() devolve o trecho do arquivo a ler: começa no primeiro bloco
+ *         cujo máximo acumulado alcança o início do intervalo (todos os registros anteriores são
+ *         mais antigos) e termina no primeiro bloco seguinte cujo menor instante já passou do
+ *         fim do intervalo.</li>
+ * </ol>
+ *
+ * <p>A memória usada é de três {@code long} por bloco (com o bloco padrão de 1024 registros,
+ * cerca de 24 bytes a cada mil linhas do log).
+ */
+public class TransactionTimeIndex {
+    /** Número padrão de registros por bloco */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /** Indica que o trecho a ler vai até o fim do arquivo */
+    public static final long END_OF_FILE = Long.MAX_VALUE;
+
+    private final Path logFile;
+    private final int blockSize;
+
+    /** Garante que apenas uma indexação incremental execute por vez */
+    private final Object refreshLock = new Object();
+
+    private long[] offsets = new long[64];
+    private long[] minimums = new long[64];
+    private long[] cumulativeMaximums = new long[64];
+    private int blockCount;
+    private int recordCount;
+    private long indexedBytes;
+
+    /**
+     * Construtor com o tamanho de bloco padrão.
+     * @param logFile O arquivo de log.
+     */
+    public TransactionTimeIndex(Path logFile) {
+        this(logFile, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Construtor para {@code TransactionTimeIndex}.
+     * @param logFile O arquivo de log.
+     * @param blockSize Número de registros por bloco.
+     */
+    public TransactionTimeIndex(Path logFile, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.logFile = logFile;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Indexa os registros anexados ao log desde a última chamada.
+     * @return O número de novos registros indexados.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public int refresh() throws IOException {
+        synchronized (refreshLock) {
+            if (!Files.exists(logFile)) {
+                return 0;
+            }
+            long start;
+            int previousCount;
+            synchronized (this) {
+                start = indexedBytes;
+                previousCount = recordCount;
+            }
+            // A leitura acontece fora do monitor; os blocos novos são publicados ao final
+            BlockBuilder builder = new BlockBuilder();
+            long end = PagedTransactionLog.scanLines(logFile, start, null, builder);
+            synchronized (this) {
+                builder.publish();
+                indexedBytes = end;
+            }
+            return recordCount - previousCount;
+        }
+    }
+
+    /**
+     * Retorna o trecho do arquivo que contém os registros de um intervalo de tempo.
+     * @param from Início do intervalo (inclusivo), ou null para o início do log.
+     * @param to Fim do intervalo (exclusivo), ou null para o fim do log.
+     * @return {posição inicial, posição final}; a posição final é END_OF_FILE quando os
+     *         registros podem ir até o fim do arquivo. Com base no último refresh().
+     */
+    public synchronized long[] locate(LocalDateTime from, LocalDateTime to) {
+        long start = indexedBytes;
+        int first = blockCount;
+        if (from == null) {
+            start = 0;
+            first = 0;
+        } else {
+            long fromKey = key(from, false);
+            // Primeiro bloco cujo maior instante acumulado alcança o início do intervalo
+            int low = 0;
+            int high = blockCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulativeMaximums[middle] >= fromKey) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            if (low < blockCount) {
+                start = offsets[low];
+                first = low;
+            }
+        }
+        long end = END_OF_FILE;
+        if (to != null) {
+            long toKey = key(to, true);
+            for (int block = first + 1; block < blockCount; block++) {
+                if (minimums[block] >= toKey) {
+                    end = offsets[block];
+                    break;
+                }
+            }
+        }
+        return new long[] {start, end};
+    }
+
+    /**
+     * Lê os registros de um intervalo de tempo, lendo apenas o trecho indicado pelo índice.
+     * @param from Início do intervalo (inclusivo), ou null.
+     * @param to Fim do intervalo (exclusivo), ou null.
+     * @param consumer Recebe os registros do intervalo, na ordem do arquivo.
+     * @return O número de registros entregues.
+     * @throws IOException Se houver erro na leitura do arquivo.
+     */
+    public int forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<TransactionRecord> consumer) throws IOException {
+        refresh();
+        long[] range = locate(from, to);
+        TransactionFilter filter = new TransactionFilter(null, null, from, to);
+        int[] delivered = new int[1];
+        PagedTransactionLog.scanLines(logFile, range[0], null, (line, length, offset) -> {
+            if (offset >= range[1]) {
+                return false;
+            }
+            if (PagedTransactionLog.looksLikeRecord(line, length)) {
+                TransactionRecord record = TransactionRecord.parse(new String(line, 0, length, StandardCharsets.UTF_8));
+                if (record != null && filter.matches(record)) {
+                    consumer.accept(record);
+                    delivered[0]++;
+                }
+            }
+            return true;
+        });
+        return delivered[0];
+    }
+
+    /**
+     * Retorna até onde o arquivo já foi indexado.
+     * @return A posição logo após a última linha indexada.
+     */
+    public synchronized long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * Retorna o número de blocos do índice.
+     * @return O número de blocos.
+     */
+    public synchronized int getBlockCount() {
+        return blockCount;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Converte um instante no número ordenável usado pelo índice (precisão de milissegundos).
+     * @param roundUp Arredonda para cima as frações de milissegundo (usado no fim do intervalo).
+     */
+    static long key(LocalDateTime time, boolean roundUp) {
+        long key = key(time.getYear(), time.getMonthValue(), time.getDayOfMonth(), time.getHour(),
+                time.getMinute(), time.getSecond(), time.getNano() / 1_000_000);
+        return roundUp && time.getNano() % 1_000_000 != 0 ? key + 1 : key;
+    }
+
+    private static long key(int year, int month, int day, int hour, int minute, int second, int millis) {
+        return (((((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute) * 100 + second) * 1000 + millis;
+    }
+
+    /**
+     * Extrai o instante de uma linha "AAAA-MM-DDThh:mm:ss[.fração] - ..." sem decodificá-la.
+     */
+    static long key(byte[] line, int length) {
+        int millis = 0;
+        int digits = 0;
+        if (length > 20 && line[19] == '.') {
+            for (int i = 20; i < length && digits < 3 && line[i] >= '0' && line[i] <= '9'; i++, digits++) {
+                millis = millis * 10 + (line[i] - '0');
+            }
+        }
+        for (; digits < 3; digits++) {
+            millis *= 10;
+        }
+        return key(digits(line, 0, 4), digits(line, 5, 2), digits(line, 8, 2), digits(line, 11, 2),
+                digits(line, 14, 2), digits(line, 17, 2), millis);
+    }
+
+    private static int digits(byte[] line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Visitante que acompanha os blocos durante a leitura; os resultados são copiados para o
+     * índice em publish(), com o monitor do índice.
+     */
+    private final class BlockBuilder implements PagedTransactionLog.LineVisitor {
+        private final int startCount;
+        private int count;
+        private int blocks;
+        private long[] newOffsets;
+        private long[] newMinimums;
+        private long[] newMaximums;
+
+        BlockBuilder() {
+            synchronized (TransactionTimeIndex.this) {
+                startCount = recordCount;
+                count = recordCount;
+                blocks = blockCount;
+                newOffsets = Arrays.copyOf(offsets, Math.max(offsets.length, blocks + 1));
+                newMinimums = Arrays.copyOf(minimums, newOffsets.length);
+                newMaximums = Arrays.copyOf(cumulativeMaximums, newOffsets.length);
+            }
+        }
+
+        @Override
+        public boolean visit(byte[] line, int length, long offset) {
+            if (!PagedTransactionLog.looksLikeRecord(line, length)) {
+                return true;
+            }
+            long key = key(line, length);
+            if (count % blockSize == 0) {
+                if (blocks == newOffsets.length) {
+                    int capacity = blocks * 2;
+                    newOffsets = Arrays.copyOf(newOffsets, capacity);
+                    newMinimums = Arrays.copyOf(newMinimums, capacity);
+                    newMaximums = Arrays.copyOf(newMaximums, capacity);
+                }
+                newOffsets[blocks] = offset;
+                newMinimums[blocks] = key;
+                newMaximums[blocks] = blocks > 0 ? Math.max(newMaximums[blocks - 1], key) : key;
+                blocks++;
+            } else {
+                int last = blocks - 1;
+                newMinimums[last] = Math.min(newMinimums[last], key);
+                newMaximums[last] = Math.max(newMaximums[last], key);
+            }
+            count++;
+            return true;
+        }
+
+        void publish() {
+            if (count == startCount) {
+                return;
+            }
+            offsets = newOffsets;
+            minimums = newMinimums;
+            cumulativeMaximums = newMaximums;
+            blockCount = blocks;
+            recordCount = count;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.bank.observer;
 
 import com.bank.account.Account;
+import com.bank.logger.AuditLog;
 import com.bank.logger.TransactionLogger;
 
+import java.io.IOException;
+
 /**
  * Classe {@code AuditService} implementa a interface {@code AccountObserver},
  * atuando como um observador concreto no padrão de projeto **Observer**.
@@ -33,12 +36,19 @@ import com.bank.logger.TransactionLogger;
  *     <li><b>Registro de Auditoria:</b> O método update() recebe os detalhes do evento
  *         (conta, tipo de evento, valor) e registra no TransactionLogger (Singleton)
  *         para fins de auditoria e histórico.</li>
+ *     <li><b>Cadeia de Hashes:</b> O mesmo registro vai para o {@code AuditLog}, em que cada
+ *         registro carrega o hash do anterior e pontos de controle periódicos guardam raízes de
+ *         Merkle; a linha no log de transações é só para exibição, e qualquer alteração no
+ *         {@code AuditLog} é detectada pelo {@code AuditLogVerifier}.</li>
  * </ol>
  */
 public class AuditService implements AccountObserver {
     /** Logger de transações (Singleton) usado para registrar eventos de auditoria */
     private TransactionLogger logger;
 
+    /** Log de auditoria encadeado por hashes, ou null se não pôde ser aberto */
+    private AuditLog auditLog;
+
     /**
      * Construtor para {@code AuditService}. Obtém a única instância do {@code TransactionLogger}.
      * <p><b>LÓGICA:</b> Obtém a instância única do TransactionLogger (Singleton) que será
@@ -48,6 +58,12 @@ public class AuditService implements AccountObserver {
         // Obtém a instância única do TransactionLogger (Singleton)
         // Isso garante que todas as mensagens de auditoria sejam escritas no mesmo arquivo de log
         this.logger = TransactionLogger.getInstance();
+        try {
+            this.auditLog = logger.getAuditLog();
+        } catch (IOException e) {
+            // Sem o log encadeado, a auditoria continua no log de transações
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -74,6 +90,10 @@ public class AuditService implements AccountObserver {
         // Registra uma mensagem de auditoria no TransactionLogger (Singleton)
         // O log inclui: número da conta, tipo de evento, valor envolvido e saldo atual
         // Isso permite rastrear todas as operações realizadas no sistema para fins de auditoria
-        logger.log("AUDIT: Account " + account.getAccountNumber() + ", Event: " + eventType + ", Amount: " + amount + ", Current Balance: " + account.getBalance());
+        String message = "AUDIT: Account " + account.getAccountNumber() + ", Event: " + eventType + ", Amount: " + amount + ", Current Balance: " + account.getBalance();
+        logger.log(message);
+        if (auditLog != null) {
+            auditLog.append(message);
+        }
     }
 }
@@ -0,0 +1,28 @@
+package com.bank.readmodel;
+
+import com.bank.account.AccountType;
+
+/**
+ * Linha do modelo de leitura "totais por tipo de conta": quantas contas do tipo existem e a
+ * soma dos seus saldos. Objeto imutável.
+ */
+public final class AccountTypeTotal {
+    private final AccountType type;
+    private final int accountCount;
+    private final double totalBalance;
+
+    AccountTypeTotal(AccountType type, int accountCount, double totalBalance) {
+        this.type = type;
+        this.accountCount = accountCount;
+        this.totalBalance = totalBalance;
+    }
+
+    public AccountType getType() { return type; }
+    public int getAccountCount() { return accountCount; }
+    public double getTotalBalance() { return totalBalance; }
+
+    @Override
+    public String toString() {
+        return "AccountTypeTotal{" + type + ", accounts=" + accountCount + ", total=" + totalBalance + "}";
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.readmodel;
+
+/**
+ * Linha do modelo de leitura "saldos por cliente": as contas de um titular e a soma dos seus
+ * saldos. Objeto imutável; o {@code ReadModelProjector} substitui a linha a cada alteração.
+ */
+public final class CustomerBalance {
+    private final String customerName;
+    private final int accountCount;
+    private final double totalBalance;
+
+    CustomerBalance(String customerName, int accountCount, double totalBalance) {
+        this.customerName = customerName;
+        this.accountCount = accountCount;
+        this.totalBalance = totalBalance;
+    }
+
+    public String getCustomerName() { return customerName; }
+    public int getAccountCount() { return accountCount; }
+    public double getTotalBalance() { return totalBalance; }
+
+    @Override
+    public String toString() {
+        return "CustomerBalance{" + customerName + ", accounts=" + accountCount + ", total=" + totalBalance + "}";
+    }
+}
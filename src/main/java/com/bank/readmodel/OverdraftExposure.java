@@ -0,0 +1,42 @@
+package com.bank.readmodel;
+
+/**
+ * Modelo de leitura "exposição ao cheque especial" das contas correntes: quanto do limite de
+ * cheque especial está em uso (a soma dos saldos negativos) e quanto foi concedido. Objeto
+ * imutável, publicado pelo {@code ReadModelProjector} a cada lote de eventos aplicado.
+ */
+public final class OverdraftExposure {
+    private final int checkingAccounts;
+    private final int overdrawnAccounts;
+    private final double totalExposure;
+    private final double totalLimit;
+
+    OverdraftExposure(int checkingAccounts, int overdrawnAccounts, double totalExposure, double totalLimit) {
+        this.checkingAccounts = checkingAccounts;
+        this.overdrawnAccounts = overdrawnAccounts;
+        this.totalExposure = totalExposure;
+        this.totalLimit = totalLimit;
+    }
+
+    public int getCheckingAccounts() { return checkingAccounts; }
+    /** @return Contas correntes com saldo negativo. */
+    public int getOverdrawnAccounts() { return overdrawnAccounts; }
+    /** @return A soma dos saldos negativos, como valor positivo. */
+    public double getTotalExposure() { return totalExposure; }
+    /** @return A soma dos limites de cheque especial concedidos. */
+    public double getTotalLimit() { return totalLimit; }
+
+    /**
+     * Fração do limite concedido que está em uso.
+     * @return Entre 0 e 1 (0 se nenhum limite foi concedido).
+     */
+    public double getUtilization() {
+        return totalLimit > 0 ? totalExposure / totalLimit : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OverdraftExposure{checking=%d, overdrawn=%d, exposure=%.2f, limit=%.2f}",
+                checkingAccounts, overdrawnAccounts, totalExposure, totalLimit);
+    }
+}
@@ -0,0 +1,334 @@
+package com.bank.readmodel;
+
+import com.bank.account.AccountType;
+import com.bank.event.AccountEvent;
+import com.bank.event.AccountEventListener;
+import com.bank.facade.BankingFacade;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém os modelos de leitura dos relatórios (CQRS): saldos por cliente, totais por tipo de
+ * conta e exposição ao cheque especial, a partir dos eventos de conta da {@code BankingFacade}.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Entrada:</b> Registrado como ouvinte da Facade, recebe cada evento na thread da
+ *         operação e apenas o enfileira; o caminho de escrita não espera pelos relatórios.</li>
+ *     <li><b>Projeção:</b> Uma thread própria retira os eventos em lotes e os aplica às suas
+ *         estruturas: o saldo, o titular e o tipo de cada conta (para saber o que desfazer em
+ *         cada alteração) e os agregados. Um evento de abertura substitui o estado da conta por
+ *         inteiro, o que permite semear o modelo com o estado atual das contas no registro.</li>
+ *     <li><b>Leitura:</b> Os saldos por cliente ficam em um ConcurrentHashMap de linhas imutáveis;
+ *         os totais por tipo e a exposição ao cheque especial são publicados como objetos
+ *         imutáveis ao fim de cada lote. As consultas não tocam nas contas nem nos seus locks e
+ *         não copiam o mapa de contas.</li>
+ *     <li><b>Consistência:</b> Os modelos são eventualmente consistentes: refletem os eventos
+ *         aplicados até o momento. awaitCaughtUp() aguarda até que todos os eventos já recebidos
+ *         tenham sido aplicados (ex: em testes ou antes de uma exportação).</li>
+ * </ol>
+ */
+public class ReadModelProjector implements AccountEventListener, Closeable {
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Estado de uma conta conhecido pela projeção.
+     */
+    private static final class AccountRow {
+        String customerName;
+        AccountType type;
+        double overdraftLimit;
+        double balance;
+    }
+
+    /**
+     * Acumulador de um tipo de conta (somente a thread da projeção o altera).
+     */
+    private static final class TypeAccumulator {
+        int count;
+        double total;
+    }
+
+    private final BankingFacade bankingFacade;
+    private final BlockingQueue<AccountEvent> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong received = new AtomicLong();
+    private final Object progress = new Object();
+    private final Thread projector;
+    private volatile long applied;
+    private volatile boolean running = true;
+
+    // Estado da projeção: alterado somente pela thread da projeção
+    private final Map<String, AccountRow> rows = new HashMap<>();
+    private final Map<AccountType, TypeAccumulator> typeAccumulators = new EnumMap<>(AccountType.class);
+    private int checkingAccounts;
+    private int overdrawnAccounts;
+    private double exposure;
+    private double overdraftLimits;
+
+    // Modelos publicados para leitura
+    private final Map<String, CustomerBalance> customerBalances = new ConcurrentHashMap<>();
+    private volatile Map<AccountType, AccountTypeTotal> accountTypeTotals = Collections.emptyMap();
+    private volatile OverdraftExposure overdraftExposure = new OverdraftExposure(0, 0, 0.0, 0.0);
+    private volatile long lastSequence;
+
+    /**
+     * Cria a projeção e a registra na Facade; o estado atual das contas é carregado como
+     * primeiro lote de eventos.
+     * @param bankingFacade A Facade cujos eventos serão projetados.
+     */
+    public ReadModelProjector(BankingFacade bankingFacade) {
+        this.bankingFacade = bankingFacade;
+        for (AccountType type : AccountType.values()) {
+            typeAccumulators.put(type, new TypeAccumulator());
+        }
+        this.projector = new Thread(this::run, "read-model-projector");
+        this.projector.setDaemon(true);
+        this.projector.start();
+        bankingFacade.addEventListener(this);
+    }
+
+    /**
+     * Enfileira um evento para a projeção (chamado pela Facade, com a conta travada).
+     */
+    @Override
+    public void onEvent(AccountEvent event) {
+        received.incrementAndGet();
+        pending.add(event);
+    }
+
+    // --- Consultas ---
+
+    /**
+     * Retorna os saldos de um cliente.
+     * @param customerName O nome do titular, exatamente como cadastrado.
+     * @return A linha do cliente, ou null se ele não tem contas.
+     */
+    public CustomerBalance getCustomerBalance(String customerName) {
+        return customerBalances.get(customerName);
+    }
+
+    /**
+     * Retorna os saldos de todos os clientes, ordenados pelo nome.
+     * @return Uma lista nova (cópia do modelo de leitura, não das contas).
+     */
+    public List<CustomerBalance> getCustomerBalances() {
+        List<CustomerBalance> result = new ArrayList<>(customerBalances.values());
+        result.sort(Comparator.comparing(CustomerBalance::getCustomerName));
+        return result;
+    }
+
+    /**
+     * Retorna os clientes com os maiores saldos somados.
+     * <p><b>LÓGICA:</b> Percorre as linhas mantendo apenas as "limit" maiores em um heap, sem
+     * ordenar todos os clientes.
+     *
+     * @param limit A quantidade de clientes.
+     * @return Os clientes, do maior saldo para o menor.
+     */
+    public List<CustomerBalance> getTopCustomers(int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Comparator<CustomerBalance> byTotal = Comparator.comparingDouble(CustomerBalance::getTotalBalance);
+        // O heap nunca passa do número de clientes, mesmo com um limite grande
+        PriorityQueue<CustomerBalance> top = new PriorityQueue<>(Math.min(limit, customerBalances.size()) + 1, byTotal);
+        for (CustomerBalance balance : customerBalances.values()) {
+            top.add(balance);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<CustomerBalance> result = new ArrayList<>(top);
+        result.sort(byTotal.reversed());
+        return result;
+    }
+
+    /**
+     * Retorna os totais por tipo de conta.
+     * @return Um mapa imutável com uma linha por tipo.
+     */
+    public Map<AccountType, AccountTypeTotal> getAccountTypeTotals() {
+        return accountTypeTotals;
+    }
+
+    /**
+     * Retorna a exposição ao cheque especial das contas correntes.
+     * @return O modelo mais recente.
+     */
+    public OverdraftExposure getOverdraftExposure() {
+        return overdraftExposure;
+    }
+
+    /**
+     * Retorna a sequência do último evento do journal aplicado (modo event-sourced).
+     * @return A sequência, ou 0 se nenhum evento com sequência foi aplicado.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Retorna quantos eventos recebidos ainda não foram aplicados.
+     * @return O atraso da projeção, em eventos.
+     */
+    public long getLag() {
+        return received.get() - applied;
+    }
+
+    /**
+     * Aguarda até que todos os eventos recebidos até agora tenham sido aplicados.
+     * @param timeoutMillis O tempo máximo de espera.
+     * @return true se a projeção alcançou os eventos; false no timeout.
+     * @throws InterruptedException Se a espera for interrompida.
+     */
+    public boolean awaitCaughtUp(long timeoutMillis) throws InterruptedException {
+        long target = received.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (progress) {
+            while (applied < target) {
+                long remaining = deadline - System.nanoTime();
+                if (!running || remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancela o registro na Facade e encerra a thread da projeção.
+     */
+    @Override
+    public void close() {
+        bankingFacade.removeEventListener(this);
+        running = false;
+        projector.interrupt();
+    }
+
+    // --- Projeção ---
+
+    private void run() {
+        List<AccountEvent> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (running) {
+                batch.add(pending.take());
+                pending.drainTo(batch, BATCH_SIZE - 1);
+                for (AccountEvent event : batch) {
+                    apply(event);
+                }
+                publishTotals();
+                synchronized (progress) {
+                    applied += batch.size();
+                    progress.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Encerrado por close()
+        } finally {
+            running = false;
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void apply(AccountEvent event) {
+        String accountNumber = event.getAccountNumber();
+        AccountRow row;
+        switch (event.getType()) {
+            case ACCOUNT_OPENED:
+                row = rows.get(accountNumber);
+                if (row == null) {
+                    row = new AccountRow();
+                    rows.put(accountNumber, row);
+                } else {
+                    contribute(row, -1);
+                }
+                row.customerName = event.getCustomerName();
+                row.type = event.getAccountType();
+                row.overdraftLimit = row.type == AccountType.CHECKING ? event.getParameter() : 0.0;
+                row.balance = event.getAmount();
+                contribute(row, 1);
+                break;
+            case ACCOUNT_CLOSED:
+                row = rows.remove(accountNumber);
+                if (row != null) {
+                    contribute(row, -1);
+                }
+                break;
+            default:
+                row = rows.get(accountNumber);
+                if (row != null) {
+                    changeBalance(row, event.getBalanceDelta());
+                }
+                break;
+        }
+        if (event.getSequence() > 0) {
+            lastSequence = event.getSequence();
+        }
+    }
+
+    /**
+     * Soma (sign = 1) ou retira (sign = -1) a conta de todos os agregados.
+     */
+    private void contribute(AccountRow row, int sign) {
+        customerBalances.compute(row.customerName, (name, current) -> {
+            int count = (current == null ? 0 : current.getAccountCount()) + sign;
+            double total = (current == null ? 0.0 : current.getTotalBalance()) + sign * row.balance;
+            return count <= 0 ? null : new CustomerBalance(name, count, total);
+        });
+        TypeAccumulator accumulator = typeAccumulators.get(row.type);
+        accumulator.count += sign;
+        accumulator.total = accumulator.count == 0 ? 0.0 : accumulator.total + sign * row.balance;
+        if (row.type == AccountType.CHECKING) {
+            checkingAccounts += sign;
+            overdraftLimits = checkingAccounts == 0 ? 0.0 : overdraftLimits + sign * row.overdraftLimit;
+            if (row.balance < 0) {
+                overdrawnAccounts += sign;
+                exposure = overdrawnAccounts == 0 ? 0.0 : exposure - sign * row.balance;
+            }
+        }
+    }
+
+    /**
+     * Aplica uma variação de saldo a uma conta já projetada.
+     */
+    private void changeBalance(AccountRow row, double delta) {
+        double before = row.balance;
+        row.balance += delta;
+        customerBalances.computeIfPresent(row.customerName, (name, current) ->
+                new CustomerBalance(name, current.getAccountCount(), current.getTotalBalance() + delta));
+        typeAccumulators.get(row.type).total += delta;
+        if (row.type == AccountType.CHECKING) {
+            overdrawnAccounts += (row.balance < 0 ? 1 : 0) - (before < 0 ? 1 : 0);
+            exposure = overdrawnAccounts == 0 ? 0.0 : exposure + Math.max(0.0, -row.balance) - Math.max(0.0, -before);
+        }
+    }
+
+    /**
+     * Publica os totais por tipo e a exposição ao cheque especial ao fim de um lote.
+     */
+    private void publishTotals() {
+        Map<AccountType, AccountTypeTotal> totals = new EnumMap<>(AccountType.class);
+        for (Map.Entry<AccountType, TypeAccumulator> entry : typeAccumulators.entrySet()) {
+            totals.put(entry.getKey(), new AccountTypeTotal(entry.getKey(), entry.getValue().count, entry.getValue().total));
+        }
+        accountTypeTotals = Collections.unmodifiableMap(totals);
+        overdraftExposure = new OverdraftExposure(checkingAccounts, overdrawnAccounts, exposure, overdraftLimits);
+    }
+}
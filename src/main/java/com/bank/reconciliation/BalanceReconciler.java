@@ -0,0 +1,414 @@
+package com.bank.reconciliation;
+
+import com.bank.account.Account;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionLogger;
+import com.bank.registry.AccountRegistry;
+import com.bank.registry.PersistentHashMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reconciliação dos saldos em memória com o log de transações: reproduz o log conta a conta,
+ * em paralelo, e compara o resultado com o saldo atual de cada conta, sem parar as operações.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Partições:</b> As contas são divididas pelo hash do número da conta
+ *         ({@code String.hashCode()}) em "partitions" partes, cada uma tratada por uma thread.
+ *         No log, o hash é calculado direto dos bytes da linha, sem criar a String das contas
+ *         de outras partições.</li>
+ *     <li><b>Snapshot consistente sem bloqueio:</b> Lê o fim do log (início da janela), lê o
+ *         saldo de cada conta do snapshot do registro travando apenas aquela conta, e lê de novo
+ *         o fim do log (fim da janela). Depósitos, saques, juros e remoções alteram o saldo e
+ *         gravam a linha com a conta travada, então o saldo lido de cada conta é o de algum ponto
+ *         do log dentro da janela. Nenhuma escrita espera mais do que a leitura de um saldo.</li>
+ *     <li><b>Reprodução:</b> Cada partição lê o log até o fim da janela e refaz o saldo das suas
+ *         contas pelos valores das linhas: a abertura fixa o saldo inicial, depósitos e juros
+ *         somam, saques subtraem e a remoção encerra a conta. Se o "New Balance" gravado em uma
+ *         linha não confere com a soma, a linha é reportada (LOG_INCONSISTENT). Uma conta cuja
+ *         primeira linha não é a abertura (segmentos já retirados pela retenção) parte do saldo
+ *         gravado nessa linha. As linhas AUDIT são ignoradas, pois repetem as mesmas alterações.</li>
+ *     <li><b>Comparação:</b> Uma conta confere se o saldo em memória é o saldo reproduzido no
+ *         início da janela ou depois de alguma das suas linhas dentro da janela (com a tolerância
+ *         de arredondamento). Contas abertas no log e ausentes da memória são conferidas de novo
+ *         no registro antes de serem reportadas (a abertura é gravada antes da conta ser
+ *         publicada).</li>
+ *     <li><b>Resultado:</b> Um {@code ReconciliationReport} com as divergências, as contas e
+ *         linhas verificadas e a vazão em contas por segundo.</li>
+ * </ol>
+ *
+ * <p>Cada partição lê o log inteiro, mas só decodifica e soma as linhas das suas contas, que é
+ * a maior parte do custo. Contas recriadas sem linha de abertura (restoreAccount()) não têm
+ * histórico no log e são reportadas como MISSING_FROM_LOG.
+ */
+public class BalanceReconciler {
+    /** Tolerância padrão na comparação de saldos: meio centavo */
+    public static final double DEFAULT_TOLERANCE = 0.005;
+
+    private static final byte[] SEPARATOR = bytes(" - ");
+    /** Prefixo das linhas que alteram saldo, até o número da conta, pelo tipo de linha */
+    private static final byte[][] PREFIXES = {
+            bytes("Account Created: Account "),
+            bytes("Deposit: Account "),
+            bytes("Withdrawal: Account "),
+            bytes("Interest: Account "),
+            bytes("Account Removed: Account ")
+    };
+    private static final int CREATED = 0;
+    private static final int WITHDRAWAL = 2;
+    private static final int REMOVED = 4;
+    private static final byte[] AMOUNT_FIELD = bytes(", Amount: ");
+    private static final byte[] NEW_BALANCE_FIELD = bytes(", New Balance: ");
+
+    private final AccountRegistry accounts;
+    private final Path logFile;
+    private final int partitions;
+    private final double tolerance;
+
+    /**
+     * Construtor com a tolerância padrão.
+     * @param accounts O registro das contas em memória.
+     * @param logFile O log de transações em que as contas são registradas.
+     * @param partitions Em quantas partes (e threads) as contas são divididas.
+     */
+    public BalanceReconciler(AccountRegistry accounts, Path logFile, int partitions) {
+        this(accounts, logFile, partitions, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Construtor para {@code BalanceReconciler}.
+     * @param accounts O registro das contas em memória.
+     * @param logFile O log de transações em que as contas são registradas.
+     * @param partitions Em quantas partes (e threads) as contas são divididas.
+     * @param tolerance A diferença máxima entre dois saldos considerados iguais.
+     */
+    public BalanceReconciler(AccountRegistry accounts, Path logFile, int partitions, double tolerance) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance cannot be negative");
+        }
+        this.accounts = accounts;
+        this.logFile = logFile;
+        this.partitions = partitions;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Executa a reconciliação.
+     * @return O relatório com as divergências e a vazão.
+     * @throws IOException Se o log não puder ser lido.
+     * @throws InterruptedException Se a espera pelas partições for interrompida.
+     */
+    public ReconciliationReport reconcile() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(partitions, task -> {
+            Thread thread = new Thread(task, "balance-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long windowStart = PagedTransactionLog.logicalEnd(logFile);
+            PersistentHashMap<String, Account> snapshot = accounts.snapshot();
+            List<Future<Partition>> captures = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                Partition partition = new Partition(i);
+                captures.add(pool.submit(() -> partition.capture(snapshot)));
+            }
+            List<Partition> captured = await(captures);
+            long captureNanos = System.nanoTime() - started;
+            // No modo NONE as linhas dos saldos já lidos podem estar no buffer do logger
+            TransactionLogger.getInstance().flush();
+            long windowEnd = PagedTransactionLog.logicalEnd(logFile);
+
+            List<Future<Partition>> replays = new ArrayList<>();
+            for (Partition partition : captured) {
+                replays.add(pool.submit(() -> partition.replay(windowStart, windowEnd)));
+            }
+            long checked = 0;
+            long lines = 0;
+            List<Discrepancy> discrepancies = new ArrayList<>();
+            for (Partition partition : await(replays)) {
+                checked += partition.checked;
+                lines += partition.lines;
+                discrepancies.addAll(partition.discrepancies);
+            }
+            return new ReconciliationReport(checked, lines, partitions, windowStart, windowEnd, discrepancies,
+                    captureNanos, System.nanoTime() - started);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<Partition> await(List<Future<Partition>> futures) throws IOException, InterruptedException {
+        List<Partition> done = new ArrayList<>();
+        try {
+            for (Future<Partition> future : futures) {
+                done.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return done;
+    }
+
+    private int partitionOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), partitions);
+    }
+
+    /**
+     * A partição do número da conta em line[from, to): o mesmo que partitionOf(String), com o
+     * hash calculado direto dos bytes quando o número é ASCII.
+     */
+    private int partitionOf(byte[] line, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            if (line[i] < 0) {
+                return partitionOf(new String(line, from, to - from, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + line[i];
+        }
+        return Math.floorMod(hash, partitions);
+    }
+
+    /**
+     * As contas de uma partição: o saldo em memória, a reprodução do log e as divergências.
+     */
+    private final class Partition {
+        private final int index;
+        private final Map<String, Double> live = new HashMap<>();
+        private final Map<String, AccountReplay> replayed = new HashMap<>();
+        private final List<Discrepancy> discrepancies = new ArrayList<>();
+        private long checked;
+        private long lines;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Lê o saldo de cada conta da partição, travando uma conta por vez.
+         */
+        Partition capture(PersistentHashMap<String, Account> snapshot) {
+            snapshot.forEach((accountNumber, account) -> {
+                if (partitionOf(accountNumber) == index) {
+                    synchronized (account) {
+                        live.put(accountNumber, account.getBalance());
+                    }
+                }
+            });
+            return this;
+        }
+
+        Partition replay(long windowStart, long windowEnd) throws IOException {
+            PagedTransactionLog.scanLines(logFile, 0, null, (line, length, offset) -> {
+                if (offset >= windowEnd) {
+                    return false;
+                }
+                visit(line, length, offset, windowStart);
+                return true;
+            });
+            compare();
+            return this;
+        }
+
+        private void visit(byte[] line, int length, long offset, long windowStart) {
+            if (!PagedTransactionLog.looksLikeRecord(line, length)) {
+                return;
+            }
+            int typeStart = indexOf(line, 19, length, SEPARATOR);
+            if (typeStart < 0) {
+                return;
+            }
+            typeStart += SEPARATOR.length;
+            int type = typeOf(line, typeStart, length);
+            if (type < 0) {
+                return;
+            }
+            int accountStart = typeStart + PREFIXES[type].length;
+            int accountEnd = accountStart;
+            while (accountEnd < length && line[accountEnd] != ',') {
+                accountEnd++;
+            }
+            if (partitionOf(line, accountStart, accountEnd) != index) {
+                return;
+            }
+            String accountNumber = new String(line, accountStart, accountEnd - accountStart, StandardCharsets.UTF_8);
+            double amount = field(line, accountEnd, length, AMOUNT_FIELD);
+            double logged = field(line, accountEnd, length, NEW_BALANCE_FIELD);
+            if (Double.isNaN(amount) && type != REMOVED) {
+                return;
+            }
+            lines++;
+            AccountReplay account = replayed.computeIfAbsent(accountNumber, number -> new AccountReplay());
+            if (offset >= windowStart && account.window == null) {
+                // O saldo no início da janela também é um resultado possível
+                account.window = new ArrayList<>();
+                account.window.add(account.current());
+            }
+            boolean checkLogged = true;
+            if (type == CREATED) {
+                account.balance = amount;
+                account.open = true;
+            } else if (type == REMOVED) {
+                checkLogged = account.open;
+                account.open = false;
+            } else if (!account.open) {
+                // Histórico incompleto: parte do saldo gravado na linha
+                account.balance = logged;
+                account.open = !Double.isNaN(logged);
+                checkLogged = false;
+            } else {
+                account.balance += type == WITHDRAWAL ? -amount : amount;
+            }
+            if (checkLogged && !account.inconsistent && !Double.isNaN(logged)
+                    && Math.abs(logged - account.balance) > tolerance) {
+                // Reportada uma vez por conta: as linhas seguintes herdam a mesma diferença
+                account.inconsistent = true;
+                discrepancies.add(new Discrepancy(accountNumber, Discrepancy.Kind.LOG_INCONSISTENT,
+                        live.getOrDefault(accountNumber, Double.NaN), logged, offset));
+            }
+            account.lastOffset = offset;
+            if (account.window != null) {
+                account.window.add(account.current());
+            }
+        }
+
+        private void compare() {
+            for (Map.Entry<String, Double> entry : live.entrySet()) {
+                checked++;
+                double balance = entry.getValue();
+                AccountReplay account = replayed.get(entry.getKey());
+                if (account == null) {
+                    discrepancies.add(new Discrepancy(entry.getKey(), Discrepancy.Kind.MISSING_FROM_LOG, balance, Double.NaN, -1));
+                } else if (!account.matches(balance, tolerance)) {
+                    boolean removed = !account.open && account.window == null;
+                    discrepancies.add(new Discrepancy(entry.getKey(),
+                            removed ? Discrepancy.Kind.REMOVED_IN_LOG : Discrepancy.Kind.BALANCE_MISMATCH,
+                            balance, account.balance, account.lastOffset));
+                }
+            }
+            for (Map.Entry<String, AccountReplay> entry : replayed.entrySet()) {
+                if (live.containsKey(entry.getKey())) {
+                    continue;
+                }
+                checked++;
+                AccountReplay account = entry.getValue();
+                if (!account.matches(Double.NaN, tolerance) && !accounts.containsKey(entry.getKey())) {
+                    discrepancies.add(new Discrepancy(entry.getKey(), Discrepancy.Kind.MISSING_FROM_LIVE,
+                            Double.NaN, account.balance, account.lastOffset));
+                }
+            }
+        }
+    }
+
+    /**
+     * O estado de uma conta reproduzido do log.
+     */
+    private static final class AccountReplay {
+        private double balance;
+        private boolean open;
+        private boolean inconsistent;
+        private long lastOffset = -1;
+        /** Saldos possíveis dentro da janela (NaN: conta inexistente), ou null se nenhuma linha caiu nela */
+        private List<Double> window;
+
+        double current() {
+            return open ? balance : Double.NaN;
+        }
+
+        /**
+         * Se o saldo em memória (NaN: conta ausente) é um dos resultados possíveis.
+         */
+        boolean matches(double liveBalance, double tolerance) {
+            if (window == null) {
+                return same(current(), liveBalance, tolerance);
+            }
+            for (double candidate : window) {
+                if (same(candidate, liveBalance, tolerance)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean same(double expected, double actual, double tolerance) {
+            if (Double.isNaN(expected) || Double.isNaN(actual)) {
+                return Double.isNaN(expected) && Double.isNaN(actual);
+            }
+            return Math.abs(expected - actual) <= tolerance;
+        }
+    }
+
+    /**
+     * O tipo da linha que começa em line[from] (índice em PREFIXES), ou -1 se ela não altera saldo.
+     */
+    private static int typeOf(byte[] line, int from, int length) {
+        for (int type = 0; type < PREFIXES.length; type++) {
+            if (startsWith(line, from, length, PREFIXES[type])) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * O valor numérico do campo "key" (ex: ", Amount: ") a partir de line[from], ou NaN.
+     */
+    private static double field(byte[] line, int from, int length, byte[] key) {
+        int start = indexOf(line, from, length, key);
+        if (start < 0) {
+            return Double.NaN;
+        }
+        start += key.length;
+        int end = start;
+        while (end < length && line[end] != ',') {
+            end++;
+        }
+        try {
+            return Double.parseDouble(new String(line, start, end - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int indexOf(byte[] line, int from, int length, byte[] target) {
+        for (int i = from; i <= length - target.length; i++) {
+            if (startsWith(line, i, length, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] line, int from, int length, byte[] prefix) {
+        if (length - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.reconciliation;
+
+/**
+ * Uma divergência encontrada pela reconciliação entre o saldo em memória de uma conta e o saldo
+ * obtido reproduzindo o log de transações. Objeto imutável.
+ */
+public final class Discrepancy {
+
+    /**
+     * Tipos de divergência.
+     */
+    public enum Kind {
+        /** O saldo em memória não é nenhum dos saldos que o log permite no instante da leitura */
+        BALANCE_MISMATCH,
+        /** A conta existe em memória, mas não aparece no log */
+        MISSING_FROM_LOG,
+        /** A conta existe em memória, mas o log registra a sua remoção */
+        REMOVED_IN_LOG,
+        /** O log registra a conta como aberta, mas ela não existe em memória */
+        MISSING_FROM_LIVE,
+        /** O "New Balance" de uma linha não confere com a soma dos valores das linhas anteriores */
+        LOG_INCONSISTENT
+    }
+
+    private final String accountNumber;
+    private final Kind kind;
+    private final double liveBalance;
+    private final double journalBalance;
+    private final long offset;
+
+    Discrepancy(String accountNumber, Kind kind, double liveBalance, double journalBalance, long offset) {
+        this.accountNumber = accountNumber;
+        this.kind = kind;
+        this.liveBalance = liveBalance;
+        this.journalBalance = journalBalance;
+        this.offset = offset;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public Kind getKind() { return kind; }
+    /** @return O saldo em memória, ou {@code Double.NaN} se a conta não existe em memória. */
+    public double getLiveBalance() { return liveBalance; }
+    /**
+     * @return O saldo reproduzido do log (em LOG_INCONSISTENT, o "New Balance" gravado na linha),
+     *         ou {@code Double.NaN} se a conta não existe no log.
+     */
+    public double getJournalBalance() { return journalBalance; }
+    /** @return A posição (lógica) da linha do log envolvida, ou -1. */
+    public long getOffset() { return offset; }
+
+    @Override
+    public String toString() {
+        return String.format("Discrepancy{account=%s, kind=%s, live=%s, journal=%s%s}", accountNumber, kind,
+                liveBalance, journalBalance, offset >= 0 ? ", offset=" + offset : "");
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.reconciliation;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.factory.AccountFactory;
+import com.bank.registry.AccountRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Benchmark da reconciliação de saldos: mede contas por segundo do {@code BalanceReconciler}
+ * com números crescentes de partições.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Preparação:</b> Gera um log temporário com o formato do {@code TransactionLogger}
+ *         (abertura de cada conta seguida de depósitos, saques e juros em ordem aleatória) e um
+ *         registro com as mesmas contas e os saldos finais.</li>
+ *     <li><b>Medições:</b> Para 1, 2, 4... partições até o número de processadores, a melhor de
+ *         algumas rodadas (com o arquivo já no cache do sistema operacional).</li>
+ *     <li><b>Resultado:</b> Tempo, contas por segundo e linhas por segundo de cada medição; a
+ *         reconciliação não pode encontrar divergências.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.reconbench.accounts" (padrão 100000) e
+ * "bank.reconbench.operations" (operações por conta, padrão 20).
+ */
+public class ReconciliationBenchmark {
+    private static final int ROUNDS = 3;
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     * @throws Exception Se o log temporário não puder ser gravado ou lido.
+     */
+    public static void main(String[] args) throws Exception {
+        int accountCount = Integer.getInteger("bank.reconbench.accounts", 100_000);
+        int operations = Integer.getInteger("bank.reconbench.operations", 20);
+        Path log = Files.createTempFile("transactions-reconcile", ".log");
+        try {
+            AccountRegistry registry = write(log, accountCount, operations);
+            System.out.printf("Log: %d accounts, %d lines, %.1f MB, processors: %d%n", accountCount,
+                    (long) accountCount * (operations + 1), Files.size(log) / 1e6, Runtime.getRuntime().availableProcessors());
+            for (int partitions = 1; partitions <= Runtime.getRuntime().availableProcessors(); partitions *= 2) {
+                ReconciliationReport best = null;
+                for (int round = 0; round < ROUNDS; round++) {
+                    ReconciliationReport report = new BalanceReconciler(registry, log, partitions).reconcile();
+                    if (!report.isConsistent()) {
+                        throw new IllegalStateException("Unexpected discrepancies: " + report.getDiscrepancies().subList(0, 1));
+                    }
+                    if (best == null || report.getElapsedNanos() < best.getElapsedNanos()) {
+                        best = report;
+                    }
+                }
+                System.out.printf("%2d partitions: %8.1f ms, %,12.0f accounts/s, %,14.0f lines/s%n", partitions,
+                        best.getElapsedNanos() / 1e6, best.getAccountsPerSecond(),
+                        best.getLinesReplayed() * 1e9 / best.getElapsedNanos());
+            }
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    /**
+     * Gera o log e devolve o registro com os saldos finais.
+     */
+    private static AccountRegistry write(Path log, int accountCount, int operations) throws IOException {
+        Random random = new Random(42);
+        AccountRegistry registry = new AccountRegistry();
+        double[] balances = new double[accountCount];
+        String[] numbers = new String[accountCount];
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+        try (BufferedWriter out = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < accountCount; i++) {
+                numbers[i] = "ACC-" + i;
+                balances[i] = 1000 + i % 500;
+                out.write(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " - Account Created: Account " + numbers[i]
+                        + ", Type: CHECKING, Parameter: 500.0, Amount: " + balances[i] + ", New Balance: " + balances[i]
+                        + ", Customer: Customer " + i);
+                out.newLine();
+            }
+            for (long line = 0; line < (long) accountCount * operations; line++) {
+                int i = random.nextInt(accountCount);
+                double amount = random.nextInt(10_000) / 100.0;
+                String type;
+                if (line % 10 == 0) {
+                    type = "Interest";
+                    double previous = balances[i];
+                    balances[i] += balances[i] * 0.001;
+                    amount = balances[i] - previous;
+                } else if (line % 2 == 0) {
+                    type = "Withdrawal";
+                    balances[i] -= amount;
+                } else {
+                    type = "Deposit";
+                    balances[i] += amount;
+                }
+                if (line % 1000 == 0) {
+                    time = time.plusSeconds(1);
+                }
+                out.write(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " - " + type + ": Account " + numbers[i]
+                        + ", Amount: " + amount + ", New Balance: " + balances[i]);
+                out.newLine();
+            }
+        }
+        for (int i = 0; i < accountCount; i++) {
+            Account account = AccountFactory.createAccount(numbers[i], AccountType.CHECKING, "Customer " + i, balances[i], 500.0);
+            registry.put(numbers[i], account);
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.reconciliation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma reconciliação de saldos ({@code BalanceReconciler}): as divergências
+ * encontradas, o volume verificado e o tempo gasto. Objeto imutável.
+ */
+public final class ReconciliationReport {
+    private final long accountsChecked;
+    private final long linesReplayed;
+    private final int partitions;
+    private final long windowStart;
+    private final long windowEnd;
+    private final List<Discrepancy> discrepancies;
+    private final long captureNanos;
+    private final long elapsedNanos;
+
+    ReconciliationReport(long accountsChecked, long linesReplayed, int partitions, long windowStart, long windowEnd,
+                         List<Discrepancy> discrepancies, long captureNanos, long elapsedNanos) {
+        this.accountsChecked = accountsChecked;
+        this.linesReplayed = linesReplayed;
+        this.partitions = partitions;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.discrepancies = Collections.unmodifiableList(discrepancies);
+        this.captureNanos = captureNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** @return true se nenhuma divergência foi encontrada. */
+    public boolean isConsistent() { return discrepancies.isEmpty(); }
+    /** @return Contas verificadas: as em memória mais as que só aparecem no log. */
+    public long getAccountsChecked() { return accountsChecked; }
+    /** @return Linhas de conta do log reproduzidas (sem as linhas AUDIT). */
+    public long getLinesReplayed() { return linesReplayed; }
+    public int getPartitions() { return partitions; }
+    /** @return O fim do log antes da leitura dos saldos em memória. */
+    public long getWindowStart() { return windowStart; }
+    /** @return O fim do log depois da leitura dos saldos; a reprodução vai até aqui. */
+    public long getWindowEnd() { return windowEnd; }
+    /** @return As divergências, agrupadas por partição e, em cada uma, por tipo. */
+    public List<Discrepancy> getDiscrepancies() { return discrepancies; }
+    /** @return O tempo da leitura dos saldos em memória, em nanossegundos. */
+    public long getCaptureNanos() { return captureNanos; }
+    /** @return O tempo total da reconciliação, em nanossegundos. */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Retorna a vazão da reconciliação.
+     * @return Contas verificadas por segundo, no tempo total.
+     */
+    public double getAccountsPerSecond() {
+        return elapsedNanos > 0 ? accountsChecked * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Conta as divergências de um tipo.
+     * @param kind O tipo.
+     * @return O número de divergências desse tipo.
+     */
+    public long count(Discrepancy.Kind kind) {
+        return discrepancies.stream().filter(discrepancy -> discrepancy.getKind() == kind).count();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReconciliationReport{accounts=%d, lines=%d, partitions=%d, discrepancies=%d, "
+                        + "window=[%d, %d], elapsed=%.3f ms, %.0f accounts/s}",
+                accountsChecked, linesReplayed, partitions, discrepancies.size(), windowStart, windowEnd,
+                elapsedNanos / 1e6, getAccountsPerSecond());
+    }
+}
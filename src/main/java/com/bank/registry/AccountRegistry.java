@@ -0,0 +1,211 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+
+import java.util.AbstractMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Registro das contas (número da conta para a conta) sobre um {@code PersistentHashMap}, com
+ * snapshots em O(1).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Versão atual:</b> Uma referência atômica aponta para a versão mais recente do mapa
+ *         imutável. Leituras (get(), containsKey(), size()) apenas leem essa referência, sem
+ *         locks.</li>
+ *     <li><b>Escrita:</b> Cada alteração cria a nova versão copiando só o caminho alterado na
+ *         trie e a publica com compare-and-set, repetindo se outra escrita publicou antes. A
+ *         inclusão e a remoção de contas são raras em relação às operações sobre elas, que
+ *         alteram o saldo dentro da própria conta e não tocam no registro.</li>
+ *     <li><b>Snapshot:</b> snapshot() devolve a versão atual: um mapa imutável, consistente
+ *         (o conjunto de contas de um instante), que pode ser iterado pelo tempo que for preciso
+ *         enquanto novas contas são criadas ou removidas. Não há cópia: versões sucessivas
+ *         compartilham os nós que não mudaram. Os objetos {@code Account} são os mesmos do
+ *         registro, então os saldos lidos são os atuais.</li>
+ *     <li><b>Índices:</b> Cada alteração bem-sucedida atualiza também o {@code CustomerIndex}
+ *         (buscas pelo nome do titular), o {@code BalanceIndex} (contas ordenadas pelo saldo) e
+ *         o {@code RecentTransactionsIndex} (últimas transações de cada conta); os dois últimos
+ *         passam a observar as alterações de saldo da conta incluída. Assim essas consultas não
+ *         percorrem as contas nem o log.</li>
+ *     <li><b>Compatibilidade:</b> Implementa {@code ConcurrentMap}, e a iteração do próprio
+ *         registro (entrySet(), values(), keySet()) percorre o snapshot do início da iteração.</li>
+ * </ol>
+ */
+public class AccountRegistry extends AbstractMap<String, Account> implements ConcurrentMap<String, Account> {
+    private final AtomicReference<PersistentHashMap<String, Account>> current =
+            new AtomicReference<>(PersistentHashMap.empty());
+    private final CustomerIndex customerIndex = new CustomerIndex();
+    private final BalanceIndex balanceIndex = new BalanceIndex();
+    private final RecentTransactionsIndex recentTransactions = new RecentTransactionsIndex();
+
+    /**
+     * Retorna a versão atual do registro, em O(1).
+     * @return Um mapa imutável com as contas deste instante.
+     */
+    public PersistentHashMap<String, Account> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Retorna o índice dos nomes dos titulares das contas deste registro.
+     * @return O índice, sempre atualizado pelas alterações do registro.
+     */
+    public CustomerIndex getCustomerIndex() {
+        return customerIndex;
+    }
+
+    /**
+     * Retorna o índice das contas ordenadas pelo saldo.
+     * @return O índice, sempre atualizado pelas alterações do registro e dos saldos.
+     */
+    public BalanceIndex getBalanceIndex() {
+        return balanceIndex;
+    }
+
+    /**
+     * Retorna as últimas transações de cada conta, guardadas em memória.
+     * @return O índice, sempre atualizado pelas alterações do registro e dos saldos.
+     */
+    public RecentTransactionsIndex getRecentTransactions() {
+        return recentTransactions;
+    }
+
+    @Override
+    public Account get(Object accountNumber) {
+        return current.get().get(accountNumber);
+    }
+
+    @Override
+    public boolean containsKey(Object accountNumber) {
+        return current.get().containsKey(accountNumber);
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.get().isEmpty();
+    }
+
+    @Override
+    public Account put(String accountNumber, Account account) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            if (current.compareAndSet(version, version.plus(accountNumber, account))) {
+                Account previous = version.get(accountNumber);
+                updateIndexes(accountNumber, previous);
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public Account putIfAbsent(String accountNumber, Account account) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            Account existing = version.get(accountNumber);
+            if (existing != null) {
+                return existing;
+            }
+            if (current.compareAndSet(version, version.plus(accountNumber, account))) {
+                updateIndexes(accountNumber, null);
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public Account remove(Object accountNumber) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            PersistentHashMap<String, Account> next = version.minus(accountNumber);
+            if (next == version) {
+                return null;
+            }
+            if (current.compareAndSet(version, next)) {
+                Account previous = version.get(accountNumber);
+                updateIndexes((String) accountNumber, previous);
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object accountNumber, Object account) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            Account existing = version.get(accountNumber);
+            if (existing == null || !existing.equals(account)) {
+                return false;
+            }
+            if (current.compareAndSet(version, version.minus(accountNumber))) {
+                updateIndexes((String) accountNumber, existing);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(String accountNumber, Account oldAccount, Account newAccount) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            Account existing = version.get(accountNumber);
+            if (existing == null || !existing.equals(oldAccount)) {
+                return false;
+            }
+            if (current.compareAndSet(version, version.plus(accountNumber, newAccount))) {
+                updateIndexes(accountNumber, existing);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Account replace(String accountNumber, Account account) {
+        while (true) {
+            PersistentHashMap<String, Account> version = current.get();
+            Account existing = version.get(accountNumber);
+            if (existing == null) {
+                return null;
+            }
+            if (current.compareAndSet(version, version.plus(accountNumber, account))) {
+                updateIndexes(accountNumber, existing);
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        PersistentHashMap<String, Account> previous = current.getAndSet(PersistentHashMap.empty());
+        customerIndex.clear();
+        balanceIndex.clear(previous.values());
+        recentTransactions.clear(previous.values());
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Account> action) {
+        current.get().forEach(action);
+    }
+
+    /**
+     * Entradas do snapshot do momento da chamada; somente leitura.
+     */
+    @Override
+    public Set<Entry<String, Account>> entrySet() {
+        return current.get().entrySet();
+    }
+
+    private void updateIndexes(String accountNumber, Account previous) {
+        customerIndex.update(accountNumber, previous, this);
+        balanceIndex.update(accountNumber, previous, this);
+        recentTransactions.update(accountNumber, previous, this);
+    }
+}
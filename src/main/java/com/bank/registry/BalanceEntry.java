@@ -0,0 +1,45 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+
+/**
+ * Posição de uma conta no {@code BalanceIndex}: a conta e o saldo com que ela está indexada.
+ * Objeto imutável; ordenado pelo saldo e, no empate, pelo número da conta.
+ */
+public final class BalanceEntry implements Comparable<BalanceEntry> {
+    private final double balance;
+    private final String accountNumber;
+    private final Account account;
+
+    BalanceEntry(double balance, String accountNumber, Account account) {
+        this.balance = balance;
+        this.accountNumber = accountNumber;
+        this.account = account;
+    }
+
+    /** @return O saldo no momento da indexação (a última alteração aplicada à conta). */
+    public double getBalance() { return balance; }
+    public String getAccountNumber() { return accountNumber; }
+    public Account getAccount() { return account; }
+
+    @Override
+    public int compareTo(BalanceEntry other) {
+        int byBalance = Double.compare(balance, other.balance);
+        return byBalance != 0 ? byBalance : accountNumber.compareTo(other.accountNumber);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BalanceEntry && compareTo((BalanceEntry) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(balance) + accountNumber.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceEntry{" + accountNumber + "=" + balance + "}";
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.observer.AccountObserver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice das contas ordenadas pelo saldo, mantido pelo {@code AccountRegistry}: contas abaixo de
+ * um limite, contas em uma faixa de saldo e os maiores saldos, em O(log n + k).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Estrutura:</b> Um ConcurrentSkipListSet de {@code BalanceEntry}, ordenado por
+ *         (saldo, número da conta), e um mapa do número da conta para a entrada atual, para
+ *         localizar a entrada a substituir.</li>
+ *     <li><b>Atualização:</b> O índice é um {@code AccountObserver} que o registro anexa a cada
+ *         conta incluída. A cada adjustBalanceAndNotify() ele retira a entrada antiga e insere
+ *         a nova, com a conta travada (as operações da Facade já a travam), de modo que as
+ *         alterações de uma mesma conta são aplicadas em ordem.</li>
+ *     <li><b>Consultas:</b> Localizam o início do intervalo na skip list em O(log n) e percorrem
+ *         as k entradas seguintes, sem ordenar nem percorrer as demais contas, enquanto as
+ *         escritas continuam. Durante a troca de uma entrada, a conta pode faltar por um
+ *         instante em uma consulta concorrente, mas nunca aparece duas vezes.</li>
+ * </ol>
+ */
+public class BalanceIndex implements AccountObserver {
+    private final NavigableSet<BalanceEntry> entries = new ConcurrentSkipListSet<>();
+    private final Map<String, BalanceEntry> current = new ConcurrentHashMap<>();
+
+    /**
+     * Atualiza o índice depois que o registro trocou a conta de um número (mesma regra do
+     * {@code CustomerIndex}: o estado final segue o registro).
+     *
+     * @param accountNumber O número da conta.
+     * @param previous A conta que o registro tinha antes da alteração, ou null.
+     * @param registry O registro, consultado para obter a conta atual.
+     */
+    void update(String accountNumber, Account previous, Map<String, Account> registry) {
+        Account account = registry.get(accountNumber);
+        if (previous != null && previous != account) {
+            synchronized (previous) {
+                previous.removeObserver(this);
+                BalanceEntry entry = current.get(accountNumber);
+                if (entry != null && entry.getAccount() == previous && current.remove(accountNumber, entry)) {
+                    entries.remove(entry);
+                }
+            }
+        }
+        if (account != null) {
+            synchronized (account) {
+                BalanceEntry entry = current.get(accountNumber);
+                if (registry.get(accountNumber) != account || (entry != null && entry.getAccount() == account)) {
+                    return;
+                }
+                account.addObserver(this);
+                replace(entry, new BalanceEntry(account.getBalance(), accountNumber, account));
+            }
+        }
+    }
+
+    /**
+     * Esvazia o índice.
+     * @param accounts As contas indexadas, das quais o índice deixa de ser observador.
+     */
+    void clear(Iterable<Account> accounts) {
+        for (Account account : accounts) {
+            account.removeObserver(this);
+        }
+        current.clear();
+        entries.clear();
+    }
+
+    /**
+     * Reposiciona a conta após uma alteração de saldo.
+     */
+    @Override
+    public void update(Account account, String eventType, double amount) {
+        synchronized (account) {
+            BalanceEntry entry = current.get(account.getAccountNumber());
+            if (entry == null || entry.getAccount() != account || entry.getBalance() == account.getBalance()) {
+                return;
+            }
+            replace(entry, new BalanceEntry(account.getBalance(), account.getAccountNumber(), account));
+        }
+    }
+
+    private void replace(BalanceEntry old, BalanceEntry entry) {
+        if (old != null) {
+            entries.remove(old);
+        }
+        entries.add(entry);
+        current.put(entry.getAccountNumber(), entry);
+    }
+
+    /**
+     * Retorna a quantidade de contas indexadas.
+     * @return A quantidade de contas.
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Retorna as contas com saldo abaixo de um limite (ex: mais fundo no cheque especial).
+     * @param threshold O limite (exclusivo).
+     * @param limit A quantidade máxima de contas.
+     * @return As contas, do menor saldo para o maior.
+     */
+    public List<BalanceEntry> below(double threshold, int limit) {
+        return take(entries.headSet(probe(threshold), false).iterator(), limit);
+    }
+
+    /**
+     * Retorna as contas com saldo dentro de uma faixa.
+     * @param min O menor saldo (inclusivo).
+     * @param max O maior saldo (inclusivo).
+     * @param limit A quantidade máxima de contas.
+     * @return As contas, do menor saldo para o maior.
+     */
+    public List<BalanceEntry> between(double min, double max, int limit) {
+        if (!(min <= max)) {
+            return new ArrayList<>();
+        }
+        return take(entries.subSet(probe(min), true, probe(Math.nextUp(max)), false).iterator(), limit);
+    }
+
+    /**
+     * Retorna as contas com os maiores saldos.
+     * @param limit A quantidade de contas.
+     * @return As contas, do maior saldo para o menor.
+     */
+    public List<BalanceEntry> top(int limit) {
+        return take(entries.descendingIterator(), limit);
+    }
+
+    /**
+     * Retorna as contas com os menores saldos.
+     * @param limit A quantidade de contas.
+     * @return As contas, do menor saldo para o maior.
+     */
+    public List<BalanceEntry> bottom(int limit) {
+        return take(entries.iterator(), limit);
+    }
+
+    /**
+     * Entrada de busca que fica antes de todas as contas com o saldo informado.
+     */
+    private static BalanceEntry probe(double balance) {
+        return new BalanceEntry(balance, "", null);
+    }
+
+    private static List<BalanceEntry> take(Iterator<BalanceEntry> iterator, int limit) {
+        List<BalanceEntry> result = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,380 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice dos nomes dos titulares, mantido pelo {@code AccountRegistry}: busca exata, por prefixo e
+ * tolerante a erros de digitação, sem percorrer as contas.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Normalização:</b> Os nomes são indexados sem acentos, em minúsculas e com os espaços
+ *         reduzidos a um só ("  José  Silva" e "jose silva" são o mesmo titular).</li>
+ *     <li><b>Trie:</b> Cada caractere do nome normalizado é um nível da trie; os filhos de um nó
+ *         ficam em arrays ordenados pelo caractere (busca binária, pouca memória). O nó do último
+ *         caractere guarda os números das contas com aquele nome.</li>
+ *     <li><b>Exata e prefixo:</b> Descem a trie pelos caracteres do termo (custo proporcional ao
+ *         tamanho do termo) e, no prefixo, percorrem a subárvore em ordem alfabética até o
+ *         limite de resultados.</li>
+ *     <li><b>Aproximada:</b> Calcula a distância de Levenshtein contra a trie, uma linha da
+ *         tabela por nível: nomes com o mesmo prefixo compartilham as linhas, e um ramo é
+ *         abandonado assim que a menor distância da linha passa do máximo permitido, de modo que
+ *         só uma pequena parte da trie é visitada. Como a trie é visitada em ordem alfabética,
+ *         assim que "limit" titulares foram achados até uma distância d, o máximo cai para d - 1:
+ *         os nomes seguintes só entrariam no resultado se estivessem mais perto.</li>
+ *     <li><b>Concorrência:</b> As buscas usam o lock de leitura e podem rodar em paralelo; a
+ *         inclusão e a remoção de contas, raras em comparação, usam o lock de escrita.</li>
+ * </ol>
+ */
+public class CustomerIndex {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_ACCOUNTS = new String[0];
+
+    /**
+     * Nó da trie.
+     */
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        /** Contas cujo nome termina neste nó */
+        String[] accounts = NO_ACCOUNTS;
+        /** Nome como cadastrado na primeira conta deste nó */
+        String customerName;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertion = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            newKeys[insertion] = key;
+            newChildren[insertion] = child;
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        boolean isEmpty() {
+            return accounts.length == 0 && keys.length == 0;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private int names;
+
+    /**
+     * Normaliza um nome para o índice.
+     * @param name O nome.
+     * @return O nome sem acentos, em minúsculas, sem espaços nas pontas e com um espaço entre as palavras.
+     */
+    public static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Atualiza o índice depois que o registro trocou a conta de um número.
+     * <p><b>LÓGICA:</b> Confere, com o lock de escrita, qual conta o registro tem agora para o
+     * número: retira a conta anterior e inclui a atual. Assim, mesmo que duas alterações do
+     * mesmo número cheguem aqui fora de ordem, o índice termina igual ao registro.
+     *
+     * @param accountNumber O número da conta.
+     * @param previous A conta que o registro tinha antes da alteração, ou null.
+     * @param registry O registro, consultado para obter a conta atual.
+     */
+    void update(String accountNumber, Account previous, Map<String, Account> registry) {
+        lock.writeLock().lock();
+        try {
+            Account current = registry.get(accountNumber);
+            if (previous != null && previous != current) {
+                remove(accountNumber, previous.getCustomerName());
+            }
+            if (current != null) {
+                add(accountNumber, current.getCustomerName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Esvazia o índice.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            names = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(String accountNumber, String customerName) {
+        String key = normalize(customerName);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        for (String existing : node.accounts) {
+            if (existing.equals(accountNumber)) {
+                return;
+            }
+        }
+        if (node.accounts.length == 0) {
+            node.customerName = customerName;
+            names++;
+        }
+        String[] accounts = Arrays.copyOf(node.accounts, node.accounts.length + 1);
+        accounts[node.accounts.length] = accountNumber;
+        node.accounts = accounts;
+    }
+
+    private void remove(String accountNumber, String customerName) {
+        String key = normalize(customerName);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[key.length()];
+        int index = Arrays.asList(node.accounts).indexOf(accountNumber);
+        if (index < 0) {
+            return;
+        }
+        String[] accounts = new String[node.accounts.length - 1];
+        System.arraycopy(node.accounts, 0, accounts, 0, index);
+        System.arraycopy(node.accounts, index + 1, accounts, index, accounts.length - index);
+        node.accounts = accounts.length == 0 ? NO_ACCOUNTS : accounts;
+        if (accounts.length == 0) {
+            node.customerName = null;
+            names--;
+        }
+        // Retira os nós que ficaram sem contas e sem filhos
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    /**
+     * Retorna a quantidade de nomes distintos (após a normalização).
+     * @return A quantidade de titulares indexados.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca as contas de um titular pelo nome completo.
+     * @param customerName O nome (acentos, maiúsculas e espaços extras são ignorados).
+     * @return Os números das contas, ou uma lista vazia.
+     */
+    public List<String> findExact(String customerName) {
+        lock.readLock().lock();
+        try {
+            Node node = descend(normalize(customerName));
+            return node == null ? Collections.emptyList() : Arrays.asList(node.accounts.clone());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os titulares cujo nome começa com o prefixo.
+     * @param prefix O início do nome.
+     * @param limit A quantidade máxima de titulares.
+     * @return Os titulares em ordem alfabética do nome normalizado.
+     */
+    public List<CustomerMatch> findByPrefix(String prefix, int limit) {
+        List<CustomerMatch> matches = new ArrayList<>();
+        if (limit <= 0) {
+            return matches;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = descend(normalize(prefix));
+            if (node != null) {
+                collect(node, matches, limit);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os titulares cujo nome está a no máximo "maxDistance" edições (inclusão, remoção ou
+     * troca de um caractere) do nome informado.
+     * @param customerName O nome buscado, possivelmente com erros de digitação.
+     * @param maxDistance A distância de edição máxima (ex: 1 ou 2).
+     * @param limit A quantidade máxima de titulares.
+     * @return Os titulares, dos mais próximos para os mais distantes e, no empate, em ordem alfabética.
+     */
+    public List<CustomerMatch> findFuzzy(String customerName, int maxDistance, int limit) {
+        List<CustomerMatch> matches = new ArrayList<>();
+        if (limit <= 0 || maxDistance < 0) {
+            return matches;
+        }
+        String term = normalize(customerName);
+        int[] firstRow = new int[term.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        FuzzyCollector collector = new FuzzyCollector(matches, maxDistance, limit);
+        lock.readLock().lock();
+        try {
+            if (root.accounts.length > 0 && firstRow[term.length()] <= maxDistance) {
+                collector.add(root, firstRow[term.length()]);
+            }
+            for (int i = 0; i < root.keys.length && collector.bound >= 0; i++) {
+                fuzzy(root.children[i], root.keys[i], term, firstRow, collector);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingInt(CustomerMatch::getDistance)
+                .thenComparing(match -> normalize(match.getCustomerName())));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private Node descend(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<CustomerMatch> matches, int limit) {
+        if (node.accounts.length > 0) {
+            matches.add(match(node, 0));
+        }
+        for (int i = 0; i < node.children.length && matches.size() < limit; i++) {
+            collect(node.children[i], matches, limit);
+        }
+    }
+
+    /**
+     * Calcula a linha da tabela de Levenshtein para o caractere do nó e desce enquanto a menor
+     * distância da linha não passar do máximo do coletor.
+     */
+    private static void fuzzy(Node node, char key, String term, int[] previousRow, FuzzyCollector collector) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int smallest = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previousRow[i - 1] + (term.charAt(i - 1) == key ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1] + 1, previousRow[i] + 1));
+            smallest = Math.min(smallest, row[i]);
+        }
+        if (node.accounts.length > 0 && row[row.length - 1] <= collector.bound) {
+            collector.add(node, row[row.length - 1]);
+        }
+        for (int i = 0; i < node.keys.length && smallest <= collector.bound; i++) {
+            fuzzy(node.children[i], node.keys[i], term, row, collector);
+        }
+    }
+
+    /**
+     * Resultados da busca aproximada, com a distância máxima que ainda pode entrar no resultado.
+     */
+    private static final class FuzzyCollector {
+        private final List<CustomerMatch> matches;
+        /** Titulares achados por distância */
+        private final int[] counts;
+        private final int limit;
+        /** Distância máxima que ainda pode entrar no resultado; negativa quando a busca terminou */
+        private int bound;
+
+        FuzzyCollector(List<CustomerMatch> matches, int maxDistance, int limit) {
+            this.matches = matches;
+            this.counts = new int[maxDistance + 1];
+            this.limit = limit;
+            this.bound = maxDistance;
+        }
+
+        void add(Node node, int distance) {
+            matches.add(match(node, distance));
+            counts[distance]++;
+            // Os nós seguintes vêm depois na ordem alfabética: com "limit" titulares até a
+            // distância d, um nome novo só entra no resultado se estiver mais perto que d
+            int found = 0;
+            for (int d = 0; d <= bound; d++) {
+                found += counts[d];
+                if (found >= limit) {
+                    bound = d - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static CustomerMatch match(Node node, int distance) {
+        return new CustomerMatch(node.customerName, Arrays.asList(node.accounts.clone()), distance);
+    }
+}
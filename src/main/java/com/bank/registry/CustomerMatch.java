@@ -0,0 +1,31 @@
+package com.bank.registry;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma busca no {@code CustomerIndex}: um nome de titular e as suas contas. Objeto
+ * imutável.
+ */
+public final class CustomerMatch {
+    private final String customerName;
+    private final List<String> accountNumbers;
+    private final int distance;
+
+    CustomerMatch(String customerName, List<String> accountNumbers, int distance) {
+        this.customerName = customerName;
+        this.accountNumbers = Collections.unmodifiableList(accountNumbers);
+        this.distance = distance;
+    }
+
+    /** @return O nome como foi cadastrado na primeira conta com esse nome normalizado. */
+    public String getCustomerName() { return customerName; }
+    public List<String> getAccountNumbers() { return accountNumbers; }
+    /** @return A distância de edição até o termo buscado (0 nas buscas exatas e por prefixo). */
+    public int getDistance() { return distance; }
+
+    @Override
+    public String toString() {
+        return "CustomerMatch{" + customerName + ", accounts=" + accountNumbers + ", distance=" + distance + "}";
+    }
+}
@@ -0,0 +1,693 @@
+package com.bank.registry;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Mapa imutável e persistente baseado em uma hash array mapped trie (HAMT): cada "alteração"
+ * (plus() / minus()) devolve um novo mapa que compartilha com o anterior todos os nós que não
+ * mudaram. Guardar uma versão do mapa (um snapshot) custa O(1): basta manter a referência.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Trie:</b> O hash da chave é consumido em fatias de 5 bits, uma por nível; cada nó
+ *         tem até 32 posições. Um bitmap de 32 bits indica quais posições estão ocupadas, e o
+ *         array do nó guarda apenas essas, na ordem (o índice de uma posição é a quantidade de
+ *         bits ligados antes dela). Cada posição guarda uma entrada (folha) ou um nó filho.</li>
+ *     <li><b>Inclusão:</b> Copia apenas os nós do caminho da raiz até a posição alterada
+ *         (no máximo 7 níveis, cada um com até 32 referências); duas chaves que caem na mesma
+ *         posição passam para um nó filho, um nível abaixo.</li>
+ *     <li><b>Remoção:</b> Também copia só o caminho; um nó que fica com uma única entrada é
+ *         substituído por ela no nó pai, mantendo a trie compacta.</li>
+ *     <li><b>Colisões:</b> Chaves com o mesmo hash de 32 bits ficam juntas em um nó de colisão,
+ *         comparadas por equals().</li>
+ *     <li><b>Leitura:</b> Como nada é alterado depois de criado, qualquer número de threads pode
+ *         ler e iterar uma versão sem sincronização, enquanto novas versões são criadas.</li>
+ *     <li><b>Divisão:</b> O Spliterator das entradas e dos valores se divide pelas posições dos
+ *         nós: metade das posições para cada lado, descendo um nível quando resta uma só. Como o
+ *         hash espalha as chaves, as metades têm tamanhos parecidos, o que permite processar o
+ *         mapa em paralelo (ex: parallelStream()) sem copiá-lo.</li>
+ * </ol>
+ *
+ * @param <K> O tipo das chaves.
+ * @param <V> O tipo dos valores.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** Último deslocamento que ainda consome bits do hash (30 consome os 2 bits restantes) */
+    private static final int MAX_SHIFT = 30;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+    private Collection<V> values;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Retorna o mapa vazio.
+     * @param <K> O tipo das chaves.
+     * @param <V> O tipo dos valores.
+     * @return O mapa vazio (compartilhado).
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Retorna um mapa com a chave associada ao valor.
+     * @param key A chave (não nula).
+     * @param value O valor (não nulo).
+     * @return O novo mapa, ou este mesmo se a chave já estava associada a esse valor.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Keys and values must not be null");
+        }
+        Leaf leaf = new Leaf(hash(key), key, value);
+        if (root == null) {
+            return new PersistentHashMap<>(BitmapNode.single(leaf, 0), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(leaf, 0, added);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Retorna um mapa sem a chave.
+     * @param key A chave.
+     * @return O novo mapa, ou este mesmo se a chave não existia.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node newRoot = root.remove(hash(key), key, 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (root == null || key == null) {
+            return null;
+        }
+        Leaf leaf = root.find(hash(key), key, 0);
+        return leaf == null ? null : (V) leaf.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root != null && key != null && root.find(hash(key), key, 0) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach(leaf -> action.accept((K) leaf.key, (V) leaf.value));
+        }
+    }
+
+    /**
+     * Retorna um Spliterator sobre os valores, que se divide pelos nós da trie.
+     * @return O Spliterator (IMMUTABLE, NONNULL; SIZED enquanto não for dividido).
+     */
+    public Spliterator<V> valueSpliterator() {
+        return new TrieSpliterator<>(root, size, true);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> entries = entrySet;
+        if (entries == null) {
+            entries = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Spliterator<Entry<K, V>> spliterator() {
+                    return new TrieSpliterator<>(root, size, false);
+                }
+            };
+            entrySet = entries;
+        }
+        return entries;
+    }
+
+    @Override
+    public Collection<V> values() {
+        Collection<V> collection = values;
+        if (collection == null) {
+            collection = new AbstractCollection<V>() {
+                @Override
+                public Iterator<V> iterator() {
+                    Iterator<Entry<K, V>> entries = new EntryIterator<>(root);
+                    return new Iterator<V>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public V next() {
+                            return entries.next().getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Spliterator<V> spliterator() {
+                    return valueSpliterator();
+                }
+            };
+            values = collection;
+        }
+        return collection;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // --- Nós ---
+
+    /**
+     * Entrada do mapa (folha da trie).
+     */
+    private static final class Leaf implements Entry<Object, Object> {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean matches(int hash, Object key) {
+            return this.hash == hash && (this.key == key || this.key.equals(key));
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException("PersistentHashMap is immutable");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) other;
+            return key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private abstract static class Node {
+        abstract Leaf find(int hash, Object key, int shift);
+
+        /** @return O novo nó, ou este mesmo se nada mudou; added[0] indica uma chave nova. */
+        abstract Node put(Leaf leaf, int shift, boolean[] added);
+
+        /** @return O novo nó, este mesmo se a chave não existia, ou null se o nó ficou vazio. */
+        abstract Node remove(int hash, Object key, int shift);
+
+        /** @return A única entrada do nó, se ele tem exatamente uma entrada e nenhum filho. */
+        abstract Leaf singleLeaf();
+
+        abstract void forEach(Consumer<Leaf> action);
+
+        /** Posições do nó (entradas ou filhos), para a iteração */
+        abstract Object[] slots();
+    }
+
+    /**
+     * Nó com bitmap: até 32 posições, das quais só as ocupadas são guardadas.
+     */
+    private static final class BitmapNode extends Node {
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        static BitmapNode single(Leaf leaf, int shift) {
+            return new BitmapNode(bit(leaf.hash, shift), new Object[] {leaf});
+        }
+
+        static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.matches(hash, key) ? leaf : null;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        Node put(Leaf leaf, int shift, boolean[] added) {
+            int bit = bit(leaf.hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = leaf;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                Leaf existing = (Leaf) slot;
+                if (existing.matches(leaf.hash, leaf.key)) {
+                    if (existing.value == leaf.value) {
+                        return this;
+                    }
+                    replacement = leaf;
+                } else {
+                    replacement = merge(existing, leaf, shift + BITS);
+                    added[0] = true;
+                }
+            } else {
+                Node child = (Node) slot;
+                Node newChild = child.put(leaf, shift + BITS, added);
+                if (newChild == child) {
+                    return this;
+                }
+                replacement = newChild;
+            }
+            Object[] copy = slots.clone();
+            copy[index] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            if (slot instanceof Leaf) {
+                if (!((Leaf) slot).matches(hash, key)) {
+                    return this;
+                }
+                return without(bit, index);
+            }
+            Node child = (Node) slot;
+            Node newChild = child.remove(hash, key, shift + BITS);
+            if (newChild == child) {
+                return this;
+            }
+            if (newChild == null) {
+                return without(bit, index);
+            }
+            Leaf single = newChild.singleLeaf();
+            Object[] copy = slots.clone();
+            copy[index] = single != null ? single : newChild;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private Node without(int bit, int index) {
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        @Override
+        Leaf singleLeaf() {
+            return slots.length == 1 && slots[0] instanceof Leaf ? (Leaf) slots[0] : null;
+        }
+
+        @Override
+        void forEach(Consumer<Leaf> action) {
+            for (Object slot : slots) {
+                if (slot instanceof Leaf) {
+                    action.accept((Leaf) slot);
+                } else {
+                    ((Node) slot).forEach(action);
+                }
+            }
+        }
+
+        @Override
+        Object[] slots() {
+            return slots;
+        }
+    }
+
+    /**
+     * Nó de colisão: entradas cujos hashes de 32 bits são iguais.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Leaf[] leaves;
+
+        CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            for (Leaf leaf : leaves) {
+                if (leaf.matches(hash, key)) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(Leaf leaf, int shift, boolean[] added) {
+            if (leaf.hash != hash) {
+                added[0] = true;
+                return split(leaf, shift);
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(leaf.hash, leaf.key)) {
+                    if (leaves[i].value == leaf.value) {
+                        return this;
+                    }
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Leaf[] copy = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, copy, 0, leaves.length);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(hash, key)) {
+                    if (leaves.length == 1) {
+                        return null;
+                    }
+                    Leaf[] copy = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, copy, 0, i);
+                    System.arraycopy(leaves, i + 1, copy, i, leaves.length - i - 1);
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Coloca este nó e uma entrada de outro hash sob um nó com bitmap, descendo até o nível
+         * em que os dois hashes se separam.
+         */
+        private Node split(Leaf leaf, int shift) {
+            int ownBit = BitmapNode.bit(hash, shift);
+            int leafBit = BitmapNode.bit(leaf.hash, shift);
+            if (ownBit == leafBit) {
+                return new BitmapNode(ownBit, new Object[] {split(leaf, shift + BITS)});
+            }
+            Object[] slots = Integer.compareUnsigned(ownBit, leafBit) < 0
+                    ? new Object[] {this, leaf} : new Object[] {leaf, this};
+            return new BitmapNode(ownBit | leafBit, slots);
+        }
+
+        @Override
+        Leaf singleLeaf() {
+            return leaves.length == 1 ? leaves[0] : null;
+        }
+
+        @Override
+        void forEach(Consumer<Leaf> action) {
+            for (Leaf leaf : leaves) {
+                action.accept(leaf);
+            }
+        }
+
+        @Override
+        Object[] slots() {
+            return leaves;
+        }
+    }
+
+    /**
+     * Cria o nó que guarda duas entradas que caíram na mesma posição do nível anterior.
+     */
+    private static Node merge(Leaf first, Leaf second, int shift) {
+        if (shift > MAX_SHIFT || first.hash == second.hash) {
+            return new CollisionNode(first.hash, new Leaf[] {first, second});
+        }
+        int firstBit = BitmapNode.bit(first.hash, shift);
+        int secondBit = BitmapNode.bit(second.hash, shift);
+        if (firstBit == secondBit) {
+            return new BitmapNode(firstBit, new Object[] {merge(first, second, shift + BITS)});
+        }
+        Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new Object[] {first, second} : new Object[] {second, first};
+        return new BitmapNode(firstBit | secondBit, slots);
+    }
+
+    /**
+     * Iterador em profundidade com uma pilha explícita de (posições, índice); a trie tem no
+     * máximo MAX_DEPTH níveis de nós.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private static final int MAX_DEPTH = MAX_SHIFT / BITS + 2;
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Leaf next;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                arrays[++depth] = root.slots();
+                advance();
+            }
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] slots = arrays[depth];
+                if (positions[depth] == slots.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                Object slot = slots[positions[depth]++];
+                if (slot instanceof Leaf) {
+                    next = (Leaf) slot;
+                    return;
+                }
+                arrays[++depth] = ((Node) slot).slots();
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf current = next;
+            advance();
+            return (Entry<K, V>) (Entry<?, ?>) current;
+        }
+    }
+
+    /**
+     * Spliterator sobre um intervalo de posições de um nó: as entradas ou os valores das folhas
+     * dessas posições e de todos os nós abaixo delas.
+     */
+    private static final class TrieSpliterator<T> implements Spliterator<T> {
+        private static final Object[] NO_SLOTS = new Object[0];
+
+        private final boolean values;
+        private Object[] slots;
+        private int index;
+        private int fence;
+        private long estimate;
+        private boolean exact;
+        /** Nó da posição em andamento em tryAdvance() */
+        private Iterator<Entry<Object, Object>> current;
+
+        TrieSpliterator(Node root, int size, boolean values) {
+            this(root == null ? NO_SLOTS : root.slots(), 0, root == null ? 0 : root.slots().length, size, values);
+            this.exact = true;
+        }
+
+        private TrieSpliterator(Object[] slots, int index, int fence, long estimate, boolean values) {
+            this.slots = slots;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T element(Leaf leaf) {
+            return (T) (values ? leaf.value : leaf);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (current != null) {
+                    if (current.hasNext()) {
+                        action.accept(element((Leaf) current.next()));
+                        return true;
+                    }
+                    current = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                Object slot = slots[index++];
+                if (slot instanceof Leaf) {
+                    action.accept(element((Leaf) slot));
+                    return true;
+                }
+                current = new EntryIterator<>((Node) slot);
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (current != null) {
+                while (current.hasNext()) {
+                    action.accept(element((Leaf) current.next()));
+                }
+                current = null;
+            }
+            Consumer<Leaf> leafAction = leaf -> action.accept(element(leaf));
+            for (; index < fence; index++) {
+                Object slot = slots[index];
+                if (slot instanceof Leaf) {
+                    leafAction.accept((Leaf) slot);
+                } else {
+                    ((Node) slot).forEach(leafAction);
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (current != null) {
+                return null;
+            }
+            // Uma única posição com um nó: passa a dividir as posições desse nó
+            while (fence - index == 1 && slots[index] instanceof Node) {
+                slots = ((Node) slots[index]).slots();
+                index = 0;
+                fence = slots.length;
+            }
+            int remaining = fence - index;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = index + remaining / 2;
+            long prefixEstimate = estimate * (middle - index) / remaining;
+            Spliterator<T> prefix = new TrieSpliterator<>(slots, index, middle, prefixEstimate, values);
+            index = middle;
+            estimate -= prefixEstimate;
+            exact = false;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = IMMUTABLE | NONNULL | (values ? 0 : DISTINCT);
+            return exact ? characteristics | SIZED : characteristics;
+        }
+    }
+}
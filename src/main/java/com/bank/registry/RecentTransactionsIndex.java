@@ -0,0 +1,308 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.logger.TransactionRecord;
+import com.bank.observer.AccountObserver;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Últimas transações de cada conta em memória, mantidas pelo {@code AccountRegistry}: responde
+ * "as últimas 20 transações desta conta" sem ler o log.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Estrutura:</b> Cada conta tem um buffer circular de tamanho fixo, em arrays
+ *         primitivos: instante (milissegundos), código do tipo, valor e saldo resultante. Os
+ *         arrays são criados na primeira transação da conta; contas sem movimento não ocupam
+ *         memória além da entrada do mapa.</li>
+ *     <li><b>Atualização:</b> O índice é um {@code AccountObserver} que o registro anexa a cada
+ *         conta incluída (como o {@code BalanceIndex}). A cada adjustBalanceAndNotify() grava a
+ *         transação na próxima posição do buffer, sobrescrevendo a mais antiga, sem alocar
+ *         objetos. O tipo do evento é guardado como o código de uma tabela de tipos.</li>
+ *     <li><b>Consulta:</b> latest() copia as N transações mais recentes, da mais nova para a
+ *         mais antiga, em O(N), com a conta travada para não ver uma gravação pela metade.</li>
+ *     <li><b>Histórico completo:</b> Para uma conta aberta neste processo, recordCreation()
+ *         grava a abertura como primeira entrada do buffer; enquanto o buffer não deu a volta,
+ *         ele tem todo o histórico da conta, e covering() responde qualquer quantidade sem o
+ *         log.</li>
+ * </ol>
+ *
+ * <p>Nos outros casos o buffer guarda apenas as transações desde que a conta entrou no registro;
+ * as mais antigas ficam no log de transações (ver {@code BankingFacade.getRecentTransactions}).
+ */
+public class RecentTransactionsIndex implements AccountObserver {
+    /** Número padrão de transações guardadas por conta */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("bank.recent.capacity", 20);
+
+    /** Tabela de tipos de evento: o código é a posição do nome */
+    private static final Map<String, Integer> TYPE_CODES = new ConcurrentHashMap<>();
+    private static volatile String[] typeNames = new String[0];
+
+    private final int capacity;
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor com a capacidade padrão.
+     */
+    public RecentTransactionsIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construtor para {@code RecentTransactionsIndex}.
+     * @param capacity Número de transações guardadas por conta.
+     */
+    public RecentTransactionsIndex(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Atualiza o índice depois que o registro trocou a conta de um número (mesma regra do
+     * {@code BalanceIndex}: o estado final segue o registro).
+     *
+     * @param accountNumber O número da conta.
+     * @param previous A conta que o registro tinha antes da alteração, ou null.
+     * @param registry O registro, consultado para obter a conta atual.
+     */
+    void update(String accountNumber, Account previous, Map<String, Account> registry) {
+        Account account = registry.get(accountNumber);
+        if (previous != null && previous != account) {
+            synchronized (previous) {
+                previous.removeObserver(this);
+                Ring ring = rings.get(accountNumber);
+                if (ring != null && ring.account == previous) {
+                    rings.remove(accountNumber, ring);
+                }
+            }
+        }
+        if (account != null) {
+            synchronized (account) {
+                Ring ring = rings.get(accountNumber);
+                if (registry.get(accountNumber) != account || (ring != null && ring.account == account)) {
+                    return;
+                }
+                account.addObserver(this);
+                rings.put(accountNumber, new Ring(account));
+            }
+        }
+    }
+
+    /**
+     * Esvazia o índice.
+     * @param accounts As contas indexadas, das quais o índice deixa de ser observador.
+     */
+    void clear(Iterable<Account> accounts) {
+        for (Account account : accounts) {
+            account.removeObserver(this);
+        }
+        rings.clear();
+    }
+
+    /**
+     * Grava a transação no buffer da conta.
+     */
+    @Override
+    public void update(Account account, String eventType, double amount) {
+        synchronized (account) {
+            Ring ring = rings.get(account.getAccountNumber());
+            if (ring != null && ring.account == account) {
+                ring.add(System.currentTimeMillis(), typeCode(eventType), amount, account.getBalance());
+            }
+        }
+    }
+
+    /**
+     * Grava a abertura de uma conta criada neste processo como a primeira entrada do buffer,
+     * marcando que o buffer tem todo o histórico dela. Chamado com a conta travada, logo depois
+     * de incluí-la no registro e antes de qualquer operação sobre ela.
+     * @param account A conta recém-incluída.
+     * @param recordType O tipo da linha de abertura no log (ex: "Account Created").
+     * @param initialBalance O saldo inicial.
+     */
+    public void recordCreation(Account account, String recordType, double initialBalance) {
+        synchronized (account) {
+            Ring ring = rings.get(account.getAccountNumber());
+            if (ring != null && ring.account == account && ring.size == 0) {
+                ring.add(System.currentTimeMillis(), typeCode(recordType), initialBalance, initialBalance);
+                ring.complete = true;
+            }
+        }
+    }
+
+    /**
+     * Retorna as transações mais recentes de uma conta guardadas em memória.
+     * @param accountNumber O número da conta.
+     * @param limit A quantidade máxima de transações.
+     * @return As transações, da mais nova para a mais antiga, no mesmo formato dos registros do
+     *         log (ex: tipo "Withdrawal" e valor positivo); o evento é o tipo recebido pelo
+     *         observador (ex: "withdraw").
+     */
+    public List<TransactionRecord> latest(String accountNumber, int limit) {
+        List<TransactionRecord> result = copy(accountNumber, limit, false);
+        return result != null ? result : new ArrayList<>();
+    }
+
+    /**
+     * Retorna as transações mais recentes de uma conta se a memória tem a resposta completa:
+     * a quantidade pedida, ou todo o histórico da conta (ver recordCreation()).
+     * @param accountNumber O número da conta.
+     * @param limit A quantidade máxima de transações.
+     * @return As transações, como em latest(), ou null se parte delas só está no log.
+     */
+    public List<TransactionRecord> covering(String accountNumber, int limit) {
+        return copy(accountNumber, limit, true);
+    }
+
+    /**
+     * Copia as transações mais recentes com a conta travada; com {@code onlyIfCovered}, devolve
+     * null se o buffer não tem a quantidade pedida nem o histórico completo.
+     */
+    private List<TransactionRecord> copy(String accountNumber, int limit, boolean onlyIfCovered) {
+        Ring ring = rings.get(accountNumber);
+        if (ring == null || limit <= 0) {
+            return onlyIfCovered && limit > 0 ? null : new ArrayList<>();
+        }
+        long[] timestamps;
+        int[] types;
+        double[] amounts;
+        double[] balances;
+        int count;
+        synchronized (ring.account) {
+            if (onlyIfCovered && ring.size < limit && !ring.complete) {
+                return null;
+            }
+            count = Math.min(limit, ring.size);
+            timestamps = new long[count];
+            types = new int[count];
+            amounts = new double[count];
+            balances = new double[count];
+            for (int i = 0, slot = ring.next - 1; i < count; i++, slot--) {
+                if (slot < 0) {
+                    slot += capacity;
+                }
+                timestamps[i] = ring.timestamps[slot];
+                types[i] = ring.types[slot];
+                amounts[i] = ring.amounts[slot];
+                balances[i] = ring.balances[slot];
+            }
+        }
+        // Os registros são criados fora do monitor da conta
+        String[] names = typeNames;
+        ZoneId zone = ZoneId.systemDefault();
+        List<TransactionRecord> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String event = names[types[i]];
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[i]), zone);
+            result.add(new TransactionRecord(time, recordType(event), accountNumber, event, Math.abs(amounts[i]), balances[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Retorna quantas transações estão guardadas para uma conta.
+     * @param accountNumber O número da conta.
+     * @return A quantidade, no máximo a capacidade.
+     */
+    public int count(String accountNumber) {
+        Ring ring = rings.get(accountNumber);
+        if (ring == null) {
+            return 0;
+        }
+        synchronized (ring.account) {
+            return ring.size;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Tipo do registro que o log grava para cada evento de saldo.
+     */
+    private static String recordType(String eventType) {
+        switch (eventType) {
+            case "deposit":
+                return "Deposit";
+            case "withdraw":
+                return "Withdrawal";
+            case "interest_calculation":
+                return "Interest";
+            default:
+                return eventType;
+        }
+    }
+
+    /**
+     * Código do tipo de evento; os tipos são poucos e fixos, então a tabela só cresce na
+     * primeira ocorrência de cada um.
+     */
+    private static int typeCode(String eventType) {
+        Integer code = TYPE_CODES.get(eventType);
+        return code != null ? code : registerType(eventType);
+    }
+
+    private static synchronized int registerType(String eventType) {
+        Integer code = TYPE_CODES.get(eventType);
+        if (code != null) {
+            return code;
+        }
+        String[] names = Arrays.copyOf(typeNames, typeNames.length + 1);
+        names[names.length - 1] = eventType;
+        // A tabela de nomes é publicada antes do código, para que latest() sempre o encontre
+        typeNames = names;
+        TYPE_CODES.put(eventType, names.length - 1);
+        return names.length - 1;
+    }
+
+    /**
+     * Buffer circular de uma conta; acessado apenas com a conta travada.
+     */
+    private final class Ring {
+        private final Account account;
+        private long[] timestamps;
+        private int[] types;
+        private double[] amounts;
+        private double[] balances;
+        /** Próxima posição a gravar */
+        private int next;
+        private int size;
+        /** O buffer tem todas as transações da conta, desde a abertura (ver recordCreation()) */
+        private boolean complete;
+
+        Ring(Account account) {
+            this.account = account;
+        }
+
+        void add(long timestamp, int type, double amount, double balance) {
+            if (timestamps == null) {
+                timestamps = new long[capacity];
+                types = new int[capacity];
+                amounts = new double[capacity];
+                balances = new double[capacity];
+            }
+            timestamps[next] = timestamp;
+            types[next] = type;
+            amounts[next] = amount;
+            balances[next] = balance;
+            next = next + 1 == capacity ? 0 : next + 1;
+            if (size < capacity) {
+                size++;
+            } else {
+                // A entrada mais antiga foi sobrescrita
+                complete = false;
+            }
+        }
+    }
+}
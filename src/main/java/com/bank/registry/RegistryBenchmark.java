@@ -0,0 +1,150 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.account.CheckingAccount;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark do registro de contas: compara o snapshot persistente ({@code AccountRegistry}) com a
+ * cópia de um ConcurrentHashMap, que era como a Facade entregava "todas as contas".
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Preparação:</b> Cria as mesmas contas nas duas estruturas.</li>
+ *     <li><b>Snapshot:</b> Mede o tempo de uma cópia completa do ConcurrentHashMap e o de
+ *         snapshot() no registro.</li>
+ *     <li><b>Versões retidas:</b> Guarda várias versões, com algumas alterações entre uma e
+ *         outra, e mede a memória que elas ocupam: cópias completas de um lado, versões que
+ *         compartilham os nós inalterados do outro.</li>
+ *     <li><b>Leitura:</b> Mede get() aleatório e a iteração completa nas duas estruturas.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.registry.accounts" (padrão 1000000),
+ * "bank.registry.versions" (versões retidas, padrão 10) e "bank.registry.changes" (alterações
+ * entre versões, padrão 1000). A medição de memória usa o heap após System.gc(), então é
+ * aproximada; rode com um heap que comporte as cópias (ex: -Xmx4g).
+ */
+public class RegistryBenchmark {
+    private static final int ROUNDS = 5;
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     */
+    public static void main(String[] args) {
+        int accountCount = Integer.getInteger("bank.registry.accounts", 1_000_000);
+        int versions = Integer.getInteger("bank.registry.versions", 10);
+        int changes = Integer.getInteger("bank.registry.changes", 1000);
+        System.out.println("Accounts: " + accountCount + ", retained versions: " + versions + ", changes between versions: " + changes);
+
+        String[] numbers = new String[accountCount];
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            numbers[i] = String.format("ACC%010d", i);
+            accounts[i] = new CheckingAccount(numbers[i], "Customer " + (i % 1000), 100.0, 50.0);
+        }
+
+        long baseline = usedHeap();
+        Map<String, Account> concurrent = new ConcurrentHashMap<>();
+        for (int i = 0; i < accountCount; i++) {
+            concurrent.put(numbers[i], accounts[i]);
+        }
+        long concurrentHeap = usedHeap() - baseline;
+        AccountRegistry registry = new AccountRegistry();
+        for (int i = 0; i < accountCount; i++) {
+            registry.put(numbers[i], accounts[i]);
+        }
+        long registryHeap = usedHeap() - baseline - concurrentHeap;
+        System.out.printf("Structure size: ConcurrentHashMap %.1f MB, AccountRegistry %.1f MB (accounts not included)%n",
+                concurrentHeap / 1e6, registryHeap / 1e6);
+
+        long copyNanos = Long.MAX_VALUE;
+        long snapshotNanos = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            Map<String, Account> copy = new HashMap<>(concurrent);
+            copyNanos = Math.min(copyNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            Map<String, Account> snapshot = registry.snapshot();
+            snapshotNanos = Math.min(snapshotNanos, System.nanoTime() - start);
+            sink += copy.size() + snapshot.size();
+        }
+        System.out.printf("Snapshot: full copy %.2f ms, persistent %.3f us%n", copyNanos / 1e6, snapshotNanos / 1e3);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long before = usedHeap();
+        List<Map<String, Account>> copies = new ArrayList<>();
+        for (int v = 0; v < versions; v++) {
+            copies.add(new HashMap<>(concurrent));
+            for (int c = 0; c < changes; c++) {
+                int i = random.nextInt(accountCount);
+                concurrent.put(numbers[i], new CheckingAccount(numbers[i], "Changed", 0.0, 0.0));
+            }
+        }
+        long copiesHeap = usedHeap() - before;
+        sink += copies.size();
+        copies = null;
+
+        before = usedHeap();
+        List<Map<String, Account>> snapshots = new ArrayList<>();
+        for (int v = 0; v < versions; v++) {
+            snapshots.add(registry.snapshot());
+            for (int c = 0; c < changes; c++) {
+                int i = random.nextInt(accountCount);
+                registry.put(numbers[i], new CheckingAccount(numbers[i], "Changed", 0.0, 0.0));
+            }
+        }
+        long snapshotsHeap = usedHeap() - before;
+        sink += snapshots.size();
+        System.out.printf("%d retained versions: full copies %.1f MB, persistent snapshots %.1f MB%n",
+                versions, copiesHeap / 1e6, snapshotsHeap / 1e6);
+        snapshots = null;
+
+        long concurrentGet = Long.MAX_VALUE;
+        long registryGet = Long.MAX_VALUE;
+        long concurrentIteration = Long.MAX_VALUE;
+        long registryIteration = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < accountCount; i++) {
+                sink += concurrent.get(numbers[random.nextInt(accountCount)]).getAccountNumber().length();
+            }
+            concurrentGet = Math.min(concurrentGet, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < accountCount; i++) {
+                sink += registry.get(numbers[random.nextInt(accountCount)]).getAccountNumber().length();
+            }
+            registryGet = Math.min(registryGet, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (Account account : concurrent.values()) {
+                sink += account.getAccountNumber().length();
+            }
+            concurrentIteration = Math.min(concurrentIteration, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (Account account : registry.snapshot().values()) {
+                sink += account.getAccountNumber().length();
+            }
+            registryIteration = Math.min(registryIteration, System.nanoTime() - start);
+        }
+        System.out.printf("Random get: ConcurrentHashMap %.0f ns, AccountRegistry %.0f ns%n",
+                (double) concurrentGet / accountCount, (double) registryGet / accountCount);
+        System.out.printf("Full iteration: ConcurrentHashMap %.1f ms, AccountRegistry %.1f ms%n",
+                concurrentIteration / 1e6, registryIteration / 1e6);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
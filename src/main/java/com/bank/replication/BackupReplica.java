@@ -0,0 +1,266 @@
+package com.bank.replication;
+
+import com.bank.facade.BankingFacade;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lado réplica (backup) da replicação: recebe o journal do primário, grava-o no journal local e
+ * reproduz cada entrada na {@code BankingFacade} local.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Recuperação local:</b> Ao iniciar, reproduz o journal local já existente e descarta
+ *         uma eventual linha incompleta no final. O tamanho resultante é a posição pedida ao
+ *         primário, de modo que uma réplica reiniciada recebe apenas o que perdeu.</li>
+ *     <li><b>Recebimento:</b> Os bytes de cada quadro vão do socket para o journal local com
+ *         {@code FileChannel.transferFrom}; o journal local é, portanto, uma cópia byte a byte
+ *         do primário. Em seguida, a região recebida é lida do arquivo e as linhas completas são
+ *         reproduzidas ({@code JournalReplayer}); uma linha partida entre quadros aguarda o
+ *         restante.</li>
+ *     <li><b>Confirmação e lag:</b> Após cada quadro, a posição aplicada é enviada ao primário.
+ *         O cabeçalho dos quadros (inclusive heartbeats) informa o fim do journal do primário,
+ *         permitindo calcular o atraso local.</li>
+ *     <li><b>Failover:</b> Se o primário deixar de enviar quadros, isPrimaryAlive() passa a
+ *         retornar false. promote() encerra a replicação e libera a Facade para receber
+ *         operações; como o journal local é idêntico ao do primário, o nó promovido continua
+ *         o mesmo journal e pode servir novas réplicas com um {@code JournalShipper}.</li>
+ * </ol>
+ *
+ * <p>Para que o nó promovido registre suas operações no mesmo journal, o arquivo informado
+ * deve ser o do {@code TransactionLogger} do processo (propriedade "bank.log.file").
+ */
+public class BackupReplica implements Closeable {
+    /** Tempo sem quadros após o qual o primário é considerado indisponível */
+    public static final long PRIMARY_TIMEOUT_MILLIS = 10 * JournalShipper.HEARTBEAT_MILLIS;
+
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final BankingFacade bankingFacade;
+    private final JournalReplayer replayer;
+    private final Path journal;
+    private final InetSocketAddress primaryAddress;
+    private final Thread receiver;
+
+    private FileChannel journalChannel;
+    private SocketChannel channel;
+    private byte[] partialLine = new byte[256];
+    private int partialLength;
+
+    private volatile long appliedOffset;
+    private volatile long primaryOffset;
+    private volatile long behindSinceMillis;
+    private volatile long lastFrameMillis;
+    private volatile boolean connected;
+    private volatile boolean promoted;
+
+    /**
+     * Construtor para {@code BackupReplica}.
+     * @param bankingFacade A Facade local, que receberá o estado replicado.
+     * @param journal O journal local (de preferência o do TransactionLogger deste processo).
+     * @param primaryAddress O endereço do {@code JournalShipper} do primário.
+     */
+    public BackupReplica(BankingFacade bankingFacade, Path journal, InetSocketAddress primaryAddress) {
+        this.bankingFacade = bankingFacade;
+        this.replayer = new JournalReplayer(bankingFacade);
+        this.journal = journal;
+        this.primaryAddress = primaryAddress;
+        this.receiver = new Thread(this::receive, "journal-replica");
+        this.receiver.setDaemon(true);
+    }
+
+    /**
+     * Reproduz o journal local e conecta ao primário.
+     * @throws IOException Se o journal local não puder ser lido ou o primário não estiver acessível.
+     */
+    public void start() throws IOException {
+        journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long recovered = replayRange(0, journalChannel.size());
+        // Descarta a linha incompleta do final: ela será recebida novamente do primário
+        journalChannel.truncate(recovered);
+        partialLength = 0;
+        appliedOffset = recovered;
+        primaryOffset = recovered;
+
+        channel = SocketChannel.open(primaryAddress);
+        channel.socket().setTcpNoDelay(true);
+        ByteBuffer handshake = ByteBuffer.allocate(8).putLong(recovered);
+        handshake.flip();
+        while (handshake.hasRemaining()) {
+            channel.write(handshake);
+        }
+        connected = true;
+        lastFrameMillis = System.currentTimeMillis();
+        receiver.start();
+    }
+
+    /**
+     * Laço de recebimento dos quadros do primário.
+     */
+    private void receive() {
+        ByteBuffer header = ByteBuffer.allocate(JournalShipper.FRAME_HEADER_LENGTH);
+        ByteBuffer ack = ByteBuffer.allocate(8);
+        try {
+            while (!promoted) {
+                header.clear();
+                readFully(header);
+                long end = header.getLong(0);
+                long sentAt = header.getLong(8);
+                int length = header.getInt(16);
+
+                long position = journalChannel.size();
+                long limit = position + length;
+                while (position < limit) {
+                    long received = journalChannel.transferFrom(channel, position, limit - position);
+                    if (received <= 0) {
+                        throw new EOFException("Primary closed the connection");
+                    }
+                    position += received;
+                }
+                if (length > 0) {
+                    replayRange(limit - length, limit);
+                }
+
+                long applied = limit - partialLength;
+                appliedOffset = applied;
+                primaryOffset = Math.max(primaryOffset, end);
+                long now = System.currentTimeMillis();
+                lastFrameMillis = now;
+                if (applied >= primaryOffset) {
+                    behindSinceMillis = 0;
+                } else if (behindSinceMillis == 0) {
+                    behindSinceMillis = sentAt;
+                }
+
+                ack.clear();
+                ack.putLong(applied).flip();
+                while (ack.hasRemaining()) {
+                    channel.write(ack);
+                }
+            }
+        } catch (IOException e) {
+            if (!promoted) {
+                System.out.println("Replication from " + primaryAddress + " stopped: " + e.getMessage());
+            }
+        } finally {
+            connected = false;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Primary closed the connection");
+            }
+        }
+    }
+
+    /**
+     * Lê uma região do journal local e reproduz as linhas completas.
+     * <p><b>LÓGICA:</b> Bytes após a última quebra de linha ficam em partialLine e são prefixados
+     * à próxima região.
+     *
+     * @return A posição logo após a última linha completa reproduzida.
+     */
+    private long replayRange(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK);
+        long position = from;
+        long lastLineEnd = from - partialLength;
+        while (position < to) {
+            buffer.clear();
+            buffer.limit((int) Math.min(READ_CHUNK, to - position));
+            int read = journalChannel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == '\n') {
+                    int length = partialLength > 0 && partialLine[partialLength - 1] == '\r' ? partialLength - 1 : partialLength;
+                    replayer.apply(new String(partialLine, 0, length, StandardCharsets.UTF_8));
+                    partialLength = 0;
+                    lastLineEnd = position + i + 1;
+                } else {
+                    if (partialLength == partialLine.length) {
+                        partialLine = Arrays.copyOf(partialLine, partialLine.length * 2);
+                    }
+                    partialLine[partialLength++] = b;
+                }
+            }
+            position += read;
+        }
+        return lastLineEnd;
+    }
+
+    /**
+     * Indica se o primário continua enviando quadros (dados ou heartbeats).
+     * @return true se a conexão está ativa e o último quadro é recente.
+     */
+    public boolean isPrimaryAlive() {
+        return connected && System.currentTimeMillis() - lastFrameMillis < PRIMARY_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Retorna o atraso desta réplica em relação ao primário.
+     * @return Um retrato do lag de replicação.
+     */
+    public ReplicationStatus getStatus() {
+        long since = behindSinceMillis;
+        long lagMillis = since == 0 ? 0 : Math.max(0, System.currentTimeMillis() - since);
+        return new ReplicationStatus(String.valueOf(primaryAddress), primaryOffset, appliedOffset, lagMillis);
+    }
+
+    /**
+     * Retorna quantas entradas do journal foram aplicadas à Facade local.
+     * @return O número de entradas aplicadas.
+     */
+    public long getAppliedRecords() {
+        return replayer.getAppliedRecords();
+    }
+
+    /**
+     * Promove esta réplica a primário: encerra a replicação e devolve a Facade com o estado
+     * replicado até aqui, pronta para receber operações.
+     * <p><b>LÓGICA:</b> Fecha a conexão, aguarda o fim da thread de recebimento e remove do
+     * journal local uma eventual linha incompleta (o primário pode ter caído no meio de uma
+     * escrita), para que as próximas entradas comecem em uma linha nova.
+     *
+     * @return A Facade local.
+     * @throws IOException Se o journal local não puder ser ajustado.
+     */
+    public BankingFacade promote() throws IOException {
+        promoted = true;
+        close();
+        try {
+            receiver.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journalChannel.truncate(appliedOffset);
+        journalChannel.force(true);
+        journalChannel.close();
+        System.out.println("Replica promoted to primary at journal offset " + appliedOffset);
+        return bankingFacade;
+    }
+
+    /**
+     * Encerra a conexão com o primário.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.bank.replication;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitor do journal de outro nó pelo protocolo do {@code JournalShipper}, para quem precisa
+ * acompanhar as entradas em tempo real sem manter uma cópia do arquivo (ex: a migração de
+ * contas entre nós, que aplica as mudanças das contas em movimento sobre um snapshot).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Conexão:</b> Envia ao shipper a posição inicial, como uma réplica faria.</li>
+ *     <li><b>Linhas:</b> Os bytes de cada quadro são separados em linhas; cada linha completa é
+ *         entregue ao {@code LineListener} com a posição do journal logo após ela. Uma linha
+ *         dividida entre quadros é guardada até a quebra de linha chegar.</li>
+ *     <li><b>Progresso:</b> A posição da última linha entregue pode ser consultada ou aguardada
+ *         com awaitOffset(), e é confirmada ao shipper, que assim mede o lag deste leitor.</li>
+ * </ol>
+ *
+ * <p>As posições são do arquivo vivo do outro nó; o shipper só é criado com a rotação do log
+ * desativada, então elas nunca mudam de arquivo.
+ */
+public class JournalFollower implements Closeable {
+    private static final int READ_CHUNK = 64 * 1024;
+
+    /**
+     * Recebe as linhas do journal, na ordem, a partir da thread do leitor.
+     */
+    @FunctionalInterface
+    public interface LineListener {
+        /**
+         * @param line A linha, sem a quebra de linha.
+         * @param endOffset A posição do journal logo após a linha.
+         */
+        void onLine(String line, long endOffset);
+    }
+
+    private final InetSocketAddress shipperAddress;
+    private final LineListener listener;
+    private final Thread reader;
+    private final Object progress = new Object();
+    private SocketChannel channel;
+    private byte[] partialLine = new byte[256];
+    private int partialLength;
+    private volatile long offset;
+    private volatile boolean running;
+
+    /**
+     * Construtor para {@code JournalFollower}. A leitura só começa após start().
+     * @param shipperAddress O endereço do {@code JournalShipper} do nó.
+     * @param startOffset A posição do journal em que a leitura começa (início de uma linha).
+     * @param listener Quem recebe as linhas.
+     */
+    public JournalFollower(InetSocketAddress shipperAddress, long startOffset, LineListener listener) {
+        this.shipperAddress = shipperAddress;
+        this.listener = listener;
+        this.offset = startOffset;
+        this.reader = new Thread(this::receive, "journal-follower-" + shipperAddress.getPort());
+        this.reader.setDaemon(true);
+    }
+
+    /**
+     * Conecta ao shipper e começa a leitura.
+     * @throws IOException Se o shipper não estiver acessível.
+     */
+    public void start() throws IOException {
+        channel = SocketChannel.open(shipperAddress);
+        channel.socket().setTcpNoDelay(true);
+        ByteBuffer handshake = ByteBuffer.allocate(8).putLong(offset);
+        handshake.flip();
+        while (handshake.hasRemaining()) {
+            channel.write(handshake);
+        }
+        running = true;
+        reader.start();
+    }
+
+    /**
+     * Retorna a posição do journal logo após a última linha entregue.
+     * @return A posição.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Aguarda até que todas as linhas anteriores a uma posição tenham sido entregues.
+     * @param target A posição do journal.
+     * @param timeoutMillis O tempo máximo de espera.
+     * @return true se a posição foi alcançada; false no timeout ou se a leitura parou.
+     * @throws InterruptedException Se a espera for interrompida.
+     */
+    public boolean awaitOffset(long target, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (progress) {
+            while (offset < target) {
+                long remaining = deadline - System.nanoTime();
+                if (!running || remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encerra a conexão com o shipper.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (channel != null) {
+            channel.close();
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * Laço de leitura dos quadros do shipper.
+     */
+    private void receive() {
+        ByteBuffer header = ByteBuffer.allocate(JournalShipper.FRAME_HEADER_LENGTH);
+        ByteBuffer data = ByteBuffer.allocate(READ_CHUNK);
+        ByteBuffer ack = ByteBuffer.allocate(8);
+        long received = offset;
+        try {
+            while (running) {
+                header.clear();
+                readFully(header);
+                int length = header.getInt(16);
+                int remaining = length;
+                while (remaining > 0) {
+                    data.clear();
+                    data.limit(Math.min(READ_CHUNK, remaining));
+                    readFully(data);
+                    deliver(data.array(), data.limit(), received);
+                    received += data.limit();
+                    remaining -= data.limit();
+                }
+                if (length > 0) {
+                    synchronized (progress) {
+                        offset = received - partialLength;
+                        progress.notifyAll();
+                    }
+                }
+
+                ack.clear();
+                ack.putLong(offset).flip();
+                while (ack.hasRemaining()) {
+                    channel.write(ack);
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.out.println("Journal follower for " + shipperAddress + " stopped: " + e.getMessage());
+            }
+        } finally {
+            running = false;
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Separa os bytes recebidos em linhas e as entrega ao listener.
+     * @param position A posição do journal do primeiro byte.
+     */
+    private void deliver(byte[] bytes, int length, long position) {
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '\n') {
+                int lineLength = partialLength > 0 && partialLine[partialLength - 1] == '\r' ? partialLength - 1 : partialLength;
+                listener.onLine(new String(partialLine, 0, lineLength, StandardCharsets.UTF_8), position + i + 1);
+                partialLength = 0;
+            } else {
+                if (partialLength == partialLine.length) {
+                    partialLine = Arrays.copyOf(partialLine, partialLine.length * 2);
+                }
+                partialLine[partialLength++] = b;
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Shipper closed the connection");
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bank.replication;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionRecord;
+
+/**
+ * Aplica entradas do journal de transações a uma {@code BankingFacade}.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Criação:</b> Entradas "Account Created" recriam a conta com o mesmo número, tipo,
+ *         parâmetro, saldo inicial e titular.</li>
+ *     <li><b>Saldos:</b> Entradas "Deposit", "Withdrawal" e "Interest" trazem o novo saldo
+ *         absoluto, que é aplicado diretamente. Isso torna a reprodução idempotente e imune a
+ *         detalhes das regras de negócio (ex: um saque recusado registra o saldo inalterado).</li>
+ *     <li><b>Remoção:</b> Entradas "Account Removed" retiram a conta (ex: movida para outro nó).</li>
+ *     <li><b>Demais entradas:</b> Linhas de auditoria, linhas inválidas e operações de contas
+ *         desconhecidas (ex: de um journal anterior à criação das contas) são ignoradas.</li>
+ * </ol>
+ * A reprodução não gera novas entradas no log da Facade de destino.
+ */
+public class JournalReplayer {
+    private final BankingFacade bankingFacade;
+    private long appliedRecords;
+
+    /**
+     * Construtor para {@code JournalReplayer}.
+     * @param bankingFacade A Facade que receberá o estado reproduzido.
+     */
+    public JournalReplayer(BankingFacade bankingFacade) {
+        this.bankingFacade = bankingFacade;
+    }
+
+    /**
+     * Aplica uma linha do journal.
+     * @param line A linha, sem o terminador.
+     * @return true se a linha alterou (ou confirmou) o estado de alguma conta.
+     */
+    public boolean apply(String line) {
+        TransactionRecord record = TransactionRecord.parse(line);
+        if (record == null || record.getAccountNumber() == null) {
+            return false;
+        }
+
+        boolean applied;
+        switch (record.getType()) {
+            case BankingFacade.ACCOUNT_CREATED_RECORD:
+                applied = restoreAccount(line, record);
+                break;
+            case BankingFacade.ACCOUNT_REMOVED_RECORD:
+                applied = bankingFacade.applyReplicatedRemoval(record.getAccountNumber());
+                break;
+            case "Deposit":
+                applied = applyBalance(record, "deposit");
+                break;
+            case "Withdrawal":
+                applied = applyBalance(record, "withdraw");
+                break;
+            case "Interest":
+                applied = applyBalance(record, "interest_calculation");
+                break;
+            default:
+                applied = false;
+                break;
+        }
+        if (applied) {
+            appliedRecords++;
+        }
+        return applied;
+    }
+
+    /**
+     * Retorna quantas entradas foram aplicadas.
+     * @return O número de entradas aplicadas.
+     */
+    public long getAppliedRecords() {
+        return appliedRecords;
+    }
+
+    private boolean applyBalance(TransactionRecord record, String eventType) {
+        if (Double.isNaN(record.getNewBalance())) {
+            return false;
+        }
+        return bankingFacade.applyReplicatedBalance(record.getAccountNumber(), record.getNewBalance(), eventType);
+    }
+
+    /**
+     * Recria a conta de uma entrada "Account Created".
+     * <p>O titular é o último campo e ocupa o restante da linha, pois o nome pode conter vírgulas.
+     */
+    private boolean restoreAccount(String line, TransactionRecord record) {
+        String type = field(line, ", Type: ");
+        String parameter = field(line, ", Parameter: ");
+        int customerStart = line.indexOf(", Customer: ");
+        if (type == null || parameter == null || customerStart < 0 || Double.isNaN(record.getAmount())) {
+            return false;
+        }
+        try {
+            bankingFacade.restoreAccount(record.getAccountNumber(), AccountType.valueOf(type),
+                    line.substring(customerStart + ", Customer: ".length()), record.getAmount(),
+                    Double.parseDouble(parameter));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String field(String line, String key) {
+        int start = line.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = line.indexOf(", ", start);
+        return line.substring(start, end < 0 ? line.length() : end);
+    }
+}
@@ -0,0 +1,282 @@
+package com.bank.replication;
+
+import com.bank.logger.LogRotationPolicy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lado primário da replicação: envia o journal de transações para as réplicas conectadas.
+ *
+ * <p><b>PROTOCOLO:</b> Ao conectar, a réplica envia um {@code long} com a posição do journal a
+ * partir da qual precisa dos dados. O primário então envia quadros
+ * {@code long fimDoJournal | long enviadoEm (ms) | int tamanho} seguidos de {@code tamanho} bytes
+ * do journal, exatamente como estão no arquivo. Quadros de tamanho 0 servem de heartbeat. A
+ * réplica responde cada quadro com um {@code long} com a posição já aplicada.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Zero cópia:</b> Os bytes do journal vão do arquivo para o socket com
+ *         {@code FileChannel.transferTo}, sem passar pela memória da JVM.</li>
+ *     <li><b>Acompanhamento:</b> Cada réplica tem uma thread de envio, que verifica o tamanho do
+ *         journal a cada {@code pollMillis} e envia o que cresceu, e uma thread que lê as
+ *         confirmações.</li>
+ *     <li><b>Arquivo único:</b> O envio acompanha o arquivo vivo pela posição. Com a rotação do
+ *         log ativa ({@code LogRotationPolicy}), o arquivo seria renomeado para um segmento selado
+ *         e o envio pararia em silêncio, por isso o shipper se recusa a ser criado.</li>
+ *     <li><b>Lag:</b> O primário guarda, para cada quadro ainda não confirmado, sua posição final
+ *         e o horário de envio; o atraso da réplica é medido em bytes (fim do journal menos a
+ *         posição confirmada) e em tempo (idade do quadro mais antigo não confirmado).</li>
+ * </ol>
+ */
+public class JournalShipper implements Closeable {
+    /** Tamanho do cabeçalho de cada quadro */
+    static final int FRAME_HEADER_LENGTH = 8 + 8 + 4;
+    /** Maior quantidade de bytes do journal por quadro */
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    /** Intervalo entre heartbeats quando o journal não cresce */
+    static final long HEARTBEAT_MILLIS = 100;
+
+    private final Path journal;
+    private final ServerSocketChannel serverChannel;
+    private final long pollNanos;
+    private final List<ReplicaLink> replicas = new CopyOnWriteArrayList<>();
+    private final Thread acceptThread;
+    private volatile boolean running;
+
+    /**
+     * Conexão com uma réplica.
+     */
+    private final class ReplicaLink {
+        final SocketChannel channel;
+        final String peer;
+        /** Quadros enviados e ainda não confirmados: {posição final, horário de envio} */
+        final ArrayDeque<long[]> unacknowledged = new ArrayDeque<>();
+        volatile long acknowledgedOffset;
+        volatile long sentOffset;
+
+        ReplicaLink(SocketChannel channel, long startOffset) throws IOException {
+            this.channel = channel;
+            this.peer = String.valueOf(channel.getRemoteAddress());
+            this.acknowledgedOffset = startOffset;
+            this.sentOffset = startOffset;
+        }
+
+        /**
+         * Envia o journal a partir da posição pedida até a conexão ser encerrada.
+         */
+        void ship() {
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_LENGTH);
+            long lastSent = 0;
+            try (FileChannel file = FileChannel.open(journal, StandardOpenOption.READ)) {
+                while (running && channel.isOpen()) {
+                    long end = file.size();
+                    long now = System.currentTimeMillis();
+                    if (end > sentOffset) {
+                        int length = (int) Math.min(end - sentOffset, MAX_FRAME_BYTES);
+                        writeHeader(header, end, now, length);
+                        long position = sentOffset;
+                        long limit = sentOffset + length;
+                        while (position < limit) {
+                            position += file.transferTo(position, limit - position, channel);
+                        }
+                        sentOffset = limit;
+                        synchronized (unacknowledged) {
+                            unacknowledged.addLast(new long[]{limit, now});
+                        }
+                        lastSent = now;
+                    } else if (now - lastSent >= HEARTBEAT_MILLIS) {
+                        writeHeader(header, end, now, 0);
+                        lastSent = now;
+                    } else {
+                        LockSupport.parkNanos(pollNanos);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Replica " + peer + " disconnected: " + e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private void writeHeader(ByteBuffer header, long end, long now, int length) throws IOException {
+            header.clear();
+            header.putLong(end).putLong(now).putInt(length).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+
+        /**
+         * Lê as confirmações da réplica até a conexão ser encerrada.
+         */
+        void readAcknowledgements() {
+            // Lê direto do canal: um InputStream sobre ele seguraria o mesmo lock usado por transferTo
+            ByteBuffer ack = ByteBuffer.allocate(8);
+            try {
+                while (running) {
+                    ack.clear();
+                    while (ack.hasRemaining()) {
+                        if (channel.read(ack) < 0) {
+                            return;
+                        }
+                    }
+                    long offset = ack.getLong(0);
+                    acknowledgedOffset = offset;
+                    synchronized (unacknowledged) {
+                        while (!unacknowledged.isEmpty() && unacknowledged.peekFirst()[0] <= offset) {
+                            unacknowledged.removeFirst();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Conexão encerrada; a thread de envio também termina
+            } finally {
+                close();
+            }
+        }
+
+        ReplicationStatus status(long journalEnd) {
+            long lagMillis = 0;
+            synchronized (unacknowledged) {
+                long[] oldest = unacknowledged.peekFirst();
+                if (oldest != null) {
+                    lagMillis = System.currentTimeMillis() - oldest[1];
+                }
+            }
+            return new ReplicationStatus(peer, journalEnd, acknowledgedOffset, lagMillis);
+        }
+
+        void close() {
+            replicas.remove(this);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Já encerrada
+            }
+        }
+    }
+
+    /**
+     * Construtor para {@code JournalShipper}. Só passa a aceitar réplicas após start().
+     * @param journal O arquivo do journal de transações do primário.
+     * @param address O endereço e a porta de escuta (porta 0 escolhe uma porta livre).
+     * @param pollMillis Intervalo de verificação do crescimento do journal.
+     * @throws IOException Se não for possível abrir a porta.
+     * @throws IllegalStateException Se a rotação do log de transações estiver ativa.
+     */
+    public JournalShipper(Path journal, InetSocketAddress address, long pollMillis) throws IOException {
+        requireUnrotatedJournal();
+        this.journal = journal;
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pollMillis));
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address);
+        this.acceptThread = new Thread(this::acceptReplicas, "journal-shipper-accept");
+        this.acceptThread.setDaemon(true);
+    }
+
+    /**
+     * Verifica se o log de transações é um arquivo único, o que o envio do journal e o
+     * acompanhamento de migrações ({@code JournalFollower}) exigem.
+     * @throws IllegalStateException Se a rotação ("bank.log.segment.*") estiver ativa.
+     */
+    public static void requireUnrotatedJournal() {
+        if (LogRotationPolicy.fromSystemProperties().isEnabled()) {
+            throw new IllegalStateException("Journal shipping follows the live log file only; "
+                    + "disable log rotation (bank.log.segment.bytes / bank.log.segment.age)");
+        }
+    }
+
+    /**
+     * Começa a aceitar réplicas.
+     */
+    public void start() {
+        running = true;
+        acceptThread.start();
+    }
+
+    /**
+     * Retorna a porta em que o primário aceita réplicas.
+     * @return A porta.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Retorna o atraso de cada réplica conectada.
+     * @return Um retrato do lag de cada réplica.
+     */
+    public List<ReplicationStatus> getReplicaStatuses() {
+        long journalEnd = journal.toFile().length();
+        List<ReplicationStatus> statuses = new ArrayList<>();
+        for (ReplicaLink replica : replicas) {
+            statuses.add(replica.status(journalEnd));
+        }
+        return statuses;
+    }
+
+    /**
+     * Para de aceitar réplicas e encerra as conexões existentes.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (ReplicaLink replica : replicas) {
+            replica.close();
+        }
+    }
+
+    private void acceptReplicas() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                ByteBuffer handshake = ByteBuffer.allocate(8);
+                while (handshake.hasRemaining()) {
+                    if (channel.read(handshake) < 0) {
+                        throw new IOException("Replica closed the connection during handshake");
+                    }
+                }
+                long startOffset = handshake.getLong(0);
+                long journalEnd = journal.toFile().length();
+                if (startOffset < 0 || startOffset > journalEnd) {
+                    System.out.println("Rejecting replica " + channel.getRemoteAddress() + ": requested offset "
+                            + startOffset + " beyond journal end " + journalEnd);
+                    channel.close();
+                    continue;
+                }
+
+                ReplicaLink replica = new ReplicaLink(channel, startOffset);
+                replicas.add(replica);
+                System.out.println("Replica connected: " + replica.peer + " from offset " + startOffset);
+                startDaemon(replica::ship, "journal-shipper-" + replica.peer);
+                startDaemon(replica::readAcknowledgements, "journal-acks-" + replica.peer);
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Error accepting replica: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void startDaemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.replication;
+
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionLogger;
+import com.bank.server.BankingHttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+
+/**
+ * Ponto de entrada para executar um nó replicado (primário ou réplica) em um processo próprio.
+ *
+ * <p><b>USO:</b>
+ * <pre>
+ * java -Dbank.log.file=primario.log com.bank.replication.ReplicationNode primary &lt;portaReplicacao&gt; [portaHttp]
+ * java -Dbank.log.file=replica.log  com.bank.replication.ReplicationNode backup &lt;host&gt; &lt;portaReplicacao&gt; [portaHttp]
+ * </pre>
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Primário:</b> Atende a API HTTP e envia o seu journal (o arquivo do
+ *         {@code TransactionLogger}) às réplicas com um {@code JournalShipper}.</li>
+ *     <li><b>Réplica:</b> Reproduz o journal recebido; a cada segundo imprime o lag. Se o primário
+ *         ficar indisponível e "bank.replication.autoPromote" for true (padrão), a réplica se
+ *         promove: passa a atender a API HTTP na porta informada e a enviar o journal na mesma
+ *         porta de replicação (porta 0 no caso de o host original ser esta máquina e a porta
+ *         ainda estar ocupada).</li>
+ * </ol>
+ *
+ * <p>O journal é acompanhado como um arquivo único: o nó não inicia com a rotação do log ativa.
+ */
+public class ReplicationNode {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: ReplicationNode primary <replicationPort> [httpPort]");
+            System.out.println("       ReplicationNode backup <host> <replicationPort> [httpPort]");
+            return;
+        }
+        try {
+            // A réplica também precisa: ao se promover, ela passa a enviar o próprio journal
+            JournalShipper.requireUnrotatedJournal();
+        } catch (IllegalStateException e) {
+            System.out.println("Replication node cannot start: " + e.getMessage());
+            return;
+        }
+        Path journal = TransactionLogger.getInstance().getLogFile();
+        if ("primary".equals(args[0])) {
+            int httpPort = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            startPrimary(new BankingFacade(), journal, Integer.parseInt(args[1]), httpPort);
+        } else if ("backup".equals(args[0]) && args.length > 2) {
+            int httpPort = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+            runBackup(journal, new InetSocketAddress(args[1], Integer.parseInt(args[2])), httpPort);
+        } else {
+            System.out.println("Unknown mode: " + args[0]);
+        }
+    }
+
+    /**
+     * Inicia a API HTTP e o envio do journal para réplicas.
+     */
+    private static void startPrimary(BankingFacade facade, Path journal, int replicationPort, int httpPort) throws IOException {
+        JournalShipper shipper = new JournalShipper(journal, new InetSocketAddress(replicationPort), 1);
+        shipper.start();
+        BankingHttpServer server = new BankingHttpServer(facade, new InetSocketAddress(httpPort),
+                BankingHttpServer.createExecutor(System.getProperty("bank.http.executor", BankingHttpServer.DEFAULT_EXECUTOR),
+                        Integer.getInteger("bank.http.threads", Runtime.getRuntime().availableProcessors() * 4)));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            try {
+                shipper.close();
+            } catch (IOException ignored) {
+                // Encerrando o processo
+            }
+        }));
+        System.out.println("Replication port: " + shipper.getPort());
+        System.out.println("HTTP port: " + server.getPort());
+    }
+
+    /**
+     * Acompanha o primário e, se configurado, assume o seu lugar quando ele cair.
+     */
+    private static void runBackup(Path journal, InetSocketAddress primary, int httpPort) throws Exception {
+        BackupReplica replica = new BackupReplica(new BankingFacade(), journal, primary);
+        replica.start();
+        System.out.println("Replicating from " + primary);
+        while (replica.isPrimaryAlive()) {
+            Thread.sleep(1000);
+            System.out.println("Replication lag: " + replica.getStatus());
+        }
+        System.out.println("Primary unavailable");
+        if (!Boolean.parseBoolean(System.getProperty("bank.replication.autoPromote", "true"))) {
+            replica.close();
+            return;
+        }
+
+        BankingFacade facade = replica.promote();
+        try {
+            startPrimary(facade, journal, primary.getPort(), httpPort);
+        } catch (IOException e) {
+            // A porta original ainda está ocupada nesta máquina
+            startPrimary(facade, journal, 0, httpPort);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bank.replication;
+
+/**
+ * Retrato imutável do atraso (lag) de replicação entre o primário e uma réplica.
+ *
+ * <p>Os offsets são posições em bytes no journal de transações. O atraso em bytes é a
+ * diferença entre o fim do journal do primário e o que a réplica já aplicou; o atraso em
+ * milissegundos é há quanto tempo a réplica está atrás (0 quando está em dia).
+ */
+public final class ReplicationStatus {
+    private final String peer;
+    private final long primaryOffset;
+    private final long appliedOffset;
+    private final long lagMillis;
+
+    /**
+     * Construtor para {@code ReplicationStatus}.
+     * @param peer Identificação da outra ponta (endereço da réplica ou do primário).
+     * @param primaryOffset Fim conhecido do journal do primário.
+     * @param appliedOffset Posição do journal já aplicada pela réplica.
+     * @param lagMillis Há quanto tempo a réplica está atrás do primário.
+     */
+    public ReplicationStatus(String peer, long primaryOffset, long appliedOffset, long lagMillis) {
+        this.peer = peer;
+        this.primaryOffset = primaryOffset;
+        this.appliedOffset = appliedOffset;
+        this.lagMillis = lagMillis;
+    }
+
+    public String getPeer() { return peer; }
+    public long getPrimaryOffset() { return primaryOffset; }
+    public long getAppliedOffset() { return appliedOffset; }
+    public long getLagMillis() { return lagMillis; }
+
+    /**
+     * Retorna quantos bytes do journal a réplica ainda não aplicou.
+     * @return O atraso em bytes (nunca negativo).
+     */
+    public long getLagBytes() {
+        return Math.max(0, primaryOffset - appliedOffset);
+    }
+
+    @Override
+    public String toString() {
+        return peer + ": applied " + appliedOffset + "/" + primaryOffset
+                + " (lag " + getLagBytes() + " bytes, " + lagMillis + " ms)";
+    }
+}
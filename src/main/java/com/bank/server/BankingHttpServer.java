@@ -0,0 +1,884 @@
+package com.bank.server;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionFilter;
+import com.bank.logger.TransactionRecord;
+import com.bank.readmodel.AccountTypeTotal;
+import com.bank.readmodel.CustomerBalance;
+import com.bank.readmodel.OverdraftExposure;
+import com.bank.readmodel.ReadModelProjector;
+import com.bank.registry.BalanceEntry;
+import com.bank.registry.CustomerMatch;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe {@code BankingHttpServer} expõe a {@code BankingFacade} como uma API HTTP/JSON,
+ * permitindo executar o sistema bancário sem interface gráfica (modo servidor).
+ * Utiliza apenas o servidor HTTP embutido no JDK ({@code com.sun.net.httpserver}).
+ *
+ * <p>Atua como um **Adapter** entre o protocolo HTTP e a Facade: cada rota converte a
+ * requisição em uma chamada de alto nível da Facade e o resultado em JSON.
+ *
+ * <p><b>ROTAS:</b>
+ * <ul>
+ *     <li>{@code POST /accounts} — cria uma conta: {"type","customerName","initialBalance","parameter"}</li>
+ *     <li>{@code GET /accounts/{numero}} — dados e saldo da conta</li>
+ *     <li>{@code GET /accounts/{numero}/balance} — saldo da conta; com {@code ?at=} (data ou data e
+ *         hora ISO), o saldo naquele instante, conforme o log de transações</li>
+ *     <li>{@code GET /accounts/{numero}/transactions?limit=} — últimas transações da conta (20 por padrão)</li>
+ *     <li>{@code POST /accounts/{numero}/deposit} e {@code /withdraw} — {"amount"}</li>
+ *     <li>{@code POST /transfers} — {"from","to","amount"}</li>
+ *     <li>{@code GET /history?page=&size=&account=&type=&from=&to=} — histórico paginado</li>
+ *     <li>{@code GET /reports/customers?name=&top=} — saldos por cliente (um cliente, os maiores ou todos)</li>
+ *     <li>{@code GET /reports/account-types} — quantidade e saldo total por tipo de conta</li>
+ *     <li>{@code GET /reports/overdraft} — exposição ao cheque especial das contas correntes</li>
+ *     <li>{@code GET /reports/balances?top=} ou {@code ?below=&limit=} ou {@code ?min=&max=&limit=} —
+ *         contas pelo saldo (maiores saldos, abaixo de um limite ou em uma faixa)</li>
+ *     <li>{@code GET /customers/search?q=&mode=&limit=&distance=} — titulares por nome exato
+ *         ("exact"), prefixo ("prefix", o padrão) ou aproximado ("fuzzy")</li>
+ * </ul>
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Execução:</b> As requisições são atendidas pelo executor informado. O padrão é um
+ *         pool fixo de threads; virtual threads podem ser pedidas, quando o JVM as oferece.</li>
+ *     <li><b>Latência:</b> Habilita TCP_NODELAY no servidor do JDK (propriedade
+ *         "sun.net.httpserver.nodelay"), salvo se já configurada.</li>
+ *     <li><b>Alocação:</b> Cada thread reaproveita o buffer de leitura do corpo e o
+ *         {@code StringBuilder} da resposta; respostas ASCII são codificadas diretamente em um
+ *         buffer de bytes reaproveitado. O reaproveitamento depende de threads que atendem
+ *         muitas requisições, como as do pool fixo; cada virtual thread atende uma só e cria os
+ *         seus.</li>
+ *     <li><b>Histórico:</b> As visões paginadas ({@code PagedTransactionLog}) são mantidas em um
+ *         pequeno cache por filtro e apenas reindexadas de forma incremental a cada requisição.</li>
+ *     <li><b>Relatórios:</b> As rotas /reports leem os modelos de leitura do
+ *         {@code ReadModelProjector}, mantidos a partir dos eventos das contas, e o índice de
+ *         saldos do registro ({@code BalanceIndex}); não percorrem as contas nem disputam os
+ *         seus locks com as operações.</li>
+ *     <li><b>Busca de titulares:</b> /customers/search usa o índice de nomes do registro de
+ *         contas ({@code CustomerIndex}), sem percorrer as contas. O limite de
+ *         resultados e a distância da busca aproximada são limitados, para que uma consulta não
+ *         segure o lock de leitura do índice percorrendo a trie inteira.</li>
+ *     <li><b>Erros:</b> Corpo inválido resulta em 400, conta inexistente em 404, método não
+ *         suportado em 405, corpo maior que 64 KB em 413 e operação recusada pelas regras de
+ *         negócio em 422.</li>
+ * </ol>
+ */
+public class BankingHttpServer {
+    /** Porta padrão do servidor */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** Executor padrão: o pool fixo, cujas threads reaproveitam os buffers por thread abaixo */
+    public static final String DEFAULT_EXECUTOR = "fixed";
+
+    /** Número máximo de registros por página do histórico */
+    static final int MAX_HISTORY_PAGE_SIZE = 1000;
+
+    /** Número máximo de linhas de um relatório com {@code top=} */
+    static final int MAX_REPORT_ROWS = 1000;
+
+    /** Número máximo de titulares devolvidos por /customers/search */
+    static final int MAX_SEARCH_RESULTS = 100;
+
+    /** Maior distância aceita na busca aproximada: acima disso a busca visitaria quase toda a trie */
+    static final int MAX_FUZZY_DISTANCE = 3;
+
+    /** Tamanho máximo do corpo de uma requisição; acima disso a resposta é 413 */
+    static final int MAX_REQUEST_BODY = 64 * 1024;
+
+    /** Número de visões filtradas do histórico mantidas em cache */
+    private static final int CACHED_HISTORY_VIEWS = 16;
+
+    /** Buffer reaproveitado por thread para a leitura do corpo das requisições */
+    private static final ThreadLocal<byte[]> REQUEST_BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+    /** StringBuilder reaproveitado por thread para montar as respostas */
+    private static final ThreadLocal<StringBuilder> RESPONSE_BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+    /** Buffer reaproveitado por thread para codificar as respostas */
+    private static final ThreadLocal<byte[]> RESPONSE_BUFFER = ThreadLocal.withInitial(() -> new byte[512]);
+
+    static {
+        // O servidor do JDK escreve cabeçalhos e corpo da resposta separadamente; sem TCP_NODELAY,
+        // o algoritmo de Nagle somado ao ACK atrasado do cliente adiciona ~40 ms a cada resposta
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final BankingFacade bankingFacade;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, PagedTransactionLog> historyViews;
+    private final ReadModelProjector readModels;
+
+    /**
+     * Exceção interna que carrega o status HTTP a ser devolvido ao cliente.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Rota HTTP que pode lançar exceções de E/S.
+     */
+    private interface Route {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Construtor para {@code BankingHttpServer}. O servidor só passa a aceitar conexões após start().
+     * @param bankingFacade A Facade a ser exposta.
+     * @param address O endereço e a porta de escuta (porta 0 escolhe uma porta livre).
+     * @param executor O executor que atenderá as requisições; é encerrado em stop().
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public BankingHttpServer(BankingFacade bankingFacade, InetSocketAddress address, ExecutorService executor) throws IOException {
+        this.bankingFacade = bankingFacade;
+        this.executor = executor;
+        this.historyViews = new LinkedHashMap<String, PagedTransactionLog>(CACHED_HISTORY_VIEWS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PagedTransactionLog> eldest) {
+                return size() > CACHED_HISTORY_VIEWS;
+            }
+        };
+        this.readModels = new ReadModelProjector(bankingFacade);
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/accounts", exchange -> dispatch(exchange, this::handleAccounts));
+        this.server.createContext("/transfers", exchange -> dispatch(exchange, this::handleTransfers));
+        this.server.createContext("/history", exchange -> dispatch(exchange, this::handleHistory));
+        this.server.createContext("/reports", exchange -> dispatch(exchange, this::handleReports));
+        this.server.createContext("/customers", exchange -> dispatch(exchange, this::handleCustomers));
+    }
+
+    /**
+     * Cria o executor das requisições.
+     * <p><b>LÓGICA:</b> No modo "virtual", usa {@code Executors.newVirtualThreadPerTaskExecutor()}
+     * via reflexão, pois o projeto é compilado para Java 11; se o JVM não oferecer virtual
+     * threads, usa um pool fixo. Qualquer outro modo usa diretamente o pool fixo.
+     *
+     * @param mode "virtual" ou "fixed".
+     * @param threads Número de threads do pool fixo.
+     * @return O executor criado.
+     */
+    public static ExecutorService createExecutor(String mode, int threads) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads not available on this JVM, using a fixed pool of " + threads + " threads");
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "banking-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inicia o servidor.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Para o servidor e encerra o executor.
+     * @param delaySeconds Tempo máximo de espera pelas requisições em andamento.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        readModels.close();
+    }
+
+    /**
+     * Retorna a porta em que o servidor está escutando.
+     * @return A porta.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Executa uma rota convertendo exceções em respostas de erro JSON.
+     */
+    private void dispatch(HttpExchange exchange, Route route) throws IOException {
+        try {
+            route.handle(exchange);
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // --- Rotas ---
+
+    /**
+     * Trata {@code /accounts}, {@code /accounts/{numero}} e suas sub-rotas.
+     */
+    private void handleAccounts(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        // O contexto do JDK casa por prefixo: "/accountsX" também chegaria aqui
+        if (!path.equals("/accounts") && !path.startsWith("/accounts/")) {
+            throw new ApiException(404, "Unknown route: " + path);
+        }
+        String rest = path.length() > "/accounts".length() ? path.substring("/accounts".length() + 1) : "";
+        if (rest.isEmpty()) {
+            requireMethod(exchange, "POST");
+            handleCreateAccount(exchange);
+            return;
+        }
+
+        int slash = rest.indexOf('/');
+        String accountNumber = slash < 0 ? rest : rest.substring(0, slash);
+        String action = slash < 0 ? "" : rest.substring(slash + 1);
+        Account account = bankingFacade.getAccount(accountNumber);
+        if (account == null) {
+            throw new ApiException(404, "Account not found: " + accountNumber);
+        }
+
+        switch (action) {
+            case "":
+                requireMethod(exchange, "GET");
+                sendAccount(exchange, 200, account);
+                break;
+            case "balance": {
+                requireMethod(exchange, "GET");
+                LocalDateTime at = parseDateTime(parseQuery(exchange.getRequestURI().getRawQuery()).get("at"));
+                if (at == null) {
+                    sendBalance(exchange, accountNumber);
+                    break;
+                }
+                if (bankingFacade.getEventStore() != null) {
+                    throw new ApiException(409, "Point-in-time balances are not available in event-sourced mode");
+                }
+                StringBuilder out = responseBuilder();
+                out.append('{');
+                Json.appendFieldName(out, "accountNumber");
+                Json.appendString(out, accountNumber);
+                Json.appendFieldName(out, "at");
+                Json.appendString(out, at.toString());
+                Json.appendFieldName(out, "balance");
+                Json.appendNumber(out, bankingFacade.getBalanceAt(accountNumber, at));
+                out.append('}');
+                send(exchange, 200, out);
+                break;
+            }
+            case "transactions":
+                requireMethod(exchange, "GET");
+                sendRecentTransactions(exchange, accountNumber);
+                break;
+            case "deposit":
+                requireMethod(exchange, "POST");
+                if (!bankingFacade.deposit(accountNumber, requireAmount(readBody(exchange)))) {
+                    throw new ApiException(422, "Deposit rejected");
+                }
+                sendBalance(exchange, accountNumber);
+                break;
+            case "withdraw":
+                requireMethod(exchange, "POST");
+                if (!bankingFacade.withdraw(accountNumber, requireAmount(readBody(exchange)))) {
+                    throw new ApiException(422, "Insufficient funds or withdrawal not supported");
+                }
+                sendBalance(exchange, accountNumber);
+                break;
+            default:
+                throw new ApiException(404, "Unknown route: " + path);
+        }
+    }
+
+    /**
+     * Trata {@code POST /accounts}.
+     */
+    private void handleCreateAccount(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readBody(exchange);
+        AccountType type;
+        try {
+            type = AccountType.valueOf(require(body, "type").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid account type: " + body.get("type"));
+        }
+        String customerName = require(body, "customerName").trim();
+        if (customerName.isEmpty()) {
+            throw new IllegalArgumentException("customerName must not be empty");
+        }
+        double initialBalance = parseNumber(require(body, "initialBalance"), "initialBalance");
+        if (initialBalance < 0) {
+            throw new IllegalArgumentException("initialBalance must not be negative");
+        }
+        String parameterText = body.get("parameter");
+        double parameter = parameterText != null ? parseNumber(parameterText, "parameter") : 0.0;
+
+        String accountNumber = bankingFacade.createAccount(type, customerName, initialBalance, parameter);
+        sendAccount(exchange, 201, bankingFacade.getAccount(accountNumber));
+    }
+
+    /**
+     * Trata {@code POST /transfers}.
+     */
+    private void handleTransfers(HttpExchange exchange) throws IOException {
+        requireExactPath(exchange, "/transfers");
+        requireMethod(exchange, "POST");
+        Map<String, String> body = readBody(exchange);
+        String from = require(body, "from");
+        String to = require(body, "to");
+        double amount = requireAmount(body);
+        if (!bankingFacade.accountExists(from)) {
+            throw new ApiException(404, "Account not found: " + from);
+        }
+        if (!bankingFacade.accountExists(to)) {
+            throw new ApiException(404, "Account not found: " + to);
+        }
+        if (!bankingFacade.transfer(from, to, amount)) {
+            throw new ApiException(422, "Transfer rejected");
+        }
+
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "from");
+        Json.appendString(out, from);
+        Json.appendFieldName(out, "fromBalance");
+        Json.appendNumber(out, bankingFacade.getBalance(from));
+        Json.appendFieldName(out, "to");
+        Json.appendString(out, to);
+        Json.appendFieldName(out, "toBalance");
+        Json.appendNumber(out, bankingFacade.getBalance(to));
+        out.append('}');
+        send(exchange, 200, out);
+    }
+
+    /**
+     * Trata {@code GET /history}.
+     * <p><b>LÓGICA:</b> Obtém (ou cria) a visão paginada para o filtro pedido, indexa apenas as
+     * linhas novas do log e devolve os registros do intervalo [page*size, page*size + size).
+     */
+    private void handleHistory(HttpExchange exchange) throws IOException {
+        requireExactPath(exchange, "/history");
+        requireMethod(exchange, "GET");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int page = query.containsKey("page") ? (int) parseNumber(query.get("page"), "page") : 0;
+        int size = query.containsKey("size") ? (int) parseNumber(query.get("size"), "size") : 100;
+        if (page < 0 || size <= 0 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        TransactionFilter filter = new TransactionFilter(query.get("account"), query.get("type"),
+                parseDateTime(query.get("from")), parseDateTime(query.get("to")));
+
+        PagedTransactionLog history = historyView(filter);
+        history.refresh();
+        int total = history.size();
+        int start = (int) Math.min((long) page * size, total);
+        int end = Math.min(start + size, total);
+
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "page");
+        out.append(page);
+        Json.appendFieldName(out, "size");
+        out.append(size);
+        Json.appendFieldName(out, "total");
+        out.append(total);
+        Json.appendFieldName(out, "records");
+        out.append('[');
+        for (int i = start; i < end; i++) {
+            TransactionRecord record = history.get(i);
+            if (record == null) {
+                continue;
+            }
+            if (out.charAt(out.length() - 1) != '[') {
+                out.append(',');
+            }
+            appendRecord(out, record);
+        }
+        out.append("]}");
+        send(exchange, 200, out);
+    }
+
+    /**
+     * Responde {@code GET /accounts/{numero}/transactions}: as últimas transações da conta.
+     */
+    private void sendRecentTransactions(HttpExchange exchange, String accountNumber) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int limit = query.containsKey("limit") ? (int) parseNumber(query.get("limit"), "limit") : 20;
+        if (limit <= 0 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "accountNumber");
+        Json.appendString(out, accountNumber);
+        Json.appendFieldName(out, "records");
+        out.append('[');
+        for (TransactionRecord record : bankingFacade.getRecentTransactions(accountNumber, limit)) {
+            if (out.charAt(out.length() - 1) != '[') {
+                out.append(',');
+            }
+            appendRecord(out, record);
+        }
+        out.append("]}");
+        send(exchange, 200, out);
+    }
+
+    private static void appendRecord(StringBuilder out, TransactionRecord record) {
+        out.append('{');
+        Json.appendFieldName(out, "timestamp");
+        Json.appendString(out, record.getTimestamp().toString());
+        Json.appendFieldName(out, "type");
+        Json.appendString(out, record.getType());
+        Json.appendFieldName(out, "accountNumber");
+        Json.appendString(out, record.getAccountNumber());
+        if (record.getEvent() != null) {
+            Json.appendFieldName(out, "event");
+            Json.appendString(out, record.getEvent());
+        }
+        Json.appendFieldName(out, "amount");
+        Json.appendNumber(out, record.getAmount());
+        Json.appendFieldName(out, "newBalance");
+        Json.appendNumber(out, record.getNewBalance());
+        out.append('}');
+    }
+
+    /**
+     * Trata {@code GET /customers/search} pelo índice de titulares.
+     */
+    private void handleCustomers(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals("/customers/search")) {
+            throw new ApiException(404, "Unknown route: " + path);
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String term = require(query, "q");
+        int limit = query.containsKey("limit") ? (int) parseNumber(query.get("limit"), "limit") : 20;
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        List<CustomerMatch> matches;
+        switch (query.getOrDefault("mode", "prefix")) {
+            case "exact":
+                // Distância 0: percorre apenas o caminho do nome na trie
+                matches = bankingFacade.searchCustomersFuzzy(term, 0, 1);
+                break;
+            case "prefix":
+                matches = bankingFacade.searchCustomers(term, limit);
+                break;
+            case "fuzzy": {
+                int distance = query.containsKey("distance") ? (int) parseNumber(query.get("distance"), "distance") : 2;
+                if (distance < 0 || distance > MAX_FUZZY_DISTANCE) {
+                    throw new IllegalArgumentException("distance must be between 0 and " + MAX_FUZZY_DISTANCE);
+                }
+                matches = bankingFacade.searchCustomersFuzzy(term, distance, limit);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Invalid mode: " + query.get("mode"));
+        }
+
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "customers");
+        out.append('[');
+        for (CustomerMatch match : matches) {
+            if (out.charAt(out.length() - 1) != '[') {
+                out.append(',');
+            }
+            out.append('{');
+            Json.appendFieldName(out, "customerName");
+            Json.appendString(out, match.getCustomerName());
+            Json.appendFieldName(out, "distance");
+            out.append(match.getDistance());
+            Json.appendFieldName(out, "accounts");
+            out.append('[');
+            for (int i = 0; i < match.getAccountNumbers().size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                Json.appendString(out, match.getAccountNumbers().get(i));
+            }
+            out.append("]}");
+        }
+        out.append("]}");
+        send(exchange, 200, out);
+    }
+
+    /**
+     * Trata {@code GET /reports/...} a partir dos modelos de leitura.
+     */
+    private void handleReports(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        String path = exchange.getRequestURI().getPath();
+        StringBuilder out = responseBuilder();
+        switch (path) {
+            case "/reports/customers": {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                List<CustomerBalance> customers;
+                if (query.containsKey("name")) {
+                    CustomerBalance customer = readModels.getCustomerBalance(query.get("name"));
+                    if (customer == null) {
+                        throw new ApiException(404, "Customer not found: " + query.get("name"));
+                    }
+                    customers = Collections.singletonList(customer);
+                } else if (query.containsKey("top")) {
+                    double top = parseNumber(query.get("top"), "top");
+                    if (top < 1 || top > MAX_REPORT_ROWS) {
+                        throw new IllegalArgumentException("top must be between 1 and " + MAX_REPORT_ROWS);
+                    }
+                    customers = readModels.getTopCustomers((int) top);
+                } else {
+                    customers = readModels.getCustomerBalances();
+                }
+                out.append('{');
+                Json.appendFieldName(out, "customers");
+                out.append('[');
+                for (CustomerBalance customer : customers) {
+                    if (out.charAt(out.length() - 1) != '[') {
+                        out.append(',');
+                    }
+                    out.append('{');
+                    Json.appendFieldName(out, "customerName");
+                    Json.appendString(out, customer.getCustomerName());
+                    Json.appendFieldName(out, "accounts");
+                    out.append(customer.getAccountCount());
+                    Json.appendFieldName(out, "totalBalance");
+                    Json.appendNumber(out, customer.getTotalBalance());
+                    out.append('}');
+                }
+                out.append("]}");
+                break;
+            }
+            case "/reports/account-types":
+                out.append('{');
+                Json.appendFieldName(out, "accountTypes");
+                out.append('[');
+                for (AccountTypeTotal total : readModels.getAccountTypeTotals().values()) {
+                    if (out.charAt(out.length() - 1) != '[') {
+                        out.append(',');
+                    }
+                    out.append('{');
+                    Json.appendFieldName(out, "type");
+                    Json.appendString(out, total.getType().name());
+                    Json.appendFieldName(out, "accounts");
+                    out.append(total.getAccountCount());
+                    Json.appendFieldName(out, "totalBalance");
+                    Json.appendNumber(out, total.getTotalBalance());
+                    out.append('}');
+                }
+                out.append("]}");
+                break;
+            case "/reports/balances": {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                int limit = query.containsKey("limit") ? (int) parseNumber(query.get("limit"), "limit") : 100;
+                List<BalanceEntry> entries;
+                if (query.containsKey("top")) {
+                    entries = bankingFacade.getTopBalances((int) parseNumber(query.get("top"), "top"));
+                } else if (query.containsKey("below")) {
+                    entries = bankingFacade.getAccountsBelow(parseNumber(query.get("below"), "below"), limit);
+                } else {
+                    entries = bankingFacade.getAccountsInBalanceRange(parseNumber(require(query, "min"), "min"),
+                            parseNumber(require(query, "max"), "max"), limit);
+                }
+                out.append('{');
+                Json.appendFieldName(out, "accounts");
+                out.append('[');
+                for (BalanceEntry entry : entries) {
+                    if (out.charAt(out.length() - 1) != '[') {
+                        out.append(',');
+                    }
+                    out.append('{');
+                    Json.appendFieldName(out, "accountNumber");
+                    Json.appendString(out, entry.getAccountNumber());
+                    Json.appendFieldName(out, "customerName");
+                    Json.appendString(out, entry.getAccount().getCustomerName());
+                    Json.appendFieldName(out, "balance");
+                    Json.appendNumber(out, entry.getBalance());
+                    out.append('}');
+                }
+                out.append("]}");
+                break;
+            }
+            case "/reports/overdraft": {
+                OverdraftExposure exposure = readModels.getOverdraftExposure();
+                out.append('{');
+                Json.appendFieldName(out, "checkingAccounts");
+                out.append(exposure.getCheckingAccounts());
+                Json.appendFieldName(out, "overdrawnAccounts");
+                out.append(exposure.getOverdrawnAccounts());
+                Json.appendFieldName(out, "totalExposure");
+                Json.appendNumber(out, exposure.getTotalExposure());
+                Json.appendFieldName(out, "totalLimit");
+                Json.appendNumber(out, exposure.getTotalLimit());
+                Json.appendFieldName(out, "utilization");
+                Json.appendNumber(out, exposure.getUtilization());
+                out.append('}');
+                break;
+            }
+            default:
+                throw new ApiException(404, "Unknown route: " + path);
+        }
+        send(exchange, 200, out);
+    }
+
+    /**
+     * Retorna a visão paginada em cache para o filtro, criando-a se necessário.
+     */
+    private PagedTransactionLog historyView(TransactionFilter filter) {
+        String key = filter.getAccountNumber() + "|" + filter.getType() + "|" + filter.getFrom() + "|" + filter.getTo();
+        synchronized (historyViews) {
+            return historyViews.computeIfAbsent(key, k -> bankingFacade.openTransactionHistory(filter));
+        }
+    }
+
+    // --- Respostas ---
+
+    private void sendAccount(HttpExchange exchange, int status, Account account) throws IOException {
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "accountNumber");
+        Json.appendString(out, account.getAccountNumber());
+        Json.appendFieldName(out, "customerName");
+        Json.appendString(out, account.getCustomerName());
+        Json.appendFieldName(out, "accountType");
+        Json.appendString(out, account.getAccountType());
+        Json.appendFieldName(out, "balance");
+        Json.appendNumber(out, account.getBalance());
+        out.append('}');
+        send(exchange, status, out);
+    }
+
+    private void sendBalance(HttpExchange exchange, String accountNumber) throws IOException {
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "accountNumber");
+        Json.appendString(out, accountNumber);
+        Json.appendFieldName(out, "balance");
+        Json.appendNumber(out, bankingFacade.getBalance(accountNumber));
+        out.append('}');
+        send(exchange, 200, out);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder out = responseBuilder();
+        out.append('{');
+        Json.appendFieldName(out, "error");
+        Json.appendString(out, message);
+        out.append('}');
+        send(exchange, status, out);
+    }
+
+    /**
+     * Retorna o StringBuilder da thread atual, vazio.
+     */
+    private static StringBuilder responseBuilder() {
+        StringBuilder out = RESPONSE_BUILDER.get();
+        out.setLength(0);
+        return out;
+    }
+
+    /**
+     * Envia a resposta JSON.
+     * <p><b>LÓGICA:</b> Respostas somente ASCII (o caso comum) são copiadas byte a byte para o
+     * buffer reaproveitado da thread; se houver algum caractere não ASCII, usa a codificação
+     * UTF-8 padrão.
+     */
+    private static void send(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+        int length = json.length();
+        byte[] bytes = RESPONSE_BUFFER.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            RESPONSE_BUFFER.set(bytes);
+        }
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            char c = json.charAt(i);
+            if (c >= 0x80) {
+                ascii = false;
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        if (!ascii) {
+            bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+            length = bytes.length;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes, 0, length);
+        }
+    }
+
+    // --- Leitura das requisições ---
+
+    private static void requireExactPath(HttpExchange exchange, String route) {
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals(route)) {
+            throw new ApiException(404, "Unknown route: " + path);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new ApiException(405, "Method not allowed: " + exchange.getRequestMethod());
+        }
+    }
+
+    /**
+     * Lê o corpo da requisição no buffer da thread e o interpreta como objeto JSON.
+     * <p><b>LÓGICA:</b> Corpos maiores que {@link #MAX_REQUEST_BODY} são recusados com 413, pelo
+     * Content-Length declarado ou ao passar do limite durante a leitura. Um corpo maior que o
+     * buffer da thread é lido em uma cópia local: o buffer guardado na thread não cresce, para
+     * que uma requisição grande não deixe memória presa em cada thread do pool.
+     */
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > MAX_REQUEST_BODY) {
+                    throw new ApiException(413, "Request body exceeds " + MAX_REQUEST_BODY + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Content-Length: " + declared);
+            }
+        }
+        byte[] buffer = REQUEST_BUFFER.get();
+        int length = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+                if (length > MAX_REQUEST_BODY) {
+                    throw new ApiException(413, "Request body exceeds " + MAX_REQUEST_BODY + " bytes");
+                }
+                if (length == buffer.length) {
+                    // Um byte além do limite basta para detectar um corpo grande demais
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_REQUEST_BODY + 1));
+                }
+            }
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("Request body is required");
+        }
+        return Json.parseObject(new String(buffer, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private static String require(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value;
+    }
+
+    private static double requireAmount(Map<String, String> body) {
+        double amount = parseNumber(require(body, "amount"), "amount");
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("amount must be a positive number");
+        }
+        return amount;
+    }
+
+    private static double parseNumber(String value, String field) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + field + ": " + value);
+        }
+    }
+
+    /**
+     * Aceita uma data ISO (YYYY-MM-DD, início do dia) ou data e hora ISO (YYYY-MM-DDTHH:mm:ss).
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        int start = 0;
+        while (start <= rawQuery.length()) {
+            int end = rawQuery.indexOf('&', start);
+            if (end < 0) {
+                end = rawQuery.length();
+            }
+            int equals = rawQuery.indexOf('=', start);
+            if (equals > start && equals < end) {
+                query.put(URLDecoder.decode(rawQuery.substring(start, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(rawQuery.substring(equals + 1, end), StandardCharsets.UTF_8));
+            }
+            start = end + 1;
+        }
+        return query;
+    }
+
+    /**
+     * Inicia o sistema bancário em modo servidor (sem interface gráfica).
+     * <p>Configuração: porta em {@code args[0]} ou na propriedade "bank.http.port" (padrão 8080);
+     * executor na propriedade "bank.http.executor" ("fixed" ou "virtual", padrão "fixed");
+     * tamanho do pool fixo em "bank.http.threads" (padrão: 4 por processador).
+     *
+     * @param args Argumentos da linha de comando: [porta].
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("bank.http.port", DEFAULT_PORT);
+        String mode = System.getProperty("bank.http.executor", DEFAULT_EXECUTOR);
+        int threads = Integer.getInteger("bank.http.threads", Runtime.getRuntime().availableProcessors() * 4);
+
+        BankingHttpServer server = new BankingHttpServer(new BankingFacade(), new InetSocketAddress(port), createExecutor(mode, threads));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        System.out.println("Banking HTTP API listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,311 @@
+package com.bank.server;
+
+import com.bank.account.AccountType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cliente do protocolo binário de comandos ({@code CommandProtocol}).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Envio:</b> deposit(), withdraw(), transfer() e as demais operações codificam a requisição em um buffer e
+ *         retornam imediatamente um {@code CompletableFuture}. Com autoFlush desativado, as
+ *         requisições se acumulam no buffer e seguem juntas em flush() (ou quando o buffer
+ *         enche), permitindo enviar muitos comandos por escrita.</li>
+ *     <li><b>Recebimento:</b> Uma thread leitora decodifica as respostas, que podem chegar fora de
+ *         ordem, e completa o futuro de mesmo correlationId.</li>
+ *     <li><b>Falhas:</b> Se a conexão cair, todos os futuros pendentes são completados com a exceção.</li>
+ * </ol>
+ *
+ * <p>Os métodos de envio podem ser chamados por várias threads.
+ */
+public class CommandClient implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<Long, CompletableFuture<CommandResult>> pending = new ConcurrentHashMap<>();
+    private final Thread reader;
+    private long nextCorrelationId;
+    private boolean autoFlush = true;
+    private volatile IOException failure;
+
+    /**
+     * Conecta ao servidor de comandos.
+     * @param host O endereço do servidor.
+     * @param port A porta do servidor.
+     * @throws IOException Se a conexão falhar.
+     */
+    public CommandClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.out = socket.getOutputStream();
+        this.reader = new Thread(this::readResponses, "banking-command-client");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Define se cada requisição é enviada imediatamente (padrão) ou acumulada até flush().
+     * @param autoFlush true para enviar cada requisição imediatamente.
+     */
+    public synchronized void setAutoFlush(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+    }
+
+    /**
+     * Envia um depósito.
+     * @param accountNumber A conta de destino.
+     * @param amount O valor.
+     * @return O futuro do resultado.
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized CompletableFuture<CommandResult> deposit(String accountNumber, double amount) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(accountNumber));
+        CommandProtocol.writeAccountRequest(sendBuffer, CommandProtocol.OP_DEPOSIT, nextCorrelationId, accountNumber, amount);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia um saque.
+     * @param accountNumber A conta de origem.
+     * @param amount O valor.
+     * @return O futuro do resultado.
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized CompletableFuture<CommandResult> withdraw(String accountNumber, double amount) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(accountNumber));
+        CommandProtocol.writeAccountRequest(sendBuffer, CommandProtocol.OP_WITHDRAW, nextCorrelationId, accountNumber, amount);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia uma transferência.
+     * @param fromAccountNumber A conta de origem.
+     * @param toAccountNumber A conta de destino.
+     * @param amount O valor.
+     * @return O futuro do resultado; o saldo informado é o da conta de origem.
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized CompletableFuture<CommandResult> transfer(String fromAccountNumber, String toAccountNumber, double amount) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(fromAccountNumber, toAccountNumber));
+        CommandProtocol.writeTransferRequest(sendBuffer, nextCorrelationId, fromAccountNumber, toAccountNumber, amount);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia a criação de uma conta com número escolhido pelo cliente.
+     * @param accountNumber O número da nova conta.
+     * @param type O tipo de conta.
+     * @param customerName O titular.
+     * @param initialBalance O saldo inicial.
+     * @param parameter O limite de cheque especial ou a taxa de juros.
+     * @return O futuro do resultado; REJECTED se o número já existir.
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized CompletableFuture<CommandResult> create(String accountNumber, AccountType type, String customerName,
+                                                                double initialBalance, double parameter) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(accountNumber, customerName));
+        CommandProtocol.writeCreateRequest(sendBuffer, nextCorrelationId, accountNumber, (byte) type.ordinal(),
+                customerName, initialBalance, parameter);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia a reserva de uma transferência entre nós (fase 1 do two-phase commit).
+     * @param transferId O identificador da transferência.
+     * @param accountNumber A conta local do nó.
+     * @param amount O valor com sinal: negativo para debitar, positivo para creditar.
+     * @return O futuro do resultado; OK significa voto "sim".
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized CompletableFuture<CommandResult> reserve(String transferId, String accountNumber, double amount) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(transferId, accountNumber));
+        CommandProtocol.writeReserveRequest(sendBuffer, nextCorrelationId, transferId, accountNumber, amount);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia a confirmação de uma transferência entre nós (fase 2 do two-phase commit).
+     * @param transferId O identificador da transferência.
+     * @return O futuro do resultado; NOT_FOUND se o nó não conhece a transferência.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> commit(String transferId) throws IOException {
+        return sendText(CommandProtocol.OP_COMMIT, transferId);
+    }
+
+    /**
+     * Envia o cancelamento de uma transferência entre nós (fase 2 do two-phase commit).
+     * @param transferId O identificador da transferência.
+     * @return O futuro do resultado.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> abort(String transferId) throws IOException {
+        return sendText(CommandProtocol.OP_ABORT, transferId);
+    }
+
+    /**
+     * Consulta o saldo de uma conta.
+     * @param accountNumber A conta.
+     * @return O futuro do resultado, com o saldo; NOT_FOUND se a conta não existir.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> balance(String accountNumber) throws IOException {
+        return sendText(CommandProtocol.OP_BALANCE, accountNumber);
+    }
+
+    /**
+     * Lista os números de conta do nó, em ordem, a partir de um cursor.
+     * @param cursor O último número da página anterior, ou "" para começar.
+     * @return O futuro do resultado; o detalhe traz os números separados por '\n' (vazio no fim).
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> scan(String cursor) throws IOException {
+        return sendText(CommandProtocol.OP_SCAN, cursor);
+    }
+
+    /**
+     * Lê o estado completo de uma conta, para copiá-la para outro nó.
+     * @param accountNumber A conta.
+     * @return O futuro do resultado, com o saldo e o detalhe "tipo\tparâmetro\toffset\ttitular".
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> export(String accountNumber) throws IOException {
+        return sendText(CommandProtocol.OP_EXPORT, accountNumber);
+    }
+
+    /**
+     * Remove uma conta do nó (ex: depois de movida para outro nó).
+     * @param accountNumber A conta.
+     * @return O futuro do resultado; NOT_FOUND se a conta não existir.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> drop(String accountNumber) throws IOException {
+        return sendText(CommandProtocol.OP_DROP, accountNumber);
+    }
+
+    private synchronized CompletableFuture<CommandResult> sendText(byte op, String text) throws IOException {
+        CompletableFuture<CommandResult> result = register(CommandProtocol.maxRequestSize(text));
+        CommandProtocol.writeTextRequest(sendBuffer, op, nextCorrelationId, text);
+        afterWrite();
+        return result;
+    }
+
+    /**
+     * Envia as requisições acumuladas.
+     * @throws IOException Se o envio falhar.
+     */
+    public synchronized void flush() throws IOException {
+        if (sendBuffer.position() > 0) {
+            out.write(sendBuffer.array(), 0, sendBuffer.position());
+            sendBuffer.clear();
+        }
+    }
+
+    /**
+     * Retorna o número de requisições aguardando resposta.
+     * @return O número de requisições pendentes.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Fecha a conexão; requisições ainda pendentes falham.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Reserva um correlationId e espaço no buffer para a próxima requisição.
+     */
+    private CompletableFuture<CommandResult> register(int requestSize) throws IOException {
+        if (failure != null) {
+            throw new IOException("Connection failed", failure);
+        }
+        if (requestSize > CommandProtocol.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Request too large for the binary protocol");
+        }
+        if (sendBuffer.remaining() < requestSize) {
+            flush();
+        }
+        nextCorrelationId++;
+        CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        pending.put(nextCorrelationId, result);
+        if (failure != null && pending.remove(nextCorrelationId) != null) {
+            // A conexão caiu depois da verificação acima; a thread leitora não verá este futuro
+            throw new IOException("Connection failed", failure);
+        }
+        return result;
+    }
+
+    private void afterWrite() throws IOException {
+        if (autoFlush) {
+            flush();
+        }
+    }
+
+    /**
+     * Laço da thread leitora: decodifica as respostas e completa os futuros.
+     */
+    private void readResponses() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE))) {
+            while (true) {
+                int length = in.readInt();
+                byte status = in.readByte();
+                long correlationId = in.readLong();
+                double balance = in.readDouble();
+                String detail = null;
+                if (length > CommandProtocol.RESPONSE_LENGTH) {
+                    byte[] text = new byte[in.readUnsignedShort()];
+                    in.readFully(text);
+                    detail = new String(text, StandardCharsets.UTF_8);
+                    in.skipBytes(length - CommandProtocol.RESPONSE_LENGTH - 2 - text.length);
+                }
+                CompletableFuture<CommandResult> result = pending.remove(correlationId);
+                if (result != null) {
+                    result.complete(new CommandResult(correlationId, CommandResult.Status.fromCode(status), balance, detail));
+                }
+            }
+        } catch (EOFException e) {
+            failPending(new IOException("Connection closed by server"));
+        } catch (IOException | RuntimeException e) {
+            failPending(e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+    }
+
+    private void failPending(IOException cause) {
+        failure = cause;
+        for (Long correlationId : pending.keySet()) {
+            CompletableFuture<CommandResult> result = pending.remove(correlationId);
+            if (result != null) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+}
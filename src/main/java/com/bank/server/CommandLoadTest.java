@@ -0,0 +1,234 @@
+package com.bank.server;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark do protocolo binário ({@code CommandServer}) em loopback.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Referência:</b> Mede primeiro a vazão do motor sozinho, chamando a
+ *         {@code BankingFacade} diretamente de várias threads durante o mesmo tempo.</li>
+ *     <li><b>Protocolo:</b> Inicia um {@code CommandServer} em uma porta livre e abre várias
+ *         conexões; cada uma mantém até "window" comandos em voo (pipelining), enviando-os em
+ *         lotes de "batch" comandos por escrita. A mistura de operações é a mesma da
+ *         referência: 80% depósitos, 10% saques e 10% transferências.</li>
+ *     <li><b>Relatório:</b> Comandos por segundo, latências p50/p99 (do envio à resposta) e a
+ *         razão entre a vazão pelo protocolo e a do motor. Uma razão próxima de 100% indica que
+ *         o protocolo satura o motor, ou seja, o gargalo deixou de ser a rede.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.load.clients" (conexões, padrão 4),
+ * "bank.load.window" (comandos em voo por conexão, padrão 512), "bank.load.batch" (comandos por
+ * escrita, padrão 64), "bank.load.seconds" (padrão 10),
+ * "bank.load.warmupSeconds" (padrão 2), "bank.load.accounts" (padrão 1000) e
+ * "bank.command.threads" (trabalhadores do servidor e threads da referência).
+ */
+public class CommandLoadTest {
+
+    /**
+     * Latências de uma conexão, em nanossegundos. Só é escrita pela thread leitora do cliente.
+     */
+    private static final class LatencyRecorder {
+        private long[] samples = new long[1 << 16];
+        private int count;
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[count++] = nanos;
+        }
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     * @throws Exception Se a execução falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bank.load.clients", 4);
+        int window = Integer.getInteger("bank.load.window", 512);
+        int batch = Integer.getInteger("bank.load.batch", 64);
+        int seconds = Integer.getInteger("bank.load.seconds", 10);
+        int warmupSeconds = Integer.getInteger("bank.load.warmupSeconds", 2);
+        int accountCount = Integer.getInteger("bank.load.accounts", 1000);
+        int threads = Integer.getInteger("bank.command.threads", Runtime.getRuntime().availableProcessors());
+
+        PrintStream console = System.out;
+        // O motor imprime cada operação no console; durante a carga isso mediria o terminal
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            BankingFacade bankingFacade = new BankingFacade();
+            String[] accounts = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                accounts[i] = bankingFacade.createAccount(AccountType.CHECKING, "Load " + i, 1_000_000.0, 1_000_000.0);
+            }
+            console.println("Accounts: " + accountCount + ", engine threads: " + threads
+                    + ", connections: " + clients + ", window: " + window + ", duration: " + seconds + "s");
+
+            double engineRate = runEngine(bankingFacade, accounts, threads, warmupSeconds, seconds);
+            console.printf("Engine (direct facade calls): %.0f commands/s%n", engineRate);
+
+            CommandServer server = new CommandServer(bankingFacade, new InetSocketAddress("localhost", 0),
+                    BankingHttpServer.createExecutor("fixed", threads));
+            server.start();
+            try {
+                runProtocol(console, server.getPort(), accounts, clients, window, batch, warmupSeconds, seconds, engineRate);
+            } finally {
+                server.close();
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Mede a vazão do motor chamando a Facade diretamente.
+     */
+    private static double runEngine(BankingFacade bankingFacade, String[] accounts, int threads,
+                                    int warmupSeconds, int seconds) throws InterruptedException {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong completed = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long now;
+                while ((now = System.nanoTime()) < deadline) {
+                    String account = accounts[random.nextInt(accounts.length)];
+                    int op = random.nextInt(10);
+                    if (op == 0) {
+                        bankingFacade.transfer(account, accounts[random.nextInt(accounts.length)], 1.0);
+                    } else if (op == 1) {
+                        bankingFacade.withdraw(account, 1.0);
+                    } else {
+                        bankingFacade.deposit(account, 1.0);
+                    }
+                    if (now >= measureFrom) {
+                        count++;
+                    }
+                }
+                completed.addAndGet(count);
+            }, "engine-load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return completed.get() / (double) seconds;
+    }
+
+    /**
+     * Mede a vazão e a latência pelo protocolo binário.
+     */
+    private static void runProtocol(PrintStream console, int port, String[] accounts, int clients, int window,
+                                    int batch, int warmupSeconds, int seconds, double engineRate) throws Exception {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        LatencyRecorder[] recorders = new LatencyRecorder[clients];
+        List<Thread> senders = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int c = 0; c < clients; c++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders[c] = recorder;
+            Thread sender = new Thread(() -> {
+                Semaphore inFlight = new Semaphore(window);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try (CommandClient client = new CommandClient("localhost", port)) {
+                    client.setAutoFlush(false);
+                    long sent = 0;
+                    while (System.nanoTime() < deadline) {
+                        if (++sent % batch == 0) {
+                            client.flush();
+                        }
+                        if (!inFlight.tryAcquire()) {
+                            // Janela cheia: envia o lote acumulado e espera uma resposta
+                            client.flush();
+                            inFlight.acquire();
+                        }
+                        String account = accounts[random.nextInt(accounts.length)];
+                        int op = random.nextInt(10);
+                        long start = System.nanoTime();
+                        CompletableFuture<CommandResult> result;
+                        if (op == 0) {
+                            result = client.transfer(account, accounts[random.nextInt(accounts.length)], 1.0);
+                        } else if (op == 1) {
+                            result = client.withdraw(account, 1.0);
+                        } else {
+                            result = client.deposit(account, 1.0);
+                        }
+                        result.whenComplete((r, e) -> {
+                            long end = System.nanoTime();
+                            if (e != null || !r.isOk()) {
+                                errors.incrementAndGet();
+                            }
+                            if (start >= measureFrom && end <= deadline) {
+                                recorder.record(end - start);
+                            }
+                            inFlight.release();
+                        });
+                    }
+                    client.flush();
+                    // Aguarda as respostas restantes antes de fechar a conexão
+                    inFlight.acquire(window);
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, "command-load-" + c);
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Load client failed", failures.get(0));
+        }
+
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, all, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(all);
+
+        double rate = total / (double) seconds;
+        console.printf("Binary protocol (loopback): %.0f commands/s (%.0f%% of engine), rejected/failed: %d%n",
+                rate, engineRate > 0 ? 100.0 * rate / engineRate : 0.0, errors.get());
+        if (total > 0) {
+            console.printf("Latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+                    percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[total - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
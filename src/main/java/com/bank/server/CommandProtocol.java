@@ -0,0 +1,217 @@
+package com.bank.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Definição do protocolo binário de comandos usado por {@code CommandServer} e {@code CommandClient}.
+ *
+ * <p>Todos os quadros são prefixados pelo tamanho e usam ordem de bytes big-endian:
+ * <pre>
+ * Requisição: int tamanho | byte operação | long correlationId | corpo
+ *   DEPOSIT / WITHDRAW: texto conta | double valor
+ *   TRANSFER:           texto origem | texto destino | double valor
+ *   CREATE:             texto conta | byte tipo | texto titular | double saldo | double parâmetro
+ *   RESERVE:            texto transferência | texto conta | double valor com sinal
+ *   COMMIT / ABORT:     texto transferência
+ *   BALANCE:            texto conta
+ *   SCAN:               texto cursor
+ *   EXPORT / DROP:      texto conta
+ *   (texto = short tamanho em bytes | bytes UTF-8; tipo = ordinal de AccountType)
+ * Resposta:   int tamanho (17, ou mais com detalhe) | byte status | long correlationId | double saldo
+ *             [| texto detalhe]
+ * </pre>
+ * O tamanho não inclui os 4 bytes do próprio campo. O saldo da resposta é o da conta afetada
+ * (a origem, em transferências) após a operação, ou NaN se a conta não existir ou se a
+ * operação não envolver uma conta (COMMIT e ABORT).
+ *
+ * <p>O cliente pode enviar várias requisições sem esperar as respostas (pipelining); o
+ * servidor responde assim que cada uma termina, possivelmente fora da ordem de envio, e o
+ * correlationId permite ao cliente associar cada resposta à sua requisição.
+ *
+ * <p>RESERVE, COMMIT e ABORT são as mensagens do two-phase commit usado pelo roteador de shards
+ * em transferências entre nós (ver {@code BankingFacade.prepareTransfer()}): na reserva, um valor
+ * negativo debita a conta de origem e um valor positivo deixa o crédito pendente no destino.
+ * COMMIT responde NOT_FOUND se o nó não conhece a transferência (nunca preparada ali, ou
+ * decidida há mais tempo do que o nó se lembra).
+ *
+ * <p>SCAN, EXPORT e DROP servem à migração de contas entre nós ({@code ShardRebalancer}) e são as
+ * únicas respostas com detalhe:
+ * <ul>
+ *     <li>SCAN: os próximos números de conta (até {@code SCAN_PAGE_SIZE}) maiores que o cursor,
+ *         em ordem, separados por '\n'; vazio no fim. O cursor inicial é vazio.</li>
+ *     <li>EXPORT: o saldo da conta e o detalhe "tipo\tparâmetro\toffset\ttitular", em que
+ *         offset é o tamanho do journal do nó no momento da leitura (todas as entradas da conta
+ *         até esse ponto estão refletidas no saldo).</li>
+ *     <li>DROP: remove a conta do nó, informando o saldo que ela tinha.</li>
+ * </ul>
+ */
+public final class CommandProtocol {
+    /** Operação de depósito */
+    public static final byte OP_DEPOSIT = 1;
+    /** Operação de saque */
+    public static final byte OP_WITHDRAW = 2;
+    /** Operação de transferência */
+    public static final byte OP_TRANSFER = 3;
+    /** Criação de conta com número escolhido pelo cliente */
+    public static final byte OP_CREATE = 4;
+    /** Fase 1 de uma transferência entre nós: reserva do débito ou do crédito */
+    public static final byte OP_RESERVE = 5;
+    /** Fase 2 de uma transferência entre nós: confirmação */
+    public static final byte OP_COMMIT = 6;
+    /** Fase 2 de uma transferência entre nós: cancelamento */
+    public static final byte OP_ABORT = 7;
+    /** Consulta de saldo */
+    public static final byte OP_BALANCE = 8;
+    /** Listagem paginada dos números de conta do nó */
+    public static final byte OP_SCAN = 9;
+    /** Leitura do estado completo de uma conta, com a posição do journal */
+    public static final byte OP_EXPORT = 10;
+    /** Remoção de uma conta do nó */
+    public static final byte OP_DROP = 11;
+
+    /** Operação concluída */
+    public static final byte STATUS_OK = 0;
+    /** Operação recusada pelas regras de negócio (ex: saldo insuficiente) */
+    public static final byte STATUS_REJECTED = 1;
+    /** Conta inexistente */
+    public static final byte STATUS_NOT_FOUND = 2;
+    /** Requisição inválida (operação desconhecida, valor inválido) */
+    public static final byte STATUS_BAD_REQUEST = 3;
+
+    /** Tamanho do cabeçalho comum (operação ou status + correlationId), sem o prefixo de tamanho */
+    static final int HEADER_LENGTH = 1 + 8;
+    /** Tamanho de uma resposta, sem o prefixo de tamanho */
+    static final int RESPONSE_LENGTH = HEADER_LENGTH + 8;
+    /** Tamanho máximo aceito para um quadro de requisição; quadros maiores encerram a conexão */
+    static final int MAX_FRAME_LENGTH = 4096;
+    /** Máximo de números de conta por resposta de SCAN (cabem com folga em um texto do protocolo) */
+    static final int SCAN_PAGE_SIZE = 500;
+
+    /**
+     * Construtor privado para evitar a instanciação da classe utilitária.
+     */
+    private CommandProtocol() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Escreve uma requisição de depósito ou saque.
+     * @param out O buffer de destino, com espaço suficiente.
+     * @param op OP_DEPOSIT ou OP_WITHDRAW.
+     * @param correlationId O identificador da requisição.
+     * @param accountNumber O número da conta.
+     * @param amount O valor.
+     */
+    static void writeAccountRequest(ByteBuffer out, byte op, long correlationId, String accountNumber, double amount) {
+        int start = out.position();
+        out.putInt(0).put(op).putLong(correlationId);
+        putString(out, accountNumber);
+        out.putDouble(amount);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Escreve uma requisição de transferência.
+     * @param out O buffer de destino, com espaço suficiente.
+     * @param correlationId O identificador da requisição.
+     * @param fromAccountNumber A conta de origem.
+     * @param toAccountNumber A conta de destino.
+     * @param amount O valor.
+     */
+    static void writeTransferRequest(ByteBuffer out, long correlationId, String fromAccountNumber, String toAccountNumber, double amount) {
+        int start = out.position();
+        out.putInt(0).put(OP_TRANSFER).putLong(correlationId);
+        putString(out, fromAccountNumber);
+        putString(out, toAccountNumber);
+        out.putDouble(amount);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Escreve uma requisição de criação de conta.
+     * @param out O buffer de destino, com espaço suficiente.
+     * @param correlationId O identificador da requisição.
+     * @param accountNumber O número da nova conta.
+     * @param type O ordinal do tipo de conta ({@code AccountType}).
+     * @param customerName O titular.
+     * @param initialBalance O saldo inicial.
+     * @param parameter O limite de cheque especial ou a taxa de juros.
+     */
+    static void writeCreateRequest(ByteBuffer out, long correlationId, String accountNumber, byte type,
+                                   String customerName, double initialBalance, double parameter) {
+        int start = out.position();
+        out.putInt(0).put(OP_CREATE).putLong(correlationId);
+        putString(out, accountNumber);
+        out.put(type);
+        putString(out, customerName);
+        out.putDouble(initialBalance).putDouble(parameter);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Escreve uma requisição de reserva (fase 1 de uma transferência entre nós).
+     * @param out O buffer de destino, com espaço suficiente.
+     * @param correlationId O identificador da requisição.
+     * @param transferId O identificador da transferência.
+     * @param accountNumber A conta local do nó.
+     * @param amount O valor com sinal: negativo para debitar, positivo para creditar.
+     */
+    static void writeReserveRequest(ByteBuffer out, long correlationId, String transferId, String accountNumber, double amount) {
+        int start = out.position();
+        out.putInt(0).put(OP_RESERVE).putLong(correlationId);
+        putString(out, transferId);
+        putString(out, accountNumber);
+        out.putDouble(amount);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Escreve uma requisição cujo corpo é um único texto (COMMIT, ABORT, BALANCE, SCAN, EXPORT ou DROP).
+     * @param out O buffer de destino, com espaço suficiente.
+     * @param op A operação.
+     * @param correlationId O identificador da requisição.
+     * @param text O identificador da transferência ou o número da conta.
+     */
+    static void writeTextRequest(ByteBuffer out, byte op, long correlationId, String text) {
+        int start = out.position();
+        out.putInt(0).put(op).putLong(correlationId);
+        putString(out, text);
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Escreve uma resposta.
+     */
+    static void writeResponse(ByteBuffer out, byte status, long correlationId, double balance) {
+        out.putInt(RESPONSE_LENGTH).put(status).putLong(correlationId).putDouble(balance);
+    }
+
+    /**
+     * Escreve uma resposta com detalhe textual já codificado em UTF-8.
+     */
+    static void writeResponse(ByteBuffer out, byte status, long correlationId, double balance, byte[] detail) {
+        out.putInt(RESPONSE_LENGTH + 2 + detail.length).put(status).putLong(correlationId).putDouble(balance)
+                .putShort((short) detail.length).put(detail);
+    }
+
+    /**
+     * Limite superior do tamanho de uma requisição com os textos informados, incluindo o prefixo.
+     */
+    static int maxRequestSize(String... texts) {
+        // Cabeçalho, dois doubles e o byte de tipo (o maior corpo fixo, o de CREATE)
+        int size = 4 + HEADER_LENGTH + 8 + 8 + 1;
+        for (String text : texts) {
+            size += 2 + text.length() * 3;
+        }
+        return size;
+    }
+
+    private static void putString(ByteBuffer out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Text too long for the binary protocol");
+        }
+        out.putShort((short) bytes.length).put(bytes);
+    }
+}
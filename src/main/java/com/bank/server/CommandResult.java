@@ -0,0 +1,92 @@
+package com.bank.server;
+
+/**
+ * Resultado de um comando enviado pelo protocolo binário ({@code CommandProtocol}).
+ * Objeto imutável entregue pelo {@code CommandClient} quando a resposta correspondente chega.
+ */
+public final class CommandResult {
+
+    /**
+     * Situação de um comando processado pelo servidor.
+     */
+    public enum Status {
+        OK,
+        REJECTED,
+        NOT_FOUND,
+        BAD_REQUEST;
+
+        /**
+         * Converte o código do protocolo no status correspondente.
+         * @param code O código recebido na resposta.
+         * @return O status.
+         * @throws IllegalArgumentException Se o código for desconhecido.
+         */
+        static Status fromCode(byte code) {
+            switch (code) {
+                case CommandProtocol.STATUS_OK: return OK;
+                case CommandProtocol.STATUS_REJECTED: return REJECTED;
+                case CommandProtocol.STATUS_NOT_FOUND: return NOT_FOUND;
+                case CommandProtocol.STATUS_BAD_REQUEST: return BAD_REQUEST;
+                default: throw new IllegalArgumentException("Unknown status code: " + code);
+            }
+        }
+    }
+
+    private final long correlationId;
+    private final Status status;
+    private final double balance;
+    private final String detail;
+
+    /**
+     * Construtor para {@code CommandResult}. Público para que clientes compostos (ex: o roteador
+     * de shards) entreguem resultados no mesmo formato.
+     * @param correlationId O identificador da requisição.
+     * @param status A situação do comando.
+     * @param balance O saldo da conta afetada, ou NaN.
+     */
+    public CommandResult(long correlationId, Status status, double balance) {
+        this(correlationId, status, balance, null);
+    }
+
+    /**
+     * Construtor para {@code CommandResult} com o detalhe textual da resposta.
+     * @param correlationId O identificador da requisição.
+     * @param status A situação do comando.
+     * @param balance O saldo da conta afetada, ou NaN.
+     * @param detail O detalhe (SCAN e EXPORT), ou null.
+     */
+    public CommandResult(long correlationId, Status status, double balance, String detail) {
+        this.correlationId = correlationId;
+        this.status = status;
+        this.balance = balance;
+        this.detail = detail;
+    }
+
+    public long getCorrelationId() { return correlationId; }
+    public Status getStatus() { return status; }
+
+    /**
+     * Saldo da conta afetada (a origem, em transferências) após o comando.
+     * @return O saldo, ou NaN se a conta não existir.
+     */
+    public double getBalance() { return balance; }
+
+    /**
+     * Detalhe textual da resposta (ver {@code CommandProtocol}).
+     * @return O detalhe, ou null se a resposta não tiver um.
+     */
+    public String getDetail() { return detail; }
+
+    /**
+     * Indica se o comando foi concluído.
+     * @return true se o status for OK.
+     */
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandResult{id=" + correlationId + ", status=" + status + ", balance=" + balance + "}";
+    }
+}
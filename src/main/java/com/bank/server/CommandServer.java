@@ -0,0 +1,777 @@
+package com.bank.server;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.account.CheckingAccount;
+import com.bank.account.SavingsAccount;
+import com.bank.account.Withdrawable;
+import com.bank.command.Command;
+import com.bank.command.DepositCommand;
+import com.bank.command.TransferCommand;
+import com.bank.command.WithdrawCommand;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Classe {@code CommandServer} recebe comandos bancários pelo protocolo binário
+ * ({@code CommandProtocol}) sobre sockets NIO, para clientes em lote que precisam de taxas
+ * mais altas do que a API HTTP/JSON permite.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>E/S:</b> Uma única thread com um {@code Selector} aceita conexões, lê e escreve em
+ *         todos os sockets, sem bloquear.</li>
+ *     <li><b>Decodificação em lote:</b> Cada leitura pode trazer muitas requisições (pipelining).
+ *         Todos os quadros completos do buffer são decodificados de uma vez diretamente em
+ *         objetos {@code com.bank.command} ({@code DepositCommand}, {@code WithdrawCommand},
+ *         {@code TransferCommand}); um quadro incompleto aguarda a próxima leitura. As demais
+ *         operações (criação de conta, reserva/confirmação/cancelamento de transferências entre
+ *         nós, consulta de saldo e as operações de migração de contas) viram chamadas à Facade
+ *         executadas da mesma forma.</li>
+ *     <li><b>Execução em ordem:</b> Os lotes de uma conexão são executados por um trabalhador
+ *         de cada vez, na ordem em que chegaram, via {@code BankingFacade.execute()}, que trava as
+ *         contas envolvidas: um depósito seguido de um saque na mesma conexão nunca é invertido.
+ *         O paralelismo vem das várias conexões, cujos lotes rodam em trabalhadores diferentes.</li>
+ *     <li><b>Respostas:</b> As respostas de um lote são acrescentadas ao buffer de saída da
+ *         conexão com uma única aquisição do monitor. Requisições recusadas na decodificação
+ *         (conta inexistente, valor inválido) são respondidas de imediato, sem esperar o lote; o
+ *         correlationId identifica cada resposta. A thread de E/S esvazia o buffer com uma única
+ *         escrita para todas as respostas acumuladas.</li>
+ *     <li><b>Contrapressão:</b> Se uma conexão acumular muitos comandos pendentes ou muitos bytes
+ *         de resposta ainda não enviados (um cliente que não lê as respostas), a leitura dela é
+ *         suspensa. Ela só é retomada quando os pendentes caem abaixo da metade e todo o buffer
+ *         de saída foi enviado, sem escrita aguardando o socket.</li>
+ * </ol>
+ */
+public class CommandServer implements Closeable {
+    /** Porta padrão do servidor */
+    public static final int DEFAULT_PORT = 9090;
+
+    /** Comandos pendentes por conexão a partir dos quais a leitura é suspensa */
+    static final int MAX_IN_FLIGHT = 8192;
+    /** Comandos pendentes abaixo dos quais a leitura é retomada */
+    private static final int RESUME_IN_FLIGHT = MAX_IN_FLIGHT / 2;
+    /** Bytes de resposta ainda não enviados por conexão a partir dos quais a leitura é suspensa */
+    static final int MAX_PENDING_OUTPUT = 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BankingFacade bankingFacade;
+    private final ExecutorService workers;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Thread ioThread;
+    /** Conexões com respostas a enviar, preenchida pelos trabalhadores e drenada pela thread de E/S */
+    private final Queue<Connection> flushQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+
+    /**
+     * Estado de uma conexão de cliente.
+     * O buffer de leitura e a suspensão de leitura pertencem à thread de E/S; o buffer de
+     * escrita é protegido pelo monitor da própria conexão.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final byte[] textScratch = new byte[CommandProtocol.MAX_FRAME_LENGTH];
+        final AtomicInteger inFlight = new AtomicInteger();
+        /** Lotes decodificados aguardando execução, em ordem de chegada */
+        final Queue<PendingCommand[]> batches = new ConcurrentLinkedQueue<>();
+        /** Lotes na fila ou em execução; só há um BatchTask ativo enquanto for maior que zero */
+        final AtomicInteger queuedBatches = new AtomicInteger();
+        ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean flushQueued;
+        boolean readPaused;
+        volatile boolean closed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        /**
+         * Acrescenta uma resposta ao buffer de saída e agenda seu envio. Pode ser chamado de qualquer thread.
+         */
+        void respond(byte status, long correlationId, double balance) {
+            boolean wakeup;
+            synchronized (this) {
+                appendResponse(status, correlationId, balance, null);
+                wakeup = queueFlush();
+            }
+            if (wakeup) {
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Acrescenta as respostas de um lote já executado, com uma única aquisição do monitor, e
+         * só então deixa de contá-lo como pendente: flush() vê as respostas e a nova contagem
+         * juntas, e não retoma a leitura antes de enviá-las.
+         */
+        void respondAll(PendingCommand[] commands) {
+            boolean wakeup;
+            synchronized (this) {
+                for (int i = 0; i < commands.length; i++) {
+                    PendingCommand command = commands[i];
+                    appendResponse(command.status, command.correlationId, command.balance, command.detail);
+                }
+                inFlight.addAndGet(-commands.length);
+                wakeup = queueFlush();
+            }
+            if (wakeup) {
+                selector.wakeup();
+            }
+        }
+
+        private void appendResponse(byte status, long correlationId, double balance, byte[] detail) {
+            if (closed) {
+                return;
+            }
+            int size = 4 + CommandProtocol.RESPONSE_LENGTH + (detail == null ? 0 : 2 + detail.length);
+            if (writeBuffer.remaining() < size) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + size));
+                writeBuffer.flip();
+                larger.put(writeBuffer);
+                writeBuffer = larger;
+            }
+            if (detail == null) {
+                CommandProtocol.writeResponse(writeBuffer, status, correlationId, balance);
+            } else {
+                CommandProtocol.writeResponse(writeBuffer, status, correlationId, balance, detail);
+            }
+        }
+
+        /**
+         * Coloca a conexão na fila de envio, se ainda não estiver. Deve ser chamado com o monitor.
+         * @return true se a thread de E/S precisa ser acordada.
+         */
+        private boolean queueFlush() {
+            if (closed || flushQueued) {
+                return false;
+            }
+            flushQueued = true;
+            flushQueue.add(this);
+            return true;
+        }
+    }
+
+    /**
+     * Consulta executada por um trabalhador que preenche ela mesma o saldo e o detalhe da resposta.
+     */
+    @FunctionalInterface
+    private interface Query {
+        boolean run(PendingCommand pending);
+    }
+
+    /**
+     * Comando decodificado, pronto para ser executado por um trabalhador: um {@code Command}
+     * sobre contas já localizadas, uma chamada à Facade (action) ou uma consulta (query).
+     */
+    private final class PendingCommand {
+        final long correlationId;
+        final Command command;
+        final Account account;
+        final Account counterpart;
+        final BooleanSupplier action;
+        final Query query;
+        /** Conta cujo saldo é informado após a action (null se não houver) */
+        final String reportedAccount;
+        byte status;
+        double balance;
+        /** Detalhe da resposta, em UTF-8 (null se não houver) */
+        byte[] detail;
+
+        PendingCommand(long correlationId, Command command, Account account, Account counterpart) {
+            this.correlationId = correlationId;
+            this.command = command;
+            this.account = account;
+            this.counterpart = counterpart;
+            this.action = null;
+            this.query = null;
+            this.reportedAccount = null;
+        }
+
+        PendingCommand(long correlationId, BooleanSupplier action, String reportedAccount) {
+            this.correlationId = correlationId;
+            this.command = null;
+            this.account = null;
+            this.counterpart = null;
+            this.action = action;
+            this.query = null;
+            this.reportedAccount = reportedAccount;
+        }
+
+        PendingCommand(long correlationId, Query query) {
+            this.correlationId = correlationId;
+            this.command = null;
+            this.account = null;
+            this.counterpart = null;
+            this.action = null;
+            this.query = query;
+            this.reportedAccount = null;
+        }
+
+        void execute() {
+            if (query != null) {
+                balance = Double.NaN;
+                boolean found;
+                try {
+                    found = query.run(this);
+                } catch (RuntimeException e) {
+                    System.err.println("Error executing command " + correlationId + ": " + e.getMessage());
+                    status = CommandProtocol.STATUS_REJECTED;
+                    return;
+                }
+                status = found ? CommandProtocol.STATUS_OK : CommandProtocol.STATUS_NOT_FOUND;
+                return;
+            }
+            boolean ok;
+            try {
+                if (action != null) {
+                    ok = action.getAsBoolean();
+                } else if (counterpart != null) {
+                    bankingFacade.execute(command, account, counterpart);
+                    ok = ((TransferCommand) command).isCompleted();
+                } else {
+                    ok = bankingFacade.execute(command, account);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error executing command " + correlationId + ": " + e.getMessage());
+                ok = false;
+            }
+            status = ok ? CommandProtocol.STATUS_OK : CommandProtocol.STATUS_REJECTED;
+            Account reported = action == null ? account
+                    : reportedAccount == null ? null : bankingFacade.getAccount(reportedAccount);
+            balance = reported == null ? Double.NaN : reported.getBalance();
+        }
+    }
+
+    /**
+     * Executa os lotes de uma conexão, um após o outro, até esvaziar a fila dela.
+     * <p><b>LÓGICA:</b> dispatch() só cria a tarefa quando a fila estava vazia (queuedBatches
+     * passou de 0 para 1); a tarefa só termina quando queuedBatches volta a zero. Assim nunca há
+     * dois trabalhadores executando comandos da mesma conexão.
+     */
+    private static final class BatchTask implements Runnable {
+        final Connection connection;
+
+        BatchTask(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            do {
+                PendingCommand[] commands = connection.batches.poll();
+                for (PendingCommand command : commands) {
+                    command.execute();
+                }
+                connection.respondAll(commands);
+            } while (connection.queuedBatches.decrementAndGet() > 0);
+        }
+    }
+
+    /**
+     * Construtor para {@code CommandServer}. O servidor só passa a aceitar conexões após start().
+     * @param bankingFacade A Facade que executará os comandos.
+     * @param address O endereço e a porta de escuta (porta 0 escolhe uma porta livre).
+     * @param workers O pool que executará os comandos; é encerrado em close().
+     * @throws IOException Se não for possível abrir a porta.
+     */
+    public CommandServer(BankingFacade bankingFacade, InetSocketAddress address, ExecutorService workers) throws IOException {
+        this.bankingFacade = bankingFacade;
+        this.workers = workers;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.ioThread = new Thread(this::runLoop, "banking-command-io");
+        this.ioThread.setDaemon(true);
+    }
+
+    /**
+     * Inicia a thread de E/S.
+     */
+    public void start() {
+        running = true;
+        ioThread.start();
+    }
+
+    /**
+     * Retorna a porta em que o servidor está escutando.
+     * @return A porta.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Para o servidor, fecha todas as conexões e encerra o pool de trabalhadores.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Laço da thread de E/S.
+     */
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Connection pending;
+                while ((pending = flushQueue.poll()) != null) {
+                    flush(pending);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isValid() && key.isWritable()) {
+                        flush(connection);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        read(connection);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Command server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    closeConnection((Connection) key.attachment());
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+                // Já encerrando
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    /**
+     * Lê o que estiver disponível e decodifica todos os quadros completos.
+     */
+    private void read(Connection connection) {
+        ByteBuffer buffer = connection.readBuffer;
+        try {
+            if (connection.channel.read(buffer) < 0) {
+                closeConnection(connection);
+                return;
+            }
+        } catch (IOException e) {
+            closeConnection(connection);
+            return;
+        }
+
+        buffer.flip();
+        List<PendingCommand> batch = new ArrayList<>();
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt(buffer.position());
+            if (length < CommandProtocol.HEADER_LENGTH || length > CommandProtocol.MAX_FRAME_LENGTH) {
+                System.err.println("Invalid frame length " + length + ", closing connection");
+                closeConnection(connection);
+                return;
+            }
+            if (buffer.remaining() < 4 + length) {
+                break;
+            }
+            int limit = buffer.limit();
+            int frameEnd = buffer.position() + 4 + length;
+            // Limita a leitura ao quadro atual, para que um corpo malformado não invada o próximo
+            buffer.position(buffer.position() + 4).limit(frameEnd);
+            try {
+                PendingCommand pending = decode(connection, buffer);
+                if (pending != null) {
+                    batch.add(pending);
+                }
+            } catch (RuntimeException e) {
+                // Corpo truncado ou texto inválido: o quadro é descartado e respondido como inválido
+                connection.respond(CommandProtocol.STATUS_BAD_REQUEST, buffer.getLong(frameEnd - length + 1), Double.NaN);
+            }
+            buffer.limit(limit).position(frameEnd);
+        }
+        buffer.compact();
+        dispatch(connection, batch);
+
+        if (!connection.readPaused && (connection.inFlight.get() >= MAX_IN_FLIGHT || pendingOutput(connection) >= MAX_PENDING_OUTPUT)) {
+            pauseRead(connection);
+        }
+    }
+
+    private static int pendingOutput(Connection connection) {
+        synchronized (connection) {
+            return connection.writeBuffer.position();
+        }
+    }
+
+    private static void pauseRead(Connection connection) {
+        connection.readPaused = true;
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+    }
+
+    /**
+     * Decodifica um quadro em um comando, ou responde de imediato se a requisição não puder ser executada.
+     * @return O comando decodificado, ou null se a requisição já foi respondida.
+     */
+    private PendingCommand decode(Connection connection, ByteBuffer frame) {
+        byte op = frame.get();
+        long correlationId = frame.getLong();
+        PendingCommand pending;
+        switch (op) {
+            case CommandProtocol.OP_DEPOSIT:
+            case CommandProtocol.OP_WITHDRAW: {
+                Account account = bankingFacade.getAccount(readText(connection, frame));
+                double amount = frame.getDouble();
+                if (account == null) {
+                    connection.respond(CommandProtocol.STATUS_NOT_FOUND, correlationId, Double.NaN);
+                    return null;
+                }
+                if (!isValidAmount(amount)) {
+                    connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, account.getBalance());
+                    return null;
+                }
+                if (op == CommandProtocol.OP_DEPOSIT) {
+                    pending = new PendingCommand(correlationId, new DepositCommand(account, amount), account, null);
+                } else if (account instanceof Withdrawable) {
+                    pending = new PendingCommand(correlationId,
+                            new WithdrawCommand((Withdrawable) account, account, amount), account, null);
+                } else {
+                    connection.respond(CommandProtocol.STATUS_REJECTED, correlationId, account.getBalance());
+                    return null;
+                }
+                break;
+            }
+            case CommandProtocol.OP_TRANSFER: {
+                Account from = bankingFacade.getAccount(readText(connection, frame));
+                Account to = bankingFacade.getAccount(readText(connection, frame));
+                double amount = frame.getDouble();
+                if (from == null || to == null) {
+                    connection.respond(CommandProtocol.STATUS_NOT_FOUND, correlationId, from != null ? from.getBalance() : Double.NaN);
+                    return null;
+                }
+                if (!isValidAmount(amount)) {
+                    connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, from.getBalance());
+                    return null;
+                }
+                if (!(from instanceof Withdrawable)) {
+                    connection.respond(CommandProtocol.STATUS_REJECTED, correlationId, from.getBalance());
+                    return null;
+                }
+                pending = new PendingCommand(correlationId,
+                        new TransferCommand((Withdrawable) from, from, to, amount), from, to);
+                break;
+            }
+            case CommandProtocol.OP_CREATE: {
+                String accountNumber = readText(connection, frame);
+                int type = frame.get();
+                String customerName = readText(connection, frame);
+                double initialBalance = frame.getDouble();
+                double parameter = frame.getDouble();
+                if (type < 0 || type >= AccountType.values().length || accountNumber.isEmpty()
+                        || Double.isNaN(initialBalance) || Double.isInfinite(initialBalance)) {
+                    connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, Double.NaN);
+                    return null;
+                }
+                AccountType accountType = AccountType.values()[type];
+                // Saldo negativo só dentro do cheque especial (ex: conta corrente movida de outro nó)
+                double minimumBalance = accountType == AccountType.CHECKING ? -Math.abs(parameter) : 0.0;
+                if (initialBalance < minimumBalance) {
+                    connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, Double.NaN);
+                    return null;
+                }
+                pending = new PendingCommand(correlationId, () -> bankingFacade.createAccount(accountNumber, accountType,
+                        customerName, initialBalance, parameter), accountNumber);
+                break;
+            }
+            case CommandProtocol.OP_RESERVE: {
+                String transferId = readText(connection, frame);
+                String accountNumber = readText(connection, frame);
+                double amount = frame.getDouble();
+                if (!bankingFacade.accountExists(accountNumber)) {
+                    connection.respond(CommandProtocol.STATUS_NOT_FOUND, correlationId, Double.NaN);
+                    return null;
+                }
+                if (!isValidAmount(Math.abs(amount))) {
+                    connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, Double.NaN);
+                    return null;
+                }
+                pending = new PendingCommand(correlationId,
+                        () -> bankingFacade.prepareTransfer(transferId, accountNumber, amount), accountNumber);
+                break;
+            }
+            case CommandProtocol.OP_COMMIT: {
+                String transferId = readText(connection, frame);
+                // Uma confirmação de transferência que o nó não conhece responde NOT_FOUND, e não OK
+                pending = new PendingCommand(correlationId, p -> bankingFacade.commitTransfer(transferId));
+                break;
+            }
+            case CommandProtocol.OP_ABORT: {
+                String transferId = readText(connection, frame);
+                pending = new PendingCommand(correlationId, () -> bankingFacade.abortTransfer(transferId), null);
+                break;
+            }
+            case CommandProtocol.OP_BALANCE: {
+                // Executada em ordem com os comandos anteriores da conexão, para enxergar seus efeitos
+                String accountNumber = readText(connection, frame);
+                pending = new PendingCommand(correlationId, p -> {
+                    Account account = bankingFacade.getAccount(accountNumber);
+                    if (account == null) {
+                        return false;
+                    }
+                    p.balance = account.getBalance();
+                    return true;
+                });
+                break;
+            }
+            case CommandProtocol.OP_SCAN: {
+                String cursor = readText(connection, frame);
+                pending = new PendingCommand(correlationId, p -> scan(p, cursor));
+                break;
+            }
+            case CommandProtocol.OP_EXPORT: {
+                String accountNumber = readText(connection, frame);
+                pending = new PendingCommand(correlationId, p -> export(p, accountNumber));
+                break;
+            }
+            case CommandProtocol.OP_DROP: {
+                String accountNumber = readText(connection, frame);
+                pending = new PendingCommand(correlationId, p -> {
+                    Account account = bankingFacade.getAccount(accountNumber);
+                    if (account == null || !bankingFacade.removeAccount(accountNumber)) {
+                        return false;
+                    }
+                    p.balance = account.getBalance();
+                    return true;
+                });
+                break;
+            }
+            default:
+                connection.respond(CommandProtocol.STATUS_BAD_REQUEST, correlationId, Double.NaN);
+                return null;
+        }
+        return pending;
+    }
+
+    /**
+     * Responde SCAN: a próxima página de números de conta, em ordem, depois do cursor.
+     */
+    private boolean scan(PendingCommand pending, String cursor) {
+        TreeSet<String> page = new TreeSet<>();
+        for (String accountNumber : bankingFacade.getAllAccountNumbers()) {
+            if (accountNumber.compareTo(cursor) > 0) {
+                page.add(accountNumber);
+                if (page.size() > CommandProtocol.SCAN_PAGE_SIZE) {
+                    page.pollLast();
+                }
+            }
+        }
+        byte[] detail = String.join("\n", page).getBytes(StandardCharsets.UTF_8);
+        while (detail.length > Short.MAX_VALUE) {
+            // Números de conta muito longos: encurta a página até caber em um texto do protocolo
+            page.pollLast();
+            detail = String.join("\n", page).getBytes(StandardCharsets.UTF_8);
+        }
+        pending.detail = detail;
+        return true;
+    }
+
+    /**
+     * Responde EXPORT: o saldo e os dados da conta, com o fim lógico do journal lido com a conta
+     * travada. Como as operações gravam no journal com a conta travada, toda entrada da conta
+     * que termina até esse offset já está no saldo, e toda entrada posterior começa depois dele.
+     * <p>O buffer do logger é esvaziado antes da leitura (no modo NONE as linhas da conta ainda
+     * podem estar na JVM), e o fim é a posição lógica ({@code PagedTransactionLog.logicalEnd}),
+     * que conta os segmentos selados, como na reconciliação de saldos.
+     */
+    private boolean export(PendingCommand pending, String accountNumber) {
+        Account account = bankingFacade.getAccount(accountNumber);
+        if (account == null) {
+            return false;
+        }
+        double parameter = account instanceof CheckingAccount ? ((CheckingAccount) account).getOverdraftLimit()
+                : account instanceof SavingsAccount ? ((SavingsAccount) account).getInterestRate() : 0.0;
+        AccountType type = account instanceof SavingsAccount ? AccountType.SAVINGS : AccountType.CHECKING;
+        long offset;
+        synchronized (account) {
+            pending.balance = account.getBalance();
+            try {
+                TransactionLogger.getInstance().flush();
+                offset = PagedTransactionLog.logicalEnd(TransactionLogger.getInstance().getLogFile());
+            } catch (IOException e) {
+                throw new IllegalStateException("Journal unavailable: " + e.getMessage(), e);
+            }
+        }
+        pending.detail = (type.name() + "\t" + parameter + "\t" + offset + "\t" + account.getCustomerName())
+                .getBytes(StandardCharsets.UTF_8);
+        return true;
+    }
+
+    /**
+     * Enfileira o lote decodificado na conexão e, se nenhum trabalhador estiver executando os
+     * lotes dela, envia um ao pool.
+     * <p><b>LÓGICA:</b> Executar o lote inteiro em um só trabalhador mantém a ordem dos comandos
+     * da conexão e reduz as trocas de thread e as aquisições do buffer de saída a uma por lote,
+     * em vez de uma por comando.
+     */
+    private void dispatch(Connection connection, List<PendingCommand> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        connection.inFlight.addAndGet(batch.size());
+        connection.batches.add(batch.toArray(new PendingCommand[0]));
+        if (connection.queuedBatches.getAndIncrement() == 0) {
+            workers.execute(new BatchTask(connection));
+        }
+    }
+
+    private static boolean isValidAmount(double amount) {
+        return amount > 0 && !Double.isInfinite(amount);
+    }
+
+    private static String readText(Connection connection, ByteBuffer frame) {
+        int length = frame.getShort();
+        frame.get(connection.textScratch, 0, length);
+        return new String(connection.textScratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Envia as respostas acumuladas de uma conexão e ajusta o interesse de escrita e leitura.
+     * <p><b>LÓGICA:</b> Com bytes ainda não enviados, a conexão passa a esperar OP_WRITE e a
+     * leitura nunca é retomada; se os bytes pendentes passarem do limite, a leitura é suspensa.
+     * A leitura volta quando o buffer foi todo enviado e os comandos pendentes caíram abaixo da
+     * metade do limite.
+     */
+    private void flush(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        int pendingBytes;
+        int inFlight;
+        try {
+            synchronized (connection) {
+                connection.flushQueued = false;
+                ByteBuffer buffer = connection.writeBuffer;
+                buffer.flip();
+                connection.channel.write(buffer);
+                buffer.compact();
+                pendingBytes = buffer.position();
+                inFlight = connection.inFlight.get();
+            }
+        } catch (IOException e) {
+            closeConnection(connection);
+            return;
+        }
+
+        SelectionKey key = connection.key;
+        int ops = key.interestOps();
+        ops = pendingBytes > 0 ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+        if (!connection.readPaused && pendingBytes >= MAX_PENDING_OUTPUT) {
+            connection.readPaused = true;
+            ops &= ~SelectionKey.OP_READ;
+        } else if (connection.readPaused && pendingBytes == 0 && inFlight < RESUME_IN_FLIGHT) {
+            connection.readPaused = false;
+            ops |= SelectionKey.OP_READ;
+        }
+        key.interestOps(ops);
+    }
+
+    private void closeConnection(Connection connection) {
+        synchronized (connection) {
+            connection.closed = true;
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Conexão já encerrada
+        }
+    }
+
+    /**
+     * Inicia o servidor do protocolo binário.
+     * <p>Configuração: porta em {@code args[0]} ou na propriedade "bank.command.port" (padrão 9090)
+     * e número de trabalhadores em "bank.command.threads" (padrão: número de processadores).
+     *
+     * @param args Argumentos da linha de comando: [porta].
+     * @throws IOException Se não for possível abrir a porta.
+     * @throws InterruptedException Se a espera pelo fim do servidor for interrompida.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("bank.command.port", DEFAULT_PORT);
+        int threads = Integer.getInteger("bank.command.threads", Runtime.getRuntime().availableProcessors());
+
+        CommandServer server = new CommandServer(new BankingFacade(), new InetSocketAddress(port),
+                BankingHttpServer.createExecutor("fixed", threads));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // Encerrando o processo
+            }
+        }));
+        System.out.println("Banking command server listening on port " + server.getPort());
+        server.awaitTermination();
+    }
+
+    /**
+     * Aguarda o fim da thread de E/S. As threads do servidor são daemon; um processo que só
+     * executa o servidor usa este método para viver enquanto ele rodar.
+     * @throws InterruptedException Se a espera for interrompida.
+     */
+    public void awaitTermination() throws InterruptedException {
+        ioThread.join();
+    }
+}
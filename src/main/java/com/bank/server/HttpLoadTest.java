@@ -0,0 +1,278 @@
+package com.bank.server;
+
+import com.bank.facade.BankingFacade;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga da API HTTP ({@code BankingHttpServer}) contra localhost.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Alvo:</b> Sem argumentos, inicia um servidor no próprio processo, em uma porta livre;
+ *         com {@code args[0]} (ex: http://localhost:8080), usa um servidor já em execução.</li>
+ *     <li><b>Preparação:</b> Cria as contas de teste pela própria API.</li>
+ *     <li><b>Carga:</b> Cada cliente mantém uma conexão persistente e envia depósitos em sequência
+ *         para contas aleatórias durante o tempo configurado. As latências são gravadas em um
+ *         {@code long[]} pré-alocado por cliente, para que a medição não gere alocações nem
+ *         contenção entre clientes. O período de aquecimento é descartado.</li>
+ *     <li><b>Relatório:</b> Requisições por segundo e latências p50, p99 e máxima.</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.load.clients" (padrão 16), "bank.load.seconds"
+ * (padrão 10), "bank.load.warmupSeconds" (padrão 2), "bank.load.accounts" (padrão 100) e,
+ * para o servidor local, "bank.http.executor" e "bank.http.threads".
+ */
+public class HttpLoadTest {
+
+    /**
+     * Latências de um cliente, em nanossegundos, gravadas em um array pré-alocado.
+     */
+    private static final class LatencyRecorder {
+        private long[] samples = new long[1 << 16];
+        private int count;
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[count++] = nanos;
+        }
+    }
+
+    /**
+     * Executa o teste de carga.
+     * @param args [URL base de um servidor já em execução].
+     * @throws Exception Se a preparação ou a carga falharem.
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bank.load.clients", 16);
+        int seconds = Integer.getInteger("bank.load.seconds", 10);
+        int warmupSeconds = Integer.getInteger("bank.load.warmupSeconds", 2);
+        int accounts = Integer.getInteger("bank.load.accounts", 100);
+
+        PrintStream console = System.out;
+        BankingHttpServer localServer = null;
+        String baseUrl;
+        if (args.length > 0) {
+            baseUrl = args[0].endsWith("/") ? args[0].substring(0, args[0].length() - 1) : args[0];
+        } else {
+            // O motor imprime cada operação no console; durante a carga isso mediria o terminal, não a API
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            String mode = System.getProperty("bank.http.executor", BankingHttpServer.DEFAULT_EXECUTOR);
+            int threads = Integer.getInteger("bank.http.threads", Runtime.getRuntime().availableProcessors() * 4);
+            localServer = new BankingHttpServer(new BankingFacade(), new InetSocketAddress("localhost", 0),
+                    BankingHttpServer.createExecutor(mode, threads));
+            localServer.start();
+            baseUrl = "http://localhost:" + localServer.getPort();
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            console.println("Target: " + baseUrl + ", clients: " + clients + ", duration: " + seconds + "s (+" + warmupSeconds + "s warm-up)");
+            String[] accountNumbers = createAccounts(client, baseUrl, accounts);
+
+            URI target = URI.create(baseUrl);
+            byte[][] depositRequests = new byte[accountNumbers.length][];
+            for (int i = 0; i < accountNumbers.length; i++) {
+                depositRequests[i] = depositRequest(target, accountNumbers[i]);
+            }
+
+            long start = System.nanoTime();
+            long measureFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+            long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+            AtomicLong errors = new AtomicLong();
+            LatencyRecorder[] recorders = new LatencyRecorder[clients];
+            List<Thread> threads = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders[c] = recorder;
+                Thread thread = new Thread(() -> runClient(target, depositRequests, recorder, errors, measureFrom, deadline),
+                        "load-client-" + c);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            report(console, recorders, seconds, errors.get());
+        } finally {
+            if (localServer != null) {
+                localServer.stop(0);
+                System.setOut(console);
+            }
+        }
+    }
+
+    /**
+     * Laço de um cliente de carga.
+     * <p><b>LÓGICA:</b> Usa uma conexão HTTP/1.1 persistente e envia cada requisição já
+     * serializada com uma única escrita no socket (o {@code HttpClient} do JDK envia cabeçalhos e
+     * corpo separadamente, o que faria o teste medir também o próprio cliente). A resposta é lida em um buffer reaproveitado.
+     */
+    private static void runClient(URI target, byte[][] requests, LatencyRecorder recorder, AtomicLong errors,
+                                  long measureFrom, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] buffer = new byte[4096];
+        Socket socket = null;
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            try {
+                if (socket == null) {
+                    socket = new Socket(target.getHost(), target.getPort());
+                    socket.setTcpNoDelay(true);
+                }
+                socket.getOutputStream().write(requests[random.nextInt(requests.length)]);
+                if (readResponse(socket.getInputStream(), buffer) != 200) {
+                    errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                closeQuietly(socket);
+                socket = null;
+            }
+            long end = System.nanoTime();
+            if (now >= measureFrom && end <= deadline) {
+                recorder.record(end - now);
+            }
+        }
+        closeQuietly(socket);
+    }
+
+    /**
+     * Monta a requisição de depósito completa (cabeçalhos e corpo) em bytes.
+     */
+    private static byte[] depositRequest(URI target, String accountNumber) {
+        String body = "{\"amount\":1.0}";
+        String request = "POST /accounts/" + accountNumber + "/deposit HTTP/1.1\r\n"
+                + "Host: " + target.getHost() + ":" + target.getPort() + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length() + "\r\n"
+                + "\r\n"
+                + body;
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Lê uma resposta HTTP/1.1 com Content-Length e retorna o status.
+     */
+    private static int readResponse(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        int headerEnd = -1;
+        while (headerEnd < 0) {
+            if (length == buffer.length) {
+                throw new IOException("Response headers too large");
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+            for (int i = Math.max(3, length); i < length + read; i++) {
+                if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                    headerEnd = i + 1;
+                    break;
+                }
+            }
+            length += read;
+        }
+        String headers = new String(buffer, 0, headerEnd, StandardCharsets.US_ASCII);
+        int status = Integer.parseInt(headers.substring(9, 12));
+        int contentLength = 0;
+        int index = headers.toLowerCase().indexOf("content-length:");
+        if (index >= 0) {
+            int lineEnd = headers.indexOf('\r', index);
+            contentLength = Integer.parseInt(headers.substring(index + "content-length:".length(), lineEnd).trim());
+        }
+        long remaining = contentLength - (length - headerEnd);
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+            remaining -= read;
+        }
+        return status;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Conexão já encerrada
+            }
+        }
+    }
+
+    /**
+     * Cria as contas de teste e retorna seus números.
+     */
+    private static String[] createAccounts(HttpClient client, String baseUrl, int count) throws Exception {
+        String[] numbers = new String[count];
+        URI uri = URI.create(baseUrl + "/accounts");
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"type\":\"SAVINGS\",\"customerName\":\"Load " + i + "\",\"initialBalance\":1000,\"parameter\":0.01}"))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Account creation failed: " + response.statusCode() + " " + response.body());
+            }
+            numbers[i] = Json.parseObject(response.body()).get("accountNumber");
+        }
+        return numbers;
+    }
+
+    /**
+     * Junta as latências de todos os clientes e imprime o relatório.
+     */
+    private static void report(PrintStream console, LatencyRecorder[] recorders, int seconds, long errors) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, all, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(all);
+
+        console.println("Requests: " + total + ", errors: " + errors);
+        console.printf("Throughput: %.0f requests/s%n", total / (double) seconds);
+        if (total > 0) {
+            console.printf("Latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+                    percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[total - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,177 @@
+package com.bank.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utilitário mínimo de JSON usado pela API HTTP, sem dependências externas.
+ *
+ * <p>A API troca apenas objetos planos (sem aninhamento), então o leitor converte um objeto
+ * em um mapa de campo para valor textual, e o escritor acrescenta campos diretamente a um
+ * {@code StringBuilder} reaproveitado pelo chamador, evitando objetos intermediários.
+ */
+final class Json {
+
+    /**
+     * Construtor privado para evitar a instanciação da classe utilitária.
+     */
+    private Json() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Interpreta um objeto JSON plano.
+     * <p><b>LÓGICA:</b> Percorre o texto caractere a caractere; chaves e valores de texto têm os
+     * escapes resolvidos, e números e literais (true/false/null) são mantidos como texto.
+     *
+     * @param text O texto JSON.
+     * @return Um mapa com os campos do objeto.
+     * @throws IllegalArgumentException Se o texto não for um objeto JSON plano válido.
+     */
+    static Map<String, String> parseObject(CharSequence text) {
+        Map<String, String> fields = new HashMap<>();
+        int[] pos = {skipWhitespace(text, 0)};
+        expect(text, pos, '{');
+        pos[0] = skipWhitespace(text, pos[0]);
+        if (pos[0] < text.length() && text.charAt(pos[0]) == '}') {
+            return fields;
+        }
+        while (true) {
+            pos[0] = skipWhitespace(text, pos[0]);
+            String key = readString(text, pos);
+            pos[0] = skipWhitespace(text, pos[0]);
+            expect(text, pos, ':');
+            pos[0] = skipWhitespace(text, pos[0]);
+            String value;
+            if (pos[0] < text.length() && text.charAt(pos[0]) == '"') {
+                value = readString(text, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                if (start == pos[0]) {
+                    throw new IllegalArgumentException("Missing value for field: " + key);
+                }
+                value = text.subSequence(start, pos[0]).toString();
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            fields.put(key, value);
+            pos[0] = skipWhitespace(text, pos[0]);
+            if (pos[0] < text.length() && text.charAt(pos[0]) == ',') {
+                pos[0]++;
+                continue;
+            }
+            expect(text, pos, '}');
+            return fields;
+        }
+    }
+
+    private static int skipWhitespace(CharSequence text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static void expect(CharSequence text, int[] pos, char expected) {
+        if (pos[0] >= text.length() || text.charAt(pos[0]) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static String readString(CharSequence text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                if (pos[0] >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos[0]++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos[0] + 4 > text.length()) {
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(text.subSequence(pos[0], pos[0] + 4).toString(), 16));
+                        pos[0] += 4;
+                        break;
+                    default: value.append(escaped); break;
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    /**
+     * Acrescenta um texto como string JSON (entre aspas e com escapes).
+     * @param out O destino.
+     * @param value O texto, ou null para o literal null.
+     */
+    static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Acrescenta um número JSON. Valores não finitos (NaN, infinito) viram null.
+     * @param out O destino.
+     * @param value O número.
+     */
+    static void appendNumber(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Acrescenta o nome de um campo, precedido de vírgula quando não é o primeiro do objeto.
+     * @param out O destino, já contendo a abertura do objeto.
+     * @param name O nome do campo.
+     */
+    static void appendFieldName(StringBuilder out, String name) {
+        char last = out.charAt(out.length() - 1);
+        if (last != '{' && last != '[') {
+            out.append(',');
+        }
+        appendString(out, name);
+        out.append(':');
+    }
+}
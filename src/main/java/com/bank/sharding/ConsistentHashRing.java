@@ -0,0 +1,140 @@
+package com.bank.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anel de hashing consistente que associa chaves (números de conta) a nós.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Anel:</b> Cada nó ocupa {@code virtualNodes} posições no espaço de hashes de 64 bits
+ *         (nós virtuais), o que equilibra a quantidade de chaves por nó.</li>
+ *     <li><b>Busca:</b> Uma chave pertence ao primeiro nó virtual com hash maior ou igual ao
+ *         seu, voltando ao início do anel após o maior hash.</li>
+ *     <li><b>Estabilidade:</b> Ao acrescentar ou remover um nó, só as chaves dos trechos do anel
+ *         que ele ganha ou perde mudam de dono (em média 1/N das chaves).</li>
+ *     <li><b>Concorrência:</b> O anel é substituído por uma cópia a cada alteração (copy-on-write),
+ *         de modo que buscas, muito mais frequentes, não precisam de trava.</li>
+ * </ol>
+ *
+ * @param <N> O tipo do nó (ex: a conexão com o nó).
+ */
+public final class ConsistentHashRing<N> {
+    /** Número padrão de posições de cada nó no anel */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final int virtualNodes;
+    private final Map<String, N> nodes = new LinkedHashMap<>();
+    private volatile NavigableMap<Long, N> ring = new TreeMap<>();
+
+    /**
+     * Construtor para {@code ConsistentHashRing}.
+     * @param virtualNodes Número de posições de cada nó no anel.
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Acrescenta um nó ao anel.
+     * @param nodeId O identificador estável do nó (ex: "host:porta"), que define suas posições.
+     * @param node O nó.
+     */
+    public synchronized void addNode(String nodeId, N node) {
+        if (nodes.containsKey(nodeId)) {
+            throw new IllegalArgumentException("Node already in the ring: " + nodeId);
+        }
+        nodes.put(nodeId, node);
+        rebuild();
+    }
+
+    /**
+     * Remove um nó do anel; suas chaves passam aos nós seguintes.
+     * @param nodeId O identificador do nó.
+     * @return O nó removido, ou null se não estava no anel.
+     */
+    public synchronized N removeNode(String nodeId) {
+        N removed = nodes.remove(nodeId);
+        if (removed != null) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    /**
+     * Retorna o nó responsável por uma chave.
+     * @param key A chave (ex: número da conta).
+     * @return O nó, ou null se o anel estiver vazio.
+     */
+    public N nodeFor(String key) {
+        NavigableMap<Long, N> current = ring;
+        if (current.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, N> entry = current.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : current.firstEntry().getValue();
+    }
+
+    /**
+     * Cria uma cópia independente do anel (ex: para calcular os donos após acrescentar um nó
+     * sem alterar o anel em uso).
+     * @return A cópia, com os mesmos nós e posições.
+     */
+    public synchronized ConsistentHashRing<N> copy() {
+        ConsistentHashRing<N> copy = new ConsistentHashRing<>(virtualNodes);
+        copy.nodes.putAll(nodes);
+        copy.ring = ring;
+        return copy;
+    }
+
+    /**
+     * Retorna os nós do anel, na ordem em que foram acrescentados.
+     * @return Uma cópia da lista de nós.
+     */
+    public synchronized List<N> getNodes() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+    }
+
+    /**
+     * Recria o mapa de posições a partir dos nós atuais.
+     */
+    private void rebuild() {
+        NavigableMap<Long, N> updated = new TreeMap<>();
+        for (Map.Entry<String, N> node : nodes.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                updated.put(hash(node.getKey() + "#" + i), node.getValue());
+            }
+        }
+        ring = updated;
+    }
+
+    /**
+     * Hash de 64 bits de um texto: FNV-1a sobre os bytes UTF-8, seguido da etapa final do
+     * MurmurHash3 para espalhar bem chaves parecidas (ex: "node#1", "node#2").
+     * @param key O texto.
+     * @return O hash.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
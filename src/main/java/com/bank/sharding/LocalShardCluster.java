@@ -0,0 +1,138 @@
+package com.bank.sharding;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunto de nós do motor bancário executados como processos locais, para testes e benchmarks
+ * do {@code ShardRouter}.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b> Cada nó é uma JVM separada executando
+ * {@code ShardNode} com o mesmo classpath do processo atual, em duas portas livres (comandos e
+ * journal) e com o próprio journal ({@code -Dbank.log.file}) no diretório informado. A saída dos
+ * nós é descartada. O nó é considerado pronto quando as duas portas aceitam conexões.
+ */
+public class LocalShardCluster implements Closeable {
+    private static final long STARTUP_TIMEOUT_MILLIS = 30_000;
+
+    private final Path directory;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+    private final Map<InetSocketAddress, InetSocketAddress> journalAddresses = new LinkedHashMap<>();
+
+    /**
+     * Inicia os nós.
+     * @param directory O diretório dos journals dos nós.
+     * @param nodes O número de nós.
+     * @throws IOException Se um nó não puder ser iniciado.
+     */
+    public LocalShardCluster(Path directory, int nodes) throws IOException {
+        this.directory = directory;
+        try {
+            for (int i = 0; i < nodes; i++) {
+                addNode();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Inicia mais um nó.
+     * @return O endereço do {@code CommandServer} do novo nó.
+     * @throws IOException Se o nó não puder ser iniciado.
+     */
+    public synchronized InetSocketAddress addNode() throws IOException {
+        int index = processes.size();
+        int port = freePort();
+        int journalPort = freePort();
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(Arrays.asList(javaBin,
+                "-Dbank.log.file=" + directory.resolve("node-" + index + ".log"),
+                "-cp", System.getProperty("java.class.path"),
+                ShardNode.class.getName(), String.valueOf(port), String.valueOf(journalPort)))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        processes.add(process);
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        InetSocketAddress journalAddress = new InetSocketAddress("localhost", journalPort);
+        awaitListening(process, address);
+        awaitListening(process, journalAddress);
+        addresses.add(address);
+        journalAddresses.put(address, journalAddress);
+        return address;
+    }
+
+    /**
+     * Retorna os endereços dos nós, na ordem de criação.
+     * @return Os endereços.
+     */
+    public synchronized List<InetSocketAddress> getAddresses() {
+        return Collections.unmodifiableList(new ArrayList<>(addresses));
+    }
+
+    /**
+     * Retorna o endereço do {@code JournalShipper} de cada nó, pela chave do endereço de comandos.
+     * @return Os endereços dos journals.
+     */
+    public synchronized Map<InetSocketAddress, InetSocketAddress> getJournalAddresses() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(journalAddresses));
+    }
+
+    /**
+     * Encerra todos os nós.
+     */
+    @Override
+    public synchronized void close() {
+        for (Process process : processes) {
+            process.destroyForcibly();
+        }
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitListening(Process process, InetSocketAddress address) throws IOException {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                // A conexão só confirma que o nó escuta; é fechada logo em seguida
+                new Socket(address.getHostString(), address.getPort()).close();
+                return;
+            } catch (IOException e) {
+                if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                    throw new IOException("Node on port " + address.getPort() + " did not start", e);
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while starting node", interrupted);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.sharding;
+
+/**
+ * Resultado de uma migração de contas para um novo nó ({@code ShardRebalancer}).
+ * Objeto imutável com as contagens e os tempos medidos.
+ */
+public final class MigrationReport {
+    private final int accountsMoved;
+    private final int batches;
+    private final long deltasApplied;
+    private final int mismatches;
+    private final long elapsedNanos;
+    private final long maxPauseNanos;
+    private final long totalPauseNanos;
+
+    /**
+     * Construtor para {@code MigrationReport}.
+     * @param accountsMoved Contas movidas.
+     * @param batches Lotes cercados.
+     * @param deltasApplied Entradas do journal aplicadas sobre o snapshot.
+     * @param mismatches Contas cujo saldo acompanhado pelo journal divergiu do saldo final lido na cerca.
+     * @param elapsedNanos Duração total da migração.
+     * @param maxPauseNanos Maior pausa de escrita de um lote (e, portanto, de uma conta).
+     * @param totalPauseNanos Soma das pausas de todos os lotes.
+     */
+    MigrationReport(int accountsMoved, int batches, long deltasApplied, int mismatches, long elapsedNanos,
+                    long maxPauseNanos, long totalPauseNanos) {
+        this.accountsMoved = accountsMoved;
+        this.batches = batches;
+        this.deltasApplied = deltasApplied;
+        this.mismatches = mismatches;
+        this.elapsedNanos = elapsedNanos;
+        this.maxPauseNanos = maxPauseNanos;
+        this.totalPauseNanos = totalPauseNanos;
+    }
+
+    public int getAccountsMoved() { return accountsMoved; }
+    public int getBatches() { return batches; }
+    public long getDeltasApplied() { return deltasApplied; }
+    public int getMismatches() { return mismatches; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Maior tempo em que as escritas de uma conta ficaram suspensas durante a migração.
+     * @return A pausa máxima, em nanossegundos.
+     */
+    public long getMaxPauseNanos() { return maxPauseNanos; }
+
+    /**
+     * Pausa média por lote.
+     * @return A pausa média, em nanossegundos.
+     */
+    public long getAveragePauseNanos() {
+        return batches == 0 ? 0 : totalPauseNanos / batches;
+    }
+
+    /**
+     * Vazão da migração.
+     * @return Contas movidas por segundo.
+     */
+    public double getAccountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accountsMoved * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MigrationReport{moved=%d, batches=%d, deltas=%d, mismatches=%d, elapsed=%.1fms, "
+                        + "throughput=%.0f accounts/s, maxPause=%.2fms, avgPause=%.2fms}",
+                accountsMoved, batches, deltasApplied, mismatches, elapsedNanos / 1e6, getAccountsPerSecond(),
+                maxPauseNanos / 1e6, getAveragePauseNanos() / 1e6);
+    }
+}
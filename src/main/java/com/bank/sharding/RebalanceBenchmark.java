@@ -0,0 +1,201 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.server.CommandResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark do rebalanceamento online: acrescenta um nó a um cluster local sob carga e mede a
+ * migração ({@code ShardRebalancer}) e o efeito sobre o tráfego.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Preparação:</b> Inicia os nós ({@code LocalShardCluster}), cria as contas pelo
+ *         roteador e inicia a carga: depósitos, saques e transferências entre contas aleatórias,
+ *         cada thread com até "window" comandos em voo.</li>
+ *     <li><b>Antes:</b> Mede a vazão por alguns segundos.</li>
+ *     <li><b>Migração:</b> Inicia mais um nó e move para ele as contas que lhe cabem, com a
+ *         carga rodando. Mede a vazão durante a migração e a maior latência de um comando.</li>
+ *     <li><b>Relatório:</b> Contas movidas por segundo, a maior pausa de escrita de uma conta,
+ *         a pausa média por lote, a distribuição das contas entre os nós e a conferência da soma
+ *         dos saldos (nenhum comando perdido ou aplicado duas vezes na troca de dono).</li>
+ * </ol>
+ *
+ * <p>Configuração por propriedades: "bank.shard.nodes" (nós iniciais, padrão 2),
+ * "bank.rebalance.batch" (contas por lote, padrão 64), "bank.load.clients" (threads, padrão 2),
+ * "bank.load.window" (comandos em voo por thread, padrão 64), "bank.load.seconds" (duração da
+ * medição antes da migração, padrão 5) e "bank.load.accounts" (padrão 5000).
+ */
+public class RebalanceBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.0;
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     * @throws Exception Se a execução falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int nodes = Integer.getInteger("bank.shard.nodes", 2);
+        int batchSize = Integer.getInteger("bank.rebalance.batch", ShardRebalancer.DEFAULT_BATCH_SIZE);
+        int clients = Integer.getInteger("bank.load.clients", 2);
+        int window = Integer.getInteger("bank.load.window", 64);
+        int seconds = Integer.getInteger("bank.load.seconds", 5);
+        int accountCount = Integer.getInteger("bank.load.accounts", 5000);
+
+        System.out.println("Processors: " + Runtime.getRuntime().availableProcessors() + ", nodes: " + nodes + " -> " + (nodes + 1)
+                + ", accounts: " + accountCount + ", batch: " + batchSize + ", clients: " + clients + ", window: " + window);
+        Path directory = Files.createTempDirectory("bank-rebalance-");
+        try (LocalShardCluster cluster = new LocalShardCluster(directory, nodes);
+             ShardRouter router = new ShardRouter(cluster.getAddresses(), directory.resolve("coordinator.log"))) {
+            String[] accounts = new String[accountCount];
+            for (int i = 0; i < accountCount; i++) {
+                accounts[i] = router.createAccount(AccountType.CHECKING, "Rebalance " + i, INITIAL_BALANCE, INITIAL_BALANCE);
+            }
+
+            Load load = new Load(router, accounts, clients, window);
+            load.start();
+            Thread.sleep(1000);
+            long before = load.completed.get();
+            long beforeStart = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            double rateBefore = (load.completed.get() - before) * 1e9 / (System.nanoTime() - beforeStart);
+
+            InetSocketAddress newNode = cluster.addNode();
+            ShardRebalancer rebalancer = new ShardRebalancer(router, cluster.getJournalAddresses(), batchSize);
+            long during = load.completed.get();
+            load.maxLatencyNanos.set(0);
+            MigrationReport report = rebalancer.addNode(newNode);
+            double rateDuring = (load.completed.get() - during) * 1e9 / report.getElapsedNanos();
+            long maxLatency = load.maxLatencyNanos.get();
+            load.stop();
+
+            int[] perNode = new int[router.getNodeCount()];
+            double total = 0;
+            for (String account : accounts) {
+                perNode[router.getNodeIndex(account)]++;
+                total += router.getBalance(account).get().getBalance();
+            }
+            double expected = accounts.length * INITIAL_BALANCE + load.netDeposits.get();
+
+            System.out.printf("Before migration: %.0f commands/s%n", rateBefore);
+            System.out.printf("During migration: %.0f commands/s, max command latency %.2f ms%n", rateDuring, maxLatency / 1e6);
+            System.out.printf("Migration: %d accounts in %.1f ms (%.0f accounts/s), %d batches, %d journal deltas applied%n",
+                    report.getAccountsMoved(), report.getElapsedNanos() / 1e6, report.getAccountsPerSecond(),
+                    report.getBatches(), report.getDeltasApplied());
+            System.out.printf("Write pause per account: max %.2f ms, average per batch %.2f ms%n",
+                    report.getMaxPauseNanos() / 1e6, report.getAveragePauseNanos() / 1e6);
+            StringBuilder distribution = new StringBuilder();
+            for (int count : perNode) {
+                distribution.append(distribution.length() == 0 ? "" : " / ").append(count);
+            }
+            System.out.println("Accounts per node: " + distribution);
+            System.out.println("Snapshot + deltas vs final balance mismatches: " + report.getMismatches()
+                    + ", rejected/failed commands: " + load.failed.get());
+            System.out.println("Balance check: " + (Math.abs(total - expected) < 1e-6 ? "OK" : "MISMATCH (" + total + " vs " + expected + ")"));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Carga contínua pelo roteador até stop().
+     */
+    private static final class Load {
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong netDeposits = new AtomicLong();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+        private final ShardRouter router;
+        private final String[] accounts;
+        private final int window;
+        private final List<Thread> senders = new ArrayList<>();
+        private final List<Throwable> failures = new ArrayList<>();
+        private volatile boolean running = true;
+
+        Load(ShardRouter router, String[] accounts, int clients, int window) {
+            this.router = router;
+            this.accounts = accounts;
+            this.window = window;
+            for (int c = 0; c < clients; c++) {
+                senders.add(new Thread(this::send, "rebalance-load-" + c));
+            }
+        }
+
+        void start() {
+            for (Thread sender : senders) {
+                sender.start();
+            }
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            for (Thread sender : senders) {
+                sender.join();
+            }
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException("Load client failed", failures.get(0));
+            }
+        }
+
+        private void send() {
+            Semaphore inFlight = new Semaphore(window);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                while (running) {
+                    inFlight.acquire();
+                    String account = accounts[random.nextInt(accounts.length)];
+                    int op = random.nextInt(10);
+                    long sentAt = System.nanoTime();
+                    CompletableFuture<CommandResult> result;
+                    int delta;
+                    if (op == 0) {
+                        result = router.transfer(account, accounts[random.nextInt(accounts.length)], 1.0);
+                        delta = 0;
+                    } else if (op == 1) {
+                        result = router.withdraw(account, 1.0);
+                        delta = -1;
+                    } else {
+                        result = router.deposit(account, 1.0);
+                        delta = 1;
+                    }
+                    result.whenComplete((r, e) -> {
+                        if (e != null || !r.isOk()) {
+                            failed.incrementAndGet();
+                        } else {
+                            netDeposits.addAndGet(delta);
+                            completed.incrementAndGet();
+                            maxLatencyNanos.accumulateAndGet(System.nanoTime() - sentAt, Math::max);
+                        }
+                        inFlight.release();
+                    });
+                }
+                // Aguarda as respostas restantes
+                inFlight.acquire(window);
+            } catch (Exception e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        }
+    }
+}
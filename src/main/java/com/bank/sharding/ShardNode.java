@@ -0,0 +1,56 @@
+package com.bank.sharding;
+
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionLogger;
+import com.bank.replication.JournalShipper;
+import com.bank.server.BankingHttpServer;
+import com.bank.server.CommandServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Ponto de entrada para executar um nó do banco distribuído em um processo próprio.
+ *
+ * <p><b>USO:</b>
+ * <pre>
+ * java -Dbank.log.file=no-0.log com.bank.sharding.ShardNode &lt;portaComandos&gt; &lt;portaJournal&gt;
+ * </pre>
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b> O nó atende o protocolo binário
+ * ({@code CommandServer}), usado pelo {@code ShardRouter}, e disponibiliza o seu journal por um
+ * {@code JournalShipper}, que serve tanto a réplicas quanto ao {@code ShardRebalancer} quando
+ * contas deste nó são movidas para outro. Por isso o nó não inicia com a rotação do log ativa.
+ */
+public class ShardNode {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: ShardNode <commandPort> <journalPort>");
+            return;
+        }
+        try {
+            JournalShipper.requireUnrotatedJournal();
+        } catch (IllegalStateException e) {
+            System.out.println("Shard node cannot start: " + e.getMessage());
+            return;
+        }
+        int threads = Integer.getInteger("bank.command.threads", Runtime.getRuntime().availableProcessors());
+        CommandServer server = new CommandServer(new BankingFacade(), new InetSocketAddress(Integer.parseInt(args[0])),
+                BankingHttpServer.createExecutor("fixed", threads));
+        JournalShipper shipper = new JournalShipper(TransactionLogger.getInstance().getLogFile(),
+                new InetSocketAddress(Integer.parseInt(args[1])), 1);
+        shipper.start();
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                shipper.close();
+                server.close();
+            } catch (IOException ignored) {
+                // Encerrando o processo
+            }
+        }));
+        System.out.println("Shard node: command port " + server.getPort() + ", journal port " + shipper.getPort());
+        server.awaitTermination();
+    }
+}
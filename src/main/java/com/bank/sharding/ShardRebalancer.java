@@ -0,0 +1,369 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionRecord;
+import com.bank.replication.JournalFollower;
+import com.bank.server.CommandClient;
+import com.bank.server.CommandResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migra contas para um novo nó sem parar o tráfego do {@code ShardRouter} (rebalanceamento online).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Destino:</b> O roteador passa a conhecer o anel com o novo nó; as contas que mudam
+ *         de dono são as que o anel novo atribui ao novo nó (em média 1/N de cada origem).</li>
+ *     <li><b>Snapshot:</b> Para cada nó de origem, lista as contas (SCAN) e copia as que mudam
+ *         (EXPORT): dados, saldo e a posição do journal da origem no momento da leitura.</li>
+ *     <li><b>Deltas:</b> Um {@code JournalFollower} lê o journal da origem a partir da menor
+ *         posição do snapshot e aplica ao saldo copiado cada entrada de uma conta em movimento
+ *         posterior à sua posição, enquanto o tráfego continua na origem.</li>
+ *     <li><b>Cerca e troca, em lotes:</b> Para cada lote de contas, o roteador suspende as novas
+ *         operações sobre elas e espera as que estão em voo. Com o lote parado, o saldo final é
+ *         lido na origem (EXPORT), o leitor do journal alcança essa posição (o saldo acompanhado
+ *         deve coincidir com o final), as contas são criadas no novo nó com o saldo final, o
+ *         roteador passa a enviá-las ao novo nó e as operações suspensas seguem para ele. Só
+ *         então as contas são removidas da origem (DROP), fora da pausa.</li>
+ *     <li><b>Conclusão:</b> O anel com o novo nó substitui o atual.</li>
+ * </ol>
+ * A pausa de escrita de uma conta é a duração da cerca do seu lote; lotes menores reduzem a
+ * pausa e aumentam o número de idas e vindas. O relatório ({@code MigrationReport}) traz a vazão
+ * da migração e a maior pausa.
+ *
+ * <p>As contas de um lote não podem ter transferências entre nós pendentes na origem: o
+ * roteador só libera a cerca de uma conta quando as transferências que a envolvem terminam,
+ * mas reservas deixadas por um coordenador que caiu devem ser resolvidas (recover()) antes da
+ * migração. Se a migração falhar no meio, as contas já movidas continuam roteadas para o novo
+ * nó e as demais permanecem na origem.
+ */
+public class ShardRebalancer {
+    /** Tamanho padrão do lote cercado de uma vez */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Início do campo da conta nas entradas do journal ("... - Deposit: Account X, ...") */
+    private static final String ACCOUNT_FIELD = ": Account ";
+    /** Distância do fim do journal considerada alcançada antes de cercar um lote */
+    private static final long CATCH_UP_BYTES = 16 * 1024;
+    /** Máximo de tentativas de alcançar o journal antes de cercar mesmo assim */
+    private static final int MAX_CATCH_UP_ROUNDS = 8;
+    /** Consultas de saldo enviadas ao novo nó antes da primeira cerca */
+    private static final int WARM_UP_ROUNDS = 200;
+
+    private final ShardRouter router;
+    private final Map<InetSocketAddress, InetSocketAddress> journalAddresses;
+    private final int batchSize;
+
+    /**
+     * Estado copiado de uma conta em movimento, atualizado pelo leitor do journal.
+     */
+    private static final class MovingAccount {
+        final AccountType type;
+        final double parameter;
+        final String customerName;
+        /** Saldo do snapshot mais os deltas do journal */
+        volatile double balance;
+        /** Posição do journal até a qual o saldo já está refletido */
+        volatile long offset;
+
+        MovingAccount(AccountType type, double parameter, String customerName, double balance, long offset) {
+            this.type = type;
+            this.parameter = parameter;
+            this.customerName = customerName;
+            this.balance = balance;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Construtor para {@code ShardRebalancer}.
+     * @param router O roteador em uso pelo tráfego.
+     * @param journalAddresses O endereço do {@code JournalShipper} de cada nó, pela chave do
+     *                         endereço do seu {@code CommandServer}.
+     * @param batchSize Quantas contas são cercadas e trocadas de uma vez.
+     */
+    public ShardRebalancer(ShardRouter router, Map<InetSocketAddress, InetSocketAddress> journalAddresses, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.router = router;
+        this.journalAddresses = journalAddresses;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Acrescenta um nó e move para ele as contas que passam a lhe pertencer.
+     * @param node O endereço do {@code CommandServer} do novo nó (vazio).
+     * @return As contagens e tempos da migração.
+     * @throws IOException Se um nó não responder ou a cópia de um lote falhar.
+     * @throws InterruptedException Se a migração for interrompida.
+     */
+    public MigrationReport addNode(InetSocketAddress node) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<CommandClient> sources = router.getRingNodes();
+        CommandClient target = router.beginMigration(node);
+        warmUp(target);
+        int moved = 0;
+        int batches = 0;
+        int mismatches = 0;
+        long maxPause = 0;
+        long totalPause = 0;
+        AtomicLong deltas = new AtomicLong();
+
+        for (CommandClient source : sources) {
+            List<String> moving = new ArrayList<>();
+            for (String accountNumber : scan(source)) {
+                if (router.targetOwnerOf(accountNumber) == target) {
+                    moving.add(accountNumber);
+                }
+            }
+            if (moving.isEmpty()) {
+                continue;
+            }
+
+            Map<String, MovingAccount> snapshot = snapshot(source, moving);
+            long fromOffset = Long.MAX_VALUE;
+            for (MovingAccount account : snapshot.values()) {
+                fromOffset = Math.min(fromOffset, account.offset);
+            }
+            InetSocketAddress journalAddress = journalAddresses.get(router.addressOf(source));
+            if (journalAddress == null) {
+                throw new IllegalArgumentException("No journal address for node " + router.addressOf(source));
+            }
+
+            List<CompletableFuture<CommandResult>> drops = new ArrayList<>();
+            try (JournalFollower follower = new JournalFollower(journalAddress, fromOffset,
+                    (line, endOffset) -> applyDelta(snapshot, line, endOffset, deltas))) {
+                follower.start();
+                for (int from = 0; from < moving.size(); from += batchSize) {
+                    List<String> batchAccounts = new ArrayList<>();
+                    for (String accountNumber : moving.subList(from, Math.min(moving.size(), from + batchSize))) {
+                        if (snapshot.containsKey(accountNumber)) {
+                            batchAccounts.add(accountNumber);
+                        }
+                    }
+                    if (batchAccounts.isEmpty()) {
+                        continue;
+                    }
+                    catchUp(source, follower, batchAccounts.get(0));
+                    ShardRouter.MigrationBatch batch = router.openBatch(new HashSet<>(batchAccounts));
+                    long fencedAt = System.nanoTime();
+                    boolean copied = false;
+                    try {
+                        router.fence(batch);
+                        mismatches += copyBatch(source, target, follower, snapshot, batchAccounts);
+                        copied = true;
+                    } finally {
+                        router.release(batch, copied ? target : null);
+                        long pause = System.nanoTime() - fencedAt;
+                        maxPause = Math.max(maxPause, pause);
+                        totalPause += pause;
+                        batches++;
+                    }
+                    moved += batchAccounts.size();
+                    for (String accountNumber : batchAccounts) {
+                        drops.add(source.drop(accountNumber));
+                    }
+                }
+            }
+            for (CompletableFuture<CommandResult> drop : drops) {
+                await(drop);
+            }
+        }
+        router.finishMigration();
+        return new MigrationReport(moved, batches, deltas.get(), mismatches, System.nanoTime() - start, maxPause, totalPause);
+    }
+
+    /**
+     * Envia consultas de saldo ao novo nó antes da primeira cerca, para que o custo de um
+     * processo recém-iniciado (carga de classes, compilação, conexão) não entre na pausa do
+     * primeiro lote. As consultas são de uma conta inexistente e só de leitura: não escrevem no
+     * journal nem no log de transações do nó.
+     */
+    private static void warmUp(CommandClient target) throws IOException {
+        String probe = "migration-probe-" + UUID.randomUUID();
+        List<CompletableFuture<CommandResult>> balances = new ArrayList<>();
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            balances.add(target.balance(probe));
+        }
+        for (CompletableFuture<CommandResult> balance : balances) {
+            await(balance);
+        }
+    }
+
+    /**
+     * Aguarda, antes de cercar um lote, que o leitor do journal chegue perto do fim do journal
+     * da origem (obtido com um EXPORT). Como o journal cresce enquanto o leitor o alcança, a
+     * espera se repete até que a distância restante seja pequena; assim, dentro da cerca só
+     * resta ler o que foi escrito nos últimos instantes.
+     */
+    private static void catchUp(CommandClient source, JournalFollower follower, String accountNumber)
+            throws IOException, InterruptedException {
+        for (int round = 0; round < MAX_CATCH_UP_ROUNDS; round++) {
+            CommandResult probe = await(source.export(accountNumber));
+            if (!probe.isOk()) {
+                return;
+            }
+            long journalEnd = Long.parseLong(probe.getDetail().split("\t", 4)[2]);
+            if (journalEnd - follower.getOffset() <= CATCH_UP_BYTES) {
+                return;
+            }
+            if (!follower.awaitOffset(journalEnd, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))) {
+                throw new IOException("Journal follower did not reach offset " + journalEnd);
+            }
+        }
+    }
+
+    /**
+     * Lista todas as contas de um nó, página a página.
+     */
+    private static List<String> scan(CommandClient source) throws IOException {
+        List<String> accounts = new ArrayList<>();
+        String cursor = "";
+        while (true) {
+            String page = await(source.scan(cursor)).getDetail();
+            if (page == null || page.isEmpty()) {
+                return accounts;
+            }
+            for (String accountNumber : page.split("\n")) {
+                accounts.add(accountNumber);
+                cursor = accountNumber;
+            }
+        }
+    }
+
+    /**
+     * Copia o estado das contas em movimento (com pipelining: todos os EXPORT são enviados
+     * antes de aguardar as respostas). Contas removidas nesse meio tempo são ignoradas.
+     */
+    private static Map<String, MovingAccount> snapshot(CommandClient source, List<String> moving) throws IOException {
+        List<CompletableFuture<CommandResult>> exports = new ArrayList<>(moving.size());
+        for (String accountNumber : moving) {
+            exports.add(source.export(accountNumber));
+        }
+        Map<String, MovingAccount> snapshot = new HashMap<>();
+        for (int i = 0; i < moving.size(); i++) {
+            CommandResult result = await(exports.get(i));
+            if (result.isOk()) {
+                String[] fields = result.getDetail().split("\t", 4);
+                snapshot.put(moving.get(i), new MovingAccount(AccountType.valueOf(fields[0]), Double.parseDouble(fields[1]),
+                        fields[3], result.getBalance(), Long.parseLong(fields[2])));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Aplica uma entrada do journal da origem ao saldo copiado, se for de uma conta em
+     * movimento e posterior ao que o saldo já reflete. As entradas trazem o saldo resultante,
+     * então aplicá-las é atribuir esse saldo.
+     */
+    private static void applyDelta(Map<String, MovingAccount> snapshot, String line, long endOffset, AtomicLong deltas) {
+        // Filtro rápido pelo número da conta: a maioria das entradas é de contas que não se movem
+        int accountStart = line.indexOf(ACCOUNT_FIELD);
+        if (accountStart < 0) {
+            return;
+        }
+        accountStart += ACCOUNT_FIELD.length();
+        int accountEnd = line.indexOf(',', accountStart);
+        if (accountEnd < 0 || !snapshot.containsKey(line.substring(accountStart, accountEnd))) {
+            return;
+        }
+        TransactionRecord record = TransactionRecord.parse(line);
+        if (record == null || record.getAccountNumber() == null || Double.isNaN(record.getNewBalance())) {
+            return;
+        }
+        MovingAccount account = snapshot.get(record.getAccountNumber());
+        if (account == null || endOffset <= account.offset) {
+            return;
+        }
+        switch (record.getType()) {
+            case "Deposit":
+            case "Withdrawal":
+            case "Interest":
+                account.balance = record.getNewBalance();
+                account.offset = endOffset;
+                deltas.incrementAndGet();
+                break;
+            case BankingFacade.ACCOUNT_REMOVED_RECORD:
+                account.offset = endOffset;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Copia um lote cercado para o novo nó.
+     * <p><b>LÓGICA:</b> Com o lote parado, o EXPORT dá o saldo final e a posição do journal que
+     * o contém. O leitor do journal é aguardado até essa posição, de modo que o saldo acompanhado
+     * pelos deltas pode ser conferido com o final; a conta é criada no destino com o saldo final.
+     *
+     * @return O número de contas em que o saldo acompanhado divergiu do final.
+     */
+    private static int copyBatch(CommandClient source, CommandClient target, JournalFollower follower,
+                                 Map<String, MovingAccount> snapshot, List<String> batchAccounts)
+            throws IOException, InterruptedException {
+        List<CompletableFuture<CommandResult>> exports = new ArrayList<>(batchAccounts.size());
+        for (String accountNumber : batchAccounts) {
+            exports.add(source.export(accountNumber));
+        }
+        double[] finalBalances = new double[batchAccounts.size()];
+        long lastOffset = 0;
+        for (int i = 0; i < batchAccounts.size(); i++) {
+            CommandResult result = await(exports.get(i));
+            if (!result.isOk()) {
+                throw new IOException("Account " + batchAccounts.get(i) + " disappeared from its node during migration");
+            }
+            finalBalances[i] = result.getBalance();
+            lastOffset = Math.max(lastOffset, Long.parseLong(result.getDetail().split("\t", 4)[2]));
+        }
+        if (!follower.awaitOffset(lastOffset, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))) {
+            throw new IOException("Journal follower did not reach offset " + lastOffset);
+        }
+
+        int mismatches = 0;
+        List<CompletableFuture<CommandResult>> creates = new ArrayList<>(batchAccounts.size());
+        for (int i = 0; i < batchAccounts.size(); i++) {
+            MovingAccount account = snapshot.get(batchAccounts.get(i));
+            if (Double.compare(account.balance, finalBalances[i]) != 0) {
+                mismatches++;
+            }
+            creates.add(target.create(batchAccounts.get(i), account.type, account.customerName, finalBalances[i], account.parameter));
+        }
+        for (int i = 0; i < creates.size(); i++) {
+            CommandResult result = await(creates.get(i));
+            if (!result.isOk()) {
+                throw new IOException("Target node refused account " + batchAccounts.get(i) + ": " + result.getStatus());
+            }
+        }
+        return mismatches;
+    }
+
+    private static CommandResult await(CompletableFuture<CommandResult> future) throws IOException {
+        try {
+            return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Node did not respond in " + TIMEOUT_SECONDS + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a node");
+        }
+    }
+}
@@ -0,0 +1,706 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.server.CommandClient;
+import com.bank.server.CommandResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roteador que distribui as contas entre vários nós do motor bancário (cada um uma
+ * {@code BankingFacade} atrás de um {@code CommandServer}, normalmente em processos separados),
+ * para que o total de contas não fique limitado à memória de um único processo.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Particionamento:</b> O dono de cada conta é escolhido por hashing consistente
+ *         ({@code ConsistentHashRing}) sobre o número da conta. Por isso o roteador gera o número
+ *         (UUID) na criação e pede ao nó dono que crie a conta com ele.</li>
+ *     <li><b>Operações de uma conta:</b> Depósitos, saques e consultas de saldo são repassados
+ *         ao nó dono pelo protocolo binário, sem espera (os métodos retornam futuros).</li>
+ *     <li><b>Transferências no mesmo nó:</b> São repassadas como uma transferência comum.</li>
+ *     <li><b>Transferências entre nós (two-phase commit):</b>
+ *         <ul>
+ *             <li>Grava BEGIN no log do coordenador ({@code TransferCoordinatorLog}).</li>
+ *             <li>Fase 1: pede em paralelo RESERVE do débito ao nó de origem (o valor sai da
+ *                 conta e fica reservado) e do crédito ao nó de destino (a conta é verificada).</li>
+ *             <li>Decisão: COMMIT se os dois votaram "sim"; caso contrário (recusa, conta
+ *                 inexistente ou nó inacessível), ABORT. A decisão é gravada no log.</li>
+ *             <li>Fase 2: envia a decisão aos dois nós; no COMMIT o destino recebe o crédito, no
+ *                 ABORT a origem recebe a reserva de volta. Com as duas confirmações, grava END.
+ *                 Um COMMIT só é devolvido ao chamador depois que os dois nós o confirmarem.</li>
+ *         </ul>
+ *     </li>
+ *     <li><b>Decisões não entregues:</b> Se a fase 2 falhar (nó inacessível) ou um nó responder
+ *         que não conhece a transferência, não há END: a decisão fica pendente e é reenviada a
+ *         cada {@value #RETRY_SECONDS}s enquanto o roteador estiver aberto.</li>
+ *     <li><b>Recuperação:</b> Ao ser criado, o roteador lê o log e conclui as transferências
+ *         que não chegaram a END: reenvia a decisão gravada ou, sem decisão, aborta. As que não
+ *         puderem ser concluídas passam para o reenvio periódico. Os nós tratam COMMIT/ABORT
+ *         repetidos como já aplicados; um COMMIT desconhecido responde NOT_FOUND.</li>
+ *     <li><b>Migração (novo nó):</b> {@code ShardRebalancer} move as contas para um nó novo
+ *         sem parar o tráfego. Durante a migração o roteador conhece o anel de destino: contas
+ *         novas já são criadas no dono final, contas já movidas são roteadas por um mapa de
+ *         exceções, e as operações sobre o lote em movimento passam por uma cerca (ver
+ *         {@code MigrationBatch}). No fim, o anel de destino substitui o atual.</li>
+ * </ol>
+ *
+ * <p>As reservas ficam na memória de cada nó; a recuperação cobre a queda do roteador (ou de
+ * uma conexão), não a perda do estado de um nó.
+ */
+public class ShardRouter implements Closeable {
+    /** Tempo máximo de espera por um nó durante a criação de contas e a recuperação */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Intervalo entre os reenvios das decisões não entregues */
+    static final long RETRY_SECONDS = 5;
+
+    private volatile ConsistentHashRing<CommandClient> ring = new ConsistentHashRing<>(ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+    private final List<CommandClient> clients = new CopyOnWriteArrayList<>();
+    /** Anel após a migração em andamento (null fora de uma migração) */
+    private volatile ConsistentHashRing<CommandClient> targetRing;
+    /** Contas já movidas na migração em andamento, com o novo dono */
+    private final Map<String, CommandClient> migratedOwners = new ConcurrentHashMap<>();
+    /** Lote de contas em movimento (null se nenhum) */
+    private volatile MigrationBatch activeBatch;
+    /** Criações de conta em andamento, aguardadas no início de uma migração */
+    private final AtomicInteger creating = new AtomicInteger();
+    /**
+     * Operações em voo fora de um lote, por época. Ao abrir um lote a época é trocada e a
+     * anterior é esvaziada, para que nenhuma operação enviada antes do lote continue em voo
+     * sem ser contada.
+     */
+    private final AtomicInteger[] inFlightByEpoch = {new AtomicInteger(), new AtomicInteger()};
+    private volatile int epoch;
+    /** Endereço de cada nó, para localizar o journal de uma origem de migração */
+    private final Map<CommandClient, InetSocketAddress> nodeAddresses = new ConcurrentHashMap<>();
+    private final TransferCoordinatorLog coordinatorLog;
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final AtomicLong crossShardTransfers = new AtomicLong();
+    /** Decisões ainda não confirmadas pelos dois nós, por transferência */
+    private final Map<String, UndeliveredDecision> undelivered = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService retrier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transfer-decision-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Envio de uma requisição que pode falhar de imediato.
+     */
+    @FunctionalInterface
+    private interface Request {
+        CompletableFuture<CommandResult> send() throws IOException;
+    }
+
+    /**
+     * Decisão gravada de uma transferência entre nós que algum nó ainda não confirmou.
+     */
+    private static final class UndeliveredDecision {
+        final TransferCoordinatorLog.InDoubtTransfer transfer;
+        /** Completado quando os dois nós confirmarem; o COMMIT do chamador espera por ele */
+        final CompletableFuture<Void> delivered = new CompletableFuture<>();
+        /** Se já foi avisado que um nó não conhece a transferência */
+        boolean reportedUnknown;
+
+        UndeliveredDecision(TransferCoordinatorLog.InDoubtTransfer transfer) {
+            this.transfer = transfer;
+        }
+    }
+
+    /**
+     * Lote de contas sendo movidas de nó.
+     * <p><b>LÓGICA:</b> Enquanto o lote está aberto, cada operação sobre uma de suas contas é
+     * contada em inFlight até terminar. Para cercar o lote, o migrador cria o gate e espera
+     * inFlight chegar a zero; operações que encontram o gate aguardam sua liberação e então são
+     * roteadas de novo (já para o novo dono). A operação incrementa inFlight antes de reler o
+     * gate e o migrador cria o gate antes de ler inFlight, então nenhuma operação escapa da cerca.
+     */
+    static final class MigrationBatch {
+        final Set<String> accounts;
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile CompletableFuture<Void> gate;
+
+        MigrationBatch(Set<String> accounts) {
+            this.accounts = accounts;
+        }
+
+        boolean covers(String accountNumber, String other) {
+            return accounts.contains(accountNumber) || (other != null && accounts.contains(other));
+        }
+    }
+
+    /**
+     * Conecta aos nós, conclui as transferências pendentes do log do coordenador e inicia o
+     * reenvio periódico das decisões não entregues.
+     * @param nodes Os endereços dos {@code CommandServer} de cada nó. O identificador de cada nó
+     *              no anel é "host:porta", então a mesma lista leva sempre à mesma distribuição.
+     * @param coordinatorLog O arquivo do log do coordenador.
+     * @throws IOException Se um nó estiver inacessível ou o log não puder ser aberto.
+     */
+    public ShardRouter(List<InetSocketAddress> nodes, Path coordinatorLog) throws IOException {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one node is required");
+        }
+        try {
+            for (InetSocketAddress address : nodes) {
+                CommandClient client = new CommandClient(address.getHostString(), address.getPort());
+                clients.add(client);
+                nodeAddresses.put(client, address);
+                ring.addNode(address.getHostString() + ":" + address.getPort(), client);
+            }
+            this.coordinatorLog = new TransferCoordinatorLog(coordinatorLog);
+        } catch (IOException | RuntimeException e) {
+            closeClients();
+            throw e;
+        }
+        int recovered;
+        try {
+            recovered = recover();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        if (recovered > 0) {
+            System.out.println("Recovered " + recovered + " in-doubt cross-shard transfers");
+        }
+        retrier.scheduleWithFixedDelay(this::retryUndelivered, RETRY_SECONDS, RETRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cria uma conta no nó responsável pelo número gerado.
+     * @param type O tipo de conta.
+     * @param customerName O titular.
+     * @param initialBalance O saldo inicial.
+     * @param parameter O limite de cheque especial ou a taxa de juros.
+     * @return O número da nova conta.
+     * @throws IOException Se o nó não responder.
+     * @throws IllegalArgumentException Se o nó recusar os dados da conta.
+     */
+    public String createAccount(AccountType type, String customerName, double initialBalance, double parameter) throws IOException {
+        String accountNumber = UUID.randomUUID().toString();
+        creating.incrementAndGet();
+        try {
+            // Durante uma migração a conta nasce no dono final e é roteada por exceção até a troca do anel
+            ConsistentHashRing<CommandClient> target = targetRing;
+            CommandClient owner = (target != null ? target : ring).nodeFor(accountNumber);
+            CommandResult result = await(owner.create(accountNumber, type, customerName, initialBalance, parameter));
+            if (!result.isOk()) {
+                throw new IllegalArgumentException("Account rejected by its node: " + result.getStatus());
+            }
+            if (target != null && owner != ring.nodeFor(accountNumber)) {
+                migratedOwners.put(accountNumber, owner);
+            }
+        } finally {
+            creating.decrementAndGet();
+        }
+        return accountNumber;
+    }
+
+    /**
+     * Deposita em uma conta, no nó dono.
+     * @param accountNumber A conta.
+     * @param amount O valor.
+     * @return O futuro do resultado.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> deposit(String accountNumber, double amount) throws IOException {
+        return guarded(() -> ownerOf(accountNumber).deposit(accountNumber, amount), accountNumber, null);
+    }
+
+    /**
+     * Saca de uma conta, no nó dono.
+     * @param accountNumber A conta.
+     * @param amount O valor.
+     * @return O futuro do resultado.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> withdraw(String accountNumber, double amount) throws IOException {
+        return guarded(() -> ownerOf(accountNumber).withdraw(accountNumber, amount), accountNumber, null);
+    }
+
+    /**
+     * Consulta o saldo de uma conta, no nó dono.
+     * @param accountNumber A conta.
+     * @return O futuro do resultado, com o saldo.
+     * @throws IOException Se o envio falhar.
+     */
+    public CompletableFuture<CommandResult> getBalance(String accountNumber) throws IOException {
+        return guarded(() -> ownerOf(accountNumber).balance(accountNumber), accountNumber, null);
+    }
+
+    /**
+     * Transfere entre duas contas, no mesmo nó ou entre nós (two-phase commit).
+     * @param fromAccountNumber A conta de origem.
+     * @param toAccountNumber A conta de destino.
+     * @param amount O valor.
+     * @return O futuro do resultado, com o saldo da origem. Entre nós, OK significa que a
+     *         transferência foi decidida (COMMIT); se um nó estava inacessível, o futuro falha
+     *         com a causa, e a transferência terá sido abortada.
+     * @throws IOException Se o log do coordenador não puder ser gravado ou o envio falhar.
+     */
+    public CompletableFuture<CommandResult> transfer(String fromAccountNumber, String toAccountNumber, double amount) throws IOException {
+        return guarded(() -> route(fromAccountNumber, toAccountNumber, amount), fromAccountNumber, toAccountNumber);
+    }
+
+    /**
+     * Envia uma transferência aos donos atuais das duas contas.
+     */
+    private CompletableFuture<CommandResult> route(String fromAccountNumber, String toAccountNumber, double amount) throws IOException {
+        CommandClient source = ownerOf(fromAccountNumber);
+        CommandClient destination = ownerOf(toAccountNumber);
+        if (source == destination) {
+            return source.transfer(fromAccountNumber, toAccountNumber, amount);
+        }
+        long correlationId = nextCorrelationId.incrementAndGet();
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            return CompletableFuture.completedFuture(new CommandResult(correlationId, CommandResult.Status.BAD_REQUEST, Double.NaN));
+        }
+
+        crossShardTransfers.incrementAndGet();
+        String transferId = UUID.randomUUID().toString();
+        TransferCoordinatorLog.InDoubtTransfer transfer =
+                new TransferCoordinatorLog.InDoubtTransfer(transferId, fromAccountNumber, toAccountNumber, amount);
+        coordinatorLog.begin(transferId, fromAccountNumber, toAccountNumber, amount);
+        CompletableFuture<CommandResult> debit = vote(() -> source.reserve(transferId, fromAccountNumber, -amount));
+        CompletableFuture<CommandResult> credit = vote(() -> destination.reserve(transferId, toAccountNumber, amount));
+        return debit.thenCombine(credit, (debitVote, creditVote) -> new CommandResult[]{debitVote, creditVote})
+                .thenCompose(votes -> decide(correlationId, transfer, source, destination, votes[0], votes[1], debit, credit));
+    }
+
+    /**
+     * Retorna o nó que atende uma conta agora: o novo dono, se ela já foi movida na migração em
+     * andamento, ou o dono pelo anel atual.
+     */
+    private CommandClient ownerOf(String accountNumber) {
+        if (!migratedOwners.isEmpty()) {
+            CommandClient migrated = migratedOwners.get(accountNumber);
+            if (migrated != null) {
+                return migrated;
+            }
+        }
+        return ring.nodeFor(accountNumber);
+    }
+
+    /**
+     * Envia uma requisição respeitando a cerca do lote em migração, se ela envolver uma de suas contas.
+     */
+    private CompletableFuture<CommandResult> guarded(Request request, String accountNumber, String other) throws IOException {
+        while (true) {
+            MigrationBatch batch = activeBatch;
+            if (batch != null && batch.covers(accountNumber, other)) {
+                return fenced(batch, request, accountNumber, other);
+            }
+            int current = epoch;
+            AtomicInteger inFlight = inFlightByEpoch[current];
+            inFlight.incrementAndGet();
+            // Releituras após o incremento: se um lote abriu nesse meio tempo, ou o migrador
+            // verá este incremento ao esvaziar a época, ou esta operação verá o lote
+            if (epoch == current && !covers(activeBatch, accountNumber, other)) {
+                return tracked(inFlight, request);
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static boolean covers(MigrationBatch batch, String accountNumber, String other) {
+        return batch != null && batch.covers(accountNumber, other);
+    }
+
+    /**
+     * Envia uma requisição contada em um contador de operações em voo até ela terminar.
+     */
+    private static CompletableFuture<CommandResult> tracked(AtomicInteger inFlight, Request request) throws IOException {
+        CompletableFuture<CommandResult> result;
+        try {
+            result = request.send();
+        } catch (IOException | RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        result.whenComplete((r, e) -> inFlight.decrementAndGet());
+        return result;
+    }
+
+    /**
+     * Envia uma requisição sobre uma conta do lote em migração, ou a adia se o lote estiver cercado.
+     */
+    private CompletableFuture<CommandResult> fenced(MigrationBatch batch, Request request, String accountNumber,
+                                                    String other) throws IOException {
+        CompletableFuture<Void> gate = batch.gate;
+        if (gate == null) {
+            batch.inFlight.incrementAndGet();
+            gate = batch.gate;
+            if (gate == null) {
+                return tracked(batch.inFlight, request);
+            }
+            batch.inFlight.decrementAndGet();
+        }
+        // Lote cercado: a requisição segue após a troca de dono, roteada novamente
+        return gate.thenCompose(ignored -> send(() -> guarded(request, accountNumber, other)));
+    }
+
+    /**
+     * Executa a fase 2 de uma transferência entre nós, depois dos dois votos.
+     */
+    private CompletableFuture<CommandResult> decide(long correlationId, TransferCoordinatorLog.InDoubtTransfer transfer,
+                                                    CommandClient source, CommandClient destination,
+                                                    CommandResult debitVote, CommandResult creditVote,
+                                                    CompletableFuture<CommandResult> debit, CompletableFuture<CommandResult> credit) {
+        String transferId = transfer.transferId;
+        boolean commit = debitVote != null && debitVote.isOk() && creditVote != null && creditVote.isOk();
+        try {
+            coordinatorLog.decide(transferId, commit);
+        } catch (IOException e) {
+            // Sem decisão gravada, a recuperação abortará; nada deve ser confirmado antes disso
+            return CompletableFuture.failedFuture(e);
+        }
+        transfer.decision = commit;
+        CompletableFuture<CommandResult> first = send(() -> commit ? source.commit(transferId) : source.abort(transferId));
+        CompletableFuture<CommandResult> second = send(() -> commit ? destination.commit(transferId) : destination.abort(transferId));
+        return first.thenCombine(second, (a, b) -> a.isOk() && b.isOk()).handle((acknowledged, failure) -> {
+            CompletableFuture<CommandResult> outcome;
+            if (commit) {
+                outcome = CompletableFuture.completedFuture(new CommandResult(correlationId, CommandResult.Status.OK, debitVote.getBalance()));
+            } else if (debitVote == null || creditVote == null) {
+                outcome = CompletableFuture.failedFuture(failureOf(debitVote == null ? debit : credit));
+            } else {
+                CommandResult refusal = debitVote.isOk() ? creditVote : debitVote;
+                outcome = CompletableFuture.completedFuture(new CommandResult(correlationId, refusal.getStatus(),
+                        debitVote.isOk() ? Double.NaN : debitVote.getBalance()));
+            }
+            if (failure == null && acknowledged) {
+                try {
+                    coordinatorLog.end(transferId);
+                } catch (IOException e) {
+                    // Sem END a recuperação reenviará a decisão, o que os nós toleram
+                }
+                return outcome;
+            }
+            UndeliveredDecision pending = new UndeliveredDecision(transfer);
+            pending.reportedUnknown = failure == null;
+            undelivered.put(transferId, pending);
+            System.out.println("Decision for transfer " + transferId + " not acknowledged ("
+                    + (failure == null ? "unknown to a node" : causeOf(failure).getMessage())
+                    + "); retrying every " + RETRY_SECONDS + "s");
+            // Um ABORT não entregue não muda a resposta; um COMMIT só é OK depois de chegar aos dois nós
+            return commit ? pending.delivered.thenCompose(ignored -> outcome) : outcome;
+        }).thenCompose(outcome -> outcome);
+    }
+
+    /**
+     * Reenvia a decisão gravada de uma transferência ao dono atual de uma das contas.
+     */
+    private CompletableFuture<CommandResult> resend(TransferCoordinatorLog.InDoubtTransfer transfer, String accountNumber) {
+        CommandClient owner = ownerOf(accountNumber);
+        return send(() -> transfer.decision ? owner.commit(transfer.transferId) : owner.abort(transfer.transferId));
+    }
+
+    /**
+     * Reenvia as decisões pendentes; chamado periodicamente pelo retrier.
+     * <p><b>LÓGICA:</b> Uma decisão só é concluída (END gravado, chamador liberado) quando os dois
+     * nós respondem OK. Um nó ainda inacessível fica para a próxima rodada; um nó que não conhece
+     * a transferência é avisado uma vez e a decisão continua pendente no log.
+     */
+    private void retryUndelivered() {
+        for (UndeliveredDecision pending : undelivered.values()) {
+            TransferCoordinatorLog.InDoubtTransfer transfer = pending.transfer;
+            try {
+                CommandResult source = await(resend(transfer, transfer.fromAccountNumber));
+                CommandResult destination = await(resend(transfer, transfer.toAccountNumber));
+                if (!source.isOk() || !destination.isOk()) {
+                    if (!pending.reportedUnknown) {
+                        pending.reportedUnknown = true;
+                        System.out.println("Transfer " + transfer.transferId + " is unknown to a node; kept in the coordinator log");
+                    }
+                    continue;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Nó ainda inacessível: nova tentativa na próxima rodada
+                continue;
+            }
+            try {
+                coordinatorLog.end(transfer.transferId);
+            } catch (IOException e) {
+                // Sem END a recuperação reenviará a decisão, o que os nós toleram
+            }
+            undelivered.remove(transfer.transferId, pending);
+            pending.delivered.complete(null);
+            System.out.println("Decision for transfer " + transfer.transferId + " delivered");
+        }
+    }
+
+    /**
+     * Envia um voto da fase 1; uma falha de envio ou de conexão vira um voto nulo ("não").
+     */
+    private static CompletableFuture<CommandResult> vote(Request request) {
+        return send(request).handle((result, failure) -> failure == null ? result : null);
+    }
+
+    private static CompletableFuture<CommandResult> send(Request request) {
+        try {
+            return request.send();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable causeOf(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static Throwable failureOf(CompletableFuture<CommandResult> future) {
+        try {
+            future.join();
+            return new IOException("Node unavailable");
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    /**
+     * Conclui as transferências entre nós que ficaram pela metade no log do coordenador.
+     * <p><b>LÓGICA:</b> Transferências com decisão gravada recebem a mesma decisão novamente;
+     * as sem decisão são abortadas (a decisão ABORT é gravada antes do envio). As que não
+     * puderem ser concluídas (nó inacessível ou que não conhece a transferência) permanecem no
+     * log e passam para o reenvio periódico.
+     *
+     * @return O número de transferências concluídas.
+     * @throws IOException Se o log não puder ser lido ou reescrito.
+     */
+    public synchronized int recover() throws IOException {
+        List<TransferCoordinatorLog.InDoubtTransfer> inDoubt = coordinatorLog.readUnfinished();
+        List<TransferCoordinatorLog.InDoubtTransfer> remaining = new ArrayList<>();
+        for (TransferCoordinatorLog.InDoubtTransfer transfer : inDoubt) {
+            if (transfer.decision == null) {
+                transfer.decision = Boolean.FALSE;
+                coordinatorLog.decide(transfer.transferId, false);
+            }
+            boolean known;
+            try {
+                known = await(resend(transfer, transfer.fromAccountNumber)).isOk()
+                        & await(resend(transfer, transfer.toAccountNumber)).isOk();
+            } catch (IOException e) {
+                System.out.println("Could not resolve transfer " + transfer.transferId + ": " + e.getMessage());
+                remaining.add(transfer);
+                undelivered.putIfAbsent(transfer.transferId, new UndeliveredDecision(transfer));
+                continue;
+            }
+            if (!known) {
+                System.out.println("Transfer " + transfer.transferId + " is unknown to a node; kept in the coordinator log");
+                remaining.add(transfer);
+                UndeliveredDecision pending = new UndeliveredDecision(transfer);
+                pending.reportedUnknown = true;
+                undelivered.putIfAbsent(transfer.transferId, pending);
+            }
+        }
+        coordinatorLog.rewrite(remaining);
+        return inDoubt.size() - remaining.size();
+    }
+
+    /**
+     * Inicia a migração para um novo nó: conecta a ele e passa a conhecer o anel de destino.
+     * Retorna só depois que as criações de conta iniciadas antes terminarem, para que nenhuma
+     * conta nova fique esquecida no dono antigo.
+     * @param address O endereço do novo nó.
+     * @return A conexão com o novo nó.
+     * @throws IOException Se o nó estiver inacessível.
+     */
+    synchronized CommandClient beginMigration(InetSocketAddress address) throws IOException {
+        if (targetRing != null) {
+            throw new IllegalStateException("A migration is already in progress");
+        }
+        CommandClient client = new CommandClient(address.getHostString(), address.getPort());
+        ConsistentHashRing<CommandClient> target = ring.copy();
+        try {
+            target.addNode(address.getHostString() + ":" + address.getPort(), client);
+        } catch (IllegalArgumentException e) {
+            client.close();
+            throw e;
+        }
+        clients.add(client);
+        nodeAddresses.put(client, address);
+        targetRing = target;
+        while (creating.get() > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        return client;
+    }
+
+    /**
+     * Retorna o dono de uma conta no anel de destino da migração em andamento.
+     */
+    CommandClient targetOwnerOf(String accountNumber) {
+        return targetRing.nodeFor(accountNumber);
+    }
+
+    /**
+     * Retorna o endereço de um nó.
+     */
+    InetSocketAddress addressOf(CommandClient client) {
+        return nodeAddresses.get(client);
+    }
+
+    /**
+     * Retorna as conexões com os nós do anel atual (as origens de uma migração).
+     */
+    List<CommandClient> getRingNodes() {
+        return ring.getNodes();
+    }
+
+    /**
+     * Abre um lote: as operações sobre suas contas passam a ser contadas no lote. Retorna depois
+     * que as operações enviadas antes (contadas na época anterior) terminarem.
+     * @throws IOException Se as operações em voo não terminarem no tempo máximo.
+     */
+    MigrationBatch openBatch(Set<String> accounts) throws IOException {
+        MigrationBatch batch = new MigrationBatch(accounts);
+        activeBatch = batch;
+        int previous = epoch;
+        epoch = 1 - previous;
+        awaitDrained(inFlightByEpoch[previous]);
+        return batch;
+    }
+
+    private static void awaitDrained(AtomicInteger inFlight) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IOException("Operations in flight did not finish in " + TIMEOUT_SECONDS + "s");
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(20));
+        }
+    }
+
+    /**
+     * Cerca o lote: novas operações sobre suas contas aguardam e as já enviadas terminam.
+     * @throws IOException Se as operações em voo não terminarem no tempo máximo.
+     */
+    void fence(MigrationBatch batch) throws IOException {
+        batch.gate = new CompletableFuture<>();
+        awaitDrained(batch.inFlight);
+    }
+
+    /**
+     * Libera o lote. Se as contas foram copiadas, passam a ser roteadas para o novo dono; as
+     * operações que aguardavam na cerca seguem para ele.
+     * @param newOwner O novo dono, ou null se a cópia falhou e as contas ficam na origem.
+     */
+    void release(MigrationBatch batch, CommandClient newOwner) {
+        if (newOwner != null) {
+            for (String accountNumber : batch.accounts) {
+                migratedOwners.put(accountNumber, newOwner);
+            }
+        }
+        // Sai do lote antes de abrir o gate, para que as operações liberadas não voltem a esperar
+        activeBatch = null;
+        CompletableFuture<Void> gate = batch.gate;
+        if (gate != null) {
+            gate.complete(null);
+        }
+    }
+
+    /**
+     * Conclui a migração: o anel de destino passa a ser o atual e as exceções deixam de ser necessárias.
+     */
+    synchronized void finishMigration() {
+        ring = targetRing;
+        targetRing = null;
+        migratedOwners.clear();
+    }
+
+    private static CommandResult await(CompletableFuture<CommandResult> future) throws IOException {
+        try {
+            return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Node did not respond in " + TIMEOUT_SECONDS + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a node");
+        }
+    }
+
+    /**
+     * Retorna qual nó é dono de uma conta.
+     * @param accountNumber A conta.
+     * @return O índice do nó na lista informada ao construtor (nós acrescentados por migração
+     *         vêm depois, na ordem em que foram acrescentados).
+     */
+    public int getNodeIndex(String accountNumber) {
+        return clients.indexOf(ownerOf(accountNumber));
+    }
+
+    /**
+     * Retorna o número de nós.
+     * @return O número de nós.
+     */
+    public int getNodeCount() {
+        return clients.size();
+    }
+
+    /**
+     * Retorna quantas transferências entre nós foram iniciadas por este roteador.
+     * @return O número de transferências entre nós.
+     */
+    public long getCrossShardTransferCount() {
+        return crossShardTransfers.get();
+    }
+
+    /**
+     * Retorna quantas decisões de transferência aguardam reenvio.
+     * @return O número de decisões não entregues.
+     */
+    public int getUndeliveredDecisionCount() {
+        return undelivered.size();
+    }
+
+    /**
+     * Para o reenvio das decisões e fecha as conexões com os nós e o log do coordenador.
+     * Os chamadores que aguardavam a entrega de um COMMIT recebem uma falha; a decisão
+     * continua no log para a próxima recuperação.
+     */
+    @Override
+    public void close() throws IOException {
+        retrier.shutdownNow();
+        for (UndeliveredDecision pending : undelivered.values()) {
+            pending.delivered.completeExceptionally(new IOException("Router closed before transfer "
+                    + pending.transfer.transferId + " was delivered"));
+        }
+        try {
+            closeClients();
+        } finally {
+            coordinatorLog.close();
+        }
+    }
+
+    private void closeClients() {
+        for (CommandClient client : clients) {
+            try {
+                client.close();
+            } catch (IOException ignored) {
+                // Conexão já encerrada
+            }
+        }
+    }
+}
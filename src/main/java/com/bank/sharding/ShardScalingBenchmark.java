@@ -0,0 +1,171 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.server.CommandResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de escalabilidade do {@code ShardRouter}: mede a vazão com 1, 2, 4... nós, cada um
+ * em seu próprio processo ({@code LocalShardCluster}).
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Preparação:</b> Para cada quantidade de nós, inicia os processos, cria as contas
+ *         pelo roteador (distribuídas por hashing consistente) e aquece por alguns segundos.</li>
+ *     <li><b>Carga:</b> Várias threads enviam comandos pelo roteador, cada uma com até "window"
+ *         em voo: 80% depósitos, 10% saques e 10% transferências entre contas aleatórias (com N
+ *         nós, cerca de (N-1)/N delas atravessam nós e usam two-phase commit).</li>
+ *     <li><b>Relatório:</b> Comandos por segundo, a fração de transferências entre nós e o ganho
+ *         em relação à primeira configuração. No fim de cada rodada, confere que a soma dos
+ *         saldos é a inicial mais os depósitos menos os saques concluídos, ou seja, que nenhuma
+ *         transferência entre nós criou ou perdeu dinheiro.</li>
+ * </ol>
+ * O ganho depende de haver processadores livres para os nós adicionais; em uma máquina com
+ * poucos núcleos, mais nós disputam a mesma CPU.
+ *
+ * <p>Configuração por propriedades: "bank.shard.nodes" (lista de quantidades, padrão "1,2,4"),
+ * "bank.load.clients" (threads, padrão 4), "bank.load.window" (comandos em voo por thread,
+ * padrão 256), "bank.load.seconds" (padrão 10), "bank.load.warmupSeconds" (padrão 3) e
+ * "bank.load.accounts" (padrão 1000).
+ */
+public class ShardScalingBenchmark {
+    private static final double INITIAL_BALANCE = 1_000_000.0;
+
+    /**
+     * Executa o benchmark.
+     * @param args Não utilizado.
+     * @throws Exception Se a execução falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        String[] nodeCounts = System.getProperty("bank.shard.nodes", "1,2,4").split(",");
+        int clients = Integer.getInteger("bank.load.clients", 4);
+        int window = Integer.getInteger("bank.load.window", 256);
+        int seconds = Integer.getInteger("bank.load.seconds", 10);
+        int warmupSeconds = Integer.getInteger("bank.load.warmupSeconds", 3);
+        int accountCount = Integer.getInteger("bank.load.accounts", 1000);
+
+        System.out.println("Processors: " + Runtime.getRuntime().availableProcessors() + ", accounts: " + accountCount
+                + ", clients: " + clients + ", window: " + window + ", duration: " + seconds + "s");
+        double baseline = 0;
+        for (String count : nodeCounts) {
+            int nodes = Integer.parseInt(count.trim());
+            Path directory = Files.createTempDirectory("bank-shards-");
+            try (LocalShardCluster cluster = new LocalShardCluster(directory, nodes);
+                 ShardRouter router = new ShardRouter(cluster.getAddresses(), directory.resolve("coordinator.log"))) {
+                String[] accounts = new String[accountCount];
+                for (int i = 0; i < accountCount; i++) {
+                    accounts[i] = router.createAccount(AccountType.CHECKING, "Shard " + i, INITIAL_BALANCE, INITIAL_BALANCE);
+                }
+                double rate = run(router, accounts, nodes, clients, window, warmupSeconds, seconds);
+                if (baseline == 0) {
+                    baseline = rate;
+                }
+                System.out.printf("  speedup vs %s node(s): %.2fx%n", nodeCounts[0].trim(), rate / baseline);
+            } finally {
+                deleteDirectory(directory);
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Executa uma rodada de carga e confere a soma dos saldos.
+     * @return A vazão medida, em comandos por segundo.
+     */
+    private static double run(ShardRouter router, String[] accounts, int nodes, int clients, int window,
+                              int warmupSeconds, int seconds) throws Exception {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong netDeposits = new AtomicLong();
+        long crossShardBefore = router.getCrossShardTransferCount();
+        AtomicLong transfers = new AtomicLong();
+        List<Thread> senders = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int c = 0; c < clients; c++) {
+            Thread sender = new Thread(() -> {
+                Semaphore inFlight = new Semaphore(window);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        inFlight.acquire();
+                        String account = accounts[random.nextInt(accounts.length)];
+                        int op = random.nextInt(10);
+                        CompletableFuture<CommandResult> result;
+                        int delta;
+                        if (op == 0) {
+                            transfers.incrementAndGet();
+                            result = router.transfer(account, accounts[random.nextInt(accounts.length)], 1.0);
+                            delta = 0;
+                        } else if (op == 1) {
+                            result = router.withdraw(account, 1.0);
+                            delta = -1;
+                        } else {
+                            result = router.deposit(account, 1.0);
+                            delta = 1;
+                        }
+                        result.whenComplete((r, e) -> {
+                            if (e != null || !r.isOk()) {
+                                failed.incrementAndGet();
+                            } else {
+                                netDeposits.addAndGet(delta);
+                                long end = System.nanoTime();
+                                if (end >= measureFrom && end <= deadline) {
+                                    completed.incrementAndGet();
+                                }
+                            }
+                            inFlight.release();
+                        });
+                    }
+                    // Aguarda as respostas restantes
+                    inFlight.acquire(window);
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, "shard-load-" + c);
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Load client failed", failures.get(0));
+        }
+
+        double total = 0;
+        for (String account : accounts) {
+            total += router.getBalance(account).get().getBalance();
+        }
+        double expected = accounts.length * INITIAL_BALANCE + netDeposits.get();
+        double rate = completed.get() / (double) seconds;
+        long crossShard = router.getCrossShardTransferCount() - crossShardBefore;
+        System.out.printf("Nodes: %d -> %.0f commands/s, cross-node transfers: %.0f%%, rejected/failed: %d, balance check: %s%n",
+                nodes, rate, transfers.get() > 0 ? 100.0 * crossShard / transfers.get() : 0.0, failed.get(),
+                Math.abs(total - expected) < 1e-6 ? "OK" : "MISMATCH (" + total + " vs " + expected + ")");
+        return rate;
+    }
+}
@@ -0,0 +1,150 @@
+package com.bank.sharding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Log do coordenador das transferências entre nós (two-phase commit).
+ *
+ * <p>Cada transferência gera as linhas {@code BEGIN id origem destino valor}, depois
+ * {@code COMMIT id} ou {@code ABORT id} (a decisão) e, quando todos os nós confirmaram a
+ * decisão, {@code END id}. Os campos são separados por tabulação.
+ *
+ * <p><b>COMO FUNCIONA A LÓGICA DO SISTEMA:</b>
+ * <ol>
+ *     <li><b>Ordem:</b> BEGIN é gravado antes de qualquer reserva e a decisão antes de
+ *         qualquer mensagem da fase 2, de modo que, após uma queda, o log diz o que fazer com
+ *         cada transferência que não chegou a END.</li>
+ *     <li><b>Recuperação:</b> readUnfinished() devolve essas transferências: as que têm decisão
+ *         gravada são reenviadas com a mesma decisão; as que não têm são abortadas (presumed
+ *         abort), pois nenhum nó pode ter recebido COMMIT.</li>
+ *     <li><b>Durabilidade:</b> As linhas são escritas direto no arquivo (sem buffer na JVM), o
+ *         que sobrevive à queda do processo; a queda da máquina pode perder as últimas linhas.</li>
+ * </ol>
+ */
+final class TransferCoordinatorLog implements Closeable {
+
+    /**
+     * Transferência que não chegou a END.
+     */
+    static final class InDoubtTransfer {
+        final String transferId;
+        final String fromAccountNumber;
+        final String toAccountNumber;
+        final double amount;
+        /** Decisão gravada: TRUE (COMMIT), FALSE (ABORT) ou null (nenhuma) */
+        Boolean decision;
+
+        InDoubtTransfer(String transferId, String fromAccountNumber, String toAccountNumber, double amount) {
+            this.transferId = transferId;
+            this.fromAccountNumber = fromAccountNumber;
+            this.toAccountNumber = toAccountNumber;
+            this.amount = amount;
+        }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+
+    /**
+     * Abre (ou cria) o log.
+     * @param file O arquivo do log.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    TransferCoordinatorLog(Path file) throws IOException {
+        this.file = file;
+        this.channel = open(file);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    void begin(String transferId, String fromAccountNumber, String toAccountNumber, double amount) throws IOException {
+        append("BEGIN\t" + transferId + "\t" + fromAccountNumber + "\t" + toAccountNumber + "\t" + amount + "\n");
+    }
+
+    void decide(String transferId, boolean commit) throws IOException {
+        append((commit ? "COMMIT\t" : "ABORT\t") + transferId + "\n");
+    }
+
+    void end(String transferId) throws IOException {
+        append("END\t" + transferId + "\n");
+    }
+
+    private synchronized void append(String line) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Lê o log e retorna as transferências que não chegaram a END, na ordem em que começaram.
+     * <p><b>LÓGICA:</b> Linhas incompletas ou inválidas (ex: a última, se o processo caiu durante
+     * a escrita) são ignoradas; uma decisão perdida assim equivale a nenhuma decisão.
+     *
+     * @return As transferências em dúvida.
+     * @throws IOException Se o log não puder ser lido.
+     */
+    synchronized List<InDoubtTransfer> readUnfinished() throws IOException {
+        Map<String, InDoubtTransfer> open = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            try {
+                if ("BEGIN".equals(fields[0]) && fields.length == 5) {
+                    open.put(fields[1], new InDoubtTransfer(fields[1], fields[2], fields[3], Double.parseDouble(fields[4])));
+                } else if (("COMMIT".equals(fields[0]) || "ABORT".equals(fields[0])) && fields.length == 2) {
+                    InDoubtTransfer transfer = open.get(fields[1]);
+                    if (transfer != null) {
+                        transfer.decision = "COMMIT".equals(fields[0]);
+                    }
+                } else if ("END".equals(fields[0]) && fields.length == 2) {
+                    open.remove(fields[1]);
+                }
+            } catch (NumberFormatException e) {
+                // Linha truncada: ignorada
+            }
+        }
+        return new ArrayList<>(open.values());
+    }
+
+    /**
+     * Substitui o conteúdo do log pelas transferências informadas (com suas decisões), para que
+     * o log não cresça indefinidamente entre recuperações.
+     * @param remaining As transferências que continuam em dúvida.
+     * @throws IOException Se o log não puder ser reescrito.
+     */
+    synchronized void rewrite(List<InDoubtTransfer> remaining) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (InDoubtTransfer transfer : remaining) {
+            content.append("BEGIN\t").append(transfer.transferId).append('\t').append(transfer.fromAccountNumber)
+                    .append('\t').append(transfer.toAccountNumber).append('\t').append(transfer.amount).append('\n');
+            if (transfer.decision != null) {
+                content.append(transfer.decision ? "COMMIT\t" : "ABORT\t").append(transfer.transferId).append('\n');
+            }
+        }
+        channel.close();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, content.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bank.aggregate;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.account.SavingsAccount;
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code AccountAggregates}.
+ * Compara a redução fork/join com os totais calculados em um laço sequencial.
+ */
+public class AccountAggregatesTest {
+
+    @Test
+    void testParallelAggregatesMatchSequentialLoop() {
+        BankingFacade facade = new BankingFacade();
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 4 == 0) {
+                facade.createAccount(AccountType.SAVINGS, "Saver " + i, i % 1000, 0.02);
+            } else {
+                String account = facade.createAccount(AccountType.CHECKING, "Customer " + i, i % 500, 300.0);
+                if (i % 3 == 0) {
+                    facade.withdraw(account, 600.0);
+                }
+            }
+        }
+
+        double deposits = 0;
+        double overdraft = 0;
+        double savings = 0;
+        Map<String, Long> byType = new HashMap<>();
+        for (Account account : facade.getAllAccounts().values()) {
+            double balance = account.getBalance();
+            if (balance >= 0) {
+                deposits += balance;
+            } else {
+                overdraft -= balance;
+            }
+            if (account instanceof SavingsAccount) {
+                savings += balance;
+            }
+            byType.merge(account.getAccountType(), 1L, Long::sum);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AccountAggregates aggregates = AccountAggregates.compute(facade.getAllAccounts().values().spliterator(), pool);
+            assertEquals(20_000, aggregates.getAccountCount());
+            assertEquals(deposits, aggregates.getTotalDeposits(), 1e-6);
+            assertEquals(overdraft, aggregates.getTotalOverdraftUsed(), 1e-6);
+            assertTrue(overdraft > 0);
+            assertEquals(savings, aggregates.getSavingsBalance(), 1e-6);
+            assertEquals(byType, aggregates.getCountByAccountType());
+            assertEquals(5000L, aggregates.getCountByAccountType().get("Savings Account"));
+            assertTrue(aggregates.getElapsedNanos() > 0);
+        } finally {
+            pool.shutdown();
+        }
+
+        AccountAggregates fromFacade = facade.aggregateAccounts();
+        assertEquals(deposits - overdraft, fromFacade.getNetBalance(), 1e-6);
+    }
+}
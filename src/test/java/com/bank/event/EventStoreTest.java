@@ -0,0 +1,199 @@
+package com.bank.event;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code EventStore} e o modo event-sourced da {@code BankingFacade}.
+ * Verifica que o estado recuperado do journal (e do snapshot) é igual ao estado em memória.
+ */
+public class EventStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStateIsRebuiltFromJournal() throws Exception {
+        String checking;
+        String savings;
+        String closed;
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            checking = facade.createAccount(AccountType.CHECKING, "Alice", 100.0, 500.0);
+            savings = facade.createAccount(AccountType.SAVINGS, "Bob", 1000.0, 0.1);
+            closed = facade.createAccount(AccountType.CHECKING, "Carol", 10.0, 0.0);
+
+            assertTrue(facade.deposit(checking, 50.0));
+            assertTrue(facade.withdraw(checking, 600.0));
+            assertFalse(facade.withdraw(checking, 100.0), "Overdraft limit must still be enforced");
+            assertFalse(facade.withdraw(savings, 5000.0));
+            assertTrue(facade.transfer(savings, checking, 200.0));
+            assertTrue(facade.calculateInterest(savings));
+            assertTrue(facade.removeAccount(closed));
+
+            assertEquals(-250.0, facade.getBalance(checking));
+            assertEquals(880.0, facade.getBalance(savings), 1e-9);
+            // 3 aberturas, depósito, saque, transferência (2), juros e encerramento; recusas não geram eventos
+            assertEquals(9, store.getLastSequence());
+        }
+
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            assertEquals(9, store.getReplayedEventCount());
+            assertEquals(2, facade.getTotalAccountsCount());
+            assertEquals(-250.0, facade.getBalance(checking));
+            assertEquals(880.0, facade.getBalance(savings), 1e-9);
+            assertEquals("Bob", facade.getAccount(savings).getCustomerName());
+            assertFalse(facade.accountExists(closed));
+
+            List<AccountEvent> history = new ArrayList<>();
+            store.replay(0, history::add);
+            assertEquals(AccountEvent.Type.ACCOUNT_OPENED, history.get(0).getType());
+            assertEquals(AccountEvent.Type.WITHDRAWN, history.get(5).getType());
+            assertEquals(AccountEvent.Type.DEPOSITED, history.get(6).getType());
+            assertEquals(checking, history.get(6).getAccountNumber());
+
+            // A numeração continua após a reabertura
+            assertTrue(facade.deposit(checking, 1.0));
+            assertEquals(10, store.getLastSequence());
+        }
+    }
+
+    @Test
+    void testRecoveryStartsFromSnapshotAndIgnoresTornTail() throws Exception {
+        String account;
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            account = facade.createAccount(AccountType.CHECKING, "Dave", 0.0, 0.0);
+            for (int i = 0; i < 100; i++) {
+                facade.deposit(account, 1.0);
+            }
+            store.snapshot();
+            facade.withdraw(account, 30.0);
+        }
+        // Simula uma queda durante a escrita do próximo evento
+        Files.write(directory.resolve(EventStore.JOURNAL_FILE), "103\t0\tDEPOS".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            assertEquals(101, store.getRecoveredSnapshotSequence());
+            assertEquals(1, store.getReplayedEventCount());
+            assertEquals(70.0, facade.getBalance(account));
+            assertEquals(102, store.getLastSequence());
+            // Só o evento após o snapshot foi verificado; a escrita cortada foi descartada
+            EventJournal.Recovery recovery = store.getJournalRecovery();
+            assertEquals(1, recovery.getRecords());
+            assertEquals(11, recovery.getDiscardedBytes());
+            assertNotNull(recovery.getProblem());
+            assertTrue(facade.deposit(account, 5.0));
+        }
+        try (EventStore store = new EventStore(directory, 0)) {
+            assertEquals(75.0, store.getAccounts().get(account).getBalance());
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToFullReplay() throws Exception {
+        String account;
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            account = facade.createAccount(AccountType.SAVINGS, "Erin", 10.0, 0.01);
+            for (int i = 0; i < 20; i++) {
+                facade.deposit(account, 2.0);
+            }
+            assertEquals(21, store.snapshot());
+        }
+        // Snapshot cortado logo após o cabeçalho: a linha da conta se perdeu
+        Path snapshot = directory.resolve(EventStore.SNAPSHOT_FILE);
+        Files.write(snapshot, Files.readAllLines(snapshot, StandardCharsets.UTF_8).subList(0, 1), StandardCharsets.UTF_8);
+
+        try (EventStore store = new EventStore(directory, 0)) {
+            assertEquals(0, store.getRecoveredSnapshotSequence());
+            assertEquals(21, store.getReplayedEventCount());
+            assertEquals(50.0, store.getAccounts().get(account).getBalance());
+            assertEquals(1, store.getAccounts().size());
+        }
+    }
+
+    @Test
+    void testPeriodicSnapshotsCoverAPrefixOfTheJournal() throws Exception {
+        String account;
+        try (EventStore store = new EventStore(directory, 25)) {
+            BankingFacade facade = new BankingFacade(store);
+            account = facade.createAccount(AccountType.SAVINGS, "Erin", 0.0, 0.0);
+            for (int i = 0; i < 200; i++) {
+                facade.deposit(account, 1.0);
+            }
+        }
+        try (EventStore store = new EventStore(directory, 25)) {
+            assertTrue(store.getRecoveredSnapshotSequence() >= 25, "A periodic snapshot should have been written");
+            assertEquals(store.getLastSequence(), store.getRecoveredSnapshotSequence() + store.getReplayedEventCount());
+            assertEquals(200.0, store.getAccounts().get(account).getBalance());
+        }
+    }
+
+    @Test
+    void testCorruptedRecordTruncatesTheJournalAndIsReported() throws Exception {
+        String account;
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            account = facade.createAccount(AccountType.CHECKING, "Frank", 0.0, 0.0);
+            for (int i = 0; i < 50; i++) {
+                facade.deposit(account, 1.0);
+            }
+        }
+        // Altera um byte no meio do journal, como um setor danificado
+        Path journal = directory.resolve(EventStore.JOURNAL_FILE);
+        byte[] bytes = Files.readAllBytes(journal);
+        int middle = bytes.length / 2;
+        bytes[middle] ^= 0x01;
+        Files.write(journal, bytes);
+
+        try (EventStore store = new EventStore(directory, 0)) {
+            EventJournal.Recovery recovery = store.getJournalRecovery();
+            assertNotNull(recovery.getProblem());
+            long kept = store.getLastSequence();
+            assertTrue(kept > 1 && kept < 51, "kept: " + kept);
+            assertEquals(kept, recovery.getRecords());
+            assertEquals(bytes.length - recovery.getScannedFrom() - recovery.getScannedBytes(), recovery.getDiscardedBytes());
+            assertTrue(recovery.getScannedFrom() + recovery.getScannedBytes() <= middle);
+            // O estado é o do prefixo válido, e o journal aceita novos eventos em seguida
+            assertEquals(kept - 1, store.getAccounts().get(account).getBalance());
+            assertTrue(new BankingFacade(store).deposit(account, 1.0));
+        }
+        try (EventStore store = new EventStore(directory, 0)) {
+            assertEquals(0, store.getJournalRecovery().getDiscardedBytes());
+            assertEquals(store.getLastSequence() - 1, store.getAccounts().get(account).getBalance());
+        }
+    }
+
+    @Test
+    void testLineFormatJournalIsConverted() throws Exception {
+        Files.write(directory.resolve(EventStore.JOURNAL_FILE), ("1\t0\tACCOUNT_OPENED\tacc-1\t100.0\tCHECKING\t0.0\tGrace\n"
+                + "2\t0\tDEPOSITED\tacc-1\t5.0\n"
+                + "3\t0\tDEPOS").getBytes(StandardCharsets.UTF_8));
+        try (EventStore store = new EventStore(directory, 0)) {
+            assertTrue(store.getJournalRecovery().isMigrated());
+            assertEquals(2, store.getLastSequence());
+            assertEquals(105.0, store.getAccounts().get("acc-1").getBalance());
+            assertTrue(new BankingFacade(store).deposit("acc-1", 1.0));
+        }
+        try (EventStore store = new EventStore(directory, 0)) {
+            assertFalse(store.getJournalRecovery().isMigrated());
+            assertEquals(3, store.getJournalRecovery().getRecords());
+            assertEquals(106.0, store.getAccounts().get("acc-1").getBalance());
+        }
+    }
+}
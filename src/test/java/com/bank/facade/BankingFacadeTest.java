@@ -4,9 +4,19 @@ import com.bank.account.Account;
 import com.bank.account.AccountType;
 import com.bank.account.CheckingAccount;
 import com.bank.account.SavingsAccount;
+import com.bank.account.Withdrawable;
+import com.bank.command.DepositCommand;
+import com.bank.command.TransferCommand;
+import com.bank.logger.TransactionLogger;
+import com.bank.observer.AccountObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -85,6 +95,26 @@ public class BankingFacadeTest {
         assertTrue(bankingFacade.getAllAccounts().containsKey(bankingFacade.getAllAccountNumbers().get(0)));
     }
 
+    @Test
+    void testStreamsAndForEachAccountByType() {
+        for (int i = 0; i < 300; i++) {
+            bankingFacade.createAccount(i % 3 == 0 ? AccountType.SAVINGS : AccountType.CHECKING, "Customer " + i, i, i % 3 == 0 ? 0.01 : 10.0);
+        }
+        assertEquals(300, bankingFacade.stream().count());
+        assertEquals(100, bankingFacade.parallelStream(AccountType.SAVINGS).count());
+        assertTrue(bankingFacade.parallelStream(AccountType.SAVINGS).allMatch(account -> account instanceof SavingsAccount));
+        double expected = 0;
+        for (Account account : bankingFacade.getAllAccounts().values()) {
+            expected += account.getBalance();
+        }
+        assertEquals(expected, bankingFacade.parallelStream().mapToDouble(Account::getBalance).sum(), 1e-6);
+
+        List<Account> checking = new ArrayList<>();
+        bankingFacade.forEachAccount(AccountType.CHECKING, checking::add);
+        assertEquals(200, checking.size());
+        assertTrue(checking.stream().allMatch(account -> account instanceof CheckingAccount));
+    }
+
     @Test
     void testAccountExists() {
         String accNum = bankingFacade.createAccount(AccountType.CHECKING, "Alice", 1000.0, 500.0);
@@ -171,5 +201,140 @@ public class BankingFacadeTest {
         assertEquals(1000.0, bankingFacade.getBalance(accNum1));
         assertEquals(500.0, bankingFacade.getBalance(accNum2));
     }
-}
 
+    @Test
+    void testAccountObserverReceivesEventsForExistingAndNewAccounts() {
+        String existing = bankingFacade.createAccount(AccountType.CHECKING, "Alice", 1000.0, 500.0);
+        List<String> events = new ArrayList<>();
+        AccountObserver observer = (account, eventType, amount) -> events.add(eventType + ":" + account.getAccountNumber());
+        bankingFacade.addAccountObserver(observer);
+
+        String created = bankingFacade.createAccount(AccountType.SAVINGS, "Bob", 500.0, 0.03);
+        bankingFacade.transfer(existing, created, 100.0);
+
+        assertEquals(List.of("account_created:" + created, "withdraw:" + existing, "deposit:" + created), events);
+    }
+
+    @Test
+    void testRemoveAccountObserverStopsNotifications() {
+        String accNum = bankingFacade.createAccount(AccountType.CHECKING, "Alice", 1000.0, 500.0);
+        List<String> events = new ArrayList<>();
+        AccountObserver observer = (account, eventType, amount) -> events.add(eventType);
+        bankingFacade.addAccountObserver(observer);
+        bankingFacade.removeAccountObserver(observer);
+
+        bankingFacade.deposit(accNum, 100.0);
+        bankingFacade.createAccount(AccountType.SAVINGS, "Bob", 500.0, 0.03);
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testCalculateInterest() {
+        String savings = bankingFacade.createAccount(AccountType.SAVINGS, "Bob", 1000.0, 0.05);
+        String checking = bankingFacade.createAccount(AccountType.CHECKING, "Alice", 1000.0, 500.0);
+
+        assertTrue(bankingFacade.calculateInterest(savings));
+        assertEquals(1050.0, bankingFacade.getBalance(savings));
+        assertFalse(bankingFacade.calculateInterest(checking));
+        assertFalse(bankingFacade.calculateInterest("non-existent"));
+    }
+
+    @Test
+    void testCrossShardTransferPreparationIsAtomic() throws Exception {
+        String account = bankingFacade.createAccount(AccountType.CHECKING, "Alice", 1000.0, 0.0);
+        for (int round = 0; round < 50; round++) {
+            String transferId = "abort-" + round;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                boolean abort = i == 3;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (abort) {
+                        bankingFacade.abortTransfer(transferId);
+                    } else {
+                        bankingFacade.prepareTransfer(transferId, account, -10.0);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // Reservas repetidas não debitam de novo e o ABORT nunca se perde
+            assertEquals(1000.0, bankingFacade.getBalance(account));
+        }
+        assertEquals(0, bankingFacade.getPreparedTransferCount());
+
+        assertTrue(bankingFacade.prepareTransfer("commit", account, -100.0));
+        assertTrue(bankingFacade.prepareTransfer("commit", account, -100.0));
+        assertEquals(900.0, bankingFacade.getBalance(account));
+        assertTrue(bankingFacade.commitTransfer("commit"));
+        assertTrue(bankingFacade.commitTransfer("commit"));
+        assertTrue(bankingFacade.abortTransfer("commit"));
+        assertEquals(900.0, bankingFacade.getBalance(account));
+        // Confirmação de uma transferência que o nó nunca preparou
+        assertFalse(bankingFacade.commitTransfer("unknown"));
+    }
+
+    @Test
+    void testConcurrentCreationWithTheSameNumberRegistersOnce() throws Exception {
+        String accountNumber = "same-number-" + System.nanoTime();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            double balance = 100.0 * (i + 1);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (bankingFacade.createAccount(accountNumber, AccountType.CHECKING, "Racer", balance, 0.0)) {
+                    created.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, created.get());
+        // Só a criação vencedora chega ao journal
+        long logged = TransactionLogger.getInstance().getLogs().stream()
+                .filter(line -> line.contains("Account Created: Account " + accountNumber + ","))
+                .count();
+        assertEquals(1, logged);
+        assertFalse(bankingFacade.createAccount(accountNumber, AccountType.SAVINGS, "Late", 1.0, 0.01));
+    }
+
+    @Test
+    void testOperationsOnARemovedAccountAreRejected() {
+        String accountNumber = bankingFacade.createAccount(AccountType.CHECKING, "Removed", 100.0, 0.0);
+        String other = bankingFacade.createAccount(AccountType.CHECKING, "Other", 100.0, 0.0);
+        // O chamador obteve a conta antes da remoção
+        Account account = bankingFacade.getAccount(accountNumber);
+        Account target = bankingFacade.getAccount(other);
+        assertTrue(bankingFacade.removeAccount(accountNumber));
+
+        assertFalse(bankingFacade.execute(new DepositCommand(account, 50.0), account));
+        assertFalse(bankingFacade.execute(new TransferCommand((Withdrawable) account, account, target, 10.0), account, target));
+        assertEquals(100.0, account.getBalance());
+        assertEquals(100.0, target.getBalance());
+        long logged = TransactionLogger.getInstance().getLogs().stream()
+                .filter(line -> line.contains("Account " + accountNumber + ","))
+                .filter(line -> !line.contains("Account Created") && !line.contains("Account Removed"))
+                .count();
+        assertEquals(0, logged);
+    }
+}
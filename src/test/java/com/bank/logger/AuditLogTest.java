@@ -0,0 +1,146 @@
+package com.bank.logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code AuditLog} e {@code AuditLogVerifier}.
+ * Verifica a cadeia de hashes, os pontos de controle com raiz de Merkle, a continuação da
+ * cadeia após reabrir o arquivo e a detecção de registros alterados, removidos ou reencadeados.
+ */
+public class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private Path writeLog(int records, int interval) throws Exception {
+        Path file = directory.resolve("audit.log");
+        try (AuditLog log = new AuditLog(file, interval, LogDurability.flush())) {
+            for (int i = 0; i < records; i++) {
+                log.append("AUDIT: Account acc-" + (i % 7) + ", Event: deposit, Amount: " + i + ".0");
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void testParallelVerificationOfAValidLog() throws Exception {
+        Path file = writeLog(20_000, 100);
+        for (int threads : new int[] {1, 4}) {
+            AuditLogVerifier.Result result = AuditLogVerifier.verify(file, threads);
+            assertTrue(result.isValid(), result.toString());
+            assertEquals(20_000, result.getRecords());
+            assertEquals(200, result.getCheckpoints());
+        }
+    }
+
+    @Test
+    void testGroupCommitAppendsFromSeveralThreadsShareTheForce() throws Exception {
+        Path file = directory.resolve("group-audit.log");
+        long window = 300;
+        Thread[] threads = new Thread[8];
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsed;
+        try (AuditLog log = new AuditLog(file, 4,
+                new LogDurability(LogDurability.Mode.GROUP_COMMIT, Duration.ofMillis(window)))) {
+            for (int t = 0; t < threads.length; t++) {
+                int index = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    log.append("AUDIT: Account acc-" + index + ", Event: deposit, Amount: 1.0");
+                });
+                threads[t].start();
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+        // Com a espera pelo disco dentro do monitor, seriam oito janelas seguidas
+        assertTrue(elapsed < 4 * window, "elapsed " + elapsed + " ms");
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file, 1);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(8, result.getRecords());
+        assertEquals(2, result.getCheckpoints());
+    }
+
+    @Test
+    void testReopeningContinuesTheChain() throws Exception {
+        Path file = writeLog(250, 100);
+        // Uma linha cortada no fim (queda durante a escrita) é descartada na abertura
+        Files.write(file, "R\t251\t2024".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        String head;
+        try (AuditLog log = new AuditLog(file, 100, LogDurability.flush())) {
+            assertEquals(250, log.getSequence());
+            assertEquals(251, log.append("after reopening"));
+            head = log.getHead();
+            for (int i = 0; i < 100; i++) {
+                log.append("more");
+            }
+        }
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file, 2);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(351, result.getRecords());
+        assertEquals(3, result.getCheckpoints());
+        try (AuditLog log = new AuditLog(file, 100, LogDurability.flush())) {
+            assertEquals(351, log.getSequence());
+            assertNotEquals(head, log.getHead());
+        }
+    }
+
+    @Test
+    void testTamperingIsDetected() throws Exception {
+        Path file = writeLog(3000, 100);
+        List<String> original = Files.readAllLines(file);
+
+        // Conteúdo alterado: o hash do registro não confere
+        List<String> lines = new ArrayList<>(original);
+        lines.set(1500, lines.get(1500).replace("Amount: ", "Amount: 9"));
+        Files.write(file, lines);
+        AuditLogVerifier.Result result = AuditLogVerifier.verify(file, 4);
+        assertFalse(result.isValid());
+        assertTrue(result.getError().contains("does not match its hash"), result.getError());
+
+        // Registro removido: a sequência salta
+        lines = new ArrayList<>(original);
+        lines.remove(2000);
+        Files.write(file, lines);
+        result = AuditLogVerifier.verify(file, 4);
+        assertFalse(result.isValid());
+
+        // Registro alterado com o hash recalculado: o seguinte deixa de encadear
+        lines = new ArrayList<>(original);
+        String[] fields = lines.get(10).split("\t");
+        String payload = fields[1] + "\t" + fields[2] + "\t" + fields[3].replace("deposit", "withdraw");
+        MessageDigest digest = AuditLog.sha256();
+        byte[] previous = new byte[AuditLog.HASH_BYTES];
+        AuditLog.unhex(fields[4].getBytes(StandardCharsets.US_ASCII), 0, previous);
+        digest.update(previous);
+        digest.update(payload.getBytes(StandardCharsets.UTF_8));
+        lines.set(10, "R\t" + payload + "\t" + fields[4] + "\t" + AuditLog.hex(digest.digest()));
+        Files.write(file, lines);
+        result = AuditLogVerifier.verify(file, 4);
+        assertFalse(result.isValid());
+        assertTrue(result.getError().contains("does not chain"), result.getError());
+        assertEquals(AuditLogVerifier.verify(file, 1).getErrorOffset(), result.getErrorOffset());
+    }
+}
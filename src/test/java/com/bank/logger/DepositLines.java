@@ -0,0 +1,26 @@
+package com.bank.logger;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Linhas de depósito no formato do {@code TransactionLogger}, compartilhadas pelos testes do
+ * {@code SegmentedLogWriter}. A linha {@code i} tem o horário {@code base + i} segundos, a
+ * conta {@code acc-(i % 5)} e o valor e o saldo iguais a {@code i}.
+ */
+final class DepositLines {
+
+    private DepositLines() {
+    }
+
+    /**
+     * Grava as linhas de {@code first} a {@code first + count - 1}.
+     */
+    static void write(SegmentedLogWriter writer, LocalDateTime base, int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            LocalDateTime time = base.plusSeconds(i);
+            writer.write(time, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time) + " - Deposit: Account acc-" + (i % 5)
+                    + ", Amount: " + i + ".0, New Balance: " + i + ".0");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bank.logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para os níveis de durabilidade do {@code SegmentedLogWriter}.
+ * Simula a queda do processo (o arquivo lido sem fechar o writer) e a queda da máquina (o
+ * arquivo cortado no que um force garantiu em disco) e verifica o que cada modo perde.
+ */
+public class LogDurabilityTest {
+
+    @TempDir
+    Path directory;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    /** Confirmações que sobrevivem à queda do processo: o que já está no arquivo */
+    private static long afterProcessCrash(Path log) throws IOException {
+        return DurabilityBenchmark.completeLines(log, Files.size(log));
+    }
+
+    /** Confirmações que sobrevivem à queda da máquina, no pior caso */
+    private static long afterPowerLoss(Path log, SegmentedLogWriter writer) throws IOException {
+        return DurabilityBenchmark.completeLines(log, writer.getDurableLength());
+    }
+
+    @Test
+    void testNoneAndFlushOnlyProtectAgainstLessThanAPowerLoss() throws IOException {
+        Path buffered = directory.resolve("none.log");
+        SegmentedLogWriter none = new SegmentedLogWriter(buffered, LogRotationPolicy.disabled(),
+                new LogDurability(LogDurability.Mode.NONE, null));
+        DepositLines.write(none, BASE, 0, 50);
+        // As linhas ainda estão no buffer da JVM: a queda do processo perde confirmações
+        assertTrue(afterProcessCrash(buffered) < 50);
+        assertEquals(0, afterPowerLoss(buffered, none));
+        none.close();
+        assertEquals(50, afterProcessCrash(buffered));
+
+        Path flushed = directory.resolve("flush.log");
+        SegmentedLogWriter flush = new SegmentedLogWriter(flushed, LogRotationPolicy.disabled());
+        assertEquals(LogDurability.Mode.FLUSH, flush.getDurability().getMode());
+        DepositLines.write(flush, BASE, 0, 50);
+        assertEquals(50, afterProcessCrash(flushed));
+        assertEquals(0, afterPowerLoss(flushed, flush));
+        flush.close();
+    }
+
+    @Test
+    void testFsyncLosesNothingAcknowledged() throws IOException {
+        Path log = directory.resolve("fsync.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, new LogRotationPolicy(4096, null, false, 0, null),
+                new LogDurability(LogDurability.Mode.FSYNC, null));
+        for (int i = 0; i < 20; i++) {
+            DepositLines.write(writer, BASE, i, 1);
+            assertEquals(Files.size(log), writer.getDurableLength());
+        }
+        // Depois da rotação, o arquivo vivo novo começa sem nada em disco
+        assertNotNull(writer.rotate());
+        assertEquals(0, writer.getDurableLength());
+        DepositLines.write(writer, BASE, 20, 5);
+        assertEquals(5, afterPowerLoss(log, writer));
+        writer.close();
+    }
+
+    @Test
+    void testGroupCommitReturnsOnlyAfterTheSharedForce() throws Exception {
+        Path log = directory.resolve("group.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled(),
+                new LogDurability(LogDurability.Mode.GROUP_COMMIT, Duration.ofMillis(1)));
+        Thread[] threads = new Thread[4];
+        long[] behind = new long[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    DepositLines.write(writer, BASE, index * 25 + i, 1);
+                    // Ao retornar, a própria linha já está em disco
+                    try {
+                        if (afterPowerLoss(log, writer) < i + 1) {
+                            behind[index]++;
+                        }
+                    } catch (IOException e) {
+                        behind[index]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long count : behind) {
+            assertEquals(0, count);
+        }
+        assertEquals(100, afterPowerLoss(log, writer));
+        writer.close();
+    }
+
+    @Test
+    void testTornFinalLineIsDiscardedOnOpen() throws IOException {
+        Path log = directory.resolve("torn.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled());
+        DepositLines.write(writer, BASE, 0, 10);
+        writer.close();
+        long intact = Files.size(log);
+        // Queda no meio da escrita da décima primeira linha
+        Files.write(log, "2024-05-01T12:00:10 - Deposit: Acc".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled());
+        assertEquals(34, writer.getDiscardedTailBytes());
+        assertEquals(intact, Files.size(log));
+        DepositLines.write(writer, BASE, 10, 1);
+        writer.close();
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(11, lines.size());
+        assertTrue(lines.get(10).startsWith("2024-05-01T12:00:10 - Deposit: Account acc-0, Amount: 10.0"));
+
+        writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled());
+        assertEquals(0, writer.getDiscardedTailBytes());
+        writer.close();
+
+        // Um arquivo só com uma linha cortada fica vazio
+        Path partial = directory.resolve("partial.log");
+        Files.write(partial, "2024-05-01T12:00:00 - Dep".getBytes(StandardCharsets.UTF_8));
+        new SegmentedLogWriter(partial, LogRotationPolicy.disabled()).close();
+        assertEquals(0, Files.size(partial));
+    }
+
+    @Test
+    void testLinesAreWrittenInUtf8() throws IOException {
+        Path log = directory.resolve("utf8.log");
+        String line = "2024-05-01T12:00:00 - Account Created: Account acc-1, Customer: João Ñúñez 東京";
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled());
+        writer.write(BASE, line);
+        writer.close();
+        assertEquals(List.of(line), Files.readAllLines(log, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testModeFromSystemProperties() {
+        System.setProperty("bank.log.durability", "group");
+        System.setProperty("bank.log.group.window", "7");
+        try {
+            LogDurability durability = LogDurability.fromSystemProperties();
+            assertEquals(LogDurability.Mode.GROUP_COMMIT, durability.getMode());
+            assertEquals(Duration.ofMillis(7), durability.getGroupWindow());
+            System.setProperty("bank.log.durability", "sometimes");
+            assertThrows(IllegalArgumentException.class, LogDurability::fromSystemProperties);
+        } finally {
+            System.clearProperty("bank.log.durability");
+            System.clearProperty("bank.log.group.window");
+        }
+        assertEquals(LogDurability.Mode.FLUSH, LogDurability.fromSystemProperties().getMode());
+    }
+}
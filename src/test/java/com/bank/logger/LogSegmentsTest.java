@@ -0,0 +1,156 @@
+package com.bank.logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code SegmentedLogWriter} e {@code LogSegments}.
+ * Verifica a rotação por tamanho e por tempo, a compressão, a retenção, o manifesto e a
+ * leitura transparente do histórico através dos segmentos.
+ */
+public class LogSegmentsTest {
+
+    @TempDir
+    Path directory;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Test
+    void testRotatesCompressesAndReadsAcrossSegments() throws Exception {
+        Path log = directory.resolve("transactions.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, new LogRotationPolicy(4096, null, true, 0, null));
+        // Índice criado antes da primeira rotação: as posições lógicas continuam válidas depois dela
+        TransactionTimeIndex timeIndex = new TransactionTimeIndex(log, 16);
+        DepositLines.write(writer, BASE, 0, 20);
+        assertEquals(20, timeIndex.refresh());
+        DepositLines.write(writer, BASE, 20, 980);
+        writer.awaitMaintenance();
+
+        List<LogSegment> segments = writer.getSegments();
+        assertTrue(segments.size() > 10, "segments: " + segments.size());
+        long offset = 0;
+        long sequence = 1;
+        for (LogSegment segment : segments) {
+            assertTrue(segment.isCompressed());
+            assertTrue(Files.exists(directory.resolve(segment.getFileName())));
+            assertFalse(Files.exists(directory.resolve(segment.getFileName().replace(".gz", ""))));
+            assertEquals(offset, segment.getOffset());
+            assertEquals(sequence, segment.getFirstSequence());
+            assertEquals(BASE.plusSeconds(sequence - 1), segment.getFirstTime());
+            assertEquals(BASE.plusSeconds(segment.getLastSequence() - 1), segment.getLastTime());
+            // Cada segmento fecha ao passar do tamanho máximo, com no máximo uma linha a mais
+            assertTrue(segment.getLength() >= 4096 && segment.getLength() < 4096 + 100);
+            offset = segment.getEndOffset();
+            sequence = segment.getLastSequence() + 1;
+        }
+        assertTrue(Files.exists(directory.resolve("transactions.log" + LogSegments.MANIFEST_SUFFIX)));
+
+        PagedTransactionLog history = new PagedTransactionLog(log, TransactionFilter.all(), 64, 4);
+        assertEquals(1000, history.refresh());
+        for (int i = 0; i < 1000; i += 37) {
+            assertEquals(i, history.get(i).getAmount());
+        }
+        assertEquals(980, timeIndex.refresh());
+        int[] between = new int[1];
+        timeIndex.forEachBetween(BASE.plusSeconds(100), BASE.plusSeconds(700), record -> between[0]++);
+        assertEquals(600, between[0]);
+        assertEquals(999.0, new BalanceHistoryIndex(log, 8).getBalanceAt("acc-4", BASE.plusSeconds(5000)));
+        writer.close();
+    }
+
+    @Test
+    void testRetentionAndReopeningFromTheManifest() throws Exception {
+        Path log = directory.resolve("transactions.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, new LogRotationPolicy(0, Duration.ofSeconds(100), false, 3, null));
+        DepositLines.write(writer, BASE, 0, 1000);
+        writer.awaitMaintenance();
+
+        // Rotação a cada 100 segundos: 9 segmentos selados, dos quais os 3 mais novos são mantidos
+        List<LogSegment> segments = writer.getSegments();
+        assertEquals(3, segments.size());
+        assertEquals(601, segments.get(0).getFirstSequence());
+        assertEquals(900, segments.get(2).getLastSequence());
+        assertFalse(segments.get(0).isCompressed());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(5, files.count(), "3 segmentos, o manifesto e o arquivo vivo");
+        }
+        PagedTransactionLog history = new PagedTransactionLog(log, TransactionFilter.all());
+        assertEquals(400, history.refresh());
+        assertEquals(600.0, history.get(0).getAmount());
+        writer.close();
+
+        // Outro diretório com os mesmos arquivos: o manifesto é lido do disco
+        Path copy = Files.createDirectory(directory.resolve("copy"));
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, copy.resolve(file.getFileName()));
+                }
+            }
+        }
+        Path copiedLog = copy.resolve("transactions.log");
+        SegmentedLogWriter reopened = new SegmentedLogWriter(copiedLog, new LogRotationPolicy(0, Duration.ofHours(1), true, 0, null));
+        DepositLines.write(reopened, BASE, 1000, 50);
+        LogSegment sealed = reopened.rotate();
+        reopened.awaitMaintenance();
+        assertEquals(901, sealed.getFirstSequence());
+        assertEquals(1050, sealed.getLastSequence());
+        assertTrue(reopened.getSegments().stream().allMatch(LogSegment::isCompressed));
+        assertEquals(450, new PagedTransactionLog(copiedLog, TransactionFilter.all()).refresh());
+        assertNull(reopened.rotate());
+        reopened.close();
+    }
+
+    @Test
+    void testHistoryIsRebuiltWhenRetentionDeletesIndexedSegments() throws Exception {
+        Path log = directory.resolve("transactions.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, new LogRotationPolicy(0, Duration.ofSeconds(100), false, 3, null));
+        DepositLines.write(writer, BASE, 0, 351);
+        writer.awaitMaintenance();
+        PagedTransactionLog history = new PagedTransactionLog(log, TransactionFilter.all(), 50, 4);
+        assertEquals(351, history.refresh());
+        assertEquals(0.0, history.get(0).getAmount());
+        assertEquals(0, history.getGeneration());
+
+        // Três segmentos novos: a retenção apaga os três já indexados
+        DepositLines.write(writer, BASE, 351, 300);
+        writer.awaitMaintenance();
+        assertEquals(300, writer.getSegments().get(0).getFirstSequence() - 1);
+        assertEquals(351, history.refresh());
+        assertEquals(1, history.getGeneration());
+        assertEquals(351, history.size());
+        for (int i = 0; i < history.size(); i += 25) {
+            assertEquals(300.0 + i, history.get(i).getAmount());
+        }
+
+        // Sem nova retenção, a indexação volta a ser incremental
+        DepositLines.write(writer, BASE, 651, 10);
+        assertEquals(10, history.refresh());
+        assertEquals(1, history.getGeneration());
+        assertEquals(660.0, history.get(360).getAmount());
+        writer.close();
+    }
+
+    @Test
+    void testWithoutRotationTheLogIsASingleFile() throws IOException {
+        Path log = directory.resolve("transactions.log");
+        SegmentedLogWriter writer = new SegmentedLogWriter(log, LogRotationPolicy.disabled());
+        DepositLines.write(writer, BASE, 0, 100);
+        assertNull(writer.rotate());
+        writer.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(100, Files.readAllLines(log).size());
+    }
+}
@@ -0,0 +1,370 @@
+package com.bank.logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code PagedTransactionLog} e {@code TransactionRecord}.
+ * Verifica a paginação, a indexação incremental e o filtro aplicados sobre o arquivo de log.
+ */
+public class PagedTransactionLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String depositLine(int minute, String account, double amount, double newBalance) {
+        return String.format("2024-01-15T10:%02d:00 - Deposit: Account %s, Amount: %s, New Balance: %s",
+                minute, account, amount, newBalance);
+    }
+
+    private Path writeLog(List<String> lines) throws IOException {
+        Path log = tempDir.resolve("transactions.log");
+        Files.write(log, lines, StandardCharsets.UTF_8);
+        return log;
+    }
+
+    @Test
+    void testParseDepositAndAuditLines() {
+        TransactionRecord deposit = TransactionRecord.parse("2024-01-15T14:30:45.123 - Deposit: Account abc, Amount: 100.0, New Balance: 1100.0");
+        assertNotNull(deposit);
+        assertEquals(LocalDateTime.of(2024, 1, 15, 14, 30, 45, 123_000_000), deposit.getTimestamp());
+        assertEquals("Deposit", deposit.getType());
+        assertEquals("abc", deposit.getAccountNumber());
+        assertEquals(100.0, deposit.getAmount());
+        assertEquals(1100.0, deposit.getNewBalance());
+
+        TransactionRecord audit = TransactionRecord.parse("2024-01-15T14:30:45 - AUDIT: Account abc, Event: withdraw, Amount: -50.0, Current Balance: 1050.0");
+        assertNotNull(audit);
+        assertEquals("AUDIT", audit.getType());
+        assertEquals("withdraw", audit.getEvent());
+        assertEquals(-50.0, audit.getAmount());
+        assertEquals(1050.0, audit.getNewBalance());
+
+        assertNull(TransactionRecord.parse("not a log line"));
+    }
+
+    @Test
+    void testPagesCoverAllRecords() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            lines.add(depositLine(i, "acc-" + (i % 3), i, i * 10));
+        }
+        PagedTransactionLog history = new PagedTransactionLog(writeLog(lines), TransactionFilter.all(), 10, 2);
+
+        assertEquals(25, history.refresh());
+        assertEquals(25, history.size());
+        assertEquals(3, history.getPageCount());
+        assertEquals(10, history.getPage(0).size());
+        assertEquals(5, history.getPage(2).size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i, history.get(i).getAmount());
+        }
+    }
+
+    @Test
+    void testRecordCheckAgreesWithParse() {
+        String[] lines = {
+                "2024-01-15T10:00:00 - Deposit: Account a, Amount: 1.0",
+                "2024-01-15T10:00:00.5 - Deposit",
+                "2024-01-15T10:00:00.123456789 - Deposit",
+                "2024-02-29T23:59:59 - Leap",
+                "2000-02-29T00:00:00 - Leap",
+                "2024-01-15T10:00:00 - ",
+                "2024-01-15T10:00:00.1234567890 - Too many digits",
+                "2024-01-15T10:00:00. - Empty fraction",
+                "1900-02-29T00:00:00 - Not leap",
+                "2024-04-31T00:00:00 - No such day",
+                "2024-01-15T24:00:00 - Hour",
+                "2024-01-15T10:60:00 - Minute",
+                "2024-01-15T10:00:60 - Second",
+                "2024-01-15T10:00 - Without seconds",
+                "2024-01-15T10:00:00-Deposit",
+                "2O24-01-15T10:00:00 - Letter"};
+        for (String line : lines) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (PagedTransactionLog.looksLikeRecord(bytes, bytes.length)) {
+                assertNotNull(TransactionRecord.parse(line), line);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            byte[] bytes = lines[i].getBytes(StandardCharsets.UTF_8);
+            assertTrue(PagedTransactionLog.looksLikeRecord(bytes, bytes.length), lines[i]);
+        }
+        for (int i = 6; i < lines.length; i++) {
+            byte[] bytes = lines[i].getBytes(StandardCharsets.UTF_8);
+            assertFalse(PagedTransactionLog.looksLikeRecord(bytes, bytes.length), lines[i]);
+        }
+    }
+
+    @Test
+    void testRefreshIndexesOnlyAppendedLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            lines.add(depositLine(i, "acc", i, i));
+        }
+        Path log = writeLog(lines);
+        PagedTransactionLog history = new PagedTransactionLog(log, TransactionFilter.all(), 10, 4);
+        history.refresh();
+        assertEquals(5, history.getPage(1).size());
+
+        List<String> appended = new ArrayList<>();
+        for (int i = 15; i < 22; i++) {
+            appended.add(depositLine(i, "acc", i, i));
+        }
+        Files.write(log, appended, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        // Linha incompleta (ainda sendo escrita) não deve ser indexada
+        Files.write(log, "2024-01-15T10:59:00 - Deposit: Acc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        assertEquals(7, history.refresh());
+        assertEquals(22, history.size());
+        assertEquals(10, history.getPage(1).size());
+        assertEquals(21.0, history.get(21).getAmount());
+    }
+
+    @Test
+    void testLinesWithATimestampShapeThatDoNotParseAreNotCounted() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            lines.add(depositLine(i, "acc", i, i));
+            if (i % 4 == 1) {
+                // Têm a forma de um timestamp, mas não são registros
+                lines.add("2024-13-45T99:00:00 - Deposit: Account acc, Amount: 1.0, New Balance: 1.0");
+                lines.add("2023-02-29T10:00:00 - Deposit: Account acc, Amount: 1.0, New Balance: 1.0");
+                lines.add("2024-01-15T10:00:00 without separator");
+            }
+        }
+        PagedTransactionLog history = new PagedTransactionLog(writeLog(lines), TransactionFilter.all(), 5, 2);
+
+        assertEquals(12, history.refresh());
+        assertEquals(3, history.getPageCount());
+        assertEquals(5, history.getPage(0).size());
+        assertEquals(5, history.getPage(1).size());
+        assertEquals(2, history.getPage(2).size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, history.get(i).getAmount());
+        }
+    }
+
+    @Test
+    void testFilterByAccountTypeAndDateRange() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            lines.add(depositLine(i, "acc-" + (i % 2), i, i));
+            lines.add("2024-01-15T10:" + String.format("%02d", i) + ":30 - Withdrawal: Account acc-0, Amount: 1.0, New Balance: 0.0");
+        }
+        Path log = writeLog(lines);
+
+        PagedTransactionLog byAccount = new PagedTransactionLog(log,
+                new TransactionFilter("acc-1", "Deposit", null, null), 4, 2);
+        byAccount.refresh();
+        assertEquals(15, byAccount.size());
+        for (int i = 0; i < byAccount.size(); i++) {
+            assertEquals("acc-1", byAccount.get(i).getAccountNumber());
+        }
+
+        PagedTransactionLog byDate = new PagedTransactionLog(log, new TransactionFilter(null, null,
+                LocalDateTime.of(2024, 1, 15, 10, 10), LocalDateTime.of(2024, 1, 15, 10, 20)), 4, 2);
+        byDate.refresh();
+        assertEquals(20, byDate.size());
+        assertEquals(10.0, byDate.get(0).getAmount());
+    }
+
+    @Test
+    void testTimeIndexReadsOnlyTheRangeAndMatchesFullScan() throws IOException {
+        // Um registro por segundo, com alguns pares fora de ordem (escritas concorrentes) e frações de segundo
+        LocalDateTime base = LocalDateTime.of(2024, 1, 15, 9, 0);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int second = i % 50 == 49 ? i - 1 : i;
+            lines.add(base.plusSeconds(second).plusNanos(i % 3 == 0 ? 250_000_000 : 0)
+                    + " - Deposit: Account acc-" + (i % 7) + ", Amount: " + i + ".0, New Balance: 0.0");
+            if (i % 100 == 0) {
+                lines.add("");
+            }
+        }
+        Path log = writeLog(lines);
+        TransactionTimeIndex index = new TransactionTimeIndex(log, 64);
+        assertEquals(5000, index.refresh());
+        assertEquals(79, index.getBlockCount());
+
+        LocalDateTime from = base.plusSeconds(1000).plusNanos(250_000_000);
+        LocalDateTime to = base.plusSeconds(1300);
+        long[] range = index.locate(from, to);
+        assertTrue(range[0] > 0 && range[1] < Files.size(log), "range " + range[0] + ".." + range[1]);
+        assertTrue(range[1] - range[0] < Files.size(log) / 10);
+
+        List<TransactionRecord> expected = new ArrayList<>();
+        TransactionFilter filter = new TransactionFilter(null, null, from, to);
+        for (String line : lines) {
+            TransactionRecord record = TransactionRecord.parse(line);
+            if (record != null && filter.matches(record)) {
+                expected.add(record);
+            }
+        }
+        List<TransactionRecord> found = new ArrayList<>();
+        assertEquals(expected.size(), index.forEachBetween(from, to, found::add));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAmount(), found.get(i).getAmount());
+        }
+
+        // A visão paginada com o índice por data seleciona os mesmos registros e acompanha o log
+        PagedTransactionLog indexed = new PagedTransactionLog(log, filter, 16, 2, index);
+        indexed.refresh();
+        assertEquals(expected.size(), indexed.size());
+        assertEquals(expected.get(0).getAmount(), indexed.get(0).getAmount());
+        assertEquals(expected.get(expected.size() - 1).getAmount(), indexed.get(expected.size() - 1).getAmount());
+        Files.write(log, (DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(base.plusSeconds(9000)) + " - Deposit: Account acc-1, Amount: 1.0, New Balance: 0.0\n")
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(0, indexed.refresh());
+        PagedTransactionLog open = new PagedTransactionLog(log, new TransactionFilter(null, null, base.plusSeconds(4990), null), 16, 2, index);
+        open.refresh();
+        assertEquals(11, open.size());
+    }
+
+    @Test
+    void testBalanceAtMatchesReplayOfTheWholeLog() throws IOException {
+        // Três contas intercaladas; a conta acc-2 é removida no meio do log
+        LocalDateTime base = LocalDateTime.of(2024, 1, 3, 8, 0);
+        List<String> lines = new ArrayList<>();
+        double[] balances = new double[3];
+        for (int i = 0; i < 3; i++) {
+            lines.add(stamp(base.plusSeconds(i)) + " - Account Created: Account acc-" + i + ", Amount: 0.0, New Balance: 0.0");
+        }
+        for (int i = 3; i < 3000; i++) {
+            int account = i % 3;
+            LocalDateTime time = base.plusSeconds(i);
+            if (account == 2 && i == 1502) {
+                lines.add(stamp(time) + " - Account Removed: Account acc-2, Amount: 0.0, New Balance: " + balances[2]);
+                continue;
+            }
+            if (account == 2 && i > 1502) {
+                lines.add(stamp(time) + " - Deposit: Account acc-0, Amount: 0.0, New Balance: " + balances[0]);
+                continue;
+            }
+            double amount = (i * 37 % 101) - 40;
+            balances[account] += amount;
+            lines.add(stamp(time) + " - " + (amount >= 0 ? "Deposit" : "Withdrawal") + ": Account acc-" + account
+                    + ", Amount: " + Math.abs(amount) + ", New Balance: " + balances[account]);
+            lines.add(stamp(time) + " - AUDIT: Account acc-" + account + ", Event: deposit, Amount: " + amount
+                    + ", Current Balance: -1.0E9");
+        }
+        Path log = writeLog(lines);
+        BalanceHistoryIndex index = new BalanceHistoryIndex(log, 16);
+        assertEquals(3000, index.refresh());
+        assertEquals(94, index.getCheckpointCount("acc-0"));
+
+        for (int second = -1; second < 3010; second += 7) {
+            LocalDateTime instant = base.plusSeconds(second).plusNanos(500_000_000);
+            for (int account = 0; account < 3; account++) {
+                assertEquals(replay(lines, "acc-" + account, instant), index.getBalanceAt("acc-" + account, instant),
+                        "acc-" + account + " at " + instant);
+            }
+        }
+        assertTrue(Double.isNaN(index.getBalanceAt("acc-2", base.plusSeconds(2000))));
+        assertTrue(Double.isNaN(index.getBalanceAt("missing", base.plusSeconds(2000))));
+
+        // Registros anexados depois da primeira consulta são indexados na seguinte
+        Files.write(log, (stamp(base.plusSeconds(5000)) + " - Deposit: Account acc-1, Amount: 5.0, New Balance: 12345.0\n")
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(balances[1], index.getBalanceAt("acc-1", base.plusSeconds(4999)));
+        assertEquals(12345.0, index.getBalanceAt("acc-1", base.plusSeconds(5000)));
+    }
+
+    /**
+     * Formata o instante como o TransactionLogger (sempre com os segundos).
+     */
+    private static String stamp(LocalDateTime time) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+    }
+
+    @Test
+    void testAccountWhoseNumberPrefixesAnotherIsReplayedAlone() throws IOException {
+        // acc-1 quase parada no meio de um log de acc-10 e acc-1x: o trecho entre os pontos de
+        // controle de acc-1 é quase todo de outras contas com o mesmo prefixo
+        LocalDateTime base = LocalDateTime.of(2024, 2, 1, 0, 0);
+        List<String> lines = new ArrayList<>();
+        double quiet = 0;
+        double busy = 0;
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime time = base.plusSeconds(i);
+            if (i % 100 == 0) {
+                quiet += 1;
+                lines.add(stamp(time) + " - Deposit: Account acc-1, Amount: 1.0, New Balance: " + quiet);
+            } else {
+                busy += 2;
+                lines.add(stamp(time) + " - Deposit: Account acc-1" + (i % 10) + ", Amount: 2.0, New Balance: " + busy);
+            }
+        }
+        Path log = writeLog(lines);
+        BalanceHistoryIndex index = new BalanceHistoryIndex(log, 4);
+        index.refresh();
+
+        for (int second = 0; second < 2000; second += 37) {
+            LocalDateTime instant = base.plusSeconds(second);
+            assertEquals(replay(lines, "acc-1", instant), index.getBalanceAt("acc-1", instant), "at " + instant);
+        }
+        List<TransactionRecord> latest = index.latest("acc-1", 6);
+        assertEquals(6, latest.size());
+        for (int i = 0; i < latest.size(); i++) {
+            assertEquals("acc-1", latest.get(i).getAccountNumber());
+            assertEquals(20.0 - i, latest.get(i).getNewBalance());
+        }
+    }
+
+    @Test
+    void testMappedReaderHandlesCarriageReturnsPartialLinesAndStops() throws IOException {
+        Path log = tempDir.resolve("mapped.log");
+        // Linhas de tamanhos variados (inclusive maiores que os 8 bytes da busca), CRLF e uma linha sem quebra no fim
+        String content = "a\r\n\nlinha-com-mais-de-oito-bytes\nxyz\r\nincompleta";
+        Files.write(log, content.getBytes(StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        long end;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            end = MappedLineReader.scan(channel, 0, channel.size(), 100, null, (line, length, offset) -> {
+                lines.add(new String(line, 0, length, StandardCharsets.UTF_8));
+                offsets.add(offset);
+                return true;
+            }, null);
+        }
+        assertEquals(List.of("a", "", "linha-com-mais-de-oito-bytes", "xyz"), lines);
+        assertEquals(List.of(100L, 103L, 104L, 133L), offsets);
+        assertEquals(100 + content.indexOf("incompleta"), end);
+
+        boolean[] stopped = new boolean[1];
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            end = MappedLineReader.scan(channel, 4, channel.size(), 0, null, (line, length, offset) -> length == 0, stopped);
+        }
+        assertTrue(stopped[0]);
+        assertEquals(content.indexOf("xyz"), end);
+    }
+
+    /**
+     * Saldo de uma conta em um instante, relendo o log inteiro (referência para o índice).
+     */
+    private static double replay(List<String> lines, String accountNumber, LocalDateTime instant) {
+        double balance = Double.NaN;
+        for (String line : lines) {
+            TransactionRecord record = TransactionRecord.parse(line);
+            if (record == null || record.getTimestamp().isAfter(instant) || "AUDIT".equals(record.getType())
+                    || !accountNumber.equals(record.getAccountNumber())) {
+                continue;
+            }
+            balance = "Account Removed".equals(record.getType()) ? Double.NaN : record.getNewBalance();
+        }
+        return balance;
+    }
+}
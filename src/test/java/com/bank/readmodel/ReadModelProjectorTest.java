@@ -0,0 +1,139 @@
+package com.bank.readmodel;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.event.EventStore;
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code ReadModelProjector}.
+ * Compara os modelos de leitura com os totais calculados diretamente sobre as contas, nos
+ * modos comum e event-sourced.
+ */
+public class ReadModelProjectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testProjectionsMatchAccountsUnderConcurrentLoad() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        List<String> accounts = new ArrayList<>();
+        // Metade das contas existe antes do registro da projeção (estado inicial semeado)
+        for (int i = 0; i < 20; i++) {
+            accounts.add(facade.createAccount(i % 2 == 0 ? AccountType.CHECKING : AccountType.SAVINGS,
+                    "Customer " + (i % 7), 100.0, i % 2 == 0 ? 200.0 : 0.05));
+        }
+        try (ReadModelProjector projector = new ReadModelProjector(facade)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                workers.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 500; i++) {
+                        String account = accounts.get(random.nextInt(20));
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                facade.deposit(account, random.nextInt(50) + 1);
+                                break;
+                            case 1:
+                                facade.withdraw(account, random.nextInt(80) + 1);
+                                break;
+                            case 2:
+                                facade.transfer(account, accounts.get(random.nextInt(20)), random.nextInt(30) + 1);
+                                break;
+                            default:
+                                facade.calculateInterest(account);
+                                break;
+                        }
+                    }
+                }));
+            }
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (int i = 0; i < 20; i++) {
+                accounts.add(facade.createAccount(AccountType.CHECKING, "Late " + i, 10.0, 50.0));
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertTrue(facade.removeAccount(accounts.get(39)));
+            assertTrue(projector.awaitCaughtUp(5000));
+
+            assertProjectionsMatch(facade, projector);
+        }
+    }
+
+    @Test
+    void testEventSourcedModeFeedsProjectionsWithSequences() throws Exception {
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            String alice = facade.createAccount(AccountType.CHECKING, "Alice", 100.0, 500.0);
+            try (ReadModelProjector projector = new ReadModelProjector(facade)) {
+                String savings = facade.createAccount(AccountType.SAVINGS, "Alice", 1000.0, 0.1);
+                String bob = facade.createAccount(AccountType.CHECKING, "Bob", 0.0, 100.0);
+                assertTrue(facade.withdraw(alice, 400.0));
+                assertTrue(facade.transfer(savings, bob, 50.0));
+                assertTrue(facade.withdraw(bob, 120.0));
+                assertTrue(facade.calculateInterest(savings));
+                assertTrue(projector.awaitCaughtUp(5000));
+
+                assertEquals(store.getLastSequence(), projector.getLastSequence());
+                CustomerBalance balances = projector.getCustomerBalance("Alice");
+                assertEquals(2, balances.getAccountCount());
+                assertEquals(-300.0 + 1045.0, balances.getTotalBalance(), 1e-9);
+                assertEquals("Alice", projector.getTopCustomers(1).get(0).getCustomerName());
+
+                OverdraftExposure exposure = projector.getOverdraftExposure();
+                assertEquals(2, exposure.getOverdrawnAccounts());
+                assertEquals(370.0, exposure.getTotalExposure(), 1e-9);
+                assertEquals(600.0, exposure.getTotalLimit());
+
+                assertTrue(facade.removeAccount(bob));
+                assertTrue(projector.awaitCaughtUp(5000));
+                assertNull(projector.getCustomerBalance("Bob"));
+                assertEquals(1, projector.getAccountTypeTotals().get(AccountType.CHECKING).getAccountCount());
+                assertProjectionsMatch(facade, projector);
+            }
+        }
+    }
+
+    /**
+     * Recalcula os modelos a partir das contas e compara com a projeção.
+     */
+    private static void assertProjectionsMatch(BankingFacade facade, ReadModelProjector projector) {
+        Map<String, Double> customers = new HashMap<>();
+        Map<AccountType, Double> types = new HashMap<>();
+        double exposure = 0;
+        int overdrawn = 0;
+        for (Account account : facade.getAllAccounts().values()) {
+            customers.merge(account.getCustomerName(), account.getBalance(), Double::sum);
+            AccountType type = account.getAccountType().startsWith("Checking") ? AccountType.CHECKING : AccountType.SAVINGS;
+            types.merge(type, account.getBalance(), Double::sum);
+            if (type == AccountType.CHECKING && account.getBalance() < 0) {
+                exposure -= account.getBalance();
+                overdrawn++;
+            }
+        }
+        assertEquals(customers.size(), projector.getCustomerBalances().size());
+        for (Map.Entry<String, Double> customer : customers.entrySet()) {
+            assertEquals(customer.getValue(), projector.getCustomerBalance(customer.getKey()).getTotalBalance(), 1e-6);
+        }
+        for (Map.Entry<AccountType, Double> type : types.entrySet()) {
+            assertEquals(type.getValue(), projector.getAccountTypeTotals().get(type.getKey()).getTotalBalance(), 1e-6);
+        }
+        assertEquals(overdrawn, projector.getOverdraftExposure().getOverdrawnAccounts());
+        assertEquals(exposure, projector.getOverdraftExposure().getTotalExposure(), 1e-6);
+    }
+}
@@ -0,0 +1,180 @@
+package com.bank.reconciliation;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.factory.AccountFactory;
+import com.bank.registry.AccountRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code BalanceReconciler}.
+ * Verifica a reconciliação com o log de transações do processo (compartilhado com os outros
+ * testes, por isso só as contas criadas em cada teste são consideradas), inclusive com operações
+ * concorrentes, e cada tipo de divergência sobre um log montado à mão.
+ */
+public class BalanceReconcilerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * As divergências das contas informadas, por conta.
+     */
+    private static Map<String, List<Discrepancy.Kind>> discrepanciesOf(ReconciliationReport report, Set<String> accounts) {
+        Map<String, List<Discrepancy.Kind>> found = new HashMap<>();
+        for (Discrepancy discrepancy : report.getDiscrepancies()) {
+            if (accounts.contains(discrepancy.getAccountNumber())) {
+                found.computeIfAbsent(discrepancy.getAccountNumber(), account -> new ArrayList<>()).add(discrepancy.getKind());
+            }
+        }
+        return found;
+    }
+
+    @Test
+    void testLiveBalancesMatchTheLogAndChangesOutsideTheLogAreReported() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        Set<String> created = new HashSet<>();
+        List<String> checking = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String account = i % 3 == 0
+                    ? facade.createAccount(AccountType.SAVINGS, "Saver " + i, 100 + i, 0.013)
+                    : facade.createAccount(AccountType.CHECKING, "Customer " + i, i, 250.0);
+            created.add(account);
+            if (i % 3 == 0) {
+                facade.calculateInterest(account);
+                facade.calculateInterest(account);
+            } else {
+                checking.add(account);
+                facade.deposit(account, 10.25 * i);
+                facade.withdraw(account, 3.1 * i + 200);
+            }
+        }
+        facade.transfer(checking.get(0), checking.get(1), 40.0);
+        facade.removeAccount(checking.get(2));
+
+        ReconciliationReport report = facade.reconcileBalances(4);
+        assertEquals(Map.of(), discrepanciesOf(report, created), report.toString());
+        assertTrue(report.getAccountsChecked() >= 300);
+        assertTrue(report.getLinesReplayed() >= 900);
+        assertTrue(report.getAccountsPerSecond() > 0);
+        assertEquals(4, report.getPartitions());
+
+        // Alterações que não passaram pelo log
+        String tampered = checking.get(3);
+        double balance = facade.getBalance(tampered);
+        facade.applyReplicatedBalance(tampered, balance + 50, "deposit");
+        String restored = "restored-" + tampered;
+        facade.restoreAccount(restored, AccountType.CHECKING, "Restored", 75.0, 100.0);
+        created.add(restored);
+
+        report = facade.reconcileBalances(3);
+        Map<String, List<Discrepancy.Kind>> found = discrepanciesOf(report, created);
+        assertEquals(Map.of(tampered, List.of(Discrepancy.Kind.BALANCE_MISMATCH),
+                restored, List.of(Discrepancy.Kind.MISSING_FROM_LOG)), found);
+        Discrepancy mismatch = report.getDiscrepancies().stream()
+                .filter(discrepancy -> discrepancy.getAccountNumber().equals(tampered)).findFirst().orElseThrow();
+        assertEquals(balance + 50, mismatch.getLiveBalance(), 1e-9);
+        assertEquals(balance, mismatch.getJournalBalance(), 1e-9);
+
+        // A próxima linha da conta grava um saldo que a soma do log não explica
+        facade.deposit(tampered, 1.0);
+        found = discrepanciesOf(facade.reconcileBalances(2), created);
+        assertEquals(Arrays.asList(Discrepancy.Kind.LOG_INCONSISTENT, Discrepancy.Kind.BALANCE_MISMATCH), found.get(tampered));
+    }
+
+    @Test
+    void testReconciliationRunsWhileAccountsAreUpdated() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            accounts.add(facade.createAccount(AccountType.CHECKING, "Customer " + i, 1000.0, 500.0));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            int seed = t;
+            Thread writer = new Thread(() -> {
+                int i = seed;
+                while (running.get()) {
+                    String from = accounts.get(i % accounts.size());
+                    String to = accounts.get((i * 7 + 3) % accounts.size());
+                    if (i % 2 == 0) {
+                        facade.transfer(from, to, 1.5);
+                    } else {
+                        facade.deposit(from, 2.25);
+                    }
+                    i += 3;
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        try {
+            for (int round = 0; round < 5; round++) {
+                ReconciliationReport report = facade.reconcileBalances(2);
+                assertEquals(Map.of(), discrepanciesOf(report, new HashSet<>(accounts)), report.toString());
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        assertEquals(Map.of(), discrepanciesOf(facade.reconcileBalances(2), new HashSet<>(accounts)));
+    }
+
+    @Test
+    void testEachKindOfDiscrepancyInAHandWrittenLog() throws Exception {
+        Path log = directory.resolve("transactions.log");
+        Files.write(log, Arrays.asList(
+                "2024-01-15T10:00:00 - Account Created: Account ok, Type: CHECKING, Parameter: 100.0, Amount: 100.0, New Balance: 100.0, Customer: A",
+                "2024-01-15T10:00:01 - Deposit: Account ok, Amount: 50.0, New Balance: 150.0",
+                "2024-01-15T10:00:01 - AUDIT: Account ok, Event: deposit, Amount: 50.0, Current Balance: 150.0",
+                "2024-01-15T10:00:02 - Withdrawal: Account ok, Amount: 30.0, New Balance: 120.0",
+                "2024-01-15T10:00:03 - Account Created: Account bad, Type: CHECKING, Parameter: 0.0, Amount: 10.0, New Balance: 10.0, Customer: B",
+                "2024-01-15T10:00:04 - Deposit: Account bad, Amount: 5.0, New Balance: 20.0",
+                "2024-01-15T10:00:05 - Account Created: Account gone, Type: SAVINGS, Parameter: 0.01, Amount: 1.0, New Balance: 1.0, Customer: C",
+                "2024-01-15T10:00:06 - Account Removed: Account gone, Amount: 0.0, New Balance: 1.0",
+                "2024-01-15T10:00:07 - Account Created: Account lost, Type: CHECKING, Parameter: 0.0, Amount: 7.0, New Balance: 7.0, Customer: D",
+                "2024-01-15T10:00:08 - Account Created: Account closed, Type: CHECKING, Parameter: 0.0, Amount: 9.0, New Balance: 9.0, Customer: E",
+                "2024-01-15T10:00:09 - Account Removed: Account closed, Amount: 0.0, New Balance: 9.0",
+                "2024-01-15T10:00:10 - Interest: Account partial, Amount: 5.0, New Balance: 500.0",
+                "2024-01-15T10:00:11 - Deposit: Account partial, Amount: 0.1, New Balance: 500.1",
+                "2024-01-15T10:00:12 - Deposit: Account cont"));
+        AccountRegistry registry = new AccountRegistry();
+        registry.put("ok", AccountFactory.createAccount("ok", AccountType.CHECKING, "A", 120.0, 100.0));
+        registry.put("bad", AccountFactory.createAccount("bad", AccountType.CHECKING, "B", 15.0, 0.0));
+        registry.put("closed", AccountFactory.createAccount("closed", AccountType.CHECKING, "E", 9.0, 0.0));
+        registry.put("partial", AccountFactory.createAccount("partial", AccountType.SAVINGS, "F", 500.1, 0.01));
+        registry.put("unknown", AccountFactory.createAccount("unknown", AccountType.CHECKING, "G", 3.0, 0.0));
+
+        for (int partitions : new int[] {1, 3}) {
+            ReconciliationReport report = new BalanceReconciler(registry, log, partitions).reconcile();
+            Map<String, List<Discrepancy.Kind>> found = discrepanciesOf(report,
+                    new HashSet<>(Arrays.asList("ok", "bad", "gone", "lost", "closed", "partial", "unknown")));
+            assertEquals(Map.of(
+                    "bad", List.of(Discrepancy.Kind.LOG_INCONSISTENT),
+                    "lost", List.of(Discrepancy.Kind.MISSING_FROM_LIVE),
+                    "closed", List.of(Discrepancy.Kind.REMOVED_IN_LOG),
+                    "unknown", List.of(Discrepancy.Kind.MISSING_FROM_LOG)), found);
+            assertEquals(7, report.getAccountsChecked());
+            assertEquals(12, report.getLinesReplayed());
+            assertEquals(Files.size(log), report.getWindowEnd());
+            assertFalse(report.isConsistent());
+        }
+    }
+}
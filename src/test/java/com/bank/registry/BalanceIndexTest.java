@@ -0,0 +1,113 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.event.EventStore;
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code BalanceIndex}.
+ * Compara as consultas do índice com uma ordenação completa das contas, após operações
+ * concorrentes, nos modos comum e event-sourced.
+ */
+public class BalanceIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testIndexFollowsConcurrentOperations() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            accounts.add(facade.createAccount(i % 4 == 0 ? AccountType.SAVINGS : AccountType.CHECKING,
+                    "Customer " + i, 100.0, i % 4 == 0 ? 0.01 : 1000.0));
+        }
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 1000; i++) {
+                    String account = accounts.get(random.nextInt(accounts.size()));
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            facade.deposit(account, random.nextInt(100) + 1);
+                            break;
+                        case 1:
+                            facade.withdraw(account, random.nextInt(150) + 1);
+                            break;
+                        default:
+                            facade.transfer(account, accounts.get(random.nextInt(accounts.size())), random.nextInt(80) + 1);
+                            break;
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(facade.removeAccount(accounts.get(1)));
+
+        assertIndexMatches(facade);
+        List<BalanceEntry> top = facade.getTopBalances(10);
+        assertEquals(10, top.size());
+        assertTrue(top.get(0).getBalance() >= top.get(9).getBalance());
+    }
+
+    @Test
+    void testEventSourcedModeAndRangeBounds() throws Exception {
+        try (EventStore store = new EventStore(directory, 0)) {
+            BankingFacade facade = new BankingFacade(store);
+            String deep = facade.createAccount(AccountType.CHECKING, "Deep", 0.0, 5000.0);
+            String shallow = facade.createAccount(AccountType.CHECKING, "Shallow", 0.0, 5000.0);
+            String rich = facade.createAccount(AccountType.SAVINGS, "Rich", 10_000.0, 0.01);
+            assertTrue(facade.withdraw(deep, 3000.0));
+            assertTrue(facade.withdraw(shallow, 1000.0));
+
+            List<BalanceEntry> below = facade.getAccountsBelow(-1000.0, 10);
+            assertEquals(1, below.size());
+            assertEquals(deep, below.get(0).getAccountNumber());
+            assertEquals(2, facade.getAccountsBelow(-999.99, 10).size());
+            List<BalanceEntry> range = facade.getAccountsInBalanceRange(-1000.0, 10_000.0, 10);
+            assertEquals(shallow, range.get(0).getAccountNumber());
+            assertEquals(rich, range.get(1).getAccountNumber());
+            assertEquals(rich, facade.getTopBalances(1).get(0).getAccountNumber());
+
+            assertTrue(facade.removeAccount(deep));
+            assertTrue(facade.getAccountsBelow(-1000.0, 10).isEmpty());
+            assertIndexMatches(facade);
+        }
+    }
+
+    /**
+     * Compara o índice com a ordenação de todas as contas pelo saldo atual.
+     */
+    private static void assertIndexMatches(BankingFacade facade) {
+        List<Account> sorted = facade.getAllAccounts().values().stream()
+                .sorted(Comparator.comparingDouble(Account::getBalance).thenComparing(Account::getAccountNumber))
+                .collect(Collectors.toList());
+        List<BalanceEntry> indexed = facade.getAccountsInBalanceRange(-Double.MAX_VALUE, Double.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(sorted.size(), indexed.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertSame(sorted.get(i), indexed.get(i).getAccount());
+            assertEquals(sorted.get(i).getBalance(), indexed.get(i).getBalance());
+        }
+        double threshold = -50.0;
+        long expectedBelow = sorted.stream().filter(account -> account.getBalance() < threshold).count();
+        assertEquals(expectedBelow, facade.getAccountsBelow(threshold, Integer.MAX_VALUE).size());
+    }
+}
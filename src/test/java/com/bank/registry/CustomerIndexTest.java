@@ -0,0 +1,142 @@
+package com.bank.registry;
+
+import com.bank.account.AccountType;
+import com.bank.account.CheckingAccount;
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code CustomerIndex}.
+ * Verifica a normalização dos nomes, as buscas exata, por prefixo e aproximada e a
+ * atualização do índice pelo registro de contas.
+ */
+public class CustomerIndexTest {
+
+    @Test
+    void testExactPrefixAndFuzzyLookups() {
+        BankingFacade facade = new BankingFacade();
+        String alice = facade.createAccount(AccountType.CHECKING, "Alice Smith", 100.0, 0.0);
+        String aliceSavings = facade.createAccount(AccountType.SAVINGS, "  alice   SMITH ", 10.0, 0.01);
+        String alicia = facade.createAccount(AccountType.CHECKING, "Alícia Souza", 10.0, 0.0);
+        facade.createAccount(AccountType.CHECKING, "Bob Stone", 10.0, 0.0);
+        for (int i = 0; i < 1000; i++) {
+            facade.createAccount(AccountType.CHECKING, "Customer " + i, 1.0, 0.0);
+        }
+
+        assertEquals(Arrays.asList(alice, aliceSavings), facade.findAccountsByCustomer("ALICE SMITH"));
+        assertEquals(Collections.singletonList(alicia), facade.findAccountsByCustomer("alicia souza"));
+        assertTrue(facade.findAccountsByCustomer("Alice").isEmpty());
+
+        List<CustomerMatch> prefix = facade.searchCustomers("Ali", 10);
+        assertEquals(2, prefix.size());
+        assertEquals("Alice Smith", prefix.get(0).getCustomerName());
+        assertEquals(2, prefix.get(0).getAccountNumbers().size());
+        assertEquals("Alícia Souza", prefix.get(1).getCustomerName());
+        assertEquals(10, facade.searchCustomers("customer 1", 10).size());
+
+        List<CustomerMatch> fuzzy = facade.searchCustomersFuzzy("Alcie Smtih", 4, 5);
+        assertEquals("Alice Smith", fuzzy.get(0).getCustomerName());
+        assertEquals(4, fuzzy.get(0).getDistance());
+        List<CustomerMatch> typo = facade.searchCustomersFuzzy("Bob Stoen", 2, 5);
+        assertEquals(1, typo.size());
+        assertEquals("Bob Stone", typo.get(0).getCustomerName());
+        List<CustomerMatch> near = facade.searchCustomersFuzzy("Customer 12", 1, 3);
+        assertEquals("Customer 12", near.get(0).getCustomerName());
+        assertEquals(0, near.get(0).getDistance());
+        assertEquals(1, near.get(1).getDistance());
+        assertTrue(facade.searchCustomersFuzzy("Zed", 1, 5).isEmpty());
+    }
+
+    @Test
+    void testFuzzyLimitKeepsTheClosestNamesInOrder() {
+        AccountRegistry registry = new AccountRegistry();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String name = "cust" + Integer.toString(i * 7919 % 1000, 36);
+            names.add(name);
+            registry.put("F" + i, new CheckingAccount("F" + i, name, 0.0, 0.0));
+        }
+        CustomerIndex index = registry.getCustomerIndex();
+        for (String term : new String[] {"cust1", "custa", "cust2z", "cuts", "xyz"}) {
+            for (int distance = 0; distance <= 3; distance++) {
+                for (int limit : new int[] {1, 3, 10, 1000}) {
+                    List<String> expected = bruteForce(names, term, distance, limit);
+                    List<String> found = new ArrayList<>();
+                    for (CustomerMatch match : index.findFuzzy(term, distance, limit)) {
+                        found.add(match.getCustomerName() + "/" + match.getDistance());
+                    }
+                    assertEquals(expected, found, term + " " + distance + " " + limit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resultado esperado da busca aproximada, calculando a distância de cada nome distinto.
+     */
+    private static List<String> bruteForce(List<String> names, String term, int maxDistance, int limit) {
+        List<String[]> matches = new ArrayList<>();
+        for (String name : new TreeSet<>(names)) {
+            int distance = levenshtein(term, name);
+            if (distance <= maxDistance) {
+                matches.add(new String[] {name, Integer.toString(distance)});
+            }
+        }
+        matches.sort(Comparator.<String[]>comparingInt(match -> Integer.parseInt(match[1])).thenComparing(match -> match[0]));
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, matches.size()); i++) {
+            result.add(matches.get(i)[0] + "/" + matches.get(i)[1]);
+        }
+        return result;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(diagonal + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1), Math.min(row[j - 1] + 1, above + 1));
+                diagonal = above;
+            }
+        }
+        return row[b.length()];
+    }
+
+    @Test
+    void testRegistryKeepsIndexInSync() {
+        AccountRegistry registry = new AccountRegistry();
+        CustomerIndex index = registry.getCustomerIndex();
+        registry.put("A1", new CheckingAccount("A1", "Carol King", 0.0, 0.0));
+        registry.put("A2", new CheckingAccount("A2", "Carol King", 0.0, 0.0));
+        registry.put("A3", new CheckingAccount("A3", "Carla", 0.0, 0.0));
+        assertEquals(2, index.size());
+
+        registry.put("A1", new CheckingAccount("A1", "Caroline", 0.0, 0.0));
+        assertEquals(Collections.singletonList("A2"), index.findExact("carol king"));
+        assertEquals(Collections.singletonList("A1"), index.findExact("Caroline"));
+
+        registry.remove("A2");
+        registry.remove("A3");
+        assertTrue(index.findExact("Carol King").isEmpty());
+        assertEquals(1, index.size());
+        assertEquals(1, index.findByPrefix("car", 10).size());
+
+        registry.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.findByPrefix("", 10).isEmpty());
+    }
+}
@@ -0,0 +1,159 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.account.CheckingAccount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code PersistentHashMap} e {@code AccountRegistry}.
+ * Compara o mapa com um HashMap sob operações aleatórias e verifica a imutabilidade dos
+ * snapshots e a concorrência das escritas no registro.
+ */
+public class PersistentHashMapTest {
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 50_000; i++) {
+            // Chaves com hashes próximos e distantes, para exercitar vários níveis da trie
+            int key = random.nextBoolean() ? random.nextInt(2000) : random.nextInt() << 5;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected, map);
+        assertEquals(expected, new HashMap<>(map));
+        int[] visited = new int[1];
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+
+    @Test
+    void testCollidingKeysAndSnapshotImmutability() {
+        // "Aa" e "BB" têm o mesmo hashCode
+        PersistentHashMap<String, String> first = PersistentHashMap.<String, String>empty().plus("Aa", "1").plus("BB", "2");
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        PersistentHashMap<String, String> second = first.plus("AaAa", "3").plus("BBBB", "4").plus("Aa", "5");
+        PersistentHashMap<String, String> third = second.minus("BB").minus("AaAa").minus("missing");
+
+        assertEquals(2, first.size());
+        assertEquals("1", first.get("Aa"));
+        assertEquals("2", first.get("BB"));
+        assertFalse(first.containsKey("AaAa"));
+        assertEquals(4, second.size());
+        assertEquals("5", second.get("Aa"));
+        assertEquals(2, third.size());
+        assertNull(third.get("BB"));
+        assertEquals("4", third.get("BBBB"));
+        assertSame(third, third.minus("missing"));
+        assertSame(third, third.plus("Aa", "5"));
+        assertTrue(third.minus("Aa").minus("BBBB").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> first.put("x", "y"));
+        assertThrows(UnsupportedOperationException.class, () -> first.entrySet().iterator().next().setValue("x"));
+    }
+
+    @Test
+    void testSpliteratorSplitsEvenlyAndCoversAllEntries() {
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            map = map.plus(i, i);
+        }
+        // Divide recursivamente em 16 partes e confere a cobertura e o equilíbrio
+        List<Spliterator<Integer>> parts = new ArrayList<>();
+        parts.add(map.valueSpliterator());
+        while (parts.size() < 16) {
+            List<Spliterator<Integer>> next = new ArrayList<>();
+            for (Spliterator<Integer> part : parts) {
+                Spliterator<Integer> prefix = part.trySplit();
+                assertNotNull(prefix);
+                next.add(prefix);
+                next.add(part);
+            }
+            parts = next;
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (Spliterator<Integer> part : parts) {
+            int[] count = new int[1];
+            assertTrue(part.tryAdvance(value -> {
+                assertTrue(seen.add(value));
+                count[0]++;
+            }));
+            part.forEachRemaining(value -> {
+                assertTrue(seen.add(value));
+                count[0]++;
+            });
+            assertTrue(count[0] > 100_000 / 16 / 2 && count[0] < 100_000 / 16 * 2, "unbalanced part: " + count[0]);
+        }
+        assertEquals(100_000, seen.size());
+        assertEquals(map.size(), map.entrySet().parallelStream().count());
+        assertEquals(4_999_950_000L, map.values().parallelStream().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    void testRegistrySnapshotIsStableUnderConcurrentWrites() throws Exception {
+        AccountRegistry registry = new AccountRegistry();
+        for (int i = 0; i < 1000; i++) {
+            registry.put("ACC" + i, new CheckingAccount("ACC" + i, "Customer", 0.0, 0.0));
+        }
+        Map<String, Account> snapshot = registry.snapshot();
+        Set<String> before = new HashSet<>(snapshot.keySet());
+
+        // Várias threads disputam as mesmas contas novas: cada uma deve ser criada uma única vez
+        AtomicInteger created = new AtomicInteger();
+        Map<String, Account> winners = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    Account account = new CheckingAccount("NEW" + i, "Customer", 0.0, 0.0);
+                    if (registry.putIfAbsent("NEW" + i, account) == null) {
+                        created.incrementAndGet();
+                        winners.put("NEW" + i, account);
+                    }
+                    registry.remove("ACC" + (i % 1000));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2000, created.get());
+        assertEquals(2000, registry.size());
+        for (Map.Entry<String, Account> winner : winners.entrySet()) {
+            assertSame(winner.getValue(), registry.get(winner.getKey()));
+        }
+        assertEquals(1000, snapshot.size());
+        assertEquals(before, snapshot.keySet());
+        assertTrue(registry.snapshot().keySet().stream().allMatch(number -> number.startsWith("NEW")));
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.registry;
+
+import com.bank.account.Account;
+import com.bank.account.AccountType;
+import com.bank.account.CheckingAccount;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionLogger;
+import com.bank.logger.TransactionRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code RecentTransactionsIndex}.
+ * Verifica o buffer circular de cada conta e a consulta da Facade, que recorre ao log quando o
+ * buffer não tem a quantidade pedida.
+ */
+public class RecentTransactionsIndexTest {
+
+    @Test
+    void testRingKeepsTheNewestTransactions() {
+        RecentTransactionsIndex index = new RecentTransactionsIndex(4);
+        Map<String, Account> registry = new HashMap<>();
+        CheckingAccount account = new CheckingAccount("acc", "Alice", 0.0, 0.0);
+        registry.put("acc", account);
+        index.update("acc", null, registry);
+
+        for (int i = 1; i <= 10; i++) {
+            account.deposit(i);
+        }
+        assertEquals(4, index.count("acc"));
+        List<TransactionRecord> latest = index.latest("acc", 10);
+        assertEquals(4, latest.size());
+        assertEquals(10.0, latest.get(0).getAmount());
+        assertEquals(55.0, latest.get(0).getNewBalance());
+        assertEquals(7.0, latest.get(3).getAmount());
+        assertEquals("Deposit", latest.get(0).getType());
+        assertEquals("deposit", latest.get(0).getEvent());
+
+        // A conta removida do registro deixa de ser observada
+        registry.remove("acc");
+        index.update("acc", account, registry);
+        account.deposit(1);
+        assertEquals(0, index.count("acc"));
+        assertTrue(index.latest("acc", 5).isEmpty());
+    }
+
+    @Test
+    void testFacadeAnswersFromMemoryAndFallsBackToTheLog() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        String account = facade.createAccount(AccountType.CHECKING, "Bob", 1000.0, 0.0);
+        for (int i = 1; i <= 30; i++) {
+            if (i % 3 == 0) {
+                facade.withdraw(account, i);
+            } else {
+                facade.deposit(account, i);
+            }
+        }
+
+        List<TransactionRecord> fromMemory = facade.getRecentTransactions(account, 20);
+        List<TransactionRecord> fromLog = TransactionLogger.getInstance().getBalanceHistory().latest(account, 20);
+        assertEquals(20, fromMemory.size());
+        assertEquals(20, fromLog.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(fromLog.get(i).getType(), fromMemory.get(i).getType());
+            assertEquals(fromLog.get(i).getAmount(), fromMemory.get(i).getAmount());
+            assertEquals(fromLog.get(i).getNewBalance(), fromMemory.get(i).getNewBalance());
+        }
+        assertEquals(facade.getBalance(account), fromMemory.get(0).getNewBalance());
+        assertEquals("Withdrawal", fromMemory.get(0).getType());
+
+        // Mais do que o buffer guarda: a consulta lê o log, que inclui a abertura da conta
+        List<TransactionRecord> all = facade.getRecentTransactions(account, 100);
+        assertEquals(31, all.size());
+        assertEquals(BankingFacade.ACCOUNT_CREATED_RECORD, all.get(30).getType());
+        assertEquals(30.0, all.get(0).getAmount());
+    }
+
+    @Test
+    void testNewAccountWithAShortHistoryIsAnsweredFromMemory() throws Exception {
+        BankingFacade facade = new BankingFacade();
+        String account = facade.createAccount(AccountType.CHECKING, "Carol", 50.0, 0.0);
+        for (int i = 1; i <= 5; i++) {
+            facade.deposit(account, i);
+        }
+
+        // O buffer tem a abertura e não deu a volta: responde mesmo com menos que o pedido
+        List<TransactionRecord> fromMemory = facade.getRecentTransactions(account, 20);
+        List<TransactionRecord> fromLog = TransactionLogger.getInstance().getBalanceHistory().latest(account, 20);
+        assertEquals(6, fromMemory.size());
+        assertEquals(6, fromLog.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(fromLog.get(i).getType(), fromMemory.get(i).getType());
+            assertEquals(fromLog.get(i).getAmount(), fromMemory.get(i).getAmount());
+            assertEquals(fromLog.get(i).getNewBalance(), fromMemory.get(i).getNewBalance());
+        }
+        // Só os registros da memória trazem o evento do observador
+        assertEquals("deposit", fromMemory.get(0).getEvent());
+        assertEquals(BankingFacade.ACCOUNT_CREATED_RECORD, fromMemory.get(5).getType());
+
+        // Conta carregada de fora (ex: réplica): o buffer não tem a abertura
+        String restored = "restored-" + account;
+        facade.restoreAccount(restored, AccountType.CHECKING, "Carol", 50.0, 0.0);
+        facade.deposit(restored, 1.0);
+        assertNull(facade.getRecentTransactions(restored, 5).get(0).getEvent());
+
+        // Depois que o buffer dá a volta, o histórico deixa de estar completo
+        RecentTransactionsIndex index = new RecentTransactionsIndex(4);
+        Map<String, Account> registry = new HashMap<>();
+        CheckingAccount created = new CheckingAccount("new", "Dave", 10.0, 0.0);
+        registry.put("new", created);
+        index.update("new", null, registry);
+        index.recordCreation(created, BankingFacade.ACCOUNT_CREATED_RECORD, 10.0);
+        created.deposit(1.0);
+        created.deposit(2.0);
+        assertEquals(3, index.covering("new", 10).size());
+        created.deposit(3.0);
+        assertEquals(4, index.covering("new", 10).size());
+        created.deposit(4.0);
+        assertNull(index.covering("new", 10));
+        assertEquals(2, index.covering("new", 2).size());
+    }
+}
@@ -0,0 +1,186 @@
+package com.bank.replication;
+
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para a replicação por envio do journal ({@code JournalShipper} e
+ * {@code BackupReplica}), inclusive com o primário em outra JVM.
+ */
+public class ReplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for replication");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testReplicaFollowsJournalAndResumesFromItsOffset() throws Exception {
+        Path primaryJournal = directory.resolve("primary.log");
+        Path replicaJournal = directory.resolve("replica.log");
+        String line = "2025-11-01T10:00:00 - Account Created: Account A1, Type: SAVINGS, Parameter: 0.02, "
+                + "Amount: 100.0, New Balance: 100.0, Customer: Silva, Maria\n"
+                + "2025-11-01T10:00:01 - Deposit: Account A1, Amount: 50.0, New Balance: 150.0\n";
+        Files.write(primaryJournal, line.getBytes(StandardCharsets.UTF_8));
+
+        try (JournalShipper shipper = new JournalShipper(primaryJournal, new InetSocketAddress("localhost", 0), 1)) {
+            shipper.start();
+            BankingFacade backup = new BankingFacade();
+            BackupReplica replica = new BackupReplica(backup, replicaJournal, new InetSocketAddress("localhost", shipper.getPort()));
+            replica.start();
+
+            await(() -> backup.accountExists("A1") && backup.getBalance("A1") == 150.0);
+            assertEquals("Silva, Maria", backup.getAccount("A1").getCustomerName());
+            assertEquals("Savings Account", backup.getAccount("A1").getAccountType());
+
+            // Uma linha escrita em duas partes só é aplicada quando completa
+            Files.write(primaryJournal, "2025-11-01T10:00:02 - Withdrawal: Account A1, Amo".getBytes(StandardCharsets.UTF_8),
+                    java.nio.file.StandardOpenOption.APPEND);
+            await(() -> replica.getStatus().getPrimaryOffset() == primaryJournal.toFile().length());
+            assertEquals(150.0, backup.getBalance("A1"));
+            assertTrue(replica.getStatus().getLagBytes() > 0);
+
+            Files.write(primaryJournal, "unt: 30.0, New Balance: 120.0\n".getBytes(StandardCharsets.UTF_8),
+                    java.nio.file.StandardOpenOption.APPEND);
+            await(() -> backup.getBalance("A1") == 120.0);
+            await(() -> replica.getStatus().getLagBytes() == 0);
+            await(() -> !shipper.getReplicaStatuses().isEmpty()
+                    && shipper.getReplicaStatuses().get(0).getLagBytes() == 0);
+            replica.close();
+
+            // Réplica reiniciada: reconstrói o estado pelo journal local e pede só o que falta
+            Files.write(primaryJournal, "2025-11-01T10:00:03 - Deposit: Account A1, Amount: 5.0, New Balance: 125.0\n"
+                    .getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+            BankingFacade restarted = new BankingFacade();
+            BackupReplica second = new BackupReplica(restarted, replicaJournal, new InetSocketAddress("localhost", shipper.getPort()));
+            second.start();
+            assertTrue(restarted.accountExists("A1"));
+            await(() -> restarted.getBalance("A1") == 125.0);
+            second.promote();
+        }
+        assertArrayEquals(Files.readAllBytes(primaryJournal), Files.readAllBytes(replicaJournal));
+    }
+
+    @Test
+    void testShipperRefusesToStartWithLogRotation() throws Exception {
+        System.setProperty("bank.log.segment.bytes", "1048576");
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> new JournalShipper(directory.resolve("primary.log"), new InetSocketAddress("localhost", 0), 1));
+        } finally {
+            System.clearProperty("bank.log.segment.bytes");
+        }
+        new JournalShipper(directory.resolve("primary.log"), new InetSocketAddress("localhost", 0), 1).close();
+    }
+
+    @Test
+    void testFailoverFromPrimaryProcess() throws Exception {
+        Path primaryJournal = directory.resolve("primary-node.log");
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process primary = new ProcessBuilder(Arrays.asList(javaBin, "-Dbank.log.file=" + primaryJournal,
+                "-Dbank.http.executor=fixed", "-cp", System.getProperty("java.class.path"),
+                ReplicationNode.class.getName(), "primary", "0", "0"))
+                .redirectErrorStream(true).start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(primary.getInputStream(), StandardCharsets.UTF_8));
+            int replicationPort = readPort(output, "Replication port: ");
+            int httpPort = readPort(output, "HTTP port: ");
+            Thread drain = new Thread(() -> {
+                try {
+                    while (output.readLine() != null) {
+                        // Descarta a saída do primário
+                    }
+                } catch (IOException ignored) {
+                    // Processo encerrado
+                }
+            });
+            drain.setDaemon(true);
+            drain.start();
+
+            BankingFacade backup = new BankingFacade();
+            BackupReplica replica = new BackupReplica(backup, directory.resolve("backup.log"),
+                    new InetSocketAddress("localhost", replicationPort));
+            replica.start();
+
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + httpPort;
+            String checking = accountNumber(post(client, base + "/accounts",
+                    "{\"type\":\"CHECKING\",\"customerName\":\"Ana\",\"initialBalance\":100,\"parameter\":200}"));
+            String savings = accountNumber(post(client, base + "/accounts",
+                    "{\"type\":\"SAVINGS\",\"customerName\":\"Bruno\",\"initialBalance\":1000,\"parameter\":0.01}"));
+            for (int i = 0; i < 20; i++) {
+                post(client, base + "/accounts/" + checking + "/deposit", "{\"amount\":10}");
+                post(client, base + "/transfers", "{\"from\":\"" + savings + "\",\"to\":\"" + checking + "\",\"amount\":5}");
+            }
+            post(client, base + "/accounts/" + checking + "/withdraw", "{\"amount\":550}");
+
+            await(() -> replica.getStatus().getLagBytes() == 0
+                    && replica.getStatus().getPrimaryOffset() == primaryJournal.toFile().length());
+            assertEquals(-150.0, backup.getBalance(checking), 1e-9);
+            assertEquals(900.0, backup.getBalance(savings), 1e-9);
+            assertArrayEquals(Files.readAllBytes(primaryJournal), Files.readAllBytes(directory.resolve("backup.log")));
+
+            primary.destroyForcibly().waitFor();
+            await(() -> !replica.isPrimaryAlive());
+
+            BankingFacade promoted = replica.promote();
+            assertTrue(promoted.deposit(checking, 150.0));
+            assertEquals(0.0, promoted.getBalance(checking), 1e-9);
+            assertTrue(promoted.transfer(savings, checking, 100.0));
+            assertEquals(800.0, promoted.getBalance(savings), 1e-9);
+        } finally {
+            primary.destroyForcibly();
+        }
+    }
+
+    private static int readPort(BufferedReader output, String prefix) throws IOException {
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                return Integer.parseInt(line.substring(prefix.length()).trim());
+            }
+        }
+        fail("Primary process exited before reporting \"" + prefix + "\"");
+        return -1;
+    }
+
+    private static String post(HttpClient client, String url, String json) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                        .POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 300, response.body());
+        return response.body();
+    }
+
+    private static String accountNumber(String json) {
+        Matcher matcher = Pattern.compile("\"accountNumber\"\\s*:\\s*\"([^\"]+)\"").matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,192 @@
+package com.bank.server;
+
+import com.bank.facade.BankingFacade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code BankingHttpServer}.
+ * Inicia o servidor em uma porta livre e verifica as rotas da API e os códigos de erro.
+ */
+public class BankingHttpServerTest {
+
+    private BankingFacade bankingFacade;
+    private BankingHttpServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bankingFacade = new BankingFacade();
+        server = new BankingHttpServer(bankingFacade, new InetSocketAddress("localhost", 0),
+                BankingHttpServer.createExecutor("fixed", 4));
+        server.start();
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + server.getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String createAccount(String type, String name, double balance, double parameter) throws Exception {
+        HttpResponse<String> response = post("/accounts", "{\"type\":\"" + type + "\",\"customerName\":\"" + name
+                + "\",\"initialBalance\":" + balance + ",\"parameter\":" + parameter + "}");
+        assertEquals(201, response.statusCode(), response.body());
+        return Json.parseObject(response.body()).get("accountNumber");
+    }
+
+    @Test
+    void testCreateAccountAndGetBalance() throws Exception {
+        String accountNumber = createAccount("checking", "Alice", 1000.0, 500.0);
+        assertTrue(bankingFacade.accountExists(accountNumber));
+
+        Map<String, String> account = Json.parseObject(get("/accounts/" + accountNumber).body());
+        assertEquals("Alice", account.get("customerName"));
+        assertEquals("Checking Account", account.get("accountType"));
+        assertEquals(1000.0, Double.parseDouble(account.get("balance")));
+
+        HttpResponse<String> balance = get("/accounts/" + accountNumber + "/balance");
+        assertEquals(200, balance.statusCode());
+        assertEquals(1000.0, Double.parseDouble(Json.parseObject(balance.body()).get("balance")));
+    }
+
+    @Test
+    void testDepositWithdrawAndTransfer() throws Exception {
+        String from = createAccount("SAVINGS", "Bob", 500.0, 0.01);
+        String to = createAccount("CHECKING", "Carol", 100.0, 0.0);
+
+        assertEquals(200, post("/accounts/" + from + "/deposit", "{\"amount\":250.0}").statusCode());
+        assertEquals(200, post("/accounts/" + from + "/withdraw", "{\"amount\":50}").statusCode());
+        assertEquals(700.0, bankingFacade.getBalance(from));
+
+        HttpResponse<String> transfer = post("/transfers", "{\"from\":\"" + from + "\",\"to\":\"" + to + "\",\"amount\":200}");
+        assertEquals(200, transfer.statusCode(), transfer.body());
+        assertEquals(500.0, bankingFacade.getBalance(from));
+        assertEquals(300.0, bankingFacade.getBalance(to));
+
+        HttpResponse<String> rejected = post("/accounts/" + from + "/withdraw", "{\"amount\":10000}");
+        assertEquals(422, rejected.statusCode());
+        assertNotNull(Json.parseObject(rejected.body()).get("error"));
+        assertEquals(500.0, bankingFacade.getBalance(from));
+    }
+
+    @Test
+    void testErrorStatuses() throws Exception {
+        String accountNumber = createAccount("SAVINGS", "Dave", 100.0, 0.01);
+
+        assertEquals(404, get("/accounts/does-not-exist").statusCode());
+        assertEquals(400, post("/accounts/" + accountNumber + "/deposit", "{\"amount\":-5}").statusCode());
+        assertEquals(400, post("/accounts/" + accountNumber + "/deposit", "not json").statusCode());
+        assertEquals(400, post("/accounts", "{\"type\":\"GOLD\",\"customerName\":\"X\",\"initialBalance\":1}").statusCode());
+        String padding = String.join("", Collections.nCopies(BankingHttpServer.MAX_REQUEST_BODY, " "));
+        assertEquals(413, post("/accounts/" + accountNumber + "/deposit", "{\"amount\":1" + padding + "}").statusCode());
+        String large = String.join("", Collections.nCopies(BankingHttpServer.MAX_REQUEST_BODY / 2, " "));
+        assertEquals(200, post("/accounts/" + accountNumber + "/deposit", "{\"amount\":1" + large + "}").statusCode());
+        assertEquals(405, get("/transfers").statusCode());
+        assertEquals(404, post("/transfers", "{\"from\":\"" + accountNumber + "\",\"to\":\"nope\",\"amount\":1}").statusCode());
+        // Os contextos do JDK casam por prefixo; caminhos que só começam com a rota não existem
+        assertEquals(404, post("/accountsX", "{\"type\":\"SAVINGS\",\"customerName\":\"X\",\"initialBalance\":1,\"parameter\":0.01}").statusCode());
+        assertEquals(404, get("/accountsX" + accountNumber).statusCode());
+        assertEquals(404, get("/historyX").statusCode());
+    }
+
+    @Test
+    void testHistoryIsPagedAndFiltered() throws Exception {
+        String accountNumber = createAccount("SAVINGS", "Eve", 100.0, 0.01);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(200, post("/accounts/" + accountNumber + "/deposit", "{\"amount\":" + i + "}").statusCode());
+        }
+
+        HttpResponse<String> response = get("/history?account=" + accountNumber + "&type=Deposit&page=1&size=2");
+        assertEquals(200, response.statusCode(), response.body());
+        String body = response.body();
+        assertTrue(body.contains("\"total\":5"), body);
+        assertTrue(body.contains("\"amount\":3.0"), body);
+        assertTrue(body.contains("\"amount\":4.0"), body);
+        assertFalse(body.contains("\"amount\":5.0"), body);
+
+        assertEquals(400, get("/history?size=0").statusCode());
+    }
+
+    @Test
+    void testOverdraftReportFollowsOperations() throws Exception {
+        String accountNumber = createAccount("CHECKING", "Frank", 100.0, 500.0);
+        assertEquals(200, post("/accounts/" + accountNumber + "/withdraw", "{\"amount\":300}").statusCode());
+
+        // Os modelos de leitura são atualizados de forma assíncrona
+        Map<String, String> report = Json.parseObject(get("/reports/overdraft").body());
+        for (int i = 0; i < 100 && Double.parseDouble(report.get("totalExposure")) != 200.0; i++) {
+            Thread.sleep(20);
+            report = Json.parseObject(get("/reports/overdraft").body());
+        }
+        assertEquals(200.0, Double.parseDouble(report.get("totalExposure")));
+        assertEquals(500.0, Double.parseDouble(report.get("totalLimit")));
+        assertEquals("1", report.get("overdrawnAccounts"));
+        assertEquals(404, get("/reports/customers?name=Nobody").statusCode());
+        assertEquals(200, get("/reports/customers?top=" + BankingHttpServer.MAX_REPORT_ROWS).statusCode());
+        assertEquals(400, get("/reports/customers?top=1000000000").statusCode());
+        assertEquals(400, get("/reports/customers?top=2147483647").statusCode());
+        assertEquals(400, get("/reports/customers?top=0").statusCode());
+
+        String below = get("/reports/balances?below=-100").body();
+        assertTrue(below.contains(accountNumber) && below.contains("-200"), below);
+        assertEquals("{\"accounts\":[]}", get("/reports/balances?min=1&max=1000").body());
+        assertEquals(400, get("/reports/balances?min=1").statusCode());
+    }
+
+    @Test
+    void testCustomerSearch() throws Exception {
+        String alice = createAccount("CHECKING", "Alice Smith", 100.0, 0.0);
+        createAccount("SAVINGS", "Alicia Keys", 100.0, 0.01);
+
+        String prefix = get("/customers/search?q=ali&limit=5").body();
+        assertTrue(prefix.contains("\"Alice Smith\"") && prefix.contains("\"Alicia Keys\""), prefix);
+        String fuzzy = get("/customers/search?q=Alcie%20Smith&mode=fuzzy&distance=2").body();
+        assertTrue(fuzzy.contains(alice) && !fuzzy.contains("Alicia"), fuzzy);
+        assertEquals("{\"customers\":[]}", get("/customers/search?q=Alice&mode=exact").body());
+        assertEquals(400, get("/customers/search").statusCode());
+        assertEquals(400, get("/customers/search?q=ali&mode=fuzzy&distance=50").statusCode());
+        assertEquals(400, get("/customers/search?q=ali&limit=100000").statusCode());
+    }
+
+    @Test
+    void testBalanceAtInstantAndRecentTransactions() throws Exception {
+        String account = createAccount("CHECKING", "Carol", 100.0, 0.0);
+        assertEquals(200, post("/accounts/" + account + "/deposit", "{\"amount\": 50}").statusCode());
+
+        assertTrue(get("/accounts/" + account + "/balance?at=2000-01-01").body().contains("\"balance\":null"));
+        String now = get("/accounts/" + account + "/balance?at=" + LocalDateTime.now().plusSeconds(1)).body();
+        assertTrue(now.contains("\"balance\":150.0"), now);
+        assertEquals(400, get("/accounts/" + account + "/balance?at=yesterday").statusCode());
+
+        String recent = get("/accounts/" + account + "/transactions?limit=1").body();
+        assertTrue(recent.contains("\"type\":\"Deposit\"") && recent.contains("\"newBalance\":150.0"), recent);
+    }
+}
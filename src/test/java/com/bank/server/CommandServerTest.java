@@ -0,0 +1,206 @@
+package com.bank.server;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.PagedTransactionLog;
+import com.bank.logger.TransactionLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code CommandServer} e {@code CommandClient}.
+ * Verifica o pipelining de comandos, a correlação das respostas e os status de erro do
+ * protocolo binário.
+ */
+public class CommandServerTest {
+
+    private BankingFacade bankingFacade;
+    private CommandServer server;
+    private CommandClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bankingFacade = new BankingFacade();
+        server = new CommandServer(bankingFacade, new InetSocketAddress("localhost", 0),
+                BankingHttpServer.createExecutor("fixed", 4));
+        server.start();
+        client = new CommandClient("localhost", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void testPipelinedDepositsAreAllApplied() throws Exception {
+        String accountNumber = bankingFacade.createAccount(AccountType.SAVINGS, "Alice", 0.0, 0.01);
+        client.setAutoFlush(false);
+
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(client.deposit(accountNumber, 2.0));
+        }
+        client.flush();
+
+        Set<Long> correlationIds = new HashSet<>();
+        for (CompletableFuture<CommandResult> result : results) {
+            CommandResult commandResult = result.get(10, TimeUnit.SECONDS);
+            assertTrue(commandResult.isOk(), commandResult.toString());
+            correlationIds.add(commandResult.getCorrelationId());
+        }
+        assertEquals(500, correlationIds.size());
+        assertEquals(1000.0, bankingFacade.getBalance(accountNumber));
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test
+    void testPipelinedCommandsOfAConnectionRunInOrder() throws Exception {
+        String accountNumber = bankingFacade.createAccount(AccountType.SAVINGS, "Erin", 0.0, 0.01);
+        client.setAutoFlush(false);
+
+        // Cada saque só cabe no saldo se o depósito anterior já tiver sido aplicado
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+        List<CompletableFuture<CommandResult>> balances = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(client.deposit(accountNumber, 5.0));
+            results.add(client.withdraw(accountNumber, 5.0));
+            balances.add(client.balance(accountNumber));
+        }
+        client.flush();
+
+        for (CompletableFuture<CommandResult> result : results) {
+            CommandResult commandResult = result.get(10, TimeUnit.SECONDS);
+            assertTrue(commandResult.isOk(), commandResult.toString());
+        }
+        for (CompletableFuture<CommandResult> balance : balances) {
+            assertEquals(0.0, balance.get(10, TimeUnit.SECONDS).getBalance());
+        }
+        assertEquals(0.0, bankingFacade.getBalance(accountNumber));
+    }
+
+    @Test
+    void testWithdrawAndTransfer() throws Exception {
+        String checking = bankingFacade.createAccount(AccountType.CHECKING, "Bob", 100.0, 50.0);
+        String savings = bankingFacade.createAccount(AccountType.SAVINGS, "Carol", 10.0, 0.01);
+
+        CommandResult transfer = client.transfer(checking, savings, 140.0).get(10, TimeUnit.SECONDS);
+        assertTrue(transfer.isOk());
+        assertEquals(-40.0, transfer.getBalance());
+        assertEquals(150.0, bankingFacade.getBalance(savings));
+
+        // O limite de cheque especial (50) impede um novo saque de 20
+        CommandResult rejected = client.withdraw(checking, 20.0).get(10, TimeUnit.SECONDS);
+        assertEquals(CommandResult.Status.REJECTED, rejected.getStatus());
+        assertEquals(-40.0, bankingFacade.getBalance(checking));
+
+        CommandResult withdraw = client.withdraw(savings, 50.0).get(10, TimeUnit.SECONDS);
+        assertTrue(withdraw.isOk());
+        assertEquals(100.0, withdraw.getBalance());
+    }
+
+    @Test
+    void testErrorStatuses() throws Exception {
+        String accountNumber = bankingFacade.createAccount(AccountType.SAVINGS, "Dave", 10.0, 0.01);
+
+        assertEquals(CommandResult.Status.NOT_FOUND, client.deposit("missing", 1.0).get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(CommandResult.Status.NOT_FOUND, client.transfer(accountNumber, "missing", 1.0).get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(CommandResult.Status.BAD_REQUEST, client.deposit(accountNumber, -1.0).get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(10.0, bankingFacade.getBalance(accountNumber));
+    }
+
+    @Test
+    void testReadingStopsWhileResponsesAreNotConsumed() throws Exception {
+        String accountNumber = bankingFacade.createAccount(AccountType.SAVINGS, "Frank", 0.0, 0.01);
+        int requests = 300_000;
+        ByteBuffer frames = ByteBuffer.allocate(requests * (4 + CommandProtocol.HEADER_LENGTH + 2 + accountNumber.length() + 8));
+        for (int i = 0; i < requests; i++) {
+            CommandProtocol.writeAccountRequest(frames, CommandProtocol.OP_DEPOSIT, i, accountNumber, 1.0);
+        }
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", server.getPort()));
+            Thread writer = new Thread(() -> {
+                try {
+                    socket.getOutputStream().write(frames.array(), 0, frames.position());
+                } catch (IOException ignored) {
+                    // Socket fechado pelo teste
+                }
+            });
+            writer.start();
+
+            // Sem ninguém lendo as respostas, o servidor para de ler e de executar
+            double applied;
+            double previous = -1;
+            do {
+                applied = previous;
+                Thread.sleep(300);
+                previous = bankingFacade.getBalance(accountNumber);
+            } while (previous != applied);
+            assertTrue(applied < requests, "Server kept reading without sending responses");
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            for (int i = 0; i < requests; i++) {
+                assertEquals(CommandProtocol.RESPONSE_LENGTH, in.readInt());
+                assertEquals(CommandProtocol.STATUS_OK, in.readByte());
+                in.skipBytes(CommandProtocol.RESPONSE_LENGTH - 1);
+            }
+            writer.join();
+        }
+        assertEquals(requests, bankingFacade.getBalance(accountNumber));
+    }
+
+    @Test
+    void testUnknownOperationIsAnsweredAsBadRequest() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(CommandProtocol.HEADER_LENGTH);
+            out.writeByte(42);
+            out.writeLong(7L);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(CommandProtocol.RESPONSE_LENGTH, in.readInt());
+            assertEquals(CommandProtocol.STATUS_BAD_REQUEST, in.readByte());
+            assertEquals(7L, in.readLong());
+        }
+    }
+
+    @Test
+    void testExportOffsetCoversTheAccountJournalLines() throws Exception {
+        String accountNumber = bankingFacade.createAccount(AccountType.CHECKING, "Frank", 10.0, 100.0);
+        assertTrue(client.deposit(accountNumber, 5.5).get(10, TimeUnit.SECONDS).isOk());
+
+        CommandResult exported = client.export(accountNumber).get(10, TimeUnit.SECONDS);
+        assertTrue(exported.isOk(), exported.toString());
+        assertEquals(15.5, exported.getBalance());
+        long offset = Long.parseLong(exported.getDetail().split("\t", 4)[2]);
+        Path log = TransactionLogger.getInstance().getLogFile();
+        assertTrue(offset <= PagedTransactionLog.logicalEnd(log));
+        // A entrada do depósito termina até o offset exportado
+        byte[] journal = Files.readAllBytes(log);
+        String covered = new String(journal, 0, (int) Math.min(offset, journal.length), StandardCharsets.UTF_8);
+        assertTrue(covered.contains("Deposit: Account " + accountNumber + ", Amount: 5.5, New Balance: 15.5\n"));
+    }
+}
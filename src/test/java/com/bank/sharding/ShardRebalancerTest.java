@@ -0,0 +1,185 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.logger.TransactionLogger;
+import com.bank.replication.JournalShipper;
+import com.bank.server.BankingHttpServer;
+import com.bank.server.CommandResult;
+import com.bank.server.CommandServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code ShardRebalancer}.
+ * Usa nós na mesma JVM: todos gravam no mesmo journal (o do {@code TransactionLogger}), servido
+ * por um único {@code JournalShipper}; como os números de conta são únicos, o leitor do journal
+ * de cada origem só aplica as entradas das contas em movimento.
+ */
+public class ShardRebalancerTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<BankingFacade> facades = new ArrayList<>();
+    private final List<CommandServer> servers = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+    private final Map<InetSocketAddress, InetSocketAddress> journalAddresses = new HashMap<>();
+    private JournalShipper shipper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        shipper = new JournalShipper(TransactionLogger.getInstance().getLogFile(), new InetSocketAddress("localhost", 0), 1);
+        shipper.start();
+        for (int i = 0; i < 3; i++) {
+            BankingFacade facade = new BankingFacade();
+            CommandServer server = new CommandServer(facade, new InetSocketAddress("localhost", 0),
+                    BankingHttpServer.createExecutor("fixed", 2));
+            server.start();
+            facades.add(facade);
+            servers.add(server);
+            InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+            addresses.add(address);
+            journalAddresses.put(address, new InetSocketAddress("localhost", shipper.getPort()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (CommandServer server : servers) {
+            server.close();
+        }
+        shipper.close();
+    }
+
+    @Test
+    void testMigrationUnderLoadKeepsEveryOperation() throws Exception {
+        try (ShardRouter router = new ShardRouter(addresses.subList(0, 2), directory.resolve("coordinator.log"))) {
+            List<String> accounts = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                accounts.add(router.createAccount(i % 2 == 0 ? AccountType.CHECKING : AccountType.SAVINGS,
+                        "Customer " + i, 1000.0, i % 2 == 0 ? 500.0 : 0.01));
+            }
+
+            // Carga contínua: depósitos, saques, transferências e novas contas durante a migração
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong netDeposits = new AtomicLong();
+            List<String> createdDuringMigration = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            Thread load = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<CompletableFuture<CommandResult>> pending = new ArrayList<>();
+                try {
+                    while (running.get()) {
+                        String account = accounts.get(random.nextInt(accounts.size()));
+                        int op = random.nextInt(20);
+                        if (op == 0) {
+                            createdDuringMigration.add(router.createAccount(AccountType.CHECKING, "Late", 50.0, 0.0));
+                        } else if (op < 4) {
+                            pending.add(router.transfer(account, accounts.get(random.nextInt(accounts.size())), 1.0));
+                        } else if (op < 6) {
+                            pending.add(router.withdraw(account, 1.0).thenApply(r -> {
+                                if (r.isOk()) {
+                                    netDeposits.addAndGet(-1);
+                                }
+                                return r;
+                            }));
+                        } else {
+                            pending.add(router.deposit(account, 1.0).thenApply(r -> {
+                                if (r.isOk()) {
+                                    netDeposits.addAndGet(1);
+                                }
+                                return r;
+                            }));
+                        }
+                        if (pending.size() >= 32) {
+                            for (CompletableFuture<CommandResult> result : pending) {
+                                assertNotEquals(CommandResult.Status.NOT_FOUND, result.get().getStatus());
+                            }
+                            pending.clear();
+                        }
+                    }
+                    for (CompletableFuture<CommandResult> result : pending) {
+                        assertNotEquals(CommandResult.Status.NOT_FOUND, result.get().getStatus());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            load.start();
+            Thread.sleep(200);
+
+            MigrationReport report = new ShardRebalancer(router, journalAddresses, 16).addNode(addresses.get(2));
+            Thread.sleep(200);
+            running.set(false);
+            load.join();
+            assertTrue(failures.isEmpty(), () -> "Load failed: " + failures.get(0));
+
+            assertTrue(report.getAccountsMoved() > 30, "About a third of the accounts should move: " + report);
+            assertEquals(0, report.getMismatches());
+            assertTrue(report.getMaxPauseNanos() > 0);
+
+            double total = 0;
+            List<String> all = new ArrayList<>(accounts);
+            all.addAll(createdDuringMigration);
+            int stored = 0;
+            for (BankingFacade facade : facades) {
+                stored += facade.getTotalAccountsCount();
+            }
+            assertEquals(all.size(), stored);
+            for (String account : all) {
+                int owner = router.getNodeIndex(account);
+                for (int node = 0; node < 3; node++) {
+                    assertEquals(node == owner, facades.get(node).accountExists(account), "Account must live only on its owner");
+                }
+                CommandResult balance = router.getBalance(account).get();
+                assertTrue(balance.isOk());
+                total += balance.getBalance();
+            }
+            assertEquals(accounts.size() * 1000.0 + createdDuringMigration.size() * 50.0 + netDeposits.get(), total, 1e-6);
+            for (BankingFacade facade : facades) {
+                assertEquals(0, facade.getPreparedTransferCount());
+            }
+        }
+    }
+
+    @Test
+    void testAccountsMovedToNewNodeAreServedByIt() throws Exception {
+        try (ShardRouter router = new ShardRouter(addresses.subList(0, 1), directory.resolve("coordinator.log"))) {
+            List<String> accounts = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                accounts.add(router.createAccount(AccountType.CHECKING, "Solo " + i, 100.0 + i, 200.0));
+            }
+            // Saldo negativo dentro do cheque especial também é copiado
+            assertTrue(router.withdraw(accounts.get(0), 250.0).get().isOk());
+
+            MigrationReport report = new ShardRebalancer(router, journalAddresses, 8).addNode(addresses.get(1));
+            assertEquals(2, router.getNodeCount());
+            assertEquals(report.getAccountsMoved(), facades.get(1).getTotalAccountsCount());
+            assertEquals(accounts.size() - report.getAccountsMoved(), facades.get(0).getTotalAccountsCount());
+            for (int i = 0; i < accounts.size(); i++) {
+                String account = accounts.get(i);
+                BankingFacade owner = facades.get(router.getNodeIndex(account));
+                assertEquals(i == 0 ? -150.0 : 100.0 + i, owner.getBalance(account));
+                assertEquals("Solo " + i, owner.getAccount(account).getCustomerName());
+                assertTrue(router.deposit(account, 1.0).get().isOk());
+            }
+        }
+    }
+}
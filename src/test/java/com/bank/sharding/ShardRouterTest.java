@@ -0,0 +1,217 @@
+package com.bank.sharding;
+
+import com.bank.account.AccountType;
+import com.bank.facade.BankingFacade;
+import com.bank.server.BankingHttpServer;
+import com.bank.server.CommandResult;
+import com.bank.server.CommandServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de teste para {@code ShardRouter}.
+ * Usa três nós na mesma JVM (um {@code CommandServer} por {@code BankingFacade}) e, no último
+ * teste, nós em processos separados ({@code LocalShardCluster}).
+ */
+public class ShardRouterTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<BankingFacade> facades = new ArrayList<>();
+    private final List<CommandServer> servers = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            BankingFacade facade = new BankingFacade();
+            CommandServer server = new CommandServer(facade, new InetSocketAddress("localhost", 0),
+                    BankingHttpServer.createExecutor("fixed", 2));
+            server.start();
+            facades.add(facade);
+            servers.add(server);
+            addresses.add(new InetSocketAddress("localhost", server.getPort()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (CommandServer server : servers) {
+            server.close();
+        }
+    }
+
+    /**
+     * Cria contas até obter uma em um nó diferente do da conta informada.
+     */
+    private static String accountOnOtherNode(ShardRouter router, String other, AccountType type, double balance) throws IOException {
+        while (true) {
+            String account = router.createAccount(type, "Other", balance, 0.0);
+            if (router.getNodeIndex(account) != router.getNodeIndex(other)) {
+                return account;
+            }
+        }
+    }
+
+    @Test
+    void testAccountsAreSpreadAcrossNodes() throws Exception {
+        try (ShardRouter router = new ShardRouter(addresses, directory.resolve("coordinator.log"))) {
+            for (int i = 0; i < 60; i++) {
+                String account = router.createAccount(AccountType.CHECKING, "Customer " + i, 10.0, 100.0);
+                assertTrue(facades.get(router.getNodeIndex(account)).accountExists(account));
+            }
+            for (BankingFacade facade : facades) {
+                assertTrue(facade.getTotalAccountsCount() > 5, "Every node should own part of the accounts");
+            }
+        }
+    }
+
+    @Test
+    void testCrossNodeTransferCommitsAndAborts() throws Exception {
+        try (ShardRouter router = new ShardRouter(addresses, directory.resolve("coordinator.log"))) {
+            String savings = router.createAccount(AccountType.SAVINGS, "Ana", 500.0, 0.01);
+            String checking = accountOnOtherNode(router, savings, AccountType.CHECKING, 100.0);
+
+            CommandResult committed = router.transfer(savings, checking, 200.0).get();
+            assertTrue(committed.isOk());
+            assertEquals(300.0, committed.getBalance());
+            assertEquals(300.0, router.getBalance(savings).get().getBalance());
+            assertEquals(300.0, router.getBalance(checking).get().getBalance());
+            assertEquals(1, router.getCrossShardTransferCount());
+
+            // Saldo insuficiente na origem: o débito é recusado e nada muda no destino
+            CommandResult rejected = router.transfer(savings, checking, 1000.0).get();
+            assertEquals(CommandResult.Status.REJECTED, rejected.getStatus());
+            assertEquals(300.0, router.getBalance(checking).get().getBalance());
+
+            // Destino inexistente: o débito reservado é devolvido
+            String missing = "missing-account";
+            while (router.getNodeIndex(missing) == router.getNodeIndex(savings)) {
+                missing += "x";
+            }
+            CommandResult notFound = router.transfer(savings, missing, 50.0).get();
+            assertEquals(CommandResult.Status.NOT_FOUND, notFound.getStatus());
+            assertEquals(300.0, router.getBalance(savings).get().getBalance());
+
+            for (BankingFacade facade : facades) {
+                assertEquals(0, facade.getPreparedTransferCount());
+            }
+        }
+    }
+
+    @Test
+    void testRecoveryResolvesInDoubtTransfers() throws Exception {
+        Path log = directory.resolve("coordinator.log");
+        String source;
+        String destination;
+        try (ShardRouter router = new ShardRouter(addresses, log)) {
+            source = router.createAccount(AccountType.CHECKING, "Source", 1000.0, 0.0);
+            destination = accountOnOtherNode(router, source, AccountType.CHECKING, 0.0);
+        }
+        BankingFacade sourceNode = facades.get(0);
+        BankingFacade destinationNode = facades.get(0);
+        for (BankingFacade facade : facades) {
+            if (facade.accountExists(source)) {
+                sourceNode = facade;
+            }
+            if (facade.accountExists(destination)) {
+                destinationNode = facade;
+            }
+        }
+
+        // Simula um coordenador que caiu: "t1" sem decisão, "t2" com COMMIT gravado mas não enviado
+        assertTrue(sourceNode.prepareTransfer("t1", source, -100.0));
+        assertTrue(destinationNode.prepareTransfer("t1", destination, 100.0));
+        assertTrue(sourceNode.prepareTransfer("t2", source, -250.0));
+        assertTrue(destinationNode.prepareTransfer("t2", destination, 250.0));
+        assertEquals(650.0, sourceNode.getBalance(source));
+        Files.write(log, ("BEGIN\tt1\t" + source + "\t" + destination + "\t100.0\n"
+                + "BEGIN\tt2\t" + source + "\t" + destination + "\t250.0\n"
+                + "COMMIT\tt2\n"
+                + "BEGIN\tt3\t" + source).getBytes(StandardCharsets.UTF_8));
+
+        try (ShardRouter router = new ShardRouter(addresses, log)) {
+            assertEquals(750.0, router.getBalance(source).get().getBalance());
+            assertEquals(250.0, router.getBalance(destination).get().getBalance());
+            assertEquals(0, router.recover());
+        }
+        assertEquals(0, sourceNode.getPreparedTransferCount());
+        assertEquals(0, destinationNode.getPreparedTransferCount());
+        assertEquals(0, Files.size(log));
+        // Uma reserva atrasada de uma transferência já abortada é recusada
+        assertFalse(sourceNode.prepareTransfer("t1", source, -100.0));
+    }
+
+    @Test
+    void testUndeliveredDecisionIsRetriedWhileRunning() throws Exception {
+        Path log = directory.resolve("coordinator.log");
+        String source;
+        String destination;
+        try (ShardRouter router = new ShardRouter(addresses, log)) {
+            source = router.createAccount(AccountType.CHECKING, "Source", 500.0, 0.0);
+            destination = accountOnOtherNode(router, source, AccountType.CHECKING, 0.0);
+        }
+        BankingFacade sourceNode = null;
+        BankingFacade destinationNode = null;
+        for (BankingFacade facade : facades) {
+            if (facade.accountExists(source)) {
+                sourceNode = facade;
+            }
+            if (facade.accountExists(destination)) {
+                destinationNode = facade;
+            }
+        }
+
+        // COMMIT gravado de uma transferência que os nós ainda não conhecem: não pode virar END
+        Files.write(log, ("BEGIN\tt5\t" + source + "\t" + destination + "\t40.0\n"
+                + "COMMIT\tt5\n").getBytes(StandardCharsets.UTF_8));
+        try (ShardRouter router = new ShardRouter(addresses, log)) {
+            assertEquals(1, router.getUndeliveredDecisionCount());
+            assertFalse(destinationNode.commitTransfer("unknown-transfer"));
+
+            // Quando os nós passam a conhecê-la, o reenvio periódico conclui a decisão
+            assertTrue(sourceNode.prepareTransfer("t5", source, -40.0));
+            assertTrue(destinationNode.prepareTransfer("t5", destination, 40.0));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(ShardRouter.RETRY_SECONDS * 4);
+            while (router.getUndeliveredDecisionCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(0, router.getUndeliveredDecisionCount());
+            assertEquals(460.0, router.getBalance(source).get().getBalance());
+            assertEquals(40.0, router.getBalance(destination).get().getBalance());
+            assertEquals(0, router.recover());
+        }
+        assertEquals(0, sourceNode.getPreparedTransferCount());
+        assertEquals(0, destinationNode.getPreparedTransferCount());
+    }
+
+    @Test
+    void testRouterOverNodeProcesses() throws Exception {
+        try (LocalShardCluster cluster = new LocalShardCluster(directory, 2);
+             ShardRouter router = new ShardRouter(cluster.getAddresses(), directory.resolve("coordinator.log"))) {
+            String first = router.createAccount(AccountType.CHECKING, "Process A", 100.0, 0.0);
+            String second = accountOnOtherNode(router, first, AccountType.CHECKING, 100.0);
+            for (int i = 0; i < 10; i++) {
+                assertTrue(router.transfer(first, second, 5.0).get().isOk());
+                assertTrue(router.deposit(first, 1.0).get().isOk());
+            }
+            assertEquals(60.0, router.getBalance(first).get().getBalance());
+            assertEquals(150.0, router.getBalance(second).get().getBalance());
+            assertTrue(Files.exists(directory.resolve("node-0.log")));
+        }
+    }
+}